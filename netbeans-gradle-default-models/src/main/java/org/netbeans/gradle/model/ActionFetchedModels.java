@@ -2,6 +2,7 @@ package org.netbeans.gradle.model;
 
 import java.io.Serializable;
 import java.util.Collection;
+import java.util.List;
 import org.netbeans.gradle.model.internal.CustomSerializedMap;
 import org.netbeans.gradle.model.util.CollectionUtils;
 
@@ -11,9 +12,11 @@ final class ActionFetchedModels implements Serializable {
     private final CustomSerializedMap buildModels;
     private final ActionFetchedProjectModels defaultProjectModels;
     private final Collection<ActionFetchedProjectModels> otherProjectModels;
+    private final List<BuilderProfile> buildBuilderProfiles;
 
     public ActionFetchedModels(
             CustomSerializedMap buildModels,
+            Collection<BuilderProfile> buildBuilderProfiles,
             ActionFetchedProjectModels defaultProjectModels,
             Collection<ActionFetchedProjectModels> otherProjectModels) {
         if (buildModels == null) throw new NullPointerException("buildModels");
@@ -22,6 +25,11 @@ final class ActionFetchedModels implements Serializable {
         this.buildModels = buildModels;
         this.defaultProjectModels = defaultProjectModels;
         this.otherProjectModels = CollectionUtils.copyNullSafeList(otherProjectModels);
+        this.buildBuilderProfiles = CollectionUtils.copyNullSafeList(buildBuilderProfiles);
+    }
+
+    public List<BuilderProfile> getBuildBuilderProfiles() {
+        return buildBuilderProfiles;
     }
 
     public CustomSerializedMap getBuildModels() {
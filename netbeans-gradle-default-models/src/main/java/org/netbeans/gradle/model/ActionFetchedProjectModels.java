@@ -2,42 +2,52 @@ package org.netbeans.gradle.model;
 
 import java.io.Serializable;
 import java.util.Map;
-import org.netbeans.gradle.model.internal.CustomSerializedMap;
+import org.netbeans.gradle.model.internal.ModelQueryOutput;
 import org.netbeans.gradle.model.util.CollectionUtils;
-import org.netbeans.gradle.model.util.TransferableExceptionWrapper;
+import org.netbeans.gradle.model.util.SerializationCache;
+import org.netbeans.gradle.model.util.SerializationUtils;
 
 final class ActionFetchedProjectModels implements Serializable {
     private static final long serialVersionUID = 1L;
 
     private final GradleMultiProjectDef projectDef;
-    private final CustomSerializedMap projectInfoResults;
+    private final byte[] serializedModelOutput;
     private final Map<Class<?>, Object> toolingModels;
-    private final Throwable issue;
 
+    /**
+     * Creates a new {@code ActionFetchedProjectModels}.
+     *
+     * @param projectDef the project tree of the project. This argument cannot
+     *   be {@code null}.
+     * @param serializedModelOutput the serialized {@link ModelQueryOutput} as
+     *   returned by the model builder. This array is not copied and must not
+     *   be modified after passing it to this constructor. This argument
+     *   cannot be {@code null}.
+     * @param toolingModels the requested tooling models of the project. This
+     *   argument cannot be {@code null}.
+     */
     public ActionFetchedProjectModels(
             GradleMultiProjectDef projectDef,
-            CustomSerializedMap projectInfoResults,
-            Map<Class<?>, Object> toolingModels,
-            Throwable issue) {
+            byte[] serializedModelOutput,
+            Map<Class<?>, Object> toolingModels) {
         if (projectDef == null) throw new NullPointerException("projectDef");
-        if (projectInfoResults == null) throw new NullPointerException("projectInfoResults");
+        if (serializedModelOutput == null) throw new NullPointerException("serializedModelOutput");
 
         this.projectDef = projectDef;
-        this.projectInfoResults = projectInfoResults;
+        this.serializedModelOutput = serializedModelOutput;
         this.toolingModels = CollectionUtils.copyNullSafeHashMap(toolingModels);
-        this.issue = TransferableExceptionWrapper.wrap(issue);
-    }
-
-    public Throwable getIssue() {
-        return issue;
     }
 
     public GradleMultiProjectDef getProjectDef() {
         return projectDef;
     }
 
-    public CustomSerializedMap getProjectInfoResults() {
-        return projectInfoResults;
+    public ModelQueryOutput getModelOutput(SerializationCache cache) {
+        try {
+            return (ModelQueryOutput)SerializationUtils.deserializeObject(serializedModelOutput, cache);
+        } catch (ClassNotFoundException ex) {
+            throw new RuntimeException(ex);
+        }
     }
 
     public Map<Class<?>, Object> getToolingModels() {
@@ -0,0 +1,102 @@
+package org.netbeans.gradle.model;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import org.netbeans.gradle.model.util.CollectionUtils;
+
+/**
+ * Defines the cost of a single invocation of a model builder: the time it
+ * took to run the builder and the number of bytes the builder allocated.
+ * Builders might also report the time spent in notable phases of their work
+ * (e.g., resolving a dependency configuration).
+ * <P>
+ * Instances of this class are immutable and therefore are safe to be shared
+ * across multiple threads.
+ * <P>
+ * The serialized format of this class is not subject to any kind of backward
+ * or forward compatibility.
+ */
+public final class BuilderProfile implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String builderName;
+    private final long wallTimeNanos;
+    private final long allocatedBytes;
+    private final List<BuilderProfile> phases;
+
+    /**
+     * Creates a new {@code BuilderProfile} with the given properties.
+     *
+     * @param builderName the name of the builder as returned by its
+     *   {@code getName()} method. This argument cannot be {@code null}.
+     * @param wallTimeNanos the time in nanoseconds it took to run the builder
+     * @param allocatedBytes the number of bytes allocated by the builder or
+     *   -1 if the allocated bytes could not be measured
+     */
+    public BuilderProfile(String builderName, long wallTimeNanos, long allocatedBytes) {
+        this(builderName, wallTimeNanos, allocatedBytes, Collections.<BuilderProfile>emptyList());
+    }
+
+    /**
+     * Creates a new {@code BuilderProfile} with the given properties.
+     *
+     * @param builderName the name of the builder as returned by its
+     *   {@code getName()} method. This argument cannot be {@code null}.
+     * @param wallTimeNanos the time in nanoseconds it took to run the builder
+     * @param allocatedBytes the number of bytes allocated by the builder or
+     *   -1 if the allocated bytes could not be measured
+     * @param phases the profiles of the phases reported by the builder in the
+     *   order they were reported. This argument cannot be {@code null} and
+     *   cannot contain {@code null} elements.
+     */
+    public BuilderProfile(
+            String builderName,
+            long wallTimeNanos,
+            long allocatedBytes,
+            Collection<BuilderProfile> phases) {
+        if (builderName == null) throw new NullPointerException("builderName");
+
+        this.builderName = builderName;
+        this.wallTimeNanos = wallTimeNanos;
+        this.allocatedBytes = allocatedBytes;
+        this.phases = CollectionUtils.copyNullSafeList(phases);
+    }
+
+    public String getBuilderName() {
+        return builderName;
+    }
+
+    public long getWallTimeNanos() {
+        return wallTimeNanos;
+    }
+
+    /**
+     * Returns the number of bytes allocated by the builder or -1 if the
+     * allocated bytes could not be measured (because the JVM running Gradle
+     * does not support it).
+     *
+     * @return the number of bytes allocated by the builder or -1 if unknown
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Returns the profiles of the phases the builder reported through
+     * {@link org.netbeans.gradle.model.util.BuilderProfiler#recordPhase(String, long) BuilderProfiler.recordPhase}.
+     * The name of the returned profiles is the name of the phase.
+     *
+     * @return the profiles of the phases the builder reported. This method
+     *   never returns {@code null} but might return an empty list.
+     */
+    public List<BuilderProfile> getPhases() {
+        return phases;
+    }
+
+    @Override
+    public String toString() {
+        return "BuilderProfile{" + builderName + ", " + wallTimeNanos / 1000000L + " ms}";
+    }
+}
@@ -1,6 +1,8 @@
 package org.netbeans.gradle.model;
 
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import org.netbeans.gradle.model.util.CollectionUtils;
@@ -9,13 +11,29 @@ public final class FetchedBuildModels implements Serializable {
     private static final long serialVersionUID = 1L;
 
     private final Map<Object, List<BuilderResult>> buildInfoResults;
+    private final List<BuilderProfile> builderProfiles;
 
     public FetchedBuildModels(Map<Object, List<?>> buildInfoResults) {
+        this(buildInfoResults, Collections.<BuilderProfile>emptyList());
+    }
+
+    public FetchedBuildModels(Map<Object, List<?>> buildInfoResults, Collection<BuilderProfile> builderProfiles) {
         this.buildInfoResults = CollectionUtils.copyNullSafeMultiHashMapReified(
                 BuilderResult.class, buildInfoResults);
+        this.builderProfiles = CollectionUtils.copyNullSafeList(builderProfiles);
     }
 
     public Map<Object, List<BuilderResult>> getBuildInfoResults() {
         return buildInfoResults;
     }
+
+    /**
+     * Returns the profile of the build info builders.
+     *
+     * @return the profile of the build info builders. This method never
+     *   returns {@code null}.
+     */
+    public List<BuilderProfile> getBuilderProfiles() {
+        return builderProfiles;
+    }
 }
@@ -1,6 +1,8 @@
 package org.netbeans.gradle.model;
 
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import org.netbeans.gradle.model.util.CollectionUtils;
@@ -13,12 +15,22 @@ public final class FetchedProjectModels implements Serializable {
     private final Map<Object, List<BuilderResult>> projectInfoResults;
     private final Map<Class<?>, Object> toolingModels;
     private final Throwable issue;
+    private final List<BuilderProfile> builderProfiles;
 
     public FetchedProjectModels(
             GradleMultiProjectDef projectDef,
             Map<Object, List<?>> projectInfoResults,
             Map<Class<?>, Object> toolingModels,
             Throwable issue) {
+        this(projectDef, projectInfoResults, toolingModels, issue, Collections.<BuilderProfile>emptyList());
+    }
+
+    public FetchedProjectModels(
+            GradleMultiProjectDef projectDef,
+            Map<Object, List<?>> projectInfoResults,
+            Map<Class<?>, Object> toolingModels,
+            Throwable issue,
+            Collection<BuilderProfile> builderProfiles) {
         if (projectDef == null) throw new NullPointerException("projectDef");
 
         this.projectDef = projectDef;
@@ -27,6 +39,36 @@ public final class FetchedProjectModels implements Serializable {
 
         this.toolingModels = CollectionUtils.copyNullSafeHashMap(toolingModels);
         this.issue = TransferableExceptionWrapper.wrap(issue);
+        this.builderProfiles = CollectionUtils.copyNullSafeList(builderProfiles);
+    }
+
+    private FetchedProjectModels(
+            GradleMultiProjectDef projectDef,
+            Map<Class<?>, Object> toolingModels,
+            Throwable issue,
+            Collection<BuilderProfile> builderProfiles,
+            Map<Object, List<BuilderResult>> projectInfoResults) {
+        if (projectDef == null) throw new NullPointerException("projectDef");
+        if (projectInfoResults == null) throw new NullPointerException("projectInfoResults");
+
+        this.projectDef = projectDef;
+        this.projectInfoResults = projectInfoResults;
+        this.toolingModels = CollectionUtils.copyNullSafeHashMap(toolingModels);
+        this.issue = TransferableExceptionWrapper.wrap(issue);
+        this.builderProfiles = CollectionUtils.copyNullSafeList(builderProfiles);
+    }
+
+    /**
+     * Creates a new {@code FetchedProjectModels} without copying the given
+     * results. This allows the results to be deserialized lazily.
+     */
+    static FetchedProjectModels withLazyResults(
+            GradleMultiProjectDef projectDef,
+            Map<Object, List<BuilderResult>> projectInfoResults,
+            Map<Class<?>, Object> toolingModels,
+            Throwable issue,
+            Collection<BuilderProfile> builderProfiles) {
+        return new FetchedProjectModels(projectDef, toolingModels, issue, builderProfiles, projectInfoResults);
     }
 
     public Throwable getIssue() {
@@ -44,4 +86,16 @@ public final class FetchedProjectModels implements Serializable {
     public Map<Class<?>, Object> getToolingModels() {
         return toolingModels;
     }
+
+    /**
+     * Returns the profile of the project info builders run for this project.
+     * The returned list is empty if the builders were not run because their
+     * results were cached.
+     *
+     * @return the profile of the project info builders run for this project.
+     *   This method never returns {@code null}.
+     */
+    public List<BuilderProfile> getBuilderProfiles() {
+        return builderProfiles;
+    }
 }
@@ -12,6 +12,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -29,6 +30,7 @@ import org.netbeans.gradle.model.internal.ModelQueryInput;
 import org.netbeans.gradle.model.internal.ModelQueryOutput;
 import org.netbeans.gradle.model.internal.ModelQueryOutputRef;
 import org.netbeans.gradle.model.util.BasicFileUtils;
+import org.netbeans.gradle.model.util.BuilderProfiler;
 import org.netbeans.gradle.model.util.BuilderUtils;
 import org.netbeans.gradle.model.util.ClassLoaderUtils;
 import org.netbeans.gradle.model.util.CollectionUtils;
@@ -47,6 +49,8 @@ public final class GenericModelFetcher {
     private static final String DEFAULT_MODEL_INPUT_PREFIX = "model-input";
     private static final String DEFAULT_INIT_SCRIPT_PREFIX = "dyn-model-gradle-init";
 
+    private static final String CONFIGURE_ON_DEMAND_ARG = "--configure-on-demand";
+
     private static volatile String modelInputPrefix = DEFAULT_MODEL_INPUT_PREFIX;
     private static volatile String initScriptPrefix = DEFAULT_INIT_SCRIPT_PREFIX;
 
@@ -86,51 +90,103 @@ public final class GenericModelFetcher {
         GenericModelFetcher.initScriptPrefix = initScriptPrefix;
     }
 
-    private FetchedModelsOrError transformActionModels(ActionFetchedModelsOrError actionModels) {
+    private FetchedModelsOrError transformActionModels(
+            ActionFetchedModelsOrError actionModels,
+            SerializationCache serializationCache) {
         return new FetchedModelsOrError(
-                transformActionModels(actionModels.getModels()),
+                transformActionModels(actionModels.getModels(), serializationCache),
                 actionModels.getBuildScriptEvaluationError(),
                 actionModels.getUnexpectedError());
     }
 
-    private FetchedProjectModels transformActionModels(ActionFetchedProjectModels actionModels) {
+    private FetchedProjectModels transformActionModels(
+            ActionFetchedProjectModels actionModels,
+            SerializationCache serializationCache) {
         GradleMultiProjectDef projectDef = actionModels.getProjectDef();
         Map<Class<?>, Object> toolingModels = actionModels.getToolingModels();
-        Map<Object, List<?>> projectInfoResults = projectInfoBuilders.deserializeResults(
-                actionModels.getProjectInfoResults(),
+
+        // Only the envelope is deserialized here, the results of the builders
+        // are deserialized when they are first requested.
+        ModelQueryOutput modelOutput = actionModels.getModelOutput(serializationCache);
+        Map<Object, List<BuilderResult>> projectInfoResults = projectInfoBuilders.lazyDeserializeResults(
+                modelOutput.getProjectInfoResults(),
+                serializationCache,
                 GradleInfoQueryMap.builderIssueTransformer());
-        Throwable issue = actionModels.getIssue();
 
-        return new FetchedProjectModels(projectDef, projectInfoResults, toolingModels, issue);
+        return FetchedProjectModels.withLazyResults(
+                projectDef,
+                projectInfoResults,
+                toolingModels,
+                modelOutput.getIssue(),
+                modelOutput.getBuilderProfiles());
     }
 
-    private Collection<FetchedProjectModels> transformActionModels(Collection<ActionFetchedProjectModels> actionModels) {
+    private Collection<FetchedProjectModels> transformActionModels(
+            Collection<ActionFetchedProjectModels> actionModels,
+            SerializationCache serializationCache) {
         List<FetchedProjectModels> result = new ArrayList<FetchedProjectModels>(actionModels.size());
         for (ActionFetchedProjectModels entry: actionModels) {
-            result.add(transformActionModels(entry));
+            result.add(transformActionModels(entry, serializationCache));
         }
         return result;
     }
 
-    private FetchedModels transformActionModels(ActionFetchedModels actionModels) {
+    private FetchedModels transformActionModels(
+            ActionFetchedModels actionModels,
+            SerializationCache serializationCache) {
         if (actionModels == null) {
             return null;
         }
 
         Map<Object, List<?>> buildModels = buildInfoBuilders.deserializeResults(
                 actionModels.getBuildModels(),
+                serializationCache,
                 GradleInfoQueryMap.builderIssueTransformer());
         FetchedProjectModels defaultProjectModels
-                = transformActionModels(actionModels.getDefaultProjectModels());
+                = transformActionModels(actionModels.getDefaultProjectModels(), serializationCache);
         Collection<FetchedProjectModels> otherProjectModels
-                = transformActionModels(actionModels.getOtherProjectModels());
+                = transformActionModels(actionModels.getOtherProjectModels(), serializationCache);
 
-        return new FetchedModels(new FetchedBuildModels(buildModels), defaultProjectModels, otherProjectModels);
+        FetchedBuildModels fetchedBuildModels
+                = new FetchedBuildModels(buildModels, actionModels.getBuildBuilderProfiles());
+        return new FetchedModels(fetchedBuildModels, defaultProjectModels, otherProjectModels);
     }
 
     public FetchedModelsOrError getModels(ProjectConnection connection, OperationInitializer init) throws IOException {
+        return getModels(connection, init, false);
+    }
+
+    /**
+     * Fetches the models of the build.
+     * <P>
+     * If {@code requiredProjectsOnly} is {@code true}, the project models are
+     * only fetched for the project of the connection and for the projects it
+     * (transitively) has a project dependency on. In this case, Gradle is also
+     * asked to configure projects on demand, so the other projects of the build
+     * are not even evaluated. The other projects are still part of the returned
+     * project tree but only with the properties known without evaluating them
+     * (e.g., they have no tasks).
+     *
+     * @param connection the connection to the Gradle project whose models are
+     *   to be fetched. This argument cannot be {@code null}.
+     * @param init the initializer of the build operation. This argument cannot
+     *   be {@code null}.
+     * @param requiredProjectsOnly {@code true} if only the models of the
+     *   project of the connection and its project dependencies are needed,
+     *   {@code false} if the models of all the projects of the build are
+     *   needed
+     * @return the fetched models or the error preventing fetching them. This
+     *   method never returns {@code null}.
+     *
+     * @throws IOException thrown if the input of the model builders could not
+     *   be written
+     */
+    public FetchedModelsOrError getModels(
+            ProjectConnection connection,
+            OperationInitializer init,
+            boolean requiredProjectsOnly) throws IOException {
         BuildActionExecuter<ActionFetchedModelsOrError> executer = connection.action(
-                new ModelFetcherBuildAction(buildInfoBuilders, modelClasses));
+                new ModelFetcherBuildAction(buildInfoBuilders, modelClasses, requiredProjectsOnly));
 
         BuildOperationArgs buildOPArgs = new BuildOperationArgs();
         init.initOperation(buildOPArgs);
@@ -140,6 +196,9 @@ public final class GenericModelFetcher {
         if (userArgs == null) {
             userArgs = new String[0];
         }
+        if (requiredProjectsOnly) {
+            userArgs = addArgumentIfMissing(userArgs, CONFIGURE_ON_DEMAND_ARG);
+        }
 
         String initScript = getInitScript();
 
@@ -150,12 +209,16 @@ public final class GenericModelFetcher {
         TemporaryFileManager fileManager = TemporaryFileManager.getDefault();
 
         ModelQueryInput modelInput = new ModelQueryInput(projectInfoBuilders.getSerializableBuilderMap());
-        TemporaryFileRef modelInputFile = fileManager.createFileFromSerialized(modelInputPrefix, modelInput);
+        // The input files are content addressed and are kept after the load,
+        // so that the init script is the same for the same set of builders.
+        // This allows Gradle to reuse the compiled init script and its class
+        // loader in a warm daemon.
+        TemporaryFileRef modelInputFile = fileManager.createPersistentFileFromSerialized(modelInputPrefix, modelInput);
         try {
             initScript = initScript.replace("$INPUT_FILE", toPastableString(modelInputFile.getFile()));
 
             TemporaryFileRef initScriptRef = fileManager
-                    .createFile(initScriptPrefix, initScript, INIT_SCRIPT_ENCODING);
+                    .createPersistentFile(initScriptPrefix, initScript, INIT_SCRIPT_ENCODING);
             try {
                 String[] executerArgs = new String[userArgs.length + 2];
                 System.arraycopy(userArgs, 0, executerArgs, 0, userArgs.length);
@@ -165,7 +228,9 @@ public final class GenericModelFetcher {
 
                 executer.withArguments(executerArgs);
 
-                return transformActionModels(executer.run());
+                // A single cache for the whole load, so that equal values
+                // are shared across every builder and project.
+                return transformActionModels(executer.run(), SerializationCaches.newModelLoadCache());
             } finally {
                 initScriptRef.close();
             }
@@ -174,6 +239,19 @@ public final class GenericModelFetcher {
         }
     }
 
+    private static String[] addArgumentIfMissing(String[] args, String arg) {
+        for (String currentArg: args) {
+            if (arg.equals(currentArg)) {
+                return args;
+            }
+        }
+
+        String[] result = new String[args.length + 1];
+        System.arraycopy(args, 0, result, 0, args.length);
+        result[args.length] = arg;
+        return result;
+    }
+
     private static String toPastableString(File file) {
         return toPastableString(file.getAbsolutePath());
     }
@@ -264,15 +342,19 @@ public final class GenericModelFetcher {
         };
     }
 
-    private static ModelQueryOutput getModelOutput(SerializationCache cache, ModelGetter getter) {
-        byte[] serializedResult = getModel(getter, ModelQueryOutputRef.class)
-                .getSerializedModelQueryOutput();
+    private static ProjectOutput getModelOutput(SerializationCache cache, ModelGetter getter) {
+        ModelQueryOutputRef outputRef = getModel(getter, ModelQueryOutputRef.class);
 
+        ModelQueryOutput.BasicInfo basicInfo;
         try {
-            return (ModelQueryOutput)SerializationUtils.deserializeObject(serializedResult, cache);
+            basicInfo = (ModelQueryOutput.BasicInfo)SerializationUtils.deserializeObject(
+                    outputRef.getSerializedBasicInfo(),
+                    cache);
         } catch (ClassNotFoundException ex) {
             throw new RuntimeException(ex);
         }
+
+        return new ProjectOutput(basicInfo, outputRef.getSerializedModelQueryOutput());
     }
 
     private static final class ModelFetcherBuildAction implements BuildAction<ActionFetchedModelsOrError> {
@@ -281,15 +363,20 @@ public final class GenericModelFetcher {
         // key -> list of BuildInfoBuilder
         private final CustomSerializedMap.Deserializer serializedBuildInfoRequests;
         private final Set<Class<?>> modelClasses;
+        private final boolean requiredProjectsOnly;
 
         public ModelFetcherBuildAction(
                 GradleInfoQueryMap buildInfoRequests,
-                Set<Class<?>> modelClasses) {
+                Set<Class<?>> modelClasses,
+                boolean requiredProjectsOnly) {
             this.serializedBuildInfoRequests = buildInfoRequests.getSerializableBuilderMap();
             this.modelClasses = modelClasses;
+            this.requiredProjectsOnly = requiredProjectsOnly;
         }
 
-        private CustomSerializedMap getBuildInfoResults(BuildController controller) {
+        private CustomSerializedMap getBuildInfoResults(
+                BuildController controller,
+                List<BuilderProfile> builderProfiles) {
             ClassLoader parentClassLoader = getClass().getClassLoader();
             Map<Object, List<?>> buildInfoRequests = serializedBuildInfoRequests.deserialize(SerializationCaches.getDefault(),
                     parentClassLoader,
@@ -308,12 +395,14 @@ public final class GenericModelFetcher {
                     Throwable issue = null;
                     BuildInfoBuilder<?> builder = null;
 
+                    BuilderProfiler profiler = BuilderProfiler.start();
                     try {
                         builder = (BuildInfoBuilder<?>)buildBuilder;
                         info = builder.getInfo(controller);
                     } catch (Throwable ex) {
                         issue = ex;
                     }
+                    builderProfiles.add(profiler.stop(BuilderUtils.getNameOfBuilder(builder)));
 
                     if (info != null || issue != null) {
                         BuilderResult builderResult = new BuilderResult(
@@ -327,13 +416,15 @@ public final class GenericModelFetcher {
         }
 
         public ActionFetchedModels executeUnsafe(EvaluatedBuild evaluatedBuild, BuildController controller) {
-            AllProjectInfoBuilder builder = new AllProjectInfoBuilder(modelClasses, evaluatedBuild);
+            AllProjectInfoBuilder builder
+                    = new AllProjectInfoBuilder(modelClasses, evaluatedBuild, requiredProjectsOnly);
 
             Map<String, ActionFetchedProjectModels> fetchedModels = builder.buildProjectModels(controller);
             ActionFetchedProjectModels defaultModels = fetchedModels.remove(builder.getDefaultProjectPath());
 
-            CustomSerializedMap buildModels = getBuildInfoResults(controller);
-            return new ActionFetchedModels(buildModels, defaultModels, fetchedModels.values());
+            List<BuilderProfile> buildProfiles = new ArrayList<BuilderProfile>();
+            CustomSerializedMap buildModels = getBuildInfoResults(controller, buildProfiles);
+            return new ActionFetchedModels(buildModels, buildProfiles, defaultModels, fetchedModels.values());
         }
 
         public ActionFetchedModelsOrError execute(final BuildController controller) {
@@ -374,36 +465,87 @@ public final class GenericModelFetcher {
     private static final class AllProjectInfoBuilder {
         private final Set<Class<?>> modelClasses;
         private final Map<String, BasicGradleProject> basicInfos;
-        private final Map<String, ModelQueryOutput> customInfos;
+        private final Map<String, ProjectOutput> customInfos;
         private final BasicGradleProject basicRootProject;
         private final String defaultProjectPath;
+        private final boolean requiredProjectsOnly;
 
         private final SerializationCache serializationCache;
 
-        public AllProjectInfoBuilder(Set<Class<?>> modelClasses, EvaluatedBuild evaluatedBuild) {
+        public AllProjectInfoBuilder(
+                Set<Class<?>> modelClasses,
+                EvaluatedBuild evaluatedBuild,
+                boolean requiredProjectsOnly) {
             int projectCount = evaluatedBuild.allProjects.size();
             this.modelClasses = modelClasses;
+            this.requiredProjectsOnly = requiredProjectsOnly;
             this.basicInfos = CollectionUtils.newHashMap(projectCount);
             this.customInfos = CollectionUtils.newHashMap(projectCount);
             this.basicRootProject = evaluatedBuild.buildModel.getRootProject();
             this.serializationCache = SerializationCaches.getDefault();
-            this.defaultProjectPath = addCustomInfo(defaultModelGetter(evaluatedBuild.controller));
+            this.defaultProjectPath = addCustomInfo(defaultModelGetter(evaluatedBuild.controller))
+                    .getBasicInfo()
+                    .getProjectFullName();
 
-            // TODO: If lazy project evaluation is available, review this
-            //   not to force evaluation of unnecessary projects.
+            // Note: Listing the projects does not evaluate them.
             for (BasicGradleProject project: evaluatedBuild.allProjects) {
                 addBasicInfo(project);
             }
         }
 
-        private String addCustomInfo(ModelGetter modelGetter) {
+        private ProjectOutput addCustomInfo(ModelGetter modelGetter) {
             assert serializationCache != null : "serializationCache is null in addCustomInfo";
 
-            ModelQueryOutput customInfo = getModelOutput(serializationCache, modelGetter);
+            ProjectOutput customInfo = getModelOutput(serializationCache, modelGetter);
             String projectPath = customInfo.getBasicInfo().getProjectFullName();
 
             customInfos.put(projectPath, customInfo);
-            return projectPath;
+            return customInfo;
+        }
+
+        private ProjectOutput addCustomInfo(BuildController controller, String projectPath, BasicGradleProject project) {
+            ProjectOutput customInfo = addCustomInfo(projectModelGetter(controller, project));
+            String addedProjectPath = customInfo.getBasicInfo().getProjectFullName();
+
+            if (!projectPath.equals(addedProjectPath)) {
+                throw new IllegalStateException("The path fetched from"
+                        + " the build script is different than provided"
+                        + " by BasicGradleProject. BasicGradleProject.path = " + projectPath
+                        + ". ModelQueryOutput.projectFullName = " + addedProjectPath);
+            }
+            return customInfo;
+        }
+
+        private void addAllCustomInfos(BuildController controller) {
+            for (Map.Entry<String, BasicGradleProject> entry: basicInfos.entrySet()) {
+                String projectPath = entry.getKey();
+                if (!customInfos.containsKey(projectPath)) {
+                    addCustomInfo(controller, projectPath, entry.getValue());
+                }
+            }
+        }
+
+        private void addRequiredCustomInfos(BuildController controller) {
+            // Requesting the model of a project evaluates the project, so we
+            // only request the models of the projects the default project
+            // actually depends on.
+            LinkedList<String> toAdd = new LinkedList<String>(
+                    customInfos.get(defaultProjectPath).getBasicInfo().getProjectDependencies());
+
+            while (!toAdd.isEmpty()) {
+                String projectPath = toAdd.removeFirst();
+                if (customInfos.containsKey(projectPath)) {
+                    continue;
+                }
+
+                BasicGradleProject project = basicInfos.get(projectPath);
+                if (project == null) {
+                    continue;
+                }
+
+                ProjectOutput customInfo = addCustomInfo(controller, projectPath, project);
+                toAdd.addAll(customInfo.getBasicInfo().getProjectDependencies());
+            }
         }
 
         private void addBasicInfo(BasicGradleProject projectRef) {
@@ -416,20 +558,11 @@ public final class GenericModelFetcher {
 
         // Note: We expect the result of this method to be mutable.
         public Map<String, ActionFetchedProjectModels> buildProjectModels(BuildController controller) {
-            for (Map.Entry<String, BasicGradleProject> entry: basicInfos.entrySet()) {
-                String projectPath = entry.getKey();
-
-                if (!customInfos.containsKey(projectPath)) {
-                    String addedProjectPath
-                            = addCustomInfo(projectModelGetter(controller, entry.getValue()));
-
-                    if (!projectPath.equals(addedProjectPath)) {
-                        throw new IllegalStateException("The path fetched from"
-                                + " the build script is different than provided"
-                                + " by BasicGradleProject. BasicGradleProject.path = " + projectPath
-                                + ". ModelQueryOutput.projectFullName = " + addedProjectPath);
-                    }
-                }
+            if (requiredProjectsOnly) {
+                addRequiredCustomInfos(controller);
+            }
+            else {
+                addAllCustomInfos(controller);
             }
 
             Map<String, GradleProjectTree> projectTrees = CollectionUtils.newHashMap(basicInfos.size());
@@ -441,8 +574,14 @@ public final class GenericModelFetcher {
                 parseTrees(controller, project, projectTrees);
             }
 
-            Map<String, ActionFetchedProjectModels> result = CollectionUtils.newHashMap(basicInfos.size());
+            Map<String, ActionFetchedProjectModels> result = CollectionUtils.newHashMap(customInfos.size());
             for (Map.Entry<String, BasicGradleProject> entry: basicInfos.entrySet()) {
+                if (!customInfos.containsKey(entry.getKey())) {
+                    // Not required by the default project, so it was not
+                    // evaluated. Its models are to be loaded when needed.
+                    continue;
+                }
+
                 ActionFetchedProjectModels fetchedModels
                         = getFetchedProjectModels(controller, entry, rootTree, projectTrees);
                 result.put(entry.getKey(), fetchedModels);
@@ -458,7 +597,7 @@ public final class GenericModelFetcher {
 
             String projectPath = entry.getKey();
 
-            ModelQueryOutput modelOutput = customInfos.get(projectPath);
+            ProjectOutput modelOutput = customInfos.get(projectPath);
             if (modelOutput == null) {
                 throw new IllegalStateException("Missing ModelQueryOutput for project " + projectPath);
             }
@@ -487,9 +626,8 @@ public final class GenericModelFetcher {
 
             return new ActionFetchedProjectModels(
                     new GradleMultiProjectDef(rootTree, projectTree),
-                    modelOutput.getProjectInfoResults(),
-                    toolingModels,
-                    modelOutput.getIssue());
+                    modelOutput.getSerializedOutput(),
+                    toolingModels);
         }
 
         private GradleProjectTree parseTrees(
@@ -509,27 +647,68 @@ public final class GenericModelFetcher {
                 children.add(parseTrees(controller, child, trees));
             }
 
-            ModelQueryOutput customInfo = customInfos.get(projectPath);
-            if (customInfo == null) {
+            ProjectOutput customInfo = customInfos.get(projectPath);
+            GradleProjectTree result;
+            if (customInfo != null) {
+                ModelQueryOutput.BasicInfo basicInfo = customInfo.getBasicInfo();
+
+                GenericProjectProperties genericProperties = new GenericProjectProperties(
+                        basicInfo.getProjectId(),
+                        projectPath,
+                        project.getProjectDirectory(),
+                        basicInfo.getBuildScript(),
+                        basicInfo.getBuildDir());
+
+                result = new GradleProjectTree(
+                        genericProperties,
+                        basicInfo.getTasks(),
+                        children);
+            }
+            else if (requiredProjectsOnly) {
+                result = new GradleProjectTree(
+                        unevaluatedProjectProperties(project),
+                        Collections.<GradleTaskID>emptyList(),
+                        children);
+            }
+            else {
                 throw new IllegalStateException("Missing ModelQueryOutput for project " + projectPath);
             }
 
-            ModelQueryOutput.BasicInfo basicInfo = customInfo.getBasicInfo();
+            trees.put(projectPath, result);
+            return result;
+        }
+    }
 
-            GenericProjectProperties genericProperties = new GenericProjectProperties(
-                    basicInfo.getProjectId(),
-                    projectPath,
-                    project.getProjectDirectory(),
-                    basicInfo.getBuildScript(),
-                    basicInfo.getBuildDir());
+    @SuppressWarnings("deprecation")
+    private static GenericProjectProperties unevaluatedProjectProperties(BasicGradleProject project) {
+        // The build script was not evaluated, so it has to be guessed.
+        return new GenericProjectProperties(
+                project.getName(),
+                project.getPath(),
+                project.getProjectDirectory());
+    }
 
-            GradleProjectTree result = new GradleProjectTree(
-                    genericProperties,
-                    basicInfo.getTasks(),
-                    children);
+    /**
+     * Defines the output of the model builders for a single project. The
+     * output is kept in its serialized form, because it is only needed by the
+     * IDE. That is, it is passed through the build action without being
+     * deserialized and serialized again.
+     */
+    private static final class ProjectOutput {
+        private final ModelQueryOutput.BasicInfo basicInfo;
+        private final byte[] serializedOutput;
+
+        public ProjectOutput(ModelQueryOutput.BasicInfo basicInfo, byte[] serializedOutput) {
+            this.basicInfo = basicInfo;
+            this.serializedOutput = serializedOutput;
+        }
 
-            trees.put(projectPath, result);
-            return result;
+        public ModelQueryOutput.BasicInfo getBasicInfo() {
+            return basicInfo;
+        }
+
+        public byte[] getSerializedOutput() {
+            return serializedOutput;
         }
     }
 
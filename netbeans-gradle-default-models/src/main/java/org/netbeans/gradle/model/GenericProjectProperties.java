@@ -59,11 +59,21 @@ public final class GenericProjectProperties implements Serializable {
             return defaultBuildFile;
         }
 
+        File kotlinBuildFile = new File(projectDir, "build.gradle.kts");
+        if (kotlinBuildFile.isFile()) {
+            return kotlinBuildFile;
+        }
+
         File commonBuildFile = new File(projectDir, projectDir.getName() + ".gradle");
         if (commonBuildFile.isFile()) {
             return commonBuildFile;
         }
 
+        File commonKotlinBuildFile = new File(projectDir, projectDir.getName() + ".gradle.kts");
+        if (commonKotlinBuildFile.isFile()) {
+            return commonKotlinBuildFile;
+        }
+
         return defaultBuildFile;
     }
 
@@ -1,12 +1,19 @@
 package org.netbeans.gradle.model;
 
 import java.io.File;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamException;
 import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import org.gradle.tooling.BuildController;
 import org.netbeans.gradle.model.api.GradleInfoQuery;
 import org.netbeans.gradle.model.api.GradleProjectInfoQuery2;
@@ -14,18 +21,16 @@ import org.netbeans.gradle.model.api.ModelClassPathDef;
 import org.netbeans.gradle.model.internal.CustomSerializedMap;
 import org.netbeans.gradle.model.internal.IssueTransformer;
 import org.netbeans.gradle.model.internal.SerializedEntries;
-import org.netbeans.gradle.model.util.ClassLoaderUtils;
+import org.netbeans.gradle.model.util.ClassLoaderCache;
 import org.netbeans.gradle.model.util.CollectionUtils;
 import org.netbeans.gradle.model.util.MultiMapUtils;
 import org.netbeans.gradle.model.util.SerializationCache;
-import org.netbeans.gradle.model.util.SerializationCaches;
 import org.netbeans.gradle.model.util.TransferableExceptionWrapper;
 
 final class GradleInfoQueryMap {
     private final CustomSerializedMap builderMap;
     private final Map<KeyWrapper, ModelClassPathDef> classpath;
     private final Map<KeyWrapper, Throwable> serializationIssues;
-    private final SerializationCache serializationCache;
 
     private GradleInfoQueryMap(
             CustomSerializedMap builderMap,
@@ -33,7 +38,6 @@ final class GradleInfoQueryMap {
             Map<Object, Throwable> serializationIssues) {
         this.builderMap = builderMap;
         this.classpath = classpath;
-        this.serializationCache = SerializationCaches.getDefault();
 
         if (serializationIssues.isEmpty()) {
             this.serializationIssues = Collections.emptyMap();
@@ -116,9 +120,11 @@ final class GradleInfoQueryMap {
 
     public Map<Object, List<?>> deserializeResults(
             CustomSerializedMap map,
+            SerializationCache serializationCache,
             IssueTransformer issueTransformer) {
 
         if (map == null) throw new NullPointerException("map");
+        if (serializationCache == null) throw new NullPointerException("serializationCache");
         if (issueTransformer == null) throw new NullPointerException("issueTransformer");
 
         Map<Object, List<Object>> result = CollectionUtils.newHashMap(map.size());
@@ -144,6 +150,27 @@ final class GradleInfoQueryMap {
         return unsafeCast(result);
     }
 
+    /**
+     * Returns the same results as {@link #deserializeResults(CustomSerializedMap, SerializationCache, IssueTransformer) deserializeResults}
+     * but the results are only deserialized when they are first requested
+     * from the returned map (separately for each key). The values of the map
+     * must be {@link BuilderResult} instances (after transforming the issues).
+     * <P>
+     * Issues deserializing the results are transformed and added to the
+     * results instead of being thrown.
+     */
+    public Map<Object, List<BuilderResult>> lazyDeserializeResults(
+            CustomSerializedMap map,
+            SerializationCache serializationCache,
+            IssueTransformer issueTransformer) {
+
+        if (map == null) throw new NullPointerException("map");
+        if (serializationCache == null) throw new NullPointerException("serializationCache");
+        if (issueTransformer == null) throw new NullPointerException("issueTransformer");
+
+        return new LazyResultsMap(this, map, serializationCache, issueTransformer);
+    }
+
     public static IssueTransformer builderIssueTransformer() {
         return BuilderIssueTransformer.INSTANCE;
     }
@@ -210,37 +237,28 @@ final class GradleInfoQueryMap {
             }
         }
 
-        private ClassLoader getClassLoaderForKey(
-                KeyWrapper key,
-                ClassLoader parent,
-                Map<Set<File>, ClassLoader> cache) {
-
+        private ClassLoader getClassLoaderForKey(KeyWrapper key, ClassLoader parent) {
             Set<File> files = paths.get(key);
             if (files == null || files.isEmpty()) {
                 return parent;
             }
 
-            ClassLoader result = cache.get(files);
-            if (result != null) {
-                return result;
-            }
-
-            result = ClassLoaderUtils.classLoaderFromClassPath(files, parent);
-            cache.put(files, result);
-            return result;
+            // The class loaders are shared by every deserialization (i.e., every
+            // project and every model load in the same daemon), so the classes
+            // of the builders are only loaded once.
+            return ClassLoaderCache.getDefault().getClassLoader(files, parent);
         }
 
         public Map<Object, List<?>> deserialize(
                 SerializationCache serializationCache,
                 ClassLoader parent,
                 IssueTransformer deserializationIssueTransformer) {
-            Map<Set<File>, ClassLoader> cache = new HashMap<Set<File>, ClassLoader>();
             Map<Object, List<?>> result = CollectionUtils.newHashMap(builderMap.size());
 
             for (Map.Entry<Object, SerializedEntries> entry: builderMap.getMap().entrySet()) {
                 KeyWrapper key = (KeyWrapper)entry.getKey();
 
-                ClassLoader classLoader = getClassLoaderForKey(key, parent, cache);
+                ClassLoader classLoader = getClassLoaderForKey(key, parent);
                 List<?> deserializedValues;
                 try {
                     deserializedValues = entry.getValue().getUnserialized(serializationCache, classLoader);
@@ -255,6 +273,154 @@ final class GradleInfoQueryMap {
         }
     }
 
+    private static final class LazyResultsMap
+    extends
+            AbstractMap<Object, List<BuilderResult>>
+    implements
+            Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient GradleInfoQueryMap queryMap;
+        private final transient SerializationCache serializationCache;
+        private final transient IssueTransformer issueTransformer;
+        private final transient Map<Object, List<PendingResult>> pendingResults;
+
+        private final transient Lock decodeLock;
+        private final transient Map<Object, List<BuilderResult>> decodedResults;
+
+        public LazyResultsMap(
+                GradleInfoQueryMap queryMap,
+                CustomSerializedMap map,
+                SerializationCache serializationCache,
+                IssueTransformer issueTransformer) {
+            this.queryMap = queryMap;
+            this.serializationCache = serializationCache;
+            this.issueTransformer = issueTransformer;
+            this.pendingResults = CollectionUtils.newHashMap(map.size());
+            this.decodeLock = new ReentrantLock();
+            this.decodedResults = CollectionUtils.newHashMap(map.size());
+
+            for (Map.Entry<Object, SerializedEntries> entry: map.getMap().entrySet()) {
+                KeyWrapper key = (KeyWrapper)entry.getKey();
+                addPending(key.wrappedKey, new PendingResult(key, entry.getValue(), null));
+            }
+
+            for (Map.Entry<Object, Throwable> entry: map.getSerializationProblems().entrySet()) {
+                KeyWrapper key = (KeyWrapper)entry.getKey();
+                addPending(key.wrappedKey, new PendingResult(key, null, entry.getValue()));
+            }
+
+            for (Map.Entry<KeyWrapper, Throwable> entry: queryMap.serializationIssues.entrySet()) {
+                KeyWrapper key = entry.getKey();
+                addPending(key.wrappedKey, new PendingResult(key, null, entry.getValue()));
+            }
+        }
+
+        private void addPending(Object key, PendingResult result) {
+            List<PendingResult> results = pendingResults.get(key);
+            if (results == null) {
+                results = new ArrayList<PendingResult>();
+                pendingResults.put(key, results);
+            }
+            results.add(result);
+        }
+
+        private List<BuilderResult> decode(List<PendingResult> results) {
+            List<BuilderResult> result = new ArrayList<BuilderResult>(results.size());
+            for (PendingResult pending: results) {
+                if (pending.entries != null) {
+                    List<?> values;
+                    try {
+                        ClassLoader classLoader = queryMap.getClassLoaderForKey(pending.key);
+                        values = pending.entries.getUnserialized(serializationCache, classLoader);
+                    } catch (Throwable ex) {
+                        values = Collections.singletonList(issueTransformer.transformIssue(ex));
+                    }
+
+                    for (Object value: values) {
+                        result.add(BuilderResult.class.cast(value));
+                    }
+                }
+                else {
+                    result.add(BuilderResult.class.cast(issueTransformer.transformIssue(pending.issue)));
+                }
+            }
+            return Collections.unmodifiableList(result);
+        }
+
+        @Override
+        public List<BuilderResult> get(Object key) {
+            decodeLock.lock();
+            try {
+                List<BuilderResult> result = decodedResults.get(key);
+                if (result != null) {
+                    return result;
+                }
+
+                List<PendingResult> pending = pendingResults.get(key);
+                if (pending == null) {
+                    return null;
+                }
+
+                result = decode(pending);
+                decodedResults.put(key, result);
+                return result;
+            } finally {
+                decodeLock.unlock();
+            }
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return pendingResults.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return pendingResults.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return pendingResults.isEmpty();
+        }
+
+        @Override
+        public Set<Object> keySet() {
+            return Collections.unmodifiableSet(pendingResults.keySet());
+        }
+
+        @Override
+        public Set<Map.Entry<Object, List<BuilderResult>>> entrySet() {
+            Map<Object, List<BuilderResult>> result = CollectionUtils.newHashMap(pendingResults.size());
+            for (Object key: pendingResults.keySet()) {
+                result.put(key, get(key));
+            }
+            return Collections.unmodifiableMap(result).entrySet();
+        }
+
+        private Object writeReplace() throws ObjectStreamException {
+            return new HashMap<Object, List<BuilderResult>>(this);
+        }
+
+        private void readObject(ObjectInputStream stream) throws InvalidObjectException {
+            throw new InvalidObjectException("Use proxy.");
+        }
+    }
+
+    private static final class PendingResult {
+        public final KeyWrapper key;
+        public final SerializedEntries entries;
+        public final Throwable issue;
+
+        public PendingResult(KeyWrapper key, SerializedEntries entries, Throwable issue) {
+            this.key = key;
+            this.entries = entries;
+            this.issue = issue;
+        }
+    }
+
     private static interface BuilderRetriever<QueryType extends GradleInfoQuery> {
         public Object getBuilder(QueryType infoQuery);
     }
@@ -3,6 +3,9 @@ package org.netbeans.gradle.model.internal;
 import java.io.File;
 import java.io.Serializable;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import org.netbeans.gradle.model.BuilderProfile;
 import org.netbeans.gradle.model.GradleTaskID;
 import org.netbeans.gradle.model.ProjectId;
 import org.netbeans.gradle.model.util.CollectionUtils;
@@ -16,17 +19,27 @@ public final class ModelQueryOutput implements Serializable {
     // Keys -> List of results of ProjectInfoBuilder
     private final CustomSerializedMap projectInfoResults;
     private final Throwable issue;
+    private final List<BuilderProfile> builderProfiles;
 
     public ModelQueryOutput(
             BasicInfo basicInfo,
             CustomSerializedMap projectInfoResults,
             Throwable issue) {
+        this(basicInfo, projectInfoResults, issue, Collections.<BuilderProfile>emptyList());
+    }
+
+    public ModelQueryOutput(
+            BasicInfo basicInfo,
+            CustomSerializedMap projectInfoResults,
+            Throwable issue,
+            Collection<BuilderProfile> builderProfiles) {
         if (basicInfo == null) throw new NullPointerException("basicInfo");
         if (projectInfoResults == null) throw new NullPointerException("projectInfoResults");
 
         this.basicInfo = basicInfo;
         this.projectInfoResults = projectInfoResults;
         this.issue = TransferableExceptionWrapper.wrap(issue);
+        this.builderProfiles = CollectionUtils.copyNullSafeList(builderProfiles);
     }
 
     public Throwable getIssue() {
@@ -41,6 +54,17 @@ public final class ModelQueryOutput implements Serializable {
         return projectInfoResults;
     }
 
+    /**
+     * Returns the profile of the builders run for the project. The returned
+     * list is empty if the output was loaded from a cache.
+     *
+     * @return the profile of the builders run for the project. This method
+     *   never returns {@code null}.
+     */
+    public List<BuilderProfile> getBuilderProfiles() {
+        return builderProfiles;
+    }
+
     public static final class BasicInfo implements Serializable {
         private static final long serialVersionUID = 1L;
 
@@ -49,6 +73,7 @@ public final class ModelQueryOutput implements Serializable {
         private final File buildScript;
         private final File buildDir;
         private final Collection<GradleTaskID> tasks;
+        private final Collection<String> projectDependencies;
 
         public BasicInfo(
                 ProjectId projectId,
@@ -56,6 +81,16 @@ public final class ModelQueryOutput implements Serializable {
                 File buildScript,
                 File buildDir,
                 Collection<GradleTaskID> tasks) {
+            this(projectId, projectFullName, buildScript, buildDir, tasks, Collections.<String>emptyList());
+        }
+
+        public BasicInfo(
+                ProjectId projectId,
+                String projectFullName,
+                File buildScript,
+                File buildDir,
+                Collection<GradleTaskID> tasks,
+                Collection<String> projectDependencies) {
             if (projectId == null) throw new NullPointerException("projectId");
             if (projectFullName == null) throw new NullPointerException("projectFullName");
             if (buildDir == null) throw new NullPointerException("buildDir");
@@ -65,6 +100,7 @@ public final class ModelQueryOutput implements Serializable {
             this.buildScript = buildScript;
             this.buildDir = buildDir;
             this.tasks = CollectionUtils.copyNullSafeList(tasks);
+            this.projectDependencies = CollectionUtils.copyNullSafeList(projectDependencies);
         }
 
         public ProjectId getProjectId() {
@@ -86,5 +122,16 @@ public final class ModelQueryOutput implements Serializable {
         public Collection<GradleTaskID> getTasks() {
             return tasks;
         }
+
+        /**
+         * Returns the paths of the projects this project declares a project
+         * dependency on in any of its configurations.
+         *
+         * @return the paths of the projects this project directly depends on.
+         *   This method never returns {@code null}.
+         */
+        public Collection<String> getProjectDependencies() {
+            return projectDependencies;
+        }
     }
 }
@@ -1,5 +1,16 @@
 package org.netbeans.gradle.model.internal;
 
 public interface ModelQueryOutputRef {
+    /**
+     * Returns the serialized {@link ModelQueryOutput.BasicInfo} of the
+     * project. This is also part of the output returned by
+     * {@link #getSerializedModelQueryOutput()} but is available separately,
+     * so that it can be read without deserializing the whole output.
+     *
+     * @return the serialized {@code ModelQueryOutput.BasicInfo} of the
+     *   project. This method never returns {@code null}.
+     */
+    public byte[] getSerializedBasicInfo();
+
     public byte[] getSerializedModelQueryOutput();
 }
@@ -8,8 +8,9 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Set;
 import org.netbeans.gradle.model.util.CollectionUtils;
+import org.netbeans.gradle.model.util.InternableValue;
 
-public final class SourceIncludePatterns implements Serializable {
+public final class SourceIncludePatterns implements Serializable, InternableValue {
     private static final long serialVersionUID = 1L;
 
     public static SourceIncludePatterns ALLOW_ALL = new SourceIncludePatterns(
@@ -0,0 +1,128 @@
+package org.netbeans.gradle.model.util;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import org.netbeans.gradle.model.BuilderProfile;
+
+/**
+ * Measures the time and the allocated bytes of a single builder invocation.
+ * The allocated bytes are only measured on JVMs supporting
+ * {@code com.sun.management.ThreadMXBean}.
+ * <P>
+ * While a profiler is running, the builder might report the time of its
+ * notable phases through {@link #recordPhase(String, long) recordPhase}. The
+ * profiler is associated with the thread calling {@code start}, so
+ * {@code stop} must be called on the same thread.
+ */
+public final class BuilderProfiler {
+    private static final AllocationCounter ALLOCATION_COUNTER = AllocationCounter.create();
+    private static final ThreadLocal<BuilderProfiler> CURRENT = new ThreadLocal<BuilderProfiler>();
+
+    private final BuilderProfiler prevProfiler;
+    private final List<BuilderProfile> phases;
+    private final long startNanos;
+    private final long startAllocatedBytes;
+
+    private BuilderProfiler(BuilderProfiler prevProfiler) {
+        this.prevProfiler = prevProfiler;
+        this.phases = new ArrayList<BuilderProfile>();
+        this.startAllocatedBytes = ALLOCATION_COUNTER.getCurrentThreadAllocatedBytes();
+        this.startNanos = System.nanoTime();
+    }
+
+    public static BuilderProfiler start() {
+        BuilderProfiler result = new BuilderProfiler(CURRENT.get());
+        CURRENT.set(result);
+        return result;
+    }
+
+    /**
+     * Adds a phase to the profile of the builder currently being run on the
+     * calling thread. This method does nothing if there is no builder being
+     * profiled on the calling thread.
+     *
+     * @param phaseName the name of the phase (e.g., "resolve compileClasspath").
+     *   This argument cannot be {@code null}.
+     * @param wallTimeNanos the time in nanoseconds the phase took
+     */
+    public static void recordPhase(String phaseName, long wallTimeNanos) {
+        if (phaseName == null) throw new NullPointerException("phaseName");
+
+        BuilderProfiler current = CURRENT.get();
+        if (current != null) {
+            current.phases.add(new BuilderProfile(phaseName, wallTimeNanos, -1));
+        }
+    }
+
+    public BuilderProfile stop(String builderName) {
+        if (CURRENT.get() == this) {
+            if (prevProfiler != null) {
+                CURRENT.set(prevProfiler);
+            }
+            else {
+                CURRENT.remove();
+            }
+        }
+
+        long wallTimeNanos = System.nanoTime() - startNanos;
+        long allocatedBytes = -1;
+        if (startAllocatedBytes >= 0) {
+            long endAllocatedBytes = ALLOCATION_COUNTER.getCurrentThreadAllocatedBytes();
+            if (endAllocatedBytes >= 0) {
+                allocatedBytes = endAllocatedBytes - startAllocatedBytes;
+            }
+        }
+
+        return new BuilderProfile(builderName != null ? builderName : "", wallTimeNanos, allocatedBytes, phases);
+    }
+
+    private static final class AllocationCounter {
+        private static final AllocationCounter UNSUPPORTED = new AllocationCounter(null, null);
+
+        private final ThreadMXBean threadBean;
+        private final Method getThreadAllocatedBytes;
+
+        private AllocationCounter(ThreadMXBean threadBean, Method getThreadAllocatedBytes) {
+            this.threadBean = threadBean;
+            this.getThreadAllocatedBytes = getThreadAllocatedBytes;
+        }
+
+        public static AllocationCounter create() {
+            try {
+                ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+                Class<?> extendedBeanType = Class.forName("com.sun.management.ThreadMXBean");
+                if (!extendedBeanType.isInstance(threadBean)) {
+                    return UNSUPPORTED;
+                }
+
+                Method isSupported = extendedBeanType.getMethod("isThreadAllocatedMemorySupported");
+                Method isEnabled = extendedBeanType.getMethod("isThreadAllocatedMemoryEnabled");
+                if (!Boolean.TRUE.equals(isSupported.invoke(threadBean))
+                        || !Boolean.TRUE.equals(isEnabled.invoke(threadBean))) {
+                    return UNSUPPORTED;
+                }
+
+                Method getThreadAllocatedBytes = extendedBeanType.getMethod("getThreadAllocatedBytes", long.class);
+                return new AllocationCounter(threadBean, getThreadAllocatedBytes);
+            } catch (Throwable ex) {
+                return UNSUPPORTED;
+            }
+        }
+
+        public long getCurrentThreadAllocatedBytes() {
+            if (getThreadAllocatedBytes == null) {
+                return -1;
+            }
+
+            try {
+                Object result = getThreadAllocatedBytes.invoke(threadBean, Thread.currentThread().getId());
+                return ((Number)result).longValue();
+            } catch (Throwable ex) {
+                return -1;
+            }
+        }
+    }
+}
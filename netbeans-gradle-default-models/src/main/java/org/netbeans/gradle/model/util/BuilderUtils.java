@@ -79,6 +79,14 @@ public final class BuilderUtils {
         }
     }
 
+    public static String getNameOfBuilder(ProjectInfoBuilder2<?> builder) {
+        try {
+            return getNameOfBuilderUnsafe(builder);
+        } catch (Throwable ex) {
+            return builder.getClass().getName();
+        }
+    }
+
     public static BuilderIssue createIssue(
             ProjectInfoBuilder2<?> builder,
             Throwable issue) {
@@ -111,6 +119,14 @@ public final class BuilderUtils {
         }
     }
 
+    public static String getNameOfBuilder(BuildInfoBuilder<?> builder) {
+        try {
+            return getNameOfBuilderUnsafe(builder);
+        } catch (Throwable ex) {
+            return builder.getClass().getName();
+        }
+    }
+
     public static BuilderIssue createIssue(
             BuildInfoBuilder<?> builder,
             Throwable issue) {
@@ -0,0 +1,163 @@
+package org.netbeans.gradle.model.util;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Defines a cache of class loaders created for a given class path. A cached
+ * class loader is reused as long as the files of the class path have the same
+ * size and modification time, and the parent class loader is the same, so
+ * loading the same builders again reuses the already loaded (and compiled)
+ * classes instead of loading them again into a new class loader.
+ * <P>
+ * The default cache lives as long as the class loader loading this class, which
+ * is the class loader of the init script in the Gradle daemon.
+ */
+public final class ClassLoaderCache {
+    private static final int DEFAULT_MAX_SIZE = 16;
+    private static final ClassLoaderCache DEFAULT = new ClassLoaderCache(DEFAULT_MAX_SIZE);
+
+    private final Lock mainLock;
+    private final Map<ClassPathKey, ClassLoader> cache;
+    private final int maxSize;
+
+    public ClassLoaderCache(int maxSize) {
+        if (maxSize < 0) throw new IllegalArgumentException("Illegal max. size value: " + maxSize);
+
+        this.mainLock = new ReentrantLock();
+        this.cache = new LinkedHashMap<ClassPathKey, ClassLoader>(16, 0.75f, true);
+        this.maxSize = maxSize;
+    }
+
+    public static ClassLoaderCache getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns a class loader loading classes from the given class path. The
+     * returned class loader might have been created by a previous call to this
+     * method.
+     *
+     * @param classPath the files of the class path in the order they are to be
+     *   searched. This argument cannot be {@code null}.
+     * @param parent the parent class loader of the returned class loader. This
+     *   argument can be {@code null}.
+     * @return the class loader loading classes from the given class path. This
+     *   method never returns {@code null}.
+     */
+    public ClassLoader getClassLoader(Collection<File> classPath, ClassLoader parent) {
+        if (classPath == null) throw new NullPointerException("classPath");
+
+        ClassPathKey key = new ClassPathKey(classPath, parent);
+
+        mainLock.lock();
+        try {
+            ClassLoader result = cache.get(key);
+            if (result != null) {
+                return result;
+            }
+        } finally {
+            mainLock.unlock();
+        }
+
+        ClassLoader newClassLoader = ClassLoaderUtils.classLoaderFromClassPath(classPath, parent);
+
+        mainLock.lock();
+        try {
+            // Another thread might have created the same class loader. Use the
+            // one in the cache, so that classes are not loaded twice.
+            ClassLoader result = cache.get(key);
+            if (result != null) {
+                return result;
+            }
+
+            cache.put(key, newClassLoader);
+            cleanupCacheUnsafe();
+            return newClassLoader;
+        } finally {
+            mainLock.unlock();
+        }
+    }
+
+    private void cleanupCacheUnsafe() {
+        Iterator<?> itr = cache.values().iterator();
+        while (cache.size() > maxSize && itr.hasNext()) {
+            itr.next();
+            itr.remove();
+        }
+    }
+
+    private static final class ClassPathKey {
+        private final List<FileStamp> files;
+        private final ClassLoader parent;
+
+        public ClassPathKey(Collection<File> files, ClassLoader parent) {
+            this.files = new ArrayList<FileStamp>(files.size());
+            for (File file: files) {
+                this.files.add(new FileStamp(file));
+            }
+            this.parent = parent;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 7;
+            hash = 89 * hash + files.hashCode();
+            hash = 89 * hash + System.identityHashCode(parent);
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) return true;
+            if (obj == null) return false;
+            if (getClass() != obj.getClass()) return false;
+
+            final ClassPathKey other = (ClassPathKey)obj;
+            return this.parent == other.parent
+                    && this.files.equals(other.files);
+        }
+    }
+
+    private static final class FileStamp {
+        private final File file;
+        private final long lastModified;
+        private final long length;
+
+        public FileStamp(File file) {
+            if (file == null) throw new NullPointerException("file");
+
+            this.file = file;
+            this.lastModified = file.lastModified();
+            this.length = file.length();
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 7;
+            hash = 89 * hash + file.hashCode();
+            hash = 89 * hash + (int)(lastModified ^ (lastModified >>> 32));
+            hash = 89 * hash + (int)(length ^ (length >>> 32));
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) return true;
+            if (obj == null) return false;
+            if (getClass() != obj.getClass()) return false;
+
+            final FileStamp other = (FileStamp)obj;
+            return this.lastModified == other.lastModified
+                    && this.length == other.length
+                    && this.file.equals(other.file);
+        }
+    }
+}
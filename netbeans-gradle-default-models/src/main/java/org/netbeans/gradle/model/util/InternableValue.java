@@ -0,0 +1,12 @@
+package org.netbeans.gradle.model.util;
+
+/**
+ * Marks immutable value types whose equal instances might be replaced by a
+ * single shared instance when they are deserialized through an
+ * {@link InterningSerializationCache}.
+ * <P>
+ * Implementations must override {@code equals} and {@code hashCode}, and
+ * their users must not rely on the identity of their instances.
+ */
+public interface InternableValue {
+}
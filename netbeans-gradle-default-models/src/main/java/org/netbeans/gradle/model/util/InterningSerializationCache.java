@@ -0,0 +1,80 @@
+package org.netbeans.gradle.model.util;
+
+import java.io.File;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Defines a {@code SerializationCache} replacing equal instances of immutable
+ * value types with a single shared instance. The outputs of the model builders
+ * contain lots of repeated strings (configuration names, group and artifact
+ * ids, task names, etc.) and files, which are otherwise all deserialized into
+ * separate instances.
+ * <P>
+ * The following types are shared: strings, files, URIs, boxed primitives and
+ * every type implementing {@link InternableValue}. Additional types can be
+ * specified in the constructor. Only the exact types are shared (not their
+ * subclasses), except for {@code InternableValue}.
+ * <P>
+ * The cache keeps a reference to every shared instance, so a cache should not
+ * outlive the deserialized objects by much. That is, a new cache is expected
+ * to be created for each model load.
+ * <P>
+ * Instances of this class are safe to be used by multiple threads concurrently.
+ */
+public final class InterningSerializationCache implements SerializationCache {
+    private static final Collection<Class<?>> DEFAULT_TYPES = Collections.unmodifiableList(Arrays.<Class<?>>asList(
+            String.class,
+            File.class,
+            URI.class,
+            Boolean.class,
+            Character.class,
+            Byte.class,
+            Short.class,
+            Integer.class,
+            Long.class,
+            Float.class,
+            Double.class));
+
+    private final Set<Class<?>> sharedTypes;
+    private final ConcurrentMap<Object, Object> cache;
+
+    public InterningSerializationCache(Class<?>... additionalTypes) {
+        this.sharedTypes = new HashSet<Class<?>>(DEFAULT_TYPES);
+        this.cache = new ConcurrentHashMap<Object, Object>(1024);
+
+        for (Class<?> type: additionalTypes) {
+            if (type == null) throw new NullPointerException("Shareable types must be non-null");
+            this.sharedTypes.add(type);
+        }
+    }
+
+    private boolean isShared(Object src) {
+        return sharedTypes.contains(src.getClass()) || src instanceof InternableValue;
+    }
+
+    public Object getCached(Object src) {
+        if (src == null || !isShared(src)) {
+            return src;
+        }
+
+        Object prevValue = cache.putIfAbsent(src, src);
+        return prevValue != null ? prevValue : src;
+    }
+
+    /**
+     * Returns the number of distinct instances shared by this cache. This
+     * method is mostly intended for testing and diagnostics.
+     *
+     * @return the number of distinct instances shared by this cache
+     */
+    public int size() {
+        return cache.size();
+    }
+}
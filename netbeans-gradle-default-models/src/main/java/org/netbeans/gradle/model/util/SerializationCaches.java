@@ -1,11 +1,9 @@
 package org.netbeans.gradle.model.util;
 
-import java.io.File;
-
 public final class SerializationCaches {
     private static final NbSupplier5<SerializationCache> DEFAULT_REF = new ConstructableWeakRef<SerializationCache>(new NbSupplier5<SerializationCache>() {
         public SerializationCache get() {
-            return new SharedTypesSerializationCache(File.class);
+            return new InterningSerializationCache();
         }
     });
 
@@ -13,6 +11,19 @@ public final class SerializationCaches {
         return DEFAULT_REF.get();
     }
 
+    /**
+     * Returns a new cache to be used for deserializing every object of a
+     * single model load. Using the same cache for the whole load allows
+     * sharing values between the outputs of different builders and projects,
+     * while the shared values are not kept after the load.
+     *
+     * @return a new cache to be used for deserializing every object of a
+     *   single model load. This method never returns {@code null}.
+     */
+    public static SerializationCache newModelLoadCache() {
+        return new InterningSerializationCache();
+    }
+
     private SerializationCaches() {
         throw new AssertionError();
     }
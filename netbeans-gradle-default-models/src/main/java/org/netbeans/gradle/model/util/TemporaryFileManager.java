@@ -18,12 +18,20 @@ public final class TemporaryFileManager {
 
     private static final TemporaryFileManager DEFAULT = new TemporaryFileManager();
 
+    private static final String PERSISTENT_FILE_SUFFIX = ".dat";
+    private static final long PERSISTENT_FILE_MAX_AGE_MILLIS = 7L * 24 * 3600 * 1000;
+    private static final long PERSISTENT_FILE_TOUCH_MILLIS = 24L * 3600 * 1000;
+
     private final Lock mainLock;
     private final Map<BinaryContent, FileReference> files;
+    private final Map<BinaryContent, File> persistentFiles;
+    private boolean removedStalePersistentFiles;
 
     public TemporaryFileManager() {
         this.mainLock = new ReentrantLock();
         this.files = new HashMap<BinaryContent, FileReference>();
+        this.persistentFiles = new HashMap<BinaryContent, File>();
+        this.removedStalePersistentFiles = false;
     }
 
     public static TemporaryFileManager getDefault() {
@@ -122,6 +130,162 @@ public final class TemporaryFileManager {
         return createFileGuessUncached(preferredPrefix, new BinaryContent(content));
     }
 
+    /**
+     * Returns a file with the given content which is not deleted when the
+     * returned reference is closed. The name of the file is derived from the
+     * content, so the same content always maps to the same path (even across
+     * JVM restarts). Files not used for a week are removed eventually.
+     *
+     * @param preferredPrefix the prefix of the file name. This argument cannot
+     *   be {@code null}.
+     * @param strContent the content of the file. This argument cannot be
+     *   {@code null}.
+     * @param charset the encoding of the file. This argument cannot be
+     *   {@code null}.
+     * @return the reference to the file with the given content. This method
+     *   never returns {@code null}.
+     *
+     * @throws IOException thrown if the file could not be created
+     */
+    public TemporaryFileRef createPersistentFile(String preferredPrefix, String strContent, Charset charset) throws IOException {
+        BinaryContent content = new BinaryContent(strContent.getBytes(charset.name()), false);
+        return createPersistentFile(preferredPrefix, content);
+    }
+
+    /**
+     * Returns a file containing the serialized form of the given object, which
+     * is not deleted when the returned reference is closed. See
+     * {@link #createPersistentFile(String, String, Charset) createPersistentFile}
+     * for details.
+     *
+     * @param preferredPrefix the prefix of the file name. This argument cannot
+     *   be {@code null}.
+     * @param contentObj the object to be serialized. This argument cannot be
+     *   {@code null}.
+     * @return the reference to the file with the given content. This method
+     *   never returns {@code null}.
+     *
+     * @throws IOException thrown if the file could not be created
+     */
+    public TemporaryFileRef createPersistentFileFromSerialized(String preferredPrefix, Object contentObj) throws IOException {
+        BinaryContent content = new BinaryContent(SerializationUtils.serializeObject(contentObj), false);
+        return createPersistentFile(preferredPrefix, content);
+    }
+
+    private TemporaryFileRef createPersistentFile(String preferredPrefix, BinaryContent content) throws IOException {
+        File file;
+        boolean removeStale;
+
+        mainLock.lock();
+        try {
+            file = persistentFiles.get(content);
+            removeStale = !removedStalePersistentFiles;
+            removedStalePersistentFiles = true;
+        } finally {
+            mainLock.unlock();
+        }
+
+        if (removeStale) {
+            removeStalePersistentFiles();
+        }
+
+        // Checking the length is enough to detect if the file was deleted
+        // or truncated since we have written it.
+        if (file == null || file.length() != content.content.length) {
+            file = getPersistentFile(preferredPrefix, content);
+            if (!hasContent(file, content)) {
+                writePersistentFile(file, content);
+            }
+
+            mainLock.lock();
+            try {
+                persistentFiles.put(content, file);
+            } finally {
+                mainLock.unlock();
+            }
+        }
+
+        touchPersistentFile(file);
+        return new PersistentFileRef(file);
+    }
+
+    private static File getPersistentFile(String preferredPrefix, BinaryContent content) {
+        String fileName = preferredPrefix + "-" + BasicFileUtils.getMD5(content.content) + PERSISTENT_FILE_SUFFIX;
+        return BasicFileUtils.getSubPath(BasicFileUtils.getPluginTmpDir(), fileName);
+    }
+
+    private static boolean hasContent(File file, BinaryContent content) throws IOException {
+        if (!file.isFile() || file.length() != content.content.length) {
+            return false;
+        }
+
+        byte[] fileContent = new byte[content.content.length];
+        RandomAccessFile input = new RandomAccessFile(file, "r");
+        try {
+            input.readFully(fileContent);
+        } finally {
+            input.close();
+        }
+        return Arrays.equals(fileContent, content.content);
+    }
+
+    private static void writePersistentFile(File file, BinaryContent content) throws IOException {
+        File dir = file.getParentFile();
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            LOGGER.log(Level.WARNING, "Could not create directory: {0}", dir);
+        }
+
+        // Other processes might use the same file, so they must never see
+        // a partially written file.
+        File tmpFile = File.createTempFile(file.getName(), ".tmp", dir);
+        try {
+            RandomAccessFile output = new RandomAccessFile(tmpFile, "rw");
+            try {
+                output.write(content.content);
+                output.getFD().sync();
+            } finally {
+                output.close();
+            }
+
+            if (!tmpFile.renameTo(file)) {
+                // Renaming over an existing file fails on Windows.
+                file.delete();
+                if (!tmpFile.renameTo(file)) {
+                    throw new IOException("Failed to rename " + tmpFile + " to " + file);
+                }
+            }
+        } finally {
+            if (tmpFile.exists() && !tmpFile.delete()) {
+                LOGGER.log(Level.WARNING, "Failed to remove temporary file: {0}", tmpFile);
+            }
+        }
+    }
+
+    private static void touchPersistentFile(File file) {
+        long currentTime = System.currentTimeMillis();
+        if (currentTime - file.lastModified() > PERSISTENT_FILE_TOUCH_MILLIS) {
+            if (!file.setLastModified(currentTime)) {
+                LOGGER.log(Level.FINE, "Failed to update the last modification time of {0}", file);
+            }
+        }
+    }
+
+    private static void removeStalePersistentFiles() {
+        File[] tmpFiles = BasicFileUtils.getPluginTmpDir().listFiles();
+        if (tmpFiles == null) {
+            return;
+        }
+
+        long minLastModified = System.currentTimeMillis() - PERSISTENT_FILE_MAX_AGE_MILLIS;
+        for (File file: tmpFiles) {
+            if (file.getName().endsWith(PERSISTENT_FILE_SUFFIX) && file.lastModified() < minLastModified) {
+                if (!file.delete()) {
+                    LOGGER.log(Level.FINE, "Failed to remove stale file: {0}", file);
+                }
+            }
+        }
+    }
+
     private static final class LockedFile implements Closeable {
         public final File file;
         private final RandomAccessFile lockedRef;
@@ -146,6 +310,28 @@ public final class TemporaryFileManager {
         }
     }
 
+    private static final class PersistentFileRef implements TemporaryFileRef {
+        private final File file;
+
+        public PersistentFileRef(File file) {
+            this.file = file;
+        }
+
+        @Override
+        public File getFile() {
+            return file;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public String toString() {
+            return "PersistentFileRef{" + file + "}";
+        }
+    }
+
     private final class SingleFileReference implements TemporaryFileRef {
         private final BinaryContent content;
         private final FileReference fileRef;
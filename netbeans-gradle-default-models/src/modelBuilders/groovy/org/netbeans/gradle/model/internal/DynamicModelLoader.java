@@ -1,21 +1,37 @@
 package org.netbeans.gradle.model.internal;
 
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import org.gradle.api.Project;
 import org.gradle.api.Task;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.ProjectDependency;
 import org.gradle.api.tasks.TaskContainer;
 import org.gradle.tooling.provider.model.ToolingModelBuilder;
+import org.netbeans.gradle.model.BuilderProfile;
 import org.netbeans.gradle.model.BuilderResult;
 import org.netbeans.gradle.model.GradleTaskID;
 import org.netbeans.gradle.model.ProjectId;
 import org.netbeans.gradle.model.api.ProjectInfoBuilder2;
 import org.netbeans.gradle.model.util.BasicFileUtils;
+import org.netbeans.gradle.model.util.BuilderProfiler;
 import org.netbeans.gradle.model.util.BuilderUtils;
 import org.netbeans.gradle.model.util.Exceptions;
 import org.netbeans.gradle.model.util.SerializationCache;
@@ -23,6 +39,20 @@ import org.netbeans.gradle.model.util.SerializationCaches;
 import org.netbeans.gradle.model.util.SerializationUtils;
 
 public final class DynamicModelLoader implements ToolingModelBuilder {
+    private static final int MAX_CACHED_INPUTS = 8;
+
+    // The input files are content addressed, so a file with the same path and
+    // stamp always holds the same input. This cache lives as long as Gradle
+    // keeps the class loader of the init script.
+    private static final Lock INPUT_CACHE_LOCK = new ReentrantLock();
+    private static final Map<String, CachedInput> INPUT_CACHE
+            = new LinkedHashMap<String, CachedInput>(16, 0.75f, true);
+
+    // The hash of the input is needed for every project of the build, so it
+    // is only computed once for each (shared) input.
+    private static final Map<ModelQueryInput, byte[]> INPUT_HASHES
+            = new WeakHashMap<ModelQueryInput, byte[]>();
+
     private final ModelQueryInput input;
     private final ClassLoader classLoader;
 
@@ -33,15 +63,97 @@ public final class DynamicModelLoader implements ToolingModelBuilder {
         this.classLoader = classLoader;
     }
 
+    /**
+     * Returns the deserialized {@code ModelQueryInput} stored in the given
+     * file. The deserialized input is cached, so loading the same file again
+     * (in the same daemon) does not require deserializing it again.
+     *
+     * @param inputFile the file containing the serialized input. This argument
+     *   cannot be {@code null}.
+     * @param classLoader the class loader used to load the classes of the
+     *   serialized objects. This argument cannot be {@code null}.
+     * @return the deserialized {@code ModelQueryInput}. This method never
+     *   returns {@code null}.
+     *
+     * @throws IOException thrown if the file could not be read
+     */
+    public static ModelQueryInput loadInput(File inputFile, ClassLoader classLoader) throws IOException {
+        if (inputFile == null) throw new NullPointerException("inputFile");
+        if (classLoader == null) throw new NullPointerException("classLoader");
+
+        String key = inputFile.getAbsolutePath();
+        long lastModified = inputFile.lastModified();
+        long length = inputFile.length();
+
+        INPUT_CACHE_LOCK.lock();
+        try {
+            CachedInput cached = INPUT_CACHE.get(key);
+            if (cached != null && cached.isUpToDate(lastModified, length, classLoader)) {
+                return cached.input;
+            }
+        } finally {
+            INPUT_CACHE_LOCK.unlock();
+        }
+
+        ModelQueryInput result = readInput(inputFile, classLoader);
+
+        INPUT_CACHE_LOCK.lock();
+        try {
+            INPUT_CACHE.put(key, new CachedInput(result, lastModified, length, classLoader));
+            Iterator<?> itr = INPUT_CACHE.values().iterator();
+            while (INPUT_CACHE.size() > MAX_CACHED_INPUTS && itr.hasNext()) {
+                itr.next();
+                itr.remove();
+            }
+        } finally {
+            INPUT_CACHE_LOCK.unlock();
+        }
+
+        return result;
+    }
+
+    private static ModelQueryInput readInput(File inputFile, ClassLoader classLoader) throws IOException {
+        InputStream fileInput = new BufferedInputStream(new FileInputStream(inputFile));
+        try {
+            ObjectInputStream input = SerializationUtils.newCachedObjectInputStream(
+                    fileInput,
+                    SerializationCaches.getDefault(),
+                    classLoader);
+            return (ModelQueryInput)input.readObject();
+        } catch (ClassNotFoundException ex) {
+            IOException toThrow = new IOException("Failed to deserialize " + inputFile);
+            toThrow.initCause(ex);
+            throw toThrow;
+        } finally {
+            fileInput.close();
+        }
+    }
+
     public boolean canBuild(String modelName) {
         return modelName.equals(ModelQueryOutputRef.class.getName());
     }
 
-    private CustomSerializedMap fetchProjectInfos(Project project) {
+    private byte[] getInputHash() {
+        INPUT_CACHE_LOCK.lock();
+        try {
+            byte[] result = INPUT_HASHES.get(input);
+            if (result == null) {
+                result = ModelQueryOutputCache.hashInput(SerializationUtils.serializeObject(input));
+                INPUT_HASHES.put(input, result);
+            }
+            return result;
+        } finally {
+            INPUT_CACHE_LOCK.unlock();
+        }
+    }
+
+    private ProjectInfos fetchProjectInfos(Project project) {
         SerializationCache serializationCache = SerializationCaches.getDefault();
         Map<Object, List<?>> projectInfoRequests = input.getProjectInfoRequests(serializationCache, classLoader);
         int requestCount = projectInfoRequests.size();
         CustomSerializedMap.Builder projectInfosBuilder = new CustomSerializedMap.Builder(requestCount);
+        List<BuilderProfile> builderProfiles = new ArrayList<BuilderProfile>();
+        boolean hasIssue = false;
 
         for (Map.Entry<?, List<?>> entry: projectInfoRequests.entrySet()) {
             Object key = entry.getKey();
@@ -50,12 +162,14 @@ public final class DynamicModelLoader implements ToolingModelBuilder {
                 Throwable issue = null;
                 ProjectInfoBuilder2<?> builder = null;
 
+                BuilderProfiler profiler = BuilderProfiler.start();
                 try {
                     builder = (ProjectInfoBuilder2<?>)projectInfoBuilder;
                     info = builder.getProjectInfo(project);
                 } catch (Throwable ex) {
                     issue = ex;
                 }
+                builderProfiles.add(profiler.stop(BuilderUtils.getNameOfBuilder(builder)));
 
                 if (info != null || issue != null) {
                     BuilderResult builderResult = new BuilderResult(
@@ -63,10 +177,17 @@ public final class DynamicModelLoader implements ToolingModelBuilder {
                             BuilderUtils.createIssue(builder, issue));
                     projectInfosBuilder.addValue(key, builderResult);
                 }
+                if (issue != null) {
+                    hasIssue = true;
+                }
             }
         }
 
-        return projectInfosBuilder.create();
+        CustomSerializedMap projectInfos = projectInfosBuilder.create();
+        if (!projectInfos.getSerializationProblems().isEmpty()) {
+            hasIssue = true;
+        }
+        return new ProjectInfos(projectInfos, builderProfiles, hasIssue);
     }
 
     private Collection<GradleTaskID> findTasks(Project project) {
@@ -88,6 +209,18 @@ public final class DynamicModelLoader implements ToolingModelBuilder {
         return result;
     }
 
+    private static Collection<String> findProjectDependencies(Project project) {
+        // Only the declared dependencies are needed, so we must not resolve
+        // the configurations here.
+        Set<String> result = new LinkedHashSet<String>();
+        for (Configuration config: project.getConfigurations()) {
+            for (ProjectDependency dependency: config.getDependencies().withType(ProjectDependency.class)) {
+                result.add(dependency.getDependencyProject().getPath());
+            }
+        }
+        return result;
+    }
+
     private static String toSafeString(Object obj) {
         String result = obj != null ? obj.toString() : null;
         return result != null ? result : "";
@@ -107,16 +240,24 @@ public final class DynamicModelLoader implements ToolingModelBuilder {
 
         File buildFile = null;
         Collection<GradleTaskID> tasks = Collections.emptyList();
+        Collection<String> projectDependencies = Collections.emptyList();
 
         Throwable error = null;
         try {
             buildFile = BasicFileUtils.toCanonicalFile(project.getBuildFile());
             tasks = findTasks(project);
+            projectDependencies = findProjectDependencies(project);
         } catch (Throwable ex) {
             error = ex;
         }
 
-        ModelQueryOutput.BasicInfo result = new ModelQueryOutput.BasicInfo(projectId, projectFullName, buildFile, buildDir, tasks);
+        ModelQueryOutput.BasicInfo result = new ModelQueryOutput.BasicInfo(
+                projectId,
+                projectFullName,
+                buildFile,
+                buildDir,
+                tasks,
+                projectDependencies);
         return new BasicInfoWithError(result, error);
     }
 
@@ -125,12 +266,33 @@ public final class DynamicModelLoader implements ToolingModelBuilder {
             throw new IllegalArgumentException("Unsupported model: " + modelName);
         }
 
+        ModelQueryOutputCache cache = ModelQueryOutputCache.isEnabled(project)
+                ? ModelQueryOutputCache.tryCreate(project, getInputHash(), classLoader)
+                : null;
+        if (cache != null) {
+            byte[] cachedOutput = cache.tryGetCachedOutput();
+            if (cachedOutput != null) {
+                project.getLogger().info("Using the cached NetBeans model of " + project.getPath());
+                return DefaultModelQueryOutputRef.fromSerializedOutput(cachedOutput);
+            }
+        }
+
         BasicInfoWithError basicInfo = getBasicInfo(project);
 
         ModelQueryOutput output;
+        ModelQueryOutput outputToCache = null;
         try {
-            CustomSerializedMap projectInfos = fetchProjectInfos(project);
-            output = new ModelQueryOutput(basicInfo.info, projectInfos, basicInfo.error);
+            ProjectInfos projectInfos = fetchProjectInfos(project);
+            output = new ModelQueryOutput(
+                    basicInfo.info,
+                    projectInfos.infos,
+                    basicInfo.error,
+                    projectInfos.builderProfiles);
+            if (basicInfo.error == null && !projectInfos.hasIssue) {
+                // The cached output has no profile because the builders
+                // will not be run when the output is loaded from the cache.
+                outputToCache = new ModelQueryOutput(basicInfo.info, projectInfos.infos, null);
+            }
         } catch (Throwable ex) {
             if (basicInfo.error != null) {
                 Exceptions.tryAddSuppressedException(ex, basicInfo.error);
@@ -138,7 +300,47 @@ public final class DynamicModelLoader implements ToolingModelBuilder {
             output = new ModelQueryOutput(basicInfo.info, CustomSerializedMap.EMPTY, ex);
         }
 
-        return new DefaultModelQueryOutputRef(output);
+        // Failures are not cached because they might be caused by something
+        // not covered by the fingerprint (e.g., a network error).
+        if (cache != null && outputToCache != null) {
+            cache.storeOutput(SerializationUtils.serializeObject(outputToCache));
+        }
+
+        return new DefaultModelQueryOutputRef(
+                SerializationUtils.serializeObject(basicInfo.info),
+                SerializationUtils.serializeObject(output));
+    }
+
+    private static final class ProjectInfos {
+        public final CustomSerializedMap infos;
+        public final List<BuilderProfile> builderProfiles;
+        public final boolean hasIssue;
+
+        public ProjectInfos(CustomSerializedMap infos, List<BuilderProfile> builderProfiles, boolean hasIssue) {
+            this.infos = infos;
+            this.builderProfiles = builderProfiles;
+            this.hasIssue = hasIssue;
+        }
+    }
+
+    private static final class CachedInput {
+        public final ModelQueryInput input;
+        private final long lastModified;
+        private final long length;
+        private final ClassLoader classLoader;
+
+        public CachedInput(ModelQueryInput input, long lastModified, long length, ClassLoader classLoader) {
+            this.input = input;
+            this.lastModified = lastModified;
+            this.length = length;
+            this.classLoader = classLoader;
+        }
+
+        public boolean isUpToDate(long lastModified, long length, ClassLoader classLoader) {
+            return this.lastModified == lastModified
+                    && this.length == length
+                    && this.classLoader == classLoader;
+        }
     }
 
     private static final class BasicInfoWithError {
@@ -154,14 +356,37 @@ public final class DynamicModelLoader implements ToolingModelBuilder {
     private static final class DefaultModelQueryOutputRef implements ModelQueryOutputRef, Serializable {
         private static final long serialVersionUID = 1L;
 
-        private final ModelQueryOutput modelQueryOutput;
+        private final byte[] serializedBasicInfo;
+        private final byte[] serializedModelQueryOutput;
+
+        public DefaultModelQueryOutputRef(byte[] serializedBasicInfo, byte[] serializedModelQueryOutput) {
+            this.serializedBasicInfo = serializedBasicInfo;
+            this.serializedModelQueryOutput = serializedModelQueryOutput;
+        }
+
+        public static DefaultModelQueryOutputRef fromSerializedOutput(byte[] serializedModelQueryOutput) {
+            // Deserializing the output does not deserialize the results of the
+            // builders, they remain as byte arrays in the output.
+            ModelQueryOutput output;
+            try {
+                output = (ModelQueryOutput)SerializationUtils.deserializeObject(
+                        serializedModelQueryOutput,
+                        SerializationCaches.getDefault());
+            } catch (ClassNotFoundException ex) {
+                throw new RuntimeException(ex);
+            }
+
+            return new DefaultModelQueryOutputRef(
+                    SerializationUtils.serializeObject(output.getBasicInfo()),
+                    serializedModelQueryOutput);
+        }
 
-        public DefaultModelQueryOutputRef(ModelQueryOutput modelQueryOutput) {
-            this.modelQueryOutput = modelQueryOutput;
+        public byte[] getSerializedBasicInfo() {
+            return serializedBasicInfo;
         }
 
         public byte[] getSerializedModelQueryOutput() {
-            return SerializationUtils.serializeObject(modelQueryOutput);
+            return serializedModelQueryOutput;
         }
     }
 }
@@ -0,0 +1,746 @@
+package org.netbeans.gradle.model.internal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UnsupportedEncodingException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+import java.util.regex.Pattern;
+import org.gradle.api.Project;
+import org.gradle.api.StartParameter;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.Dependency;
+import org.gradle.api.artifacts.ExternalModuleDependency;
+import org.gradle.api.artifacts.ProjectDependency;
+import org.gradle.api.artifacts.SelfResolvingDependency;
+import org.gradle.api.artifacts.dsl.ScriptHandler;
+import org.gradle.api.invocation.Gradle;
+import org.netbeans.gradle.model.util.BasicFileUtils;
+import org.netbeans.gradle.model.util.ClassLoaderUtils;
+import org.netbeans.gradle.model.util.Exceptions;
+
+/**
+ * Defines a persistent cache of the serialized {@link ModelQueryOutput} of a
+ * single project. The cache is stored in the project cache directory of the
+ * build (the ".gradle" directory of the root project by default) and a cached
+ * output is only used if the fingerprint of the inputs of the project is the
+ * same as it was when the output was stored.
+ * <P>
+ * The fingerprint covers the requested builders (and the class path they
+ * are loaded from), the Gradle version, the JVM running Gradle, the environment
+ * variables, the command line properties, the (Groovy and Kotlin) build
+ * scripts, settings and property files of the build (including everything
+ * in the "gradle" directory, such as version catalogs), the sources of
+ * buildSrc and of the included builds, the build script class path of the
+ * project and the declared dependencies of the project. Projects declaring
+ * dynamic or changing dependencies and builds applying scripts from a URL are
+ * never cached because their inputs might change without any change in the
+ * build.
+ * <P>
+ * Since the fingerprint cannot cover everything a build script might depend on
+ * (e.g., a file read by the script), the cache is only used if the
+ * {@code org.netbeans.gradle.enableModelCache} project property is set to
+ * {@code true} (e.g., in the "gradle.properties" of the build).
+ * <P>
+ * Only the few most recently used outputs of each project are kept and
+ * outputs not used for a long time are deleted.
+ */
+final class ModelQueryOutputCache {
+    private static final String ENABLE_PROPERTY = "org.netbeans.gradle.enableModelCache";
+    private static final String CACHE_DIR_NAME = "nb-model-cache";
+    private static final String CACHE_FILE_SUFFIX = ".bin";
+    private static final String TMP_FILE_SUFFIX = ".tmp";
+
+    private static final int CACHE_FILE_MAGIC = 0x4E424D43;
+    private static final int CACHE_FORMAT_VERSION = 2;
+
+    private static final int MAX_OUTPUTS_PER_PROJECT = 4;
+    private static final long MAX_UNUSED_TIME_MS = 30L * 24L * 60L * 60L * 1000L;
+    private static final long MAX_TMP_FILE_AGE_MS = 24L * 60L * 60L * 1000L;
+
+    private static final String[] BUILD_SCRIPT_SUFFIXES = {".gradle", ".gradle.kts"};
+    private static final String[] IGNORED_SOURCE_DIRS = {"build", ".gradle", ".git", "out"};
+
+    // apply from: 'http://...' or apply(from = "https://...")
+    private static final Pattern REMOTE_SCRIPT_PATTERN
+            = Pattern.compile("from\\s*[:=]\\s*(uri\\s*\\(\\s*)?['\"][a-zA-Z][a-zA-Z0-9+.-]*://");
+
+    // The inputs shared by all the projects of a build are only computed once
+    // for each build.
+    private static final Map<Gradle, BuildInputs> BUILD_INPUTS = new WeakHashMap<Gradle, BuildInputs>();
+
+    private final Project project;
+    private final String projectKey;
+    private final File cacheFile;
+    private final byte[] fingerprint;
+
+    private ModelQueryOutputCache(Project project, String projectKey, File cacheFile, byte[] fingerprint) {
+        this.project = project;
+        this.projectKey = projectKey;
+        this.cacheFile = cacheFile;
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * Returns {@code true} if the persistent model cache was enabled for the
+     * given project. The fingerprint of the inputs should not be computed if
+     * this method returns {@code false}.
+     *
+     * @param project the project whose output is to be cached. This argument
+     *   cannot be {@code null}.
+     * @return {@code true} if the persistent model cache was enabled for the
+     *   given project, {@code false} otherwise
+     */
+    public static boolean isEnabled(Project project) {
+        if (project == null) throw new NullPointerException("project");
+
+        if (!project.hasProperty(ENABLE_PROPERTY)) {
+            return false;
+        }
+
+        Object value = project.property(ENABLE_PROPERTY);
+        return value != null && "true".equalsIgnoreCase(value.toString().trim());
+    }
+
+    /**
+     * Returns the cache of the given project or {@code null} if the outputs of
+     * the project cannot be cached.
+     *
+     * @param project the project whose output is to be cached. This argument
+     *   cannot be {@code null}.
+     * @param inputHash the hash of the serialized {@code ModelQueryInput}. This
+     *   argument cannot be {@code null}.
+     * @param builderClassLoader the class loader of the builders. This argument
+     *   can be {@code null}.
+     * @return the cache of the given project or {@code null} if the outputs of
+     *   the project cannot be cached
+     */
+    public static ModelQueryOutputCache tryCreate(Project project, byte[] inputHash, ClassLoader builderClassLoader) {
+        if (project == null) throw new NullPointerException("project");
+        if (inputHash == null) throw new NullPointerException("inputHash");
+
+        if (!isEnabled(project)) {
+            return null;
+        }
+
+        try {
+            BuildInputs buildInputs = getBuildInputs(project.getGradle(), project.getRootProject());
+            if (buildInputs.digest == null) {
+                project.getLogger().info("The NetBeans model of " + project.getPath()
+                        + " is not cached because " + buildInputs.notCacheableReason + ".");
+                return null;
+            }
+
+            Fingerprint result = new Fingerprint();
+            result.addBytes(inputHash);
+            result.addBytes(buildInputs.digest);
+            if (!addProjectInputs(project, builderClassLoader, result)) {
+                project.getLogger().info("The NetBeans model of " + project.getPath()
+                        + " is not cached because it has dynamic or changing dependencies.");
+                return null;
+            }
+
+            // The files of a project have a common prefix, so that the old
+            // outputs of the project can be found and removed.
+            String projectKey = BasicFileUtils.getMD5(toBytes(project.getPath()));
+            File cacheDir = new File(getProjectCacheDir(project), CACHE_DIR_NAME);
+            File cacheFile = new File(cacheDir, projectKey + "-" + toHex(inputHash) + CACHE_FILE_SUFFIX);
+            return new ModelQueryOutputCache(project, projectKey, cacheFile, result.digest());
+        } catch (Throwable ex) {
+            project.getLogger().info("Failed to compute the fingerprint of " + project.getPath(), ex);
+            return null;
+        }
+    }
+
+    public static byte[] hashInput(byte[] serializedInput) {
+        return newDigest().digest(serializedInput);
+    }
+
+    private static File getProjectCacheDir(Project project) {
+        File projectCacheDir = project.getGradle().getStartParameter().getProjectCacheDir();
+        return projectCacheDir != null
+                ? projectCacheDir
+                : new File(project.getRootDir(), ".gradle");
+    }
+
+    private static BuildInputs getBuildInputs(Gradle gradle, Project rootProject) throws IOException {
+        synchronized (BUILD_INPUTS) {
+            BuildInputs result = BUILD_INPUTS.get(gradle);
+            if (result == null) {
+                result = computeBuildInputs(gradle, rootProject);
+                BUILD_INPUTS.put(gradle, result);
+            }
+            return result;
+        }
+    }
+
+    private static BuildInputs computeBuildInputs(Gradle gradle, Project rootProject) throws IOException {
+        StartParameter startParameter = gradle.getStartParameter();
+
+        Fingerprint result = new Fingerprint();
+        result.addString(Integer.toString(CACHE_FORMAT_VERSION));
+        result.addString(gradle.getGradleVersion());
+
+        // Models might depend on the JVM running Gradle (e.g., the default
+        // source level is the version of the JVM).
+        result.addString(System.getProperty("java.version"));
+        result.addString(System.getProperty("java.vendor"));
+        result.addString(System.getProperty("java.home"));
+
+        result.addProperties(System.getenv());
+        result.addProperties(startParameter.getProjectProperties());
+        result.addProperties(startParameter.getSystemPropertiesArgs());
+
+        File userHome = gradle.getGradleUserHomeDir();
+        result.addFile(new File(userHome, "gradle.properties"));
+        result.addFile(new File(userHome, "init.gradle"));
+        result.addFile(new File(userHome, "init.gradle.kts"));
+        result.addFilesInDir(new File(userHome, "init.d"), BUILD_SCRIPT_SUFFIXES);
+
+        File rootDir = rootProject.getProjectDir();
+        result.addFile(startParameter.getSettingsFile());
+        result.addFile(new File(rootDir, "settings.gradle"));
+        result.addFile(new File(rootDir, "settings.gradle.kts"));
+
+        // Shared scripts, version catalogs, etc. (possibly in subdirectories).
+        result.addFilesRecursively(new File(rootDir, "gradle"));
+
+        result.addFilesRecursively(new File(rootDir, "buildSrc"));
+        result.addFilesInDir(BasicFileUtils.getSubPath(rootDir, "buildSrc", "build", "libs"), ".jar");
+
+        // Plugins applied through the plugins {} block might come from an
+        // included build (e.g., "build-logic").
+        result.addFilesRecursively(new File(rootDir, "build-logic"));
+        for (File includedBuildDir: getIncludedBuildDirs(gradle)) {
+            result.addFilesRecursively(includedBuildDir);
+        }
+
+        List<File> buildScripts = new ArrayList<File>();
+        addScriptsInDir(new File(rootDir, "gradle"), true, buildScripts);
+        addScriptsInDir(rootDir, false, buildScripts);
+
+        // A project can see the outputs of other projects, so changing any of
+        // the build scripts invalidates the cache of every project.
+        for (Project otherProject: rootProject.getAllprojects()) {
+            File projectDir = otherProject.getProjectDir();
+            result.addFile(otherProject.getBuildFile());
+            result.addFile(new File(projectDir, "gradle.properties"));
+            result.addFilesInDir(projectDir, BUILD_SCRIPT_SUFFIXES);
+
+            buildScripts.add(otherProject.getBuildFile());
+            addScriptsInDir(projectDir, false, buildScripts);
+        }
+
+        for (File script: buildScripts) {
+            if (appliesRemoteScript(script)) {
+                return BuildInputs.notCacheable("it applies a script from a URL (in " + script + ")");
+            }
+        }
+
+        return new BuildInputs(result.digest(), null);
+    }
+
+    private static Collection<File> getIncludedBuildDirs(Gradle gradle) {
+        // Composite builds were added in Gradle 3.1.
+        Collection<?> includedBuilds;
+        try {
+            Method getIncludedBuilds = gradle.getClass().getMethod("getIncludedBuilds");
+            includedBuilds = (Collection<?>)getIncludedBuilds.invoke(gradle);
+        } catch (NoSuchMethodException ex) {
+            return Collections.emptyList();
+        } catch (Exception ex) {
+            throw Exceptions.throwUnchecked(ex);
+        }
+
+        if (includedBuilds == null) {
+            return Collections.emptyList();
+        }
+
+        List<File> result = new ArrayList<File>(includedBuilds.size());
+        for (Object includedBuild: includedBuilds) {
+            try {
+                Method getProjectDir = includedBuild.getClass().getMethod("getProjectDir");
+                result.add((File)getProjectDir.invoke(includedBuild));
+            } catch (Exception ex) {
+                throw Exceptions.throwUnchecked(ex);
+            }
+        }
+        return result;
+    }
+
+    private static boolean isBuildScript(String fileName) {
+        for (String suffix: BUILD_SCRIPT_SUFFIXES) {
+            if (fileName.endsWith(suffix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void addScriptsInDir(File dir, boolean recursive, List<File> result) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+
+        for (File file: files) {
+            if (file.isDirectory()) {
+                if (recursive) {
+                    addScriptsInDir(file, recursive, result);
+                }
+            }
+            else if (isBuildScript(file.getName())) {
+                result.add(file);
+            }
+        }
+    }
+
+    private static boolean appliesRemoteScript(File script) throws IOException {
+        if (script == null || !script.isFile()) {
+            return false;
+        }
+
+        Reader reader = new InputStreamReader(new FileInputStream(script), "UTF-8");
+        try {
+            StringBuilder content = new StringBuilder((int)Math.min(script.length(), 64 * 1024));
+            char[] buffer = new char[8 * 1024];
+            int readCount = reader.read(buffer);
+            while (readCount >= 0) {
+                content.append(buffer, 0, readCount);
+                readCount = reader.read(buffer);
+            }
+            return REMOTE_SCRIPT_PATTERN.matcher(content).find();
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static boolean addProjectInputs(Project project, ClassLoader builderClassLoader, Fingerprint result) {
+        result.addString(project.getPath());
+        result.addString(project.getProjectDir().getAbsolutePath());
+
+        addBuilderClassPath(builderClassLoader, result);
+
+        for (Project current = project; current != null; current = current.getParent()) {
+            Configuration scriptClassPath = current.getBuildscript().getConfigurations()
+                    .findByName(ScriptHandler.CLASSPATH_CONFIGURATION);
+            if (scriptClassPath != null) {
+                for (File file: scriptClassPath.getFiles()) {
+                    result.addFile(file);
+                }
+            }
+        }
+
+        return addDeclaredDependencies(project, result);
+    }
+
+    private static void addBuilderClassPath(ClassLoader builderClassLoader, Fingerprint result) {
+        result.addFile(ClassLoaderUtils.getLocationOfClassPath());
+
+        if (builderClassLoader instanceof URLClassLoader) {
+            for (URL url: ((URLClassLoader)builderClassLoader).getURLs()) {
+                if ("file".equals(url.getProtocol())) {
+                    result.addFile(ClassLoaderUtils.extractPathFromURL(url));
+                }
+                else {
+                    result.addString(url.toExternalForm());
+                }
+            }
+        }
+    }
+
+    private static boolean addDeclaredDependencies(Project project, Fingerprint result) {
+        for (String configName: project.getConfigurations().getNames()) {
+            Configuration config = project.getConfigurations().getByName(configName);
+            result.addString(configName);
+
+            for (Dependency dependency: config.getDependencies()) {
+                if (dependency instanceof ProjectDependency) {
+                    result.addString(((ProjectDependency)dependency).getDependencyProject().getPath());
+                }
+                else if (dependency instanceof SelfResolvingDependency) {
+                    for (File file: ((SelfResolvingDependency)dependency).resolve()) {
+                        result.addFile(file);
+                    }
+                }
+                else {
+                    if (isChangingDependency(dependency)) {
+                        return false;
+                    }
+
+                    result.addString(dependency.getGroup());
+                    result.addString(dependency.getName());
+                    result.addString(dependency.getVersion());
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean isChangingDependency(Dependency dependency) {
+        if (dependency instanceof ExternalModuleDependency) {
+            if (((ExternalModuleDependency)dependency).isChanging()) {
+                return true;
+            }
+        }
+
+        String version = dependency.getVersion();
+        if (version == null) {
+            return true;
+        }
+
+        return version.contains("+")
+                || version.contains("SNAPSHOT")
+                || version.startsWith("latest.")
+                || version.startsWith("[")
+                || version.startsWith("(")
+                || version.endsWith("]")
+                || version.endsWith(")");
+    }
+
+    /**
+     * Returns the cached serialized output of the project or {@code null} if
+     * there is no cached output or the inputs of the project have changed.
+     *
+     * @return the cached serialized output of the project or {@code null} if
+     *   there is no up-to-date cached output
+     */
+    public byte[] tryGetCachedOutput() {
+        if (!cacheFile.isFile()) {
+            return null;
+        }
+
+        try {
+            return readCachedOutput();
+        } catch (IOException ex) {
+            project.getLogger().info("Failed to read the NetBeans model cache: " + cacheFile, ex);
+            return null;
+        }
+    }
+
+    private byte[] readCachedOutput() throws IOException {
+        DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)));
+        try {
+            if (input.readInt() != CACHE_FILE_MAGIC || input.readInt() != CACHE_FORMAT_VERSION) {
+                return null;
+            }
+
+            byte[] cachedFingerprint = readBytes(input);
+            if (!Arrays.equals(fingerprint, cachedFingerprint)) {
+                return null;
+            }
+
+            byte[] result = readBytes(input);
+            // The last modification time is used to find the least recently
+            // used outputs when the old outputs are removed.
+            if (!cacheFile.setLastModified(System.currentTimeMillis())) {
+                project.getLogger().debug("Failed to update the last modified time of " + cacheFile);
+            }
+            return result;
+        } finally {
+            input.close();
+        }
+    }
+
+    private static byte[] readBytes(DataInputStream input) throws IOException {
+        int length = input.readInt();
+        if (length < 0) {
+            throw new IOException("Corrupt cache file.");
+        }
+
+        byte[] result = new byte[length];
+        input.readFully(result);
+        return result;
+    }
+
+    /**
+     * Stores the serialized output of the project. Failures are logged but
+     * otherwise ignored because the cache is only an optimization.
+     *
+     * @param serializedOutput the serialized {@code ModelQueryOutput} of the
+     *   project. This argument cannot be {@code null}.
+     */
+    public void storeOutput(byte[] serializedOutput) {
+        if (serializedOutput == null) throw new NullPointerException("serializedOutput");
+
+        try {
+            writeOutput(serializedOutput);
+        } catch (IOException ex) {
+            project.getLogger().info("Failed to write the NetBeans model cache: " + cacheFile, ex);
+        }
+
+        try {
+            removeOldOutputs();
+        } catch (Throwable ex) {
+            project.getLogger().info("Failed to clean up the NetBeans model cache: " + cacheFile.getParentFile(), ex);
+        }
+    }
+
+    private void removeOldOutputs() {
+        File[] files = cacheFile.getParentFile().listFiles();
+        if (files == null) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        List<File> projectOutputs = new ArrayList<File>();
+
+        for (File file: files) {
+            String name = file.getName();
+            long age = now - file.lastModified();
+
+            if (name.endsWith(TMP_FILE_SUFFIX)) {
+                // Left behind by a daemon killed while writing the cache.
+                if (age > MAX_TMP_FILE_AGE_MS) {
+                    deleteCacheFile(file);
+                }
+            }
+            else if (name.endsWith(CACHE_FILE_SUFFIX)) {
+                if (age > MAX_UNUSED_TIME_MS || name.indexOf('-') < 0) {
+                    // Not used for a long time or written in an old format.
+                    deleteCacheFile(file);
+                }
+                else if (name.startsWith(projectKey + "-")) {
+                    projectOutputs.add(file);
+                }
+            }
+        }
+
+        if (projectOutputs.size() <= MAX_OUTPUTS_PER_PROJECT) {
+            return;
+        }
+
+        Collections.sort(projectOutputs, new Comparator<File>() {
+            public int compare(File file1, File file2) {
+                long lastModified1 = file1.lastModified();
+                long lastModified2 = file2.lastModified();
+                // Most recently used first
+                return lastModified1 > lastModified2 ? -1 : (lastModified1 == lastModified2 ? 0 : 1);
+            }
+        });
+
+        for (File file: projectOutputs.subList(MAX_OUTPUTS_PER_PROJECT, projectOutputs.size())) {
+            if (!file.equals(cacheFile)) {
+                deleteCacheFile(file);
+            }
+        }
+    }
+
+    private void deleteCacheFile(File file) {
+        if (!file.delete() && file.exists()) {
+            project.getLogger().debug("Failed to delete old NetBeans model cache file: " + file);
+        }
+    }
+
+    private void writeOutput(byte[] serializedOutput) throws IOException {
+        File cacheDir = cacheFile.getParentFile();
+        if (!cacheDir.isDirectory() && !cacheDir.mkdirs() && !cacheDir.isDirectory()) {
+            throw new IOException("Failed to create directory: " + cacheDir);
+        }
+
+        // Write to a temporary file first, so that concurrent builds never
+        // see a partially written cache file.
+        File tmpFile = File.createTempFile(cacheFile.getName(), TMP_FILE_SUFFIX, cacheDir);
+        try {
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)));
+            try {
+                output.writeInt(CACHE_FILE_MAGIC);
+                output.writeInt(CACHE_FORMAT_VERSION);
+                output.writeInt(fingerprint.length);
+                output.write(fingerprint);
+                output.writeInt(serializedOutput.length);
+                output.write(serializedOutput);
+            } finally {
+                output.close();
+            }
+
+            if (!tmpFile.renameTo(cacheFile)) {
+                // Renaming over an existing file fails on Windows.
+                cacheFile.delete();
+                if (!tmpFile.renameTo(cacheFile)) {
+                    throw new IOException("Failed to rename " + tmpFile + " to " + cacheFile);
+                }
+            }
+        } finally {
+            if (tmpFile.exists()) {
+                tmpFile.delete();
+            }
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("Missing MD5 MessageDigest");
+        }
+    }
+
+    private static byte[] toBytes(String str) {
+        try {
+            return str.getBytes("UTF-8");
+        } catch (UnsupportedEncodingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder result = new StringBuilder(2 * bytes.length);
+        for (byte value: bytes) {
+            result.append(Character.forDigit(((int)value & 0xF0) >>> 4, 16));
+            result.append(Character.forDigit((int)value & 0x0F, 16));
+        }
+        return result.toString();
+    }
+
+    private static final class BuildInputs {
+        public final byte[] digest;
+        public final String notCacheableReason;
+
+        public BuildInputs(byte[] digest, String notCacheableReason) {
+            this.digest = digest;
+            this.notCacheableReason = notCacheableReason;
+        }
+
+        public static BuildInputs notCacheable(String reason) {
+            return new BuildInputs(null, reason);
+        }
+    }
+
+    private static final class Fingerprint {
+        private final MessageDigest digest;
+
+        public Fingerprint() {
+            this.digest = newDigest();
+        }
+
+        public void addBytes(byte[] bytes) {
+            addInt(bytes.length);
+            digest.update(bytes);
+        }
+
+        public void addString(String str) {
+            if (str == null) {
+                addInt(-1);
+            }
+            else {
+                addBytes(toBytes(str));
+            }
+        }
+
+        private void addInt(int value) {
+            digest.update((byte)(value >>> 24));
+            digest.update((byte)(value >>> 16));
+            digest.update((byte)(value >>> 8));
+            digest.update((byte)value);
+        }
+
+        private void addLong(long value) {
+            addInt((int)(value >>> 32));
+            addInt((int)value);
+        }
+
+        public void addFile(File file) {
+            if (file == null) {
+                addInt(-1);
+                return;
+            }
+
+            addString(file.getAbsolutePath());
+            if (file.exists()) {
+                addLong(file.lastModified());
+                addLong(file.length());
+            }
+            else {
+                addInt(-1);
+            }
+        }
+
+        public void addFilesInDir(File dir, String... suffixes) {
+            File[] files = dir.listFiles();
+            if (files == null) {
+                addInt(-1);
+                return;
+            }
+
+            Arrays.sort(files);
+            for (File file: files) {
+                String name = file.getName();
+                for (String suffix: suffixes) {
+                    if (name.endsWith(suffix)) {
+                        addFile(file);
+                        break;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Adds every file in the given directory and its subdirectories except
+         * for the output and cache directories.
+         */
+        public void addFilesRecursively(File dir) {
+            File[] files = dir.listFiles();
+            if (files == null) {
+                addInt(-1);
+                return;
+            }
+
+            addInt(files.length);
+            Arrays.sort(files);
+            for (File file: files) {
+                if (file.isDirectory()) {
+                    if (!isIgnoredSourceDir(file.getName())) {
+                        addString(file.getName());
+                        addFilesRecursively(file);
+                    }
+                }
+                else {
+                    addFile(file);
+                }
+            }
+        }
+
+        private static boolean isIgnoredSourceDir(String dirName) {
+            for (String ignored: IGNORED_SOURCE_DIRS) {
+                if (ignored.equals(dirName)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public void addProperties(Map<String, String> properties) {
+            Map<String, String> sorted = new TreeMap<String, String>(properties);
+            addInt(sorted.size());
+            for (Map.Entry<String, String> entry: sorted.entrySet()) {
+                addString(entry.getKey());
+                addString(entry.getValue());
+            }
+        }
+
+        public byte[] digest() {
+            return digest.digest();
+        }
+    }
+}
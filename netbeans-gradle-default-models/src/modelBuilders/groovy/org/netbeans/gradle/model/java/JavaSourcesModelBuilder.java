@@ -3,9 +3,11 @@ package org.netbeans.gradle.model.java;
 import java.io.File;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import org.gradle.api.Project;
 import org.gradle.api.artifacts.Configuration;
@@ -18,6 +20,7 @@ import org.gradle.api.tasks.SourceSet;
 import org.gradle.api.tasks.SourceSetContainer;
 import org.gradle.api.tasks.SourceSetOutput;
 import org.netbeans.gradle.model.api.ProjectInfoBuilder2;
+import org.netbeans.gradle.model.util.BuilderProfiler;
 import org.netbeans.gradle.model.util.BuilderUtils;
 import org.netbeans.gradle.model.util.Exceptions;
 
@@ -88,10 +91,13 @@ implements
         private final JavaPluginConvention javaPlugin;
         private final boolean needRuntime;
 
+        private final Map<String, ResolvedClassPath> resolvedConfigurations;
+
         public Builder(Project project, JavaPluginConvention javaPlugin, boolean needRuntime) throws Exception {
             this.project = project;
             this.javaPlugin = javaPlugin;
             this.needRuntime = needRuntime;
+            this.resolvedConfigurations = new HashMap<String, ResolvedClassPath>();
         }
 
         public JavaSourcesModel getProjectInfo() throws Exception {
@@ -142,12 +148,36 @@ implements
             return result.create();
         }
 
-        private Set<File> getLenientClasspath(String configName, Throwable baseError) {
+        private ResolvedClassPath resolveConfiguration(String configName) {
+            ResolvedClassPath result = resolvedConfigurations.get(configName);
+            if (result == null) {
+                long startTime = System.nanoTime();
+                result = resolveConfigurationNow(configName);
+                // The timing is not part of the model, so that the model
+                // only depends on the build and can be compared and cached.
+                BuilderProfiler.recordPhase("resolve " + configName, System.nanoTime() - startTime);
+
+                resolvedConfigurations.put(configName, result);
+            }
+            return result;
+        }
+
+        private ResolvedClassPath resolveConfigurationNow(String configName) {
+            Configuration config = project.getConfigurations().findByName(configName);
+            if (config == null) {
+                return ResolvedClassPath.MISSING;
+            }
+
+            try {
+                return new ResolvedClassPath(config.getFiles(), null);
+            } catch (Throwable ex) {
+                return new ResolvedClassPath(getLenientClasspath(config, ex), ex);
+            }
+        }
+
+        private Set<File> getLenientClasspath(Configuration config, Throwable baseError) {
             try {
-                Configuration config = project.getConfigurations().findByName(configName);
-                if (config != null) {
-                    return config.getResolvedConfiguration().getLenientConfiguration().getFiles(Specs.SATISFIES_ALL);
-                }
+                return config.getResolvedConfiguration().getLenientConfiguration().getFiles(Specs.SATISFIES_ALL);
             } catch (Throwable ex) {
                 Exceptions.tryAddSuppressedException(baseError, ex);
             }
@@ -156,14 +186,26 @@ implements
         }
 
         private void parseClassPaths(SourceSet sourceSet, JavaSourceSet.Builder result) {
+            // Resolving the configurations through the cache first means that
+            // the configurations shared by multiple source sets are resolved
+            // only once and a failing configuration is not resolved again.
+            ResolvedClassPath compileConfig = resolveConfiguration(
+                    JavaSourcesUtils.getCompileClasspathConfigurationName(sourceSet));
+
             Set<File> compile;
             boolean compileResolved = false;
-            try {
-                compile = sourceSet.getCompileClasspath().getFiles();
-                compileResolved = true;
-            } catch (Throwable ex) {
-                result.setCompileClassPathProblem(ex);
-                compile = getLenientClasspath(sourceSet.getCompileConfigurationName(), ex);
+            if (compileConfig.problem != null) {
+                result.setCompileClassPathProblem(compileConfig.problem);
+                compile = compileConfig.files;
+            }
+            else {
+                try {
+                    compile = sourceSet.getCompileClasspath().getFiles();
+                    compileResolved = true;
+                } catch (Throwable ex) {
+                    result.setCompileClassPathProblem(ex);
+                    compile = compileConfig.files;
+                }
             }
 
             if (!needRuntime) {
@@ -171,14 +213,22 @@ implements
                 return;
             }
 
+            ResolvedClassPath runtimeConfig = resolveConfiguration(
+                    JavaSourcesUtils.getRuntimeClasspathConfigurationName(sourceSet));
+
             Set<File> runtime = compile;
-            try {
-                runtime = sourceSet.getRuntimeClasspath().getFiles();
-                if (!compileResolved) {
-                    compile = runtime;
+            if (runtimeConfig.problem != null) {
+                result.setRuntimeClassPathProblem(runtimeConfig.problem);
+            }
+            else {
+                try {
+                    runtime = sourceSet.getRuntimeClasspath().getFiles();
+                    if (!compileResolved) {
+                        compile = runtime;
+                    }
+                } catch (Throwable ex) {
+                    result.setRuntimeClassPathProblem(ex);
                 }
-            } catch (Throwable ex) {
-                result.setRuntimeClassPathProblem(ex);
             }
 
             result.setClasspaths(new JavaClassPaths(compile, runtime));
@@ -199,5 +249,18 @@ implements
 
             return new JavaOutputDirs(classesDir, resourcesDir, otherDirs);
         }
+
+        private static final class ResolvedClassPath {
+            public static final ResolvedClassPath MISSING
+                    = new ResolvedClassPath(Collections.<File>emptySet(), null);
+
+            public final Set<File> files;
+            public final Throwable problem;
+
+            public ResolvedClassPath(Set<File> files, Throwable problem) {
+                this.files = files;
+                this.problem = problem;
+            }
+        }
     }
 }
@@ -12,6 +12,22 @@ class JavaSourcesUtils {
         return sourceSet.scala
     }
 
+    static String getCompileClasspathConfigurationName(SourceSet sourceSet) {
+        // The separate compile classpath configuration was added in Gradle 2.12.
+        if (sourceSet.hasProperty('compileClasspathConfigurationName')) {
+            return sourceSet.compileClasspathConfigurationName
+        }
+        return sourceSet.compileConfigurationName
+    }
+
+    static String getRuntimeClasspathConfigurationName(SourceSet sourceSet) {
+        // The separate runtime classpath configuration was added in Gradle 3.4.
+        if (sourceSet.hasProperty('runtimeClasspathConfigurationName')) {
+            return sourceSet.runtimeClasspathConfigurationName
+        }
+        return sourceSet.runtimeConfigurationName
+    }
+
     private JavaSourcesUtils() {
         throw new AssertionError()
     }
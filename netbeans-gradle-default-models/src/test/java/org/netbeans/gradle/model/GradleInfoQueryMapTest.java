@@ -0,0 +1,142 @@
+package org.netbeans.gradle.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import org.netbeans.gradle.model.api.GradleProjectInfoQuery2;
+import org.netbeans.gradle.model.api.ModelClassPathDef;
+import org.netbeans.gradle.model.api.ProjectInfoBuilder2;
+import org.netbeans.gradle.model.internal.CustomSerializedMap;
+import org.netbeans.gradle.model.util.SerializationCaches;
+import org.netbeans.gradle.model.util.SerializationUtils;
+
+import static org.junit.Assert.*;
+
+public class GradleInfoQueryMapTest {
+    private static GradleProjectInfoQuery2<String> query(String name) {
+        final ProjectInfoBuilder2<String> builder = new NamedBuilder(name);
+        return new GradleProjectInfoQuery2<String>() {
+            public ProjectInfoBuilder2<String> getInfoBuilder() {
+                return builder;
+            }
+
+            public ModelClassPathDef getInfoClassPath() {
+                return ModelClassPathDef.EMPTY;
+            }
+        };
+    }
+
+    private static GradleInfoQueryMap createQueryMap() {
+        Map<Object, List<GradleProjectInfoQuery2<?>>> queries = new HashMap<Object, List<GradleProjectInfoQuery2<?>>>();
+        queries.put("a", Arrays.<GradleProjectInfoQuery2<?>>asList(query("a1"), query("a2")));
+        queries.put("b", Collections.<GradleProjectInfoQuery2<?>>singletonList(query("b1")));
+        return GradleInfoQueryMap.fromProjectInfos(queries);
+    }
+
+    /**
+     * Runs the builders the same way as they are run by the model loader in the
+     * Gradle daemon.
+     */
+    private static CustomSerializedMap runBuilders(GradleInfoQueryMap queryMap) {
+        Map<Object, List<?>> builders = queryMap.getSerializableBuilderMap().deserialize(
+                SerializationCaches.getDefault(),
+                GradleInfoQueryMapTest.class.getClassLoader(),
+                GradleInfoQueryMap.builderIssueTransformer());
+
+        CustomSerializedMap.Builder result = new CustomSerializedMap.Builder(builders.size());
+        for (Map.Entry<Object, List<?>> entry: builders.entrySet()) {
+            for (Object builder: entry.getValue()) {
+                String info = ((NamedBuilder)builder).getProjectInfo(null);
+                result.addValue(entry.getKey(), new BuilderResult(info, null));
+            }
+        }
+        return result.create();
+    }
+
+    private static List<Object> resultObjects(List<?> results) {
+        List<Object> values = new ArrayList<Object>();
+        for (Object result: results) {
+            values.add(((BuilderResult)result).getResultIfNoIssue());
+        }
+        return values;
+    }
+
+    @Test
+    public void testLazyResultsAreSameAsEager() {
+        GradleInfoQueryMap queryMap = createQueryMap();
+        CustomSerializedMap serializedResults = runBuilders(queryMap);
+
+        Map<Object, List<?>> eager = queryMap.deserializeResults(
+                serializedResults,
+                SerializationCaches.getDefault(),
+                GradleInfoQueryMap.builderIssueTransformer());
+        Map<Object, List<BuilderResult>> lazy = queryMap.lazyDeserializeResults(
+                serializedResults,
+                SerializationCaches.getDefault(),
+                GradleInfoQueryMap.builderIssueTransformer());
+
+        assertEquals(eager.keySet(), lazy.keySet());
+        assertEquals(2, lazy.size());
+        for (Object key: eager.keySet()) {
+            assertEquals(
+                    new HashSet<Object>(resultObjects(eager.get(key))),
+                    new HashSet<Object>(resultObjects(lazy.get(key))));
+        }
+
+        assertEquals(new HashSet<Object>(Arrays.asList("a1", "a2")), new HashSet<Object>(resultObjects(lazy.get("a"))));
+        assertNull(lazy.get("c"));
+        assertFalse(lazy.containsKey("c"));
+    }
+
+    @Test
+    public void testLazyResultsAreDecodedOnce() {
+        GradleInfoQueryMap queryMap = createQueryMap();
+        Map<Object, List<BuilderResult>> lazy = queryMap.lazyDeserializeResults(
+                runBuilders(queryMap),
+                SerializationCaches.getDefault(),
+                GradleInfoQueryMap.builderIssueTransformer());
+
+        assertSame(lazy.get("b"), lazy.get("b"));
+    }
+
+    @Test
+    public void testSerializeLazyResults() throws ClassNotFoundException {
+        GradleInfoQueryMap queryMap = createQueryMap();
+        Map<Object, List<BuilderResult>> lazy = queryMap.lazyDeserializeResults(
+                runBuilders(queryMap),
+                SerializationCaches.getDefault(),
+                GradleInfoQueryMap.builderIssueTransformer());
+
+        byte[] serialized = SerializationUtils.serializeObject(lazy);
+        @SuppressWarnings("unchecked")
+        Map<Object, List<?>> deserialized = (Map<Object, List<?>>)SerializationUtils.deserializeObject(
+                serialized,
+                SerializationCaches.getDefault());
+
+        assertEquals(lazy.keySet(), deserialized.keySet());
+        assertEquals(resultObjects(lazy.get("b")), resultObjects(deserialized.get("b")));
+    }
+
+    private static final class NamedBuilder implements ProjectInfoBuilder2<String> {
+        private static final long serialVersionUID = 1L;
+
+        private final String name;
+
+        public NamedBuilder(String name) {
+            this.name = name;
+        }
+
+        public String getProjectInfo(Object project) {
+            return name;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package org.netbeans.gradle.model;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.netbeans.gradle.model.internal.CustomSerializedMap;
+import org.netbeans.gradle.model.internal.ModelQueryOutput;
+import org.netbeans.gradle.model.internal.SerializedEntries;
+import org.netbeans.gradle.model.util.SerializationCache;
+import org.netbeans.gradle.model.util.SerializationCaches;
+import org.netbeans.gradle.model.util.SerializationUtils;
+
+/**
+ * Compares the time and the peak heap usage of transferring the output of the
+ * model builders the way it was done before (the build action deserializing
+ * and serializing the output again, and the IDE deserializing every result
+ * eagerly) to the current way (the build action passing the serialized output
+ * through, and the IDE deserializing the results lazily).
+ * <P>
+ * This is not a unit test, run it manually with a large enough heap:
+ * {@code java -Xmx2g org.netbeans.gradle.model.ModelTransferBenchmark [projectCount] [filesPerProject]}
+ */
+public final class ModelTransferBenchmark {
+    private static final int KEY_COUNT = 4;
+    private static final int ROUNDS = 5;
+
+    private static ModelQueryOutput createOutput(int projectIndex, int filesPerProject) {
+        String projectPath = ":project" + projectIndex;
+        File projectDir = new File("/work/build/project" + projectIndex);
+
+        CustomSerializedMap.Builder results = new CustomSerializedMap.Builder(KEY_COUNT);
+        for (int key = 0; key < KEY_COUNT; key++) {
+            List<File> classpath = new ArrayList<File>(filesPerProject);
+            for (int i = 0; i < filesPerProject; i++) {
+                classpath.add(new File("/home/user/.gradle/caches/modules-2/files-2.1/group" + (i % 97)
+                        + "/artifact" + i + "/1.0." + key + "/artifact" + i + "-1.0." + key + ".jar"));
+            }
+            results.addValue(key, new BuilderResult(classpath, null));
+        }
+
+        ModelQueryOutput.BasicInfo basicInfo = new ModelQueryOutput.BasicInfo(
+                new ProjectId("group", "project" + projectIndex, "1.0"),
+                projectPath,
+                new File(projectDir, "build.gradle"),
+                new File(projectDir, "build"),
+                Collections.<GradleTaskID>emptyList());
+        return new ModelQueryOutput(basicInfo, results.create(), null);
+    }
+
+    private static Object deserialize(byte[] bytes, SerializationCache cache) {
+        try {
+            return SerializationUtils.deserializeObject(bytes, cache);
+        } catch (ClassNotFoundException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    private static int consume(CustomSerializedMap results, SerializationCache cache, boolean allKeys) {
+        int count = 0;
+        for (Map.Entry<Object, SerializedEntries> entry: results.getMap().entrySet()) {
+            count += entry.getValue().getUnserialized(cache, null).size();
+            if (!allKeys) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    private static int runDoubleSerialization(List<byte[]> builderOutputs) {
+        SerializationCache cache = SerializationCaches.getDefault();
+
+        // Build action: deserialize every output, then serialize them again.
+        List<Object> actionResult = new ArrayList<Object>(builderOutputs.size());
+        for (byte[] output: builderOutputs) {
+            ModelQueryOutput modelOutput = (ModelQueryOutput)deserialize(output, cache);
+            actionResult.add(modelOutput.getBasicInfo());
+            actionResult.add(modelOutput.getProjectInfoResults());
+        }
+        byte[] transferred = SerializationUtils.serializeObject(actionResult);
+
+        // IDE: deserialize the envelope, then every result.
+        List<?> received = (List<?>)deserialize(transferred, cache);
+        int count = 0;
+        for (int i = 1; i < received.size(); i += 2) {
+            count += consume((CustomSerializedMap)received.get(i), cache, true);
+        }
+        return count;
+    }
+
+    private static int runSingleLayer(List<byte[]> basicInfos, List<byte[]> builderOutputs, boolean allKeys) {
+        SerializationCache cache = SerializationCaches.getDefault();
+
+        // Build action: only the basic info is deserialized.
+        List<Object> actionResult = new ArrayList<Object>(builderOutputs.size());
+        for (int i = 0; i < builderOutputs.size(); i++) {
+            actionResult.add(deserialize(basicInfos.get(i), cache));
+            actionResult.add(builderOutputs.get(i));
+        }
+        byte[] transferred = SerializationUtils.serializeObject(actionResult);
+
+        // IDE: deserialize the envelope, then only the requested results.
+        List<?> received = (List<?>)deserialize(transferred, cache);
+        int count = 0;
+        for (int i = 1; i < received.size(); i += 2) {
+            ModelQueryOutput modelOutput = (ModelQueryOutput)deserialize((byte[])received.get(i), cache);
+            count += consume(modelOutput.getProjectInfoResults(), cache, allKeys);
+        }
+        return count;
+    }
+
+    private static List<MemoryPoolMXBean> heapPools() {
+        List<MemoryPoolMXBean> result = new ArrayList<MemoryPoolMXBean>();
+        for (MemoryPoolMXBean pool: ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                result.add(pool);
+            }
+        }
+        return result;
+    }
+
+    private static void resetPeak(List<MemoryPoolMXBean> pools) {
+        System.gc();
+        for (MemoryPoolMXBean pool: pools) {
+            pool.resetPeakUsage();
+        }
+    }
+
+    private static long peakUsed(List<MemoryPoolMXBean> pools) {
+        long result = 0;
+        for (MemoryPoolMXBean pool: pools) {
+            result += pool.getPeakUsage().getUsed();
+        }
+        return result;
+    }
+
+    private static void report(String name, long nanos, long peakBytes) {
+        System.out.println(name + ": " + (nanos / 1000000L) + " ms, peak heap " + (peakBytes / (1024L * 1024L)) + " MiB");
+    }
+
+    public static void main(String[] args) {
+        int projectCount = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int filesPerProject = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+
+        List<byte[]> basicInfos = new ArrayList<byte[]>(projectCount);
+        List<byte[]> builderOutputs = new ArrayList<byte[]>(projectCount);
+        long totalSize = 0;
+        for (int i = 0; i < projectCount; i++) {
+            ModelQueryOutput output = createOutput(i, filesPerProject);
+            basicInfos.add(SerializationUtils.serializeObject(output.getBasicInfo()));
+            byte[] serializedOutput = SerializationUtils.serializeObject(output);
+            builderOutputs.add(serializedOutput);
+            totalSize += serializedOutput.length;
+        }
+        System.out.println("Serialized builder output: " + (totalSize / 1024L) + " KiB in " + projectCount + " projects");
+
+        List<MemoryPoolMXBean> pools = heapPools();
+        for (int round = 0; round < ROUNDS; round++) {
+            resetPeak(pools);
+            long startTime = System.nanoTime();
+            runDoubleSerialization(builderOutputs);
+            report("double serialization, eager", System.nanoTime() - startTime, peakUsed(pools));
+
+            resetPeak(pools);
+            startTime = System.nanoTime();
+            runSingleLayer(basicInfos, builderOutputs, true);
+            report("single layer, all results used", System.nanoTime() - startTime, peakUsed(pools));
+
+            resetPeak(pools);
+            startTime = System.nanoTime();
+            runSingleLayer(basicInfos, builderOutputs, false);
+            report("single layer, one result used", System.nanoTime() - startTime, peakUsed(pools));
+        }
+    }
+
+    private ModelTransferBenchmark() {
+        throw new AssertionError();
+    }
+}
@@ -1,5 +1,6 @@
 package org.netbeans.gradle.model.java;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.util.Arrays;
@@ -16,25 +17,31 @@ import java.util.Set;
 import java.util.regex.Pattern;
 import org.gradle.tooling.ProjectConnection;
 import org.gradle.tooling.model.GradleProject;
+import org.gradle.tooling.model.build.BuildEnvironment;
 import org.gradle.tooling.model.eclipse.EclipseProject;
 import org.gradle.tooling.model.idea.IdeaModule;
 import org.gradle.tooling.model.idea.IdeaProject;
+import org.gradle.util.GradleVersion;
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.netbeans.gradle.model.BuildInfoBuilder;
+import org.netbeans.gradle.model.BuildOperationArgs;
 import org.netbeans.gradle.model.BuilderIssue;
+import org.netbeans.gradle.model.BuilderProfile;
 import org.netbeans.gradle.model.BuilderResult;
 import org.netbeans.gradle.model.FetchedModels;
 import org.netbeans.gradle.model.FetchedModelsOrError;
+import org.netbeans.gradle.model.FetchedProjectModels;
 import org.netbeans.gradle.model.GenericModelFetcher;
 import org.netbeans.gradle.model.GenericProjectProperties;
 import org.netbeans.gradle.model.GradleBuildInfoQuery;
 import org.netbeans.gradle.model.GradleMultiProjectDef;
 import org.netbeans.gradle.model.GradleProjectTree;
 import org.netbeans.gradle.model.GradleTaskID;
+import org.netbeans.gradle.model.OperationInitializer;
 import org.netbeans.gradle.model.ProjectId;
 import org.netbeans.gradle.model.api.GradleProjectInfoQuery2;
 import org.netbeans.gradle.model.api.ProjectInfoBuilder2;
@@ -348,6 +355,85 @@ public class MultiLevelJavaProjectTest {
         testJavaSourcesModelForJavaProject("libs:lib3:lib2", sourcesOfLib3Lib2());
     }
 
+    private static FetchedProjectModels fetchWithModelCache(
+            ProjectConnection connection,
+            GenericModelFetcher fetcher) throws IOException {
+
+        FetchedModels models = verifyNoError(fetcher.getModels(connection, new OperationInitializer() {
+            public void initOperation(BuildOperationArgs args) {
+                defaultInit().initOperation(args);
+                args.setArguments("-Porg.netbeans.gradle.enableModelCache=true");
+            }
+        }));
+        return models.getDefaultProjectModels();
+    }
+
+    @Test
+    public void testJavaSourcesModelFromModelCache() throws IOException {
+        final GenericModelFetcher fetcher = projectInfoFetcher(JavaModelBuilders.JAVA_SOURCES_BUILDER_COMPLETE);
+        runTestForSubProject("libs:lib1", new ProjectConnectionTask() {
+            public void doTask(ProjectConnection connection) throws Exception {
+                FetchedProjectModels firstModels = fetchWithModelCache(connection, fetcher);
+                assertFalse("The builders must be run for the first query.",
+                        firstModels.getBuilderProfiles().isEmpty());
+
+                File cacheDir = getSubPath(testedProjectDir, ".gradle", "nb-model-cache");
+                File[] cacheFiles = cacheDir.listFiles();
+                assertTrue("Must have cached models.", cacheFiles != null && cacheFiles.length > 0);
+
+                // Outputs loaded from the cache have no profile because their
+                // builders are not run.
+                FetchedProjectModels secondModels = fetchWithModelCache(connection, fetcher);
+                assertTrue("The second query must be served from the cache.",
+                        secondModels.getBuilderProfiles().isEmpty());
+
+                BuilderResult builderResult = CollectionUtils.getSingleElement(
+                        secondModels.getProjectInfoResults().get(0));
+                JavaSourcesModel sourcesModel = (JavaSourcesModel)builderResult.getResultIfNoIssue();
+                assertNotNull("Must have a cached JavaSourcesModel.", sourcesModel);
+                SourceSetVerification.verifySourcesModelWithoutDependencies(sourcesOfLib1(), sourcesModel);
+
+                JavaClassPaths mainClassPaths = classPathsOfSourceSet(sourcesModel, "main");
+                verifyProjectDependencies(mainClassPaths.getCompileClasspaths(), "libs:lib2");
+                JavaModelTests.checkNoDependencyResolultionError(sourcesModel);
+            }
+        });
+    }
+
+    @Test
+    public void testConfigurationResolveTimesAreProfiled() throws IOException {
+        Map<Object, List<GradleBuildInfoQuery<?>>> buildInfos = Collections.emptyMap();
+
+        Map<Object, List<GradleProjectInfoQuery2<?>>> projectInfos
+                = new HashMap<Object, List<GradleProjectInfoQuery2<?>>>();
+        projectInfos.put(0, Collections.<GradleProjectInfoQuery2<?>>singletonList(
+                InfoQueries.toCustomQuery(JavaModelBuilders.JAVA_SOURCES_BUILDER_COMPLETE)));
+        projectInfos.put(1, Collections.<GradleProjectInfoQuery2<?>>singletonList(
+                InfoQueries.toCustomQuery(JavaModelBuilders.JAR_OUTPUTS_BUILDER)));
+
+        Set<Class<?>> toolingModels = Collections.emptySet();
+
+        final GenericModelFetcher fetcher = new GenericModelFetcher(buildInfos, projectInfos, toolingModels);
+        runTestForSubProject("apps:app2", new ProjectConnectionTask() {
+            public void doTask(ProjectConnection connection) throws Exception {
+                FetchedModels models = verifyNoError(fetcher.getModels(connection, TestUtils.defaultInit()));
+
+                // Only the sources builder reports phases.
+                List<String> phaseNames = new LinkedList<String>();
+                for (BuilderProfile profile: models.getDefaultProjectModels().getBuilderProfiles()) {
+                    for (BuilderProfile phase: profile.getPhases()) {
+                        phaseNames.add(phase.getBuilderName());
+                    }
+                }
+
+                // main and test have their own compile and runtime classpath.
+                assertEquals("Resolved configurations: " + phaseNames, 4, phaseNames.size());
+                assertEquals("Each configuration must be resolved once: " + phaseNames,
+                        phaseNames.size(), new HashSet<String>(phaseNames).size());
+            }
+        });
+    }
+
     private static JavaSourceGroup findSourceGroup(JavaSourceSet sourceSet, JavaSourceGroupName name) {
         for (JavaSourceGroup group: sourceSet.getSourceGroups()) {
             if (name.equals(group.getGroupName())) {
@@ -727,6 +813,131 @@ public class MultiLevelJavaProjectTest {
         });
     }
 
+    private static Set<String> collectProjectPaths(GradleProjectTree tree, Set<String> result) {
+        result.add(tree.getGenericProperties().getProjectFullName());
+        for (GradleProjectTree child: tree.getChildren()) {
+            collectProjectPaths(child, result);
+        }
+        return result;
+    }
+
+    @Test
+    public void testRequiredProjectsOnly() throws IOException {
+        Map<Object, List<GradleBuildInfoQuery<?>>> buildInfos = Collections.emptyMap();
+
+        Map<Object, List<GradleProjectInfoQuery2<?>>> projectInfos
+                = new HashMap<Object, List<GradleProjectInfoQuery2<?>>>();
+        projectInfos.put(0, Collections.<GradleProjectInfoQuery2<?>>singletonList(
+                InfoQueries.toCustomQuery(JavaModelBuilders.JAR_OUTPUTS_BUILDER)));
+
+        Set<Class<?>> toolingModels = Collections.emptySet();
+
+        final GenericModelFetcher fetcher = new GenericModelFetcher(buildInfos, projectInfos, toolingModels);
+        runTestForSubProject("apps:app1", new ProjectConnectionTask() {
+            public void doTask(ProjectConnection connection) throws Exception {
+                FetchedModels models = verifyNoError(fetcher.getModels(connection, TestUtils.defaultInit(), true));
+
+                Set<String> fetchedProjects = new HashSet<String>();
+                for (FetchedProjectModels projectModels: models.getOtherProjectModels()) {
+                    GradleProjectTree mainProject = projectModels.getProjectDef().getMainProject();
+                    fetchedProjects.add(mainProject.getGenericProperties().getProjectFullName());
+                }
+                assertEquals(new HashSet<String>(Arrays.asList(":libs:lib1", ":libs:lib2")), fetchedProjects);
+
+                GradleMultiProjectDef projectDef = models.getDefaultProjectModels().getProjectDef();
+                assertEquals(":apps:app1", projectDef.getMainProject().getGenericProperties().getProjectFullName());
+
+                Set<String> treeProjects = collectProjectPaths(projectDef.getRootProject(), new HashSet<String>());
+                for (String relativeProjectName: allProjects()) {
+                    assertTrue(relativeProjectName, treeProjects.contains(":" + relativeProjectName));
+                }
+            }
+        });
+    }
+
+    private static final String REGISTRATION_LOG_PREFIX = "NetBeans model builder registration: ";
+
+    private static String fetchAndGetRegistration(
+            ProjectConnection connection,
+            final String... extraArgs) throws IOException {
+
+        final String prefix = "testRegistration-";
+        GenericModelFetcher fetcher = projectInfoFetcher(TestBuilders.testProjectInfoBuilder(prefix));
+
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        FetchedModels models = verifyNoError(fetcher.getModels(connection, new OperationInitializer() {
+            public void initOperation(BuildOperationArgs args) {
+                defaultInit().initOperation(args);
+                args.setStandardOutput(output);
+                args.setArguments(concatArrays(new String[]{"--info"}, extraArgs));
+            }
+        }));
+
+        // Every project must be served by the builder, regardless how it was
+        // registered.
+        Set<String> fetchedProjects = new HashSet<String>();
+        List<FetchedProjectModels> allModels = new LinkedList<FetchedProjectModels>(models.getOtherProjectModels());
+        allModels.add(models.getDefaultProjectModels());
+        for (FetchedProjectModels projectModels: allModels) {
+            GenericProjectProperties properties = projectModels.getProjectDef().getMainProject().getGenericProperties();
+            String info = (String)getSingleBuildResult(projectModels.getProjectInfoResults().get(0));
+            assertEquals(prefix + properties.getProjectName(), info);
+            fetchedProjects.add(properties.getProjectFullName());
+        }
+        for (String relativeProjectName: allProjects()) {
+            assertTrue(relativeProjectName, fetchedProjects.contains(":" + relativeProjectName));
+        }
+
+        String outputStr = output.toString("UTF-8");
+        int prefixIndex = outputStr.indexOf(REGISTRATION_LOG_PREFIX);
+        assertTrue("Registration must be logged.", prefixIndex >= 0);
+        assertEquals("Registration must be logged once.",
+                prefixIndex, outputStr.lastIndexOf(REGISTRATION_LOG_PREFIX));
+
+        int startIndex = prefixIndex + REGISTRATION_LOG_PREFIX.length();
+        int endIndex = startIndex;
+        while (endIndex < outputStr.length() && !Character.isWhitespace(outputStr.charAt(endIndex))) {
+            endIndex++;
+        }
+        return outputStr.substring(startIndex, endIndex);
+    }
+
+    private static GradleVersion getDaemonGradleVersion(ProjectConnection connection) {
+        BuildEnvironment environment = connection.getModel(BuildEnvironment.class);
+        return GradleVersion.version(environment.getGradle().getGradleVersion());
+    }
+
+    @Test
+    public void testModelBuilderRegistrationDependsOnGradleVersion() {
+        runTestForSubProject("", new ProjectConnectionTask() {
+            public void doTask(ProjectConnection connection) throws Exception {
+                String registration = fetchAndGetRegistration(connection);
+
+                if (getDaemonGradleVersion(connection).compareTo(GradleVersion.version("6.0")) >= 0) {
+                    assertEquals("build", registration);
+                }
+                else {
+                    // Before Gradle 6.0, the registry of the root project must
+                    // be checked, unless there is no build scoped registry at all.
+                    Set<String> expected = new HashSet<String>(Arrays.asList(
+                            "shared-root", "per-project-root", "per-project"));
+                    assertTrue("Unexpected registration: " + registration, expected.contains(registration));
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testModelBuilderRegistrationPerProject() {
+        runTestForSubProject("apps:app1", new ProjectConnectionTask() {
+            public void doTask(ProjectConnection connection) throws Exception {
+                String registration = fetchAndGetRegistration(connection,
+                        "-Porg.netbeans.gradle.registerModelBuilderPerProject=true");
+                assertEquals("forced-per-project", registration);
+            }
+        });
+    }
+
     private static <T> T findResultOfType(Class<T> type, Collection<BuilderResult> builders) {
         for (BuilderResult builder: builders) {
             Object result = builder.getResultObject();
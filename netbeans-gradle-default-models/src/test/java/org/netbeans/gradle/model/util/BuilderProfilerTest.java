@@ -0,0 +1,40 @@
+package org.netbeans.gradle.model.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.netbeans.gradle.model.BuilderProfile;
+
+import static org.junit.Assert.*;
+
+public class BuilderProfilerTest {
+    @Test
+    public void testMeasuresTime() throws InterruptedException {
+        BuilderProfiler profiler = BuilderProfiler.start();
+        Thread.sleep(20);
+        BuilderProfile profile = profiler.stop("test-builder");
+
+        assertEquals("test-builder", profile.getBuilderName());
+        assertTrue(profile.getWallTimeNanos() >= 10L * 1000L * 1000L);
+    }
+
+    @Test
+    public void testMeasuresAllocation() {
+        BuilderProfiler profiler = BuilderProfiler.start();
+        List<byte[]> allocated = new ArrayList<byte[]>();
+        for (int i = 0; i < 16; i++) {
+            allocated.add(new byte[64 * 1024]);
+        }
+        BuilderProfile profile = profiler.stop("test-builder");
+
+        assertEquals(16, allocated.size());
+        long allocatedBytes = profile.getAllocatedBytes();
+        assertTrue("allocatedBytes", allocatedBytes == -1 || allocatedBytes >= 16L * 64L * 1024L);
+    }
+
+    @Test
+    public void testNullName() {
+        BuilderProfile profile = BuilderProfiler.start().stop(null);
+        assertEquals("", profile.getBuilderName());
+    }
+}
@@ -0,0 +1,78 @@
+package org.netbeans.gradle.model.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ClassLoaderCacheTest {
+    private File jarFile;
+
+    @Before
+    public void setUp() throws IOException {
+        jarFile = File.createTempFile("ClassLoaderCacheTest", ".jar");
+    }
+
+    @After
+    public void tearDown() {
+        if (jarFile != null) {
+            jarFile.delete();
+        }
+    }
+
+    private List<File> classPath() {
+        return Collections.singletonList(jarFile);
+    }
+
+    @Test
+    public void testSameClassPathReusesClassLoader() {
+        ClassLoaderCache cache = new ClassLoaderCache(4);
+        ClassLoader parent = getClass().getClassLoader();
+
+        ClassLoader classLoader1 = cache.getClassLoader(classPath(), parent);
+        ClassLoader classLoader2 = cache.getClassLoader(classPath(), parent);
+
+        assertSame(classLoader1, classLoader2);
+        assertSame(parent, classLoader1.getParent());
+    }
+
+    @Test
+    public void testDifferentParentCreatesNewClassLoader() {
+        ClassLoaderCache cache = new ClassLoaderCache(4);
+        ClassLoader parent = getClass().getClassLoader();
+
+        ClassLoader classLoader1 = cache.getClassLoader(classPath(), parent);
+        ClassLoader classLoader2 = cache.getClassLoader(classPath(), classLoader1);
+
+        assertNotSame(classLoader1, classLoader2);
+    }
+
+    @Test
+    public void testModifiedClassPathCreatesNewClassLoader() {
+        ClassLoaderCache cache = new ClassLoaderCache(4);
+        ClassLoader parent = getClass().getClassLoader();
+
+        ClassLoader classLoader1 = cache.getClassLoader(classPath(), parent);
+        assertTrue(jarFile.setLastModified(jarFile.lastModified() - 10000));
+        ClassLoader classLoader2 = cache.getClassLoader(classPath(), parent);
+
+        assertNotSame(classLoader1, classLoader2);
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        ClassLoaderCache cache = new ClassLoaderCache(1);
+        ClassLoader parent = getClass().getClassLoader();
+
+        ClassLoader classLoader1 = cache.getClassLoader(classPath(), parent);
+        cache.getClassLoader(Collections.<File>emptyList(), parent);
+        ClassLoader classLoader2 = cache.getClassLoader(classPath(), parent);
+
+        assertNotSame(classLoader1, classLoader2);
+    }
+}
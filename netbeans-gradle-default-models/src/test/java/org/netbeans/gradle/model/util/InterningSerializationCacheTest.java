@@ -0,0 +1,208 @@
+package org.netbeans.gradle.model.util;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class InterningSerializationCacheTest {
+    @Test
+    public void testSharesStrings() {
+        SerializationCache cache = new InterningSerializationCache();
+
+        String first = new String("compile");
+        String second = new String("compile");
+
+        assertSame(first, cache.getCached(first));
+        assertSame(first, cache.getCached(second));
+    }
+
+    @Test
+    public void testSharesFiles() {
+        SerializationCache cache = new InterningSerializationCache();
+
+        File first = new File("build", "libs");
+        assertSame(first, cache.getCached(first));
+        assertSame(first, cache.getCached(new File("build", "libs")));
+    }
+
+    @Test
+    public void testSharesInternableValues() {
+        SerializationCache cache = new InterningSerializationCache();
+
+        TestValue first = new TestValue("TEST-VALUE");
+        assertSame(first, cache.getCached(first));
+        assertSame(first, cache.getCached(new TestValue("TEST-VALUE")));
+    }
+
+    @Test
+    public void testSharesAdditionalTypes() {
+        SerializationCache cache = new InterningSerializationCache(TestType.class);
+
+        TestType first = new TestType("TEST-VALUE");
+        assertSame(first, cache.getCached(first));
+        assertSame(first, cache.getCached(new TestType("TEST-VALUE")));
+    }
+
+    @Test
+    public void testDoesNotShareOtherTypes() {
+        SerializationCache cache = new InterningSerializationCache();
+
+        List<String> first = new ArrayList<String>(Arrays.asList("a"));
+        List<String> second = new ArrayList<String>(Arrays.asList("a"));
+
+        assertSame(first, cache.getCached(first));
+        assertSame(second, cache.getCached(second));
+
+        TestType firstType = new TestType("TEST-VALUE");
+        TestType secondType = new TestType("TEST-VALUE");
+        assertSame(firstType, cache.getCached(firstType));
+        assertSame(secondType, cache.getCached(secondType));
+    }
+
+    @Test
+    public void testNull() {
+        assertNull(new InterningSerializationCache().getCached(null));
+    }
+
+    private static List<byte[]> serializeSyntheticBuild(int projectCount, int dependencyCount) {
+        File cacheDir = new File("/home/user/.gradle/caches/modules-2/files-2.1");
+
+        List<byte[]> result = new ArrayList<byte[]>(projectCount);
+        for (int projectIndex = 0; projectIndex < projectCount; projectIndex++) {
+            List<Object> model = new ArrayList<Object>();
+            for (String configName: Arrays.asList("compile", "runtime", "testCompile", "testRuntime")) {
+                for (int i = 0; i < dependencyCount; i++) {
+                    String group = "org.example.group" + (i % 10);
+                    String artifact = "artifact" + i;
+                    String version = "1." + (i % 3);
+
+                    model.add(new TestDependency(configName, group, artifact, version,
+                            new File(cacheDir, group + "/" + artifact + "/" + version + "/" + artifact + ".jar")));
+                }
+            }
+            result.add(SerializationUtils.serializeObject(model));
+        }
+        return result;
+    }
+
+    private static List<Object> deserializeAll(List<byte[]> serialized, SerializationCache cache) throws ClassNotFoundException {
+        List<Object> result = new ArrayList<Object>(serialized.size());
+        for (byte[] entry: serialized) {
+            result.add(SerializationUtils.deserializeObject(entry, cache));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the approximate number of bytes used by the distinct string and
+     * file instances referenced by the given models.
+     */
+    private static long retainedValueBytes(List<Object> models) {
+        Map<Object, Boolean> distinct = new IdentityHashMap<Object, Boolean>();
+        for (Object model: models) {
+            for (Object element: (List<?>)model) {
+                TestDependency dependency = (TestDependency)element;
+                distinct.put(dependency.configName, Boolean.TRUE);
+                distinct.put(dependency.group, Boolean.TRUE);
+                distinct.put(dependency.artifact, Boolean.TRUE);
+                distinct.put(dependency.version, Boolean.TRUE);
+                distinct.put(dependency.file, Boolean.TRUE);
+            }
+        }
+
+        long result = 0;
+        for (Object value: distinct.keySet()) {
+            int length = value instanceof File
+                    ? ((File)value).getPath().length()
+                    : ((String)value).length();
+            result += 40 + 2 * length;
+        }
+        return result;
+    }
+
+    @Test
+    public void testSyntheticBuildUsesLessMemory() throws ClassNotFoundException {
+        List<byte[]> serialized = serializeSyntheticBuild(100, 50);
+
+        long fileOnlyBytes = retainedValueBytes(deserializeAll(serialized, new SharedTypesSerializationCache(File.class)));
+        long interningBytes = retainedValueBytes(deserializeAll(serialized, new InterningSerializationCache()));
+
+        assertTrue("Expected at least half of the memory to be saved: " + fileOnlyBytes + " -> " + interningBytes,
+                interningBytes * 2 < fileOnlyBytes);
+    }
+
+    private static final class TestDependency implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        public final String configName;
+        public final String group;
+        public final String artifact;
+        public final String version;
+        public final File file;
+
+        public TestDependency(String configName, String group, String artifact, String version, File file) {
+            this.configName = configName;
+            this.group = group;
+            this.artifact = artifact;
+            this.version = version;
+            this.file = file;
+        }
+    }
+
+    private static final class TestValue implements Serializable, InternableValue {
+        private static final long serialVersionUID = 1L;
+
+        private final String value;
+
+        public TestValue(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 + value.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) return true;
+            if (obj == null) return false;
+            if (getClass() != obj.getClass()) return false;
+
+            final TestValue other = (TestValue)obj;
+            return value.equals(other.value);
+        }
+    }
+
+    private static final class TestType implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String value;
+
+        public TestType(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 + value.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) return true;
+            if (obj == null) return false;
+            if (getClass() != obj.getClass()) return false;
+
+            final TestType other = (TestType)obj;
+            return value.equals(other.value);
+        }
+    }
+}
@@ -140,4 +140,44 @@ public class TemporaryFileManagerTest {
     public void testModifiedContentWithNonEmpty() throws Exception {
         testModifiedContent("testModifiedContentWithNonEmpty", new byte[]{1, 2, 3});
     }
+
+    @Test
+    public void testPersistentFileIsKeptAndShared() throws Exception {
+        String content = "EXPECTED FILE content: testPersistentFileIsKeptAndShared";
+
+        String name = "testPersistentFileIsKeptAndShared";
+        TemporaryFileRef fileRef1 = TemporaryFileManager.getDefault().createPersistentFile(name, content, UTF8);
+        try {
+            fileRef1.close();
+            assertTrue("Persistent file must be kept after close.", fileRef1.getFile().isFile());
+
+            TemporaryFileRef fileRef2 = TemporaryFileManager.getDefault().createPersistentFile(name, content, UTF8);
+            try {
+                assertEquals(fileRef1.getFile(), fileRef2.getFile());
+                assertContent(fileRef2, content);
+            } finally {
+                fileRef2.close();
+            }
+        } finally {
+            fileRef1.getFile().delete();
+        }
+    }
+
+    @Test
+    public void testPersistentFileIsRewrittenIfDeleted() throws Exception {
+        String content = "EXPECTED FILE content: testPersistentFileIsRewrittenIfDeleted";
+
+        String name = "testPersistentFileIsRewrittenIfDeleted";
+        TemporaryFileRef fileRef1 = TemporaryFileManager.getDefault().createPersistentFile(name, content, UTF8);
+        fileRef1.close();
+        assertTrue(fileRef1.getFile().delete());
+
+        TemporaryFileRef fileRef2 = TemporaryFileManager.getDefault().createPersistentFile(name, content, UTF8);
+        try {
+            assertContent(fileRef2, content);
+        } finally {
+            fileRef2.close();
+            fileRef2.getFile().delete();
+        }
+    }
 }
@@ -2,18 +2,61 @@ package org.netbeans.gradle.project;
 
 import java.io.File;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import org.jtrim.event.ListenerRef;
 import org.jtrim.utils.ExceptionHelper;
-import org.netbeans.gradle.project.properties.WeakValueHashMap;
+import org.netbeans.gradle.project.event.ChangeListenerManager;
+import org.netbeans.gradle.project.event.GenericChangeListenerManager;
+import org.netbeans.gradle.project.model.NbGradleModel;
+import org.netbeans.gradle.project.util.ConcurrentWeakValueMap;
 import org.netbeans.gradle.project.util.NbConsumer;
 import org.netbeans.gradle.project.util.NbFileUtils;
 
+/**
+ * Keeps track of the loaded Gradle projects. Besides the directory of the
+ * projects, the loaded projects are also indexed by the build they belong to
+ * (identified by the directory of the settings file of the build) and by their
+ * project path within the build. So, the projects of a particular build can
+ * be found without iterating over the projects of every build. Listeners can be
+ * registered for the changes of a single build or for the changes of the set
+ * of loaded builds.
+ * <P>
+ * The methods of this class are safe to be called from multiple threads
+ * concurrently. Queries do not require locking.
+ */
 public final class LoadedProjectManager {
     private static final LoadedProjectManager DEFAULT = new LoadedProjectManager();
 
-    private final WeakValueHashMap<Path, NbGradleProject> projects;
+    private static final int MIN_PRUNE_THRESHOLD = 16;
+
+    private final ConcurrentWeakValueMap<Path, NbGradleProject> projects;
+
+    private final Lock buildsLock;
+    private final ConcurrentMap<Path, BuildProjects> builds;
+    // Guarded by buildsLock
+    private final Map<Path, BuildLocation> projectLocations;
+    // Guarded by buildsLock
+    private int pruneThreshold;
+
+    private final ChangeListenerManager loadedBuildsListeners;
 
     public LoadedProjectManager() {
-        this.projects = new WeakValueHashMap<>();
+        this.projects = new ConcurrentWeakValueMap<>();
+        this.buildsLock = new ReentrantLock();
+        this.builds = new ConcurrentHashMap<>();
+        this.projectLocations = new HashMap<>();
+        this.pruneThreshold = MIN_PRUNE_THRESHOLD;
+        this.loadedBuildsListeners = new GenericChangeListenerManager();
     }
 
     public static LoadedProjectManager getDefault() {
@@ -25,6 +68,136 @@ public final class LoadedProjectManager {
         projects.put(projectDir, project);
     }
 
+    /**
+     * Records the build of the given project based on its most recently
+     * loaded model. This method must be called whenever the model of the
+     * project changes, so that the per build queries of this registry remain
+     * up-to-date.
+     *
+     * @param project the project whose model was changed. This argument
+     *   cannot be {@code null}.
+     * @param model the new model of the project. This argument cannot be
+     *   {@code null}.
+     */
+    public void updateProjectModel(NbGradleProject project, NbGradleModel model) {
+        ExceptionHelper.checkNotNullArgument(project, "project");
+        ExceptionHelper.checkNotNullArgument(model, "model");
+
+        Path projectDir = project.getProjectDirectoryAsPath();
+        BuildLocation newLocation = new BuildLocation(
+                model.getSettingsDir(),
+                model.getMainProject().getProjectFullName());
+        int numberOfProjects = model.getProjectDef().getNumberOfProjectsInThisBuild();
+
+        BuildProjects prevBuild = null;
+        BuildProjects newBuild;
+        boolean loadedBuildsChanged;
+
+        buildsLock.lock();
+        try {
+            BuildLocation prevLocation = projectLocations.put(projectDir, newLocation);
+            loadedBuildsChanged = !newLocation.equals(prevLocation);
+            if (prevLocation != null && loadedBuildsChanged) {
+                prevBuild = builds.get(prevLocation.buildDir);
+                if (prevBuild != null) {
+                    prevBuild.projects.remove(prevLocation.projectPath, project);
+                    if (prevBuild.projects.isEmpty()) {
+                        removeBuildIfUnused(prevLocation.buildDir, prevBuild);
+                    }
+                }
+            }
+
+            newBuild = getOrCreateBuild(newLocation.buildDir);
+            // The project might have been garbage collected and then reloaded
+            // with the same location.
+            if (newBuild.projects.put(newLocation.projectPath, project) != project) {
+                loadedBuildsChanged = true;
+            }
+            if (newBuild.numberOfProjects != numberOfProjects) {
+                newBuild.numberOfProjects = numberOfProjects;
+                loadedBuildsChanged = true;
+            }
+
+            if (projectLocations.size() > pruneThreshold) {
+                pruneUnloadedProjects();
+                pruneThreshold = Math.max(MIN_PRUNE_THRESHOLD, 2 * projectLocations.size());
+            }
+        } finally {
+            buildsLock.unlock();
+        }
+
+        if (prevBuild != null) {
+            prevBuild.changeListeners.fireEventually();
+        }
+        newBuild.changeListeners.fireEventually();
+        if (loadedBuildsChanged) {
+            loadedBuildsListeners.fireEventually();
+        }
+    }
+
+    private BuildProjects getOrCreateBuild(Path buildDir) {
+        assert ((ReentrantLock)buildsLock).isHeldByCurrentThread();
+
+        BuildProjects result = builds.get(buildDir);
+        if (result == null) {
+            result = new BuildProjects();
+            builds.put(buildDir, result);
+        }
+        return result;
+    }
+
+    /**
+     * Removes the given build which no longer has any loaded project, unless
+     * it has a registered listener. The listeners of a build are kept even if
+     * all of its projects are gone, so that they are notified when a project
+     * of the build is loaded again.
+     * <P>
+     * This method must be called while holding {@code buildsLock}.
+     */
+    private void removeBuildIfUnused(Path buildDir, BuildProjects build) {
+        assert ((ReentrantLock)buildsLock).isHeldByCurrentThread();
+
+        if (build.changeListeners.getListenerCount() > 0) {
+            build.numberOfProjects = 0;
+        }
+        else {
+            builds.remove(buildDir, build);
+        }
+    }
+
+    /**
+     * Removes the locations of the projects which were garbage collected (or
+     * were replaced by another project in their build) and the builds which
+     * no longer have any loaded project. The projects themselves are
+     * referenced weakly, so this method must be called periodically to
+     * prevent the indexes from growing indefinitely.
+     * <P>
+     * This method must be called while holding {@code buildsLock}.
+     */
+    private void pruneUnloadedProjects() {
+        assert ((ReentrantLock)buildsLock).isHeldByCurrentThread();
+
+        Iterator<Map.Entry<Path, BuildLocation>> locationItr = projectLocations.entrySet().iterator();
+        while (locationItr.hasNext()) {
+            Map.Entry<Path, BuildLocation> entry = locationItr.next();
+            BuildLocation location = entry.getValue();
+
+            BuildProjects build = builds.get(location.buildDir);
+            NbGradleProject project = build != null ? build.projects.get(location.projectPath) : null;
+            if (project == null || !entry.getKey().equals(project.getProjectDirectoryAsPath())) {
+                locationItr.remove();
+            }
+        }
+
+        Iterator<Map.Entry<Path, BuildProjects>> buildItr = builds.entrySet().iterator();
+        while (buildItr.hasNext()) {
+            Map.Entry<Path, BuildProjects> entry = buildItr.next();
+            if (entry.getValue().projects.isEmpty()) {
+                removeBuildIfUnused(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
     public void forProjects(NbConsumer<? super NbGradleProject> action) {
         ExceptionHelper.checkNotNullArgument(action, "action");
         for (NbGradleProject project: projects.values()) {
@@ -32,6 +205,101 @@ public final class LoadedProjectManager {
         }
     }
 
+    /**
+     * Returns the root directories of the builds having at least one project
+     * whose model was loaded.
+     *
+     * @return the root directories of the builds having at least one project
+     *   whose model was loaded. This method never returns {@code null}.
+     */
+    public Collection<Path> getLoadedBuilds() {
+        Collection<Path> result = new ArrayList<>(builds.size());
+        for (Map.Entry<Path, BuildProjects> entry: builds.entrySet()) {
+            if (!entry.getValue().projects.isEmpty()) {
+                result.add(entry.getKey());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the loaded projects of the build having the given root directory.
+     *
+     * @param buildDir the directory of the settings file of the build. This
+     *   argument cannot be {@code null}.
+     * @return the loaded projects of the given build. This method never
+     *   returns {@code null}.
+     */
+    public Collection<NbGradleProject> getProjectsOfBuild(Path buildDir) {
+        ExceptionHelper.checkNotNullArgument(buildDir, "buildDir");
+
+        BuildProjects build = builds.get(buildDir);
+        if (build == null) {
+            return Collections.emptySet();
+        }
+        return new ArrayList<>(build.projects.values());
+    }
+
+    /**
+     * Returns the number of projects of the given build according to the most
+     * recently loaded model of the build, or zero if none of the projects of
+     * the given build was loaded.
+     *
+     * @param buildDir the directory of the settings file of the build. This
+     *   argument cannot be {@code null}.
+     * @return the number of projects of the given build. This method always
+     *   returns a value greater than or equal to zero.
+     */
+    public int getNumberOfProjectsInBuild(Path buildDir) {
+        ExceptionHelper.checkNotNullArgument(buildDir, "buildDir");
+
+        BuildProjects build = builds.get(buildDir);
+        return build != null ? build.numberOfProjects : 0;
+    }
+
+    /**
+     * Registers a listener to be notified whenever the model of a project of
+     * the given build changes (including when a project joins or leaves the
+     * build). The listener is notified on the thread updating the model of
+     * the project.
+     *
+     * @param buildDir the directory of the settings file of the build. This
+     *   argument cannot be {@code null}.
+     * @param listener the listener to be notified. This argument cannot be
+     *   {@code null}.
+     * @return the reference which can be used to unregister the listener.
+     *   This method never returns {@code null}.
+     */
+    public ListenerRef addBuildChangeListener(Path buildDir, Runnable listener) {
+        ExceptionHelper.checkNotNullArgument(buildDir, "buildDir");
+        ExceptionHelper.checkNotNullArgument(listener, "listener");
+
+        buildsLock.lock();
+        try {
+            // Registered while holding the lock, so that the build cannot be
+            // pruned before it has a listener.
+            return getOrCreateBuild(buildDir).changeListeners.registerListener(listener);
+        } finally {
+            buildsLock.unlock();
+        }
+    }
+
+    /**
+     * Registers a listener to be notified whenever the set of loaded builds
+     * might have changed. That is, when a project joins or leaves a build or
+     * the number of projects of a build changes. Changing the model of a
+     * project without affecting its build does not notify the listener. The
+     * listener is notified on the thread updating the model of the project.
+     *
+     * @param listener the listener to be notified. This argument cannot be
+     *   {@code null}.
+     * @return the reference which can be used to unregister the listener.
+     *   This method never returns {@code null}.
+     */
+    public ListenerRef addLoadedBuildsChangeListener(Runnable listener) {
+        return loadedBuildsListeners.registerListener(listener);
+    }
+
     public NbGradleProject tryGetLoadedProject(File projectDir) {
         ExceptionHelper.checkNotNullArgument(projectDir, "projectDir");
         Path path = NbFileUtils.asPath(projectDir);
@@ -45,4 +313,45 @@ public final class LoadedProjectManager {
         ExceptionHelper.checkNotNullArgument(projectDir, "projectDir");
         return projects.get(projectDir);
     }
+
+    private static final class BuildProjects {
+        public final ConcurrentWeakValueMap<String, NbGradleProject> projects;
+        public final ChangeListenerManager changeListeners;
+        public volatile int numberOfProjects;
+
+        public BuildProjects() {
+            this.projects = new ConcurrentWeakValueMap<>();
+            this.changeListeners = new GenericChangeListenerManager();
+            this.numberOfProjects = 0;
+        }
+    }
+
+    private static final class BuildLocation {
+        public final Path buildDir;
+        public final String projectPath;
+
+        public BuildLocation(Path buildDir, String projectPath) {
+            this.buildDir = buildDir;
+            this.projectPath = projectPath;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 5;
+            hash = 83 * hash + Objects.hashCode(buildDir);
+            hash = 83 * hash + Objects.hashCode(projectPath);
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) return true;
+            if (obj == null) return false;
+            if (getClass() != obj.getClass()) return false;
+
+            final BuildLocation other = (BuildLocation)obj;
+            return Objects.equals(this.buildDir, other.buildDir)
+                    && Objects.equals(this.projectPath, other.projectPath);
+        }
+    }
 }
@@ -2,23 +2,24 @@ package org.netbeans.gradle.project;
 
 import java.nio.file.Path;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.jtrim.concurrent.GenericUpdateTaskExecutor;
 import org.jtrim.concurrent.TaskExecutor;
 import org.jtrim.concurrent.UpdateTaskExecutor;
 import org.jtrim.utils.ExceptionHelper;
-import org.netbeans.api.project.Project;
 import org.netbeans.api.project.ui.OpenProjects;
 import org.netbeans.gradle.project.model.DefaultGradleModelLoader;
-import org.netbeans.gradle.project.model.NbGradleModel;
-import org.netbeans.gradle.project.model.NbGradleMultiProjectDef;
-import org.netbeans.gradle.project.model.ProjectModelChangeListener;
 import org.netbeans.gradle.project.util.NbConsumer;
 import org.netbeans.gradle.project.util.NbTaskExecutors;
 
-public final class ModelCacheSizeAutoUpdater implements ProjectModelChangeListener {
+/**
+ * Ensures that the model cache is large enough to hold the models of every
+ * build having an opened project. The required cache size is only recalculated
+ * when the set of loaded builds changes (see
+ * {@link LoadedProjectManager#addLoadedBuildsChangeListener(Runnable)}), not
+ * after every change of the model of a project.
+ */
+public final class ModelCacheSizeAutoUpdater {
     private static final ModelCacheSizeAutoUpdater DEFAULT = new ModelCacheSizeAutoUpdater(NbTaskExecutors.newDefaultUpdateExecutor(), new NbConsumer<Integer>() {
         @Override
         public void accept(Integer requiredCacheSize) {
@@ -26,8 +27,11 @@ public final class ModelCacheSizeAutoUpdater implements ProjectModelChangeListen
         }
     });
 
+    private final LoadedProjectManager loadedProjects;
     private final UpdateTaskExecutor cacheSizeCheckExecutor;
     private final NbConsumer<? super Integer> cacheSizeUpdater;
+    private final Runnable cacheSizeChecker;
+    private final AtomicBoolean listening;
 
     public ModelCacheSizeAutoUpdater(TaskExecutor cacheSizeCheckExecutor, NbConsumer<? super Integer> cacheSizeUpdater) {
         this(new GenericUpdateTaskExecutor(cacheSizeCheckExecutor), cacheSizeUpdater);
@@ -37,57 +41,56 @@ public final class ModelCacheSizeAutoUpdater implements ProjectModelChangeListen
         ExceptionHelper.checkNotNullArgument(cacheSizeCheckExecutor, "cacheSizeCheckExecutor");
         ExceptionHelper.checkNotNullArgument(cacheSizeUpdater, "cacheSizeUpdater");
 
+        this.loadedProjects = LoadedProjectManager.getDefault();
         this.cacheSizeCheckExecutor = cacheSizeCheckExecutor;
         this.cacheSizeUpdater = cacheSizeUpdater;
-    }
-
-    public static ModelCacheSizeAutoUpdater getDefault() {
-        return DEFAULT;
-    }
-
-    @Override
-    public void onModelChanged() {
-        cacheSizeCheckExecutor.execute(new Runnable() {
+        this.cacheSizeChecker = new Runnable() {
             @Override
             public void run() {
                 checkCacheSize();
             }
-        });
+        };
+        this.listening = new AtomicBoolean(false);
     }
 
-    private void checkCacheSize() {
-        Project[] projects = OpenProjects.getDefault().getOpenProjects();
-        Map<Path, Integer> projectSizes = getProjectSizes(projects);
-
-        int requiredCacheSize = sum(projectSizes.values());
-        cacheSizeUpdater.accept(requiredCacheSize);
+    public static ModelCacheSizeAutoUpdater getDefault() {
+        return DEFAULT;
     }
 
-    private static int sum(Collection<Integer> values) {
-        int result = 0;
-        for (Integer value: values) {
-            result += value;
+    /**
+     * Starts updating the cache size whenever the set of loaded builds
+     * changes. Calling this method multiple times has no further effect.
+     */
+    public void ensureListening() {
+        if (listening.compareAndSet(false, true)) {
+            loadedProjects.addLoadedBuildsChangeListener(new Runnable() {
+                @Override
+                public void run() {
+                    cacheSizeCheckExecutor.execute(cacheSizeChecker);
+                }
+            });
         }
-        return result;
     }
 
-    private static Map<Path, Integer> getProjectSizes(Project[] projects) {
-        Map<Path, Integer> projectSizes = null;
-        for (Project project: projects) {
-            NbGradleProject gradleProject = project.getLookup().lookup(NbGradleProject.class);
-            if (gradleProject != null && gradleProject.wasModelEverSet()) {
-                NbGradleModel projectModel = gradleProject.currentModel().getValue();
-                NbGradleMultiProjectDef projectDef = projectModel.getGenericInfo().getProjectDef();
-                int numberOfProjectsInThisBuild = projectDef.getNumberOfProjectsInThisBuild();
-
-                if (projectSizes == null) {
-                    projectSizes = new HashMap<>();
-                }
+    private void checkCacheSize() {
+        int requiredCacheSize = 0;
+        for (Path buildDir: loadedProjects.getLoadedBuilds()) {
+            if (hasOpenedProject(loadedProjects.getProjectsOfBuild(buildDir))) {
                 // +1 for a possible buildSrc
-                projectSizes.put(projectModel.getSettingsDir(), numberOfProjectsInThisBuild + 1);
+                requiredCacheSize += loadedProjects.getNumberOfProjectsInBuild(buildDir) + 1;
             }
         }
 
-        return projectSizes != null ? projectSizes : Collections.<Path, Integer>emptyMap();
+        cacheSizeUpdater.accept(requiredCacheSize);
+    }
+
+    private static boolean hasOpenedProject(Collection<NbGradleProject> projects) {
+        OpenProjects openProjects = OpenProjects.getDefault();
+        for (NbGradleProject project: projects) {
+            if (openProjects.isProjectOpen(project)) {
+                return true;
+            }
+        }
+        return false;
     }
 }
@@ -109,6 +109,7 @@ public final class NbGradleProject implements Project {
         serviceObjects.updateExtensions(ExtensionLoader.loadExtensions(project));
 
         LoadedProjectManager.getDefault().addProject(project);
+        ModelCacheSizeAutoUpdater.getDefault().ensureListening();
         return project;
     }
 
@@ -371,7 +372,6 @@ public final class NbGradleProject implements Project {
             add(ProjectPropertiesApi.scriptPlatform(commonProperties.scriptPlatform().getActiveSource()), serviceObjects);
             add(ProjectPropertiesApi.sourceEncoding(commonProperties.sourceEncoding().getActiveSource()), serviceObjects);
             add(ProjectPropertiesApi.sourceLevel(commonProperties.sourceLevel().getActiveSource()), serviceObjects);
-            add(ModelCacheSizeAutoUpdater.getDefault(), serviceObjects);
 
             this.services = Lookups.fixed(serviceObjects.toArray());
             this.projectLookups = new NbGradleProjectLookups(project, services);
@@ -3,6 +3,7 @@ package org.netbeans.gradle.project;
 import java.io.File;
 import java.net.URI;
 import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import org.gradle.util.GradleVersion;
 import org.netbeans.gradle.project.model.NbGradleProjectTree;
@@ -186,6 +187,22 @@ public final class NbStrings {
         return adjustCaption(NbBundle.getMessage(NbStrings.class, "NbStrings.ReloadProject"), hotKey);
     }
 
+    public static String getShowModelLoadProfileCaption() {
+        return NbBundle.getMessage(NbStrings.class, "NbStrings.ShowModelLoadProfile");
+    }
+
+    public static String getModelLoadProfileTabCaption(String buildName) {
+        return NbBundle.getMessage(NbStrings.class, "NbStrings.ModelLoadProfileTabCaption", buildName);
+    }
+
+    public static String getModelLoadProfileTime(Date loadTime) {
+        return NbBundle.getMessage(NbStrings.class, "NbStrings.ModelLoadProfileTime", loadTime);
+    }
+
+    public static String getNoModelLoadProfile() {
+        return NbBundle.getMessage(NbStrings.class, "NbStrings.NoModelLoadProfile");
+    }
+
     public static String getRefreshNodeCommandCaption() {
         return NbBundle.getMessage(NbStrings.class, "NbStrings.RefreshNodeCommandCaption");
     }
@@ -19,6 +19,21 @@ public final class ProjectIssue {
         return entries;
     }
 
+    @Override
+    public int hashCode() {
+        return 37 * 7 + entries.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null) return false;
+        if (getClass() != obj.getClass()) return false;
+
+        final ProjectIssue other = (ProjectIssue)obj;
+        return this.entries.equals(other.entries);
+    }
+
     public static final class Entry {
         private final Kind kind;
         private final String summary;
@@ -49,6 +64,27 @@ public final class ProjectIssue {
         public String getDetails() {
             return details;
         }
+
+        @Override
+        public int hashCode() {
+            int hash = 7;
+            hash = 41 * hash + kind.hashCode();
+            hash = 41 * hash + summary.hashCode();
+            hash = 41 * hash + details.hashCode();
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (obj == null) return false;
+            if (getClass() != obj.getClass()) return false;
+
+            final Entry other = (Entry)obj;
+            return this.kind == other.kind
+                    && this.summary.equals(other.summary)
+                    && this.details.equals(other.details);
+        }
     }
 
     public enum Kind {
@@ -3,30 +3,33 @@ package org.netbeans.gradle.project;
 import java.beans.PropertyChangeListener;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Objects;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
-import org.jtrim.collections.RefLinkedList;
-import org.jtrim.collections.RefList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 import org.jtrim.event.ListenerRef;
 import org.jtrim.property.PropertySource;
+import org.jtrim.utils.ExceptionHelper;
 import org.netbeans.gradle.project.event.ChangeListenerManager;
 import org.netbeans.gradle.project.event.GenericChangeListenerManager;
 import org.netbeans.gradle.project.properties.SwingPropertyChangeForwarder;
 import org.netbeans.spi.project.ui.ProjectProblemsProvider;
 
 public final class ProjectIssueManager {
-    private final Lock mainLock;
-    private final RefList<ProjectIssue> issues;
+    private final AtomicReference<IssueSnapshot> issuesRef;
     private final ChangeListenerManager changeListeners;
 
     private final IssueProperty issuesProperty;
     private final ProjectProblemsProviderImpl projectProblemsProvider;
 
     public ProjectIssueManager() {
-        this.mainLock = new ReentrantLock();
-        this.issues = new RefLinkedList<>();
-        this.changeListeners = GenericChangeListenerManager.getSwingNotifier();
+        this(GenericChangeListenerManager.getSwingNotifier());
+    }
+
+    ProjectIssueManager(ChangeListenerManager changeListeners) {
+        ExceptionHelper.checkNotNullArgument(changeListeners, "changeListeners");
+
+        this.issuesRef = new AtomicReference<>(IssueSnapshot.EMPTY);
+        this.changeListeners = changeListeners;
         this.issuesProperty = new IssueProperty();
         this.projectProblemsProvider = new ProjectProblemsProviderImpl(issuesProperty);
     }
@@ -48,21 +51,18 @@ public final class ProjectIssueManager {
     }
 
     public boolean hasIssues() {
-        mainLock.lock();
-        try {
-            return !issues.isEmpty();
-        } finally {
-            mainLock.unlock();
-        }
+        return !issuesRef.get().issues.isEmpty();
     }
 
+    /**
+     * Returns the currently set issues. The returned collection is an
+     * unmodifiable snapshot which is not affected by subsequent changes.
+     *
+     * @return the currently set issues. This method never returns
+     *   {@code null}.
+     */
     public Collection<ProjectIssue> getIssues() {
-        mainLock.lock();
-        try {
-            return new ArrayList<>(issues);
-        } finally {
-            mainLock.unlock();
-        }
+        return issuesRef.get().issues;
     }
 
     public ProjectIssueRef createIssueRef() {
@@ -70,40 +70,78 @@ public final class ProjectIssueManager {
     }
 
     private class ProjectIssueRefImpl implements ProjectIssueRef {
-        private RefList.ElementRef<ProjectIssue> infoRef;
-
-        public ProjectIssueRefImpl() {
-            this.infoRef = null;
-        }
-
         @Override
         public void setInfo(ProjectIssue info) {
-            ProjectIssue prevInfo;
-            mainLock.lock();
-            try {
-                prevInfo = infoRef != null ? infoRef.getElement() : null;
-
-                if (info == null) {
-                    if (infoRef != null) {
-                        infoRef.remove();
-                        infoRef = null;
-                    }
+            IssueSnapshot prevSnapshot;
+            IssueSnapshot newSnapshot;
+            do {
+                prevSnapshot = issuesRef.get();
+                newSnapshot = prevSnapshot.withIssue(this, info);
+                if (newSnapshot == prevSnapshot) {
+                    // Setting an equivalent issue is a common case on model
+                    // reloads, and the listeners need not know about it.
+                    return;
                 }
-                else {
-                    if (infoRef != null) {
-                        infoRef.setElement(info);
-                    }
-                    else {
-                        infoRef = issues.addLastGetReference(info);
-                    }
+            } while (!issuesRef.compareAndSet(prevSnapshot, newSnapshot));
+
+            fireChange();
+        }
+    }
+
+    private static final class IssueSnapshot {
+        public static final IssueSnapshot EMPTY = new IssueSnapshot(
+                Collections.<ProjectIssueRef>emptyList(),
+                Collections.<ProjectIssue>emptyList());
+
+        // owners.get(i) has set issues.get(i)
+        private final List<ProjectIssueRef> owners;
+        public final List<ProjectIssue> issues;
+
+        private IssueSnapshot(List<ProjectIssueRef> owners, List<ProjectIssue> issues) {
+            this.owners = owners;
+            this.issues = issues;
+        }
+
+        private static int indexOf(List<ProjectIssueRef> owners, ProjectIssueRef owner) {
+            int size = owners.size();
+            for (int i = 0; i < size; i++) {
+                if (owners.get(i) == owner) {
+                    return i;
                 }
-            } finally {
-                mainLock.unlock();
             }
+            return -1;
+        }
 
-            if (!Objects.equals(prevInfo, info)) {
-                fireChange();
+        /**
+         * Returns a snapshot where the issue of the given owner is replaced
+         * with the given issue, or this snapshot if nothing would change.
+         */
+        public IssueSnapshot withIssue(ProjectIssueRef owner, ProjectIssue issue) {
+            int index = indexOf(owners, owner);
+            if (index < 0 && issue == null) {
+                return this;
+            }
+            if (index >= 0 && issue != null && issues.get(index).equals(issue)) {
+                return this;
             }
+
+            List<ProjectIssueRef> newOwners = new ArrayList<>(owners);
+            List<ProjectIssue> newIssues = new ArrayList<>(issues);
+            if (index < 0) {
+                newOwners.add(owner);
+                newIssues.add(issue);
+            }
+            else if (issue == null) {
+                newOwners.remove(index);
+                newIssues.remove(index);
+            }
+            else {
+                newIssues.set(index, issue);
+            }
+
+            return new IssueSnapshot(
+                    Collections.unmodifiableList(newOwners),
+                    Collections.unmodifiableList(newIssues));
         }
     }
 
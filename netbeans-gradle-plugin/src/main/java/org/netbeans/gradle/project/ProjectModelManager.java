@@ -8,9 +8,7 @@ import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.swing.SwingUtilities;
-import org.jtrim.concurrent.UpdateTaskExecutor;
 import org.jtrim.property.PropertySource;
-import org.jtrim.swing.concurrent.SwingUpdateTaskExecutor;
 import org.jtrim.utils.ExceptionHelper;
 import org.netbeans.gradle.project.event.ChangeListenerManager;
 import org.netbeans.gradle.project.event.GenericChangeListenerManager;
@@ -20,10 +18,10 @@ import org.netbeans.gradle.project.model.ModelRetrievedListener;
 import org.netbeans.gradle.project.model.NbGradleModel;
 import org.netbeans.gradle.project.model.ProjectModelChangeListener;
 import org.netbeans.gradle.project.properties.NbProperties;
-import org.netbeans.gradle.project.query.GradleCacheBinaryForSourceQuery;
-import org.netbeans.gradle.project.query.GradleCacheByBinaryLookup;
+import org.netbeans.gradle.project.query.GradleCacheChangeNotifier;
 import org.netbeans.gradle.project.util.LazyValue;
 import org.netbeans.gradle.project.util.NbSupplier;
+import org.netbeans.gradle.project.util.SwingBatchExecutor;
 
 final class ProjectModelManager implements ModelRetrievedListener<NbGradleModel> {
     private static final Logger LOGGER = Logger.getLogger(ProjectModelManager.class.getName());
@@ -33,7 +31,6 @@ final class ProjectModelManager implements ModelRetrievedListener<NbGradleModel>
     private final AtomicReference<NbGradleModel> currentModelRef;
     private final PropertySource<NbGradleModel> currentModel;
     private final LazyValue<ProjectIssueRef> loadErrorRef;
-    private final UpdateTaskExecutor modelUpdater;
     private final Runnable modelUpdateDispatcher;
 
     public ProjectModelManager(final NbGradleProject project, final NbGradleModel initialModel) {
@@ -44,7 +41,6 @@ final class ProjectModelManager implements ModelRetrievedListener<NbGradleModel>
         this.modelChangeListeners = GenericChangeListenerManager.getSwingNotifier();
         this.currentModelRef = new AtomicReference<>(initialModel);
         this.currentModel = NbProperties.atomicValueView(currentModelRef, modelChangeListeners);
-        this.modelUpdater = new SwingUpdateTaskExecutor(true);
         this.modelUpdateDispatcher = new Runnable() {
             @Override
             public void run() {
@@ -67,8 +63,7 @@ final class ProjectModelManager implements ModelRetrievedListener<NbGradleModel>
                 listener.onModelChanged();
             }
         } finally {
-            GradleCacheByBinaryLookup.notifyCacheChange();
-            GradleCacheBinaryForSourceQuery.notifyCacheChange();
+            GradleCacheChangeNotifier.notifyCacheChange();
         }
     }
 
@@ -77,7 +72,10 @@ final class ProjectModelManager implements ModelRetrievedListener<NbGradleModel>
     }
 
     private void fireModelChangeEvent() {
-        modelUpdater.execute(modelUpdateDispatcher);
+        // Shared by all projects, so that applying the models loaded together
+        // (e.g., the models of all the projects of a build) needs only a few
+        // events on the EDT instead of one for each project.
+        SwingBatchExecutor.getDefault().execute(modelUpdateDispatcher);
     }
 
     private boolean safelyLoadExtensions(NbGradleExtensionRef extension, Object model) {
@@ -103,11 +101,15 @@ final class ProjectModelManager implements ModelRetrievedListener<NbGradleModel>
         return changedAny;
     }
 
-    private boolean notifyModelChange(NbGradleModel model) {
+    private boolean notifyModelChange(NbGradleModel prevModel, NbGradleModel model) {
         // TODO: Consider conflicts
         //   GradleProjectExtensionDef.getSuppressedExtensions()
         boolean changedAny = false;
         for (NbGradleExtensionRef extensionRef: getExtensionRefs()) {
+            if (prevModel != null && prevModel.hasSameModelOfExtension(model, extensionRef.getName())) {
+                continue;
+            }
+
             boolean changed = safelyLoadExtensions(extensionRef, model.getModelOfExtension(extensionRef));
             changedAny = changedAny || changed;
         }
@@ -135,7 +137,7 @@ final class ProjectModelManager implements ModelRetrievedListener<NbGradleModel>
         }
     }
 
-    private void updateExtensionActivation(NbGradleModel model) {
+    private void updateExtensionActivation(NbGradleModel prevModel, NbGradleModel model) {
         Collection<ModelRefreshListener> refreshListeners = new ArrayList<>(project.getLookup().lookupAll(ModelRefreshListener.class));
         boolean extensionsChanged = false;
         startRefresh(refreshListeners);
@@ -144,7 +146,7 @@ final class ProjectModelManager implements ModelRetrievedListener<NbGradleModel>
                 extensionsChanged = notifyEmptyModelChange();
             }
             else {
-                extensionsChanged = notifyModelChange(model);
+                extensionsChanged = notifyModelChange(prevModel, model);
             }
         } finally {
             endRefresh(refreshListeners, extensionsChanged);
@@ -162,9 +164,13 @@ final class ProjectModelManager implements ModelRetrievedListener<NbGradleModel>
     @Override
     public void updateModel(NbGradleModel model, Throwable error) {
         boolean hasChanged = false;
+        NbGradleModel prevModel = null;
         if (model != null) {
-            NbGradleModel prevModel = currentModelRef.getAndSet(model);
-            hasChanged = prevModel != model;
+            prevModel = currentModelRef.getAndSet(model);
+            // The new model is stored even if it is equivalent to the previous
+            // one, so that its creation time is available for others but there
+            // is no need to notify anyone about it.
+            hasChanged = prevModel != model && !prevModel.hasSameContent(model);
         }
         if (error != null) {
             ProjectIssue.Entry entry = new ProjectIssue.Entry(ProjectIssue.Kind.ERROR, NbStrings.getErrorLoadingProject(error));
@@ -176,7 +182,14 @@ final class ProjectModelManager implements ModelRetrievedListener<NbGradleModel>
             getLoadErrorRef().setInfo(null);
         }
         if (hasChanged) {
-            updateExtensionActivation(model);
+            LoadedProjectManager.getDefault().updateProjectModel(project, model);
+            updateExtensionActivation(prevModel, model);
+        }
+        else if (model != null) {
+            // The content of the model is the same but loading it might have
+            // downloaded new artifacts (e.g., sources), which is otherwise
+            // checked after the change of the model was processed.
+            GradleCacheChangeNotifier.notifyCacheChange();
         }
     }
 
@@ -1,12 +1,9 @@
 package org.netbeans.gradle.project.coverage;
 
 import java.io.File;
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -30,13 +27,6 @@ import org.openide.filesystems.FileChangeListener;
 import org.openide.filesystems.FileEvent;
 import org.openide.filesystems.FileObject;
 import org.openide.filesystems.FileUtil;
-import org.openide.util.Pair;
-import org.openide.xml.XMLUtil;
-import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
-import org.xml.sax.EntityResolver;
-import org.xml.sax.InputSource;
-import org.xml.sax.SAXException;
 
 /**
  * Implementation of CoverageProvider for Gradle project infrastructure.
@@ -48,14 +38,12 @@ public class GradleCoverageProvider implements CoverageProvider {
 
     private final JavaExtension javaExt;
     private final Project p;
-    private Map<String, GradleSummary> summaryCache;
     private FileChangeListener listener;
 
     public GradleCoverageProvider(JavaExtension javaExt) {
         ExceptionHelper.checkNotNullArgument(javaExt, "javaExt");
         this.javaExt = javaExt;
         this.p = javaExt.getProject();
-        this.summaryCache = null;
         this.listener = null;
     }
 
@@ -112,10 +100,10 @@ public class GradleCoverageProvider implements CoverageProvider {
         return FileUtil.normalizeFile(result);
     }
 
-    public @Override synchronized void clear() {
+    public @Override void clear() {
         File r = report();
         if (r != null && r.isFile() && r.delete()) {
-            summaryCache = null;
+            JacocoReportCache.getDefault().remove(r);
             CoverageManager.INSTANCE.resultsUpdated(p, GradleCoverageProvider.this);
         }
     }
@@ -126,44 +114,50 @@ public class GradleCoverageProvider implements CoverageProvider {
         if (path == null) {
             return null;
         }
-        GradleDetails det = null;
-        synchronized (this) {
-            GradleSummary summ = summaryCache != null ? summaryCache.get(path) : null;
-            if (summ != null) {
-                det = summ.getDetails();
-                //we have to set the linecount here, as the entire line span is not apparent from the parsed xml, giving strange results then.
-                det.lineCount = doc.getDefaultRootElement().getElementCount();
-            }
+
+        JacocoReportIndex index = tryGetReportIndex();
+        if (index == null) {
+            return null;
+        }
+
+        JacocoFileCoverage fileCoverage = index.tryGetFile(path);
+        if (fileCoverage == null) {
+            return null;
         }
+
+        GradleDetails det = summaryOf(fo, fileCoverage, index.getStamp().getLastModified()).getDetails();
+        //we have to set the linecount here, as the entire line span is not apparent from the parsed xml, giving strange results then.
+        det.lineCount = doc.getDefaultRootElement().getElementCount();
         return det;
     }
 
-    private @CheckForNull Pair<File, org.w3c.dom.Document> parse() {
+    private @CheckForNull JacocoReportIndex tryGetReportIndex() {
         File r = report();
         if (r == null) {
             LOG.fine("undefined report location");
             return null;
         }
         CoverageManager.INSTANCE.setEnabled(p, true); // XXX otherwise it defaults to disabled?? not clear where to call this
-        if (listener == null) {
-            listener = new FileChangeAdapter() {
-                public @Override void fileChanged(FileEvent fe) {
-                    fire();
-                }
-                public @Override void fileDataCreated(FileEvent fe) {
-                    fire();
-                }
-                public @Override void fileDeleted(FileEvent fe) {
-                    fire();
-                }
-                private void fire() {
-                    synchronized (GradleCoverageProvider.this) {
-                        summaryCache = null;
+        synchronized (this) {
+            if (listener == null) {
+                listener = new FileChangeAdapter() {
+                    public @Override void fileChanged(FileEvent fe) {
+                        fire();
+                    }
+                    public @Override void fileDataCreated(FileEvent fe) {
+                        fire();
+                    }
+                    public @Override void fileDeleted(FileEvent fe) {
+                        fire();
                     }
-                    CoverageManager.INSTANCE.resultsUpdated(p, GradleCoverageProvider.this);
-                }
-            };
-            FileUtil.addFileChangeListener(listener, r);
+                    private void fire() {
+                        // The cached index is checked against the timestamp
+                        // of the report, so there is nothing to clear here.
+                        CoverageManager.INSTANCE.resultsUpdated(p, GradleCoverageProvider.this);
+                    }
+                };
+                FileUtil.addFileChangeListener(listener, r);
+            }
         }
         if (!r.isFile()) {
             LOG.log(Level.FINE, "missing {0}", r);
@@ -174,30 +168,9 @@ public class GradleCoverageProvider implements CoverageProvider {
             LOG.log(Level.FINE, "empty {0}", r);
             return null;
         }
-        try {
-            org.w3c.dom.Document report = XMLUtil.parse(new InputSource(r.toURI().toString()), true, false, XMLUtil.defaultErrorHandler(), new EntityResolver() {
-                public @Override
-                InputSource resolveEntity(String publicId, String systemId) throws SAXException, IOException {
-                    if (systemId.equals("http://cobertura.sourceforge.net/xml/coverage-04.dtd")) {
-                        return new InputSource(GradleCoverageProvider.class.getResourceAsStream("coverage-04.dtd")); // NOI18N
-                    }
-                    else if (publicId.equals("-//JACOCO//DTD Report 1.0//EN")) {
-                        return new InputSource(GradleCoverageProvider.class.getResourceAsStream("jacoco-1.0.dtd"));
-                    }
-                    else {
-                        return null;
-                    }
-                }
-            });
-            LOG.log(Level.FINE, "parsed {0}", r);
-            return Pair.of(r, report);
-        } catch (IOException | SAXException ex) {
-            LOG.log(Level.INFO, "Could not parse " + r, ex);
-            return null;
-        }
+        return JacocoReportCache.getDefault().tryGetIndex(r);
     }
 
-
     private ClassPath srcPath() {
         GradleClassPathProvider gcp = p.getLookup().lookup(GradleClassPathProvider.class);
         assert gcp != null;
@@ -208,68 +181,27 @@ public class GradleCoverageProvider implements CoverageProvider {
 
     @Override
     public List<FileCoverageSummary> getResults() {
-        Pair<File, org.w3c.dom.Document> r = parse();
-        if (r == null) {
+        JacocoReportIndex index = tryGetReportIndex();
+        if (index == null) {
             return null;
         }
         ClassPath src = srcPath();
+        long lastUpdated = index.getStamp().getLastModified();
         List<FileCoverageSummary> summs = new ArrayList<>();
-        Map<String, GradleSummary> summaries = new HashMap<>();
-        boolean jacoco = hasPlugin();
-        NodeList nl = r.second().getElementsByTagName(jacoco ? "sourcefile" : "class"); // NOI18N
-        for (int i = 0; i < nl.getLength(); i++) {
-            Element clazz = (Element)nl.item(i);
-            String filename;
-            List<Element> lines;
-            String name;
-            if (jacoco) {
-                filename = ((Element)clazz.getParentNode()).getAttribute("name") + '/' + clazz.getAttribute("name");
-                lines = new ArrayList<>();
-                for (Element line: XMLUtil.findSubElements(clazz)) {
-                    if (line.getTagName().equals("line")) {
-                        lines.add(line);
-                    }
-                }
-                name = filename.replaceFirst("[.]java$", "").replace('/', '.');
-            }
-            else {
-                filename = clazz.getAttribute("filename");
-                Element linesE = XMLUtil.findElement(clazz, "lines", null); // NOI18N
-                lines = linesE != null ? XMLUtil.findSubElements(linesE) : Collections.<Element>emptyList();
-                // XXX nicer to collect together nested classes in same compilation unit
-                name = clazz.getAttribute("name").replace('$', '.');
-            }
-            FileObject java = src.findResource(filename); // NOI18N
+        for (JacocoFileCoverage fileCoverage: index.getFiles()) {
+            FileObject java = src.findResource(fileCoverage.getPath());
             if (java == null) {
                 continue;
             }
-            final GradleSummary summar = summaryOf(java, name, lines, jacoco, r.first().lastModified());
-            summaries.put(filename, summar);
-            summs.add(summar);
-        }
-        synchronized (this) {
-            summaryCache = summaries;
+            summs.add(summaryOf(java, fileCoverage, lastUpdated));
         }
         return summs;
     }
 
-    private GradleSummary summaryOf(FileObject java, String name, List<Element> lines, boolean jacoco, long lastUpdated) {
-        // Not really the total number of lines in the file at all, but close enough - the ones Cobertura recorded.
-        int lineCount = 0;
-        int executedLineCount = 0;
-        Map<Integer, Integer> detLines = new HashMap<>();
-        for (Element line : lines) {
-            lineCount++;
-            String attr = line.getAttribute(jacoco ? "ci" : "hits");
-            String num = line.getAttribute(jacoco ? "nr" : "number");
-            detLines.put(Integer.valueOf(num) - 1,Integer.valueOf(attr));
-            if (!attr.equals("0")) {
-                executedLineCount++;
-            }
-        }
-        GradleDetails det = new GradleDetails(java, lastUpdated, lineCount, detLines);
-        GradleSummary s = new GradleSummary(java, name, det, executedLineCount);
-        return s;
+    private GradleSummary summaryOf(FileObject java, JacocoFileCoverage fileCoverage, long lastUpdated) {
+        // Not really the total number of lines in the file at all, but close enough - the ones JaCoCo recorded.
+        GradleDetails det = new GradleDetails(java, lastUpdated, fileCoverage.getRecordedLineCount(), fileCoverage);
+        return new GradleSummary(java, fileCoverage.getDisplayName(), det, fileCoverage.getExecutedLineCount());
     }
 
     @Override
@@ -296,13 +228,13 @@ public class GradleCoverageProvider implements CoverageProvider {
         private final FileObject fileObject;
         private final long lastUpdated;
         private FileCoverageSummary summary;
-        private final Map<Integer, Integer> lineHitCounts;
+        private final JacocoFileCoverage coverage;
         int lineCount;
 
-        public GradleDetails(FileObject fileObject, long lastUpdated, int lineCount, Map<Integer, Integer> lineHitCounts) {
+        public GradleDetails(FileObject fileObject, long lastUpdated, int lineCount, JacocoFileCoverage coverage) {
             this.fileObject = fileObject;
             this.lastUpdated = lastUpdated;
-            this.lineHitCounts = lineHitCounts;
+            this.coverage = coverage;
             this.lineCount = lineCount;
         }
 
@@ -337,17 +269,14 @@ public class GradleCoverageProvider implements CoverageProvider {
 
         @Override
         public CoverageType getType(int lineNo) {
-            Integer count = lineHitCounts.get(lineNo);
-            return count == null ? CoverageType.INFERRED : count == 0 ? CoverageType.NOT_COVERED : CoverageType.COVERED;
+            int count = coverage.getHitCount(lineNo);
+            return count < 0 ? CoverageType.INFERRED : count == 0 ? CoverageType.NOT_COVERED : CoverageType.COVERED;
         }
 
         @Override
         public int getHitCount(int lineNo) {
-            Integer ret = lineHitCounts.get(lineNo);
-            if (ret == null) {
-                return 0;
-            }
-            return ret;
+            int ret = coverage.getHitCount(lineNo);
+            return ret < 0 ? 0 : ret;
         }
 
     }
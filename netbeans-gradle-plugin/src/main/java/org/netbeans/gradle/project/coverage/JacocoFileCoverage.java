@@ -0,0 +1,96 @@
+package org.netbeans.gradle.project.coverage;
+
+import java.util.Arrays;
+import org.jtrim.utils.ExceptionHelper;
+
+/**
+ * Defines the line coverage of a single source file as read from a JaCoCo
+ * XML report. The line numbers and hit counts are stored in packed arrays
+ * sorted by the line numbers, so a file with thousands of lines costs only
+ * two {@code int} arrays.
+ */
+final class JacocoFileCoverage {
+    private final String path;
+    private final int[] lineIndexes;
+    private final int[] hitCounts;
+    private final int executedLineCount;
+
+    /**
+     * Creates a new coverage entry. The arrays are not copied and must not be
+     * modified after passing them to this constructor.
+     *
+     * @param path the path of the source file relative to the source root
+     *   using '/' as the separator. This argument cannot be {@code null}.
+     * @param lineIndexes the zero based line indexes in strictly increasing
+     *   order. This argument cannot be {@code null}.
+     * @param hitCounts the hit counts of the lines with the same index in
+     *   {@code lineIndexes}. This argument cannot be {@code null}.
+     */
+    public JacocoFileCoverage(String path, int[] lineIndexes, int[] hitCounts) {
+        ExceptionHelper.checkNotNullArgument(path, "path");
+        ExceptionHelper.checkNotNullArgument(lineIndexes, "lineIndexes");
+        ExceptionHelper.checkNotNullArgument(hitCounts, "hitCounts");
+        ExceptionHelper.checkArgumentInRange(hitCounts.length, lineIndexes.length, lineIndexes.length, "hitCounts.length");
+
+        this.path = path;
+        this.lineIndexes = lineIndexes;
+        this.hitCounts = hitCounts;
+        this.executedLineCount = countExecuted(hitCounts);
+    }
+
+    private static int countExecuted(int[] hitCounts) {
+        int result = 0;
+        for (int hitCount: hitCounts) {
+            if (hitCount != 0) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getDisplayName() {
+        String name = path.endsWith(".java")
+                ? path.substring(0, path.length() - ".java".length())
+                : path;
+        return name.replace('/', '.');
+    }
+
+    /**
+     * Returns the number of lines recorded in the report. This is not the
+     * number of lines in the source file, only the lines JaCoCo has data for.
+     *
+     * @return the number of lines recorded in the report
+     */
+    public int getRecordedLineCount() {
+        return lineIndexes.length;
+    }
+
+    public int getExecutedLineCount() {
+        return executedLineCount;
+    }
+
+    /**
+     * Returns the hit count of the given line or -1 if the report does not
+     * contain data for the given line.
+     *
+     * @param lineIndex the zero based index of the line
+     * @return the hit count of the given line or -1 if the line is unknown
+     */
+    public int getHitCount(int lineIndex) {
+        int index = Arrays.binarySearch(lineIndexes, lineIndex);
+        return index >= 0 ? hitCounts[index] : -1;
+    }
+
+    /**
+     * Returns the approximate memory cost of this entry in bytes.
+     *
+     * @return the approximate memory cost of this entry in bytes
+     */
+    public int getWeight() {
+        return 64 + 2 * path.length() + 8 * lineIndexes.length;
+    }
+}
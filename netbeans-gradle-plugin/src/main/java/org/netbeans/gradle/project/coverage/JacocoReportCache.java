@@ -0,0 +1,146 @@
+package org.netbeans.gradle.project.coverage;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.xml.stream.XMLStreamException;
+import org.jtrim.utils.ExceptionHelper;
+
+/**
+ * Caches the parsed {@link JacocoReportIndex} of report files. The cache is
+ * bounded by the total weight of the cached indexes and evicts the least
+ * recently used index first. A report is reparsed only if its stamp (last
+ * modification time and length) changes.
+ */
+final class JacocoReportCache {
+    private static final Logger LOG = Logger.getLogger(JacocoReportCache.class.getName());
+
+    private static final int DEFAULT_MAX_WEIGHT = 64 * 1024 * 1024;
+    private static final JacocoReportCache DEFAULT = new JacocoReportCache(DEFAULT_MAX_WEIGHT);
+
+    private final ReentrantLock cacheLock;
+    private final Map<File, JacocoReportIndex> cache;
+    private final long maxWeight;
+    private long currentWeight;
+
+    public JacocoReportCache(long maxWeight) {
+        if (maxWeight < 0) {
+            throw new IllegalArgumentException("Illegal max. weight value: " + maxWeight);
+        }
+
+        this.cacheLock = new ReentrantLock();
+        this.cache = new LinkedHashMap<>(16, 0.75f, true);
+        this.maxWeight = maxWeight;
+        this.currentWeight = 0;
+    }
+
+    public static JacocoReportCache getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns the index of the given report file if it is cached and the
+     * report has not changed since it was parsed. This method never parses
+     * the report.
+     *
+     * @param reportFile the report file. This argument cannot be {@code null}.
+     * @return the cached, up-to-date index of the given report or {@code null}
+     *   if there is no such index
+     */
+    public JacocoReportIndex tryGetUpToDate(File reportFile) {
+        ExceptionHelper.checkNotNullArgument(reportFile, "reportFile");
+
+        JacocoReportIndex result;
+        cacheLock.lock();
+        try {
+            result = cache.get(reportFile);
+        } finally {
+            cacheLock.unlock();
+        }
+
+        if (result != null && !result.getStamp().equals(JacocoReportIndex.ReportStamp.of(reportFile))) {
+            return null;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the index of the given report file, parsing the report if there
+     * is no up-to-date index of it in the cache.
+     *
+     * @param reportFile the report file. This argument cannot be {@code null}.
+     * @return the index of the given report or {@code null} if the report
+     *   could not be parsed
+     */
+    public JacocoReportIndex tryGetIndex(File reportFile) {
+        JacocoReportIndex result = tryGetUpToDate(reportFile);
+        if (result != null) {
+            return result;
+        }
+
+        try {
+            result = JacocoReportIndex.parse(reportFile);
+        } catch (IOException | XMLStreamException ex) {
+            LOG.log(Level.INFO, "Could not parse " + reportFile, ex);
+            return null;
+        }
+
+        LOG.log(Level.FINE, "parsed {0}", reportFile);
+        put(reportFile, result);
+        return result;
+    }
+
+    private void put(File reportFile, JacocoReportIndex index) {
+        cacheLock.lock();
+        try {
+            JacocoReportIndex prevIndex = cache.put(reportFile, index);
+            if (prevIndex != null) {
+                currentWeight -= prevIndex.getWeight();
+            }
+            currentWeight += index.getWeight();
+            cleanupCacheUnsafe(reportFile);
+        } finally {
+            cacheLock.unlock();
+        }
+    }
+
+    private void cleanupCacheUnsafe(File keepFile) {
+        assert cacheLock.isHeldByCurrentThread();
+
+        // Don't create the iterator.
+        if (currentWeight <= maxWeight) {
+            return;
+        }
+
+        Iterator<Map.Entry<File, JacocoReportIndex>> itr = cache.entrySet().iterator();
+        while (currentWeight > maxWeight && itr.hasNext()) {
+            Map.Entry<File, JacocoReportIndex> entry = itr.next();
+            // The most recently added index is always kept, even if it is
+            // alone heavier than the limit: it is likely to be used right away.
+            if (keepFile.equals(entry.getKey())) {
+                continue;
+            }
+            currentWeight -= entry.getValue().getWeight();
+            itr.remove();
+        }
+    }
+
+    public void remove(File reportFile) {
+        ExceptionHelper.checkNotNullArgument(reportFile, "reportFile");
+
+        cacheLock.lock();
+        try {
+            JacocoReportIndex prevIndex = cache.remove(reportFile);
+            if (prevIndex != null) {
+                currentWeight -= prevIndex.getWeight();
+            }
+        } finally {
+            cacheLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package org.netbeans.gradle.project.coverage;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.jtrim.utils.ExceptionHelper;
+
+/**
+ * Defines the per source file index of a JaCoCo XML report. The index is
+ * created by reading the report through StAX, so the report is never fully
+ * loaded into memory.
+ * <P>
+ * Instances of this class are immutable.
+ */
+final class JacocoReportIndex {
+    private static final String PACKAGE_ELEMENT = "package";
+    private static final String SOURCE_FILE_ELEMENT = "sourcefile";
+    private static final String LINE_ELEMENT = "line";
+
+    private static final String NAME_ATTR = "name";
+    private static final String LINE_NUMBER_ATTR = "nr";
+    private static final String COVERED_INSTRUCTIONS_ATTR = "ci";
+
+    private static final int INITIAL_LINE_CAPACITY = 64;
+
+    private final ReportStamp stamp;
+    private final Map<String, JacocoFileCoverage> files;
+    private final int weight;
+
+    private JacocoReportIndex(ReportStamp stamp, Map<String, JacocoFileCoverage> files) {
+        this.stamp = stamp;
+        this.files = Collections.unmodifiableMap(files);
+        this.weight = computeWeight(files.values());
+    }
+
+    private static int computeWeight(Collection<JacocoFileCoverage> files) {
+        long result = 0;
+        for (JacocoFileCoverage file: files) {
+            result += file.getWeight();
+        }
+        return (int)Math.min(Integer.MAX_VALUE, result);
+    }
+
+    public static JacocoReportIndex parse(File reportFile) throws IOException, XMLStreamException {
+        ExceptionHelper.checkNotNullArgument(reportFile, "reportFile");
+
+        // Read the stamp first, so that a concurrent rewrite of the report
+        // will only cause an additional reparse and never a stale index.
+        ReportStamp stamp = ReportStamp.of(reportFile);
+        try (InputStream input = new BufferedInputStream(Files.newInputStream(reportFile.toPath()))) {
+            return parse(stamp, input);
+        }
+    }
+
+    static JacocoReportIndex parse(ReportStamp stamp, InputStream input) throws XMLStreamException {
+        ExceptionHelper.checkNotNullArgument(stamp, "stamp");
+        ExceptionHelper.checkNotNullArgument(input, "input");
+
+        XMLStreamReader reader = newInputFactory().createXMLStreamReader(input);
+        try {
+            return new JacocoReportIndex(stamp, parseFiles(reader));
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static XMLInputFactory newInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        // The report references the JaCoCo DTD which we must not try to download.
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        return factory;
+    }
+
+    private static Map<String, JacocoFileCoverage> parseFiles(XMLStreamReader reader) throws XMLStreamException {
+        Map<String, JacocoFileCoverage> result = new HashMap<>();
+
+        String packageName = null;
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                String elementName = reader.getLocalName();
+                if (PACKAGE_ELEMENT.equals(elementName)) {
+                    packageName = reader.getAttributeValue(null, NAME_ATTR);
+                }
+                else if (SOURCE_FILE_ELEMENT.equals(elementName) && packageName != null) {
+                    String fileName = reader.getAttributeValue(null, NAME_ATTR);
+                    String path = packageName.isEmpty() ? fileName : packageName + '/' + fileName;
+                    result.put(path, parseSourceFile(path, reader));
+                }
+            }
+            else if (event == XMLStreamConstants.END_ELEMENT) {
+                if (PACKAGE_ELEMENT.equals(reader.getLocalName())) {
+                    packageName = null;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private static JacocoFileCoverage parseSourceFile(String path, XMLStreamReader reader) throws XMLStreamException {
+        int[] lineIndexes = new int[INITIAL_LINE_CAPACITY];
+        int[] hitCounts = new int[INITIAL_LINE_CAPACITY];
+        int lineCount = 0;
+        boolean sorted = true;
+
+        int depth = 1;
+        while (depth > 0 && reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+                if (depth == 2 && LINE_ELEMENT.equals(reader.getLocalName())) {
+                    int lineIndex = parseInt(reader.getAttributeValue(null, LINE_NUMBER_ATTR), 0) - 1;
+                    int hitCount = parseInt(reader.getAttributeValue(null, COVERED_INSTRUCTIONS_ATTR), 0);
+                    if (lineIndex < 0) {
+                        continue;
+                    }
+
+                    if (lineCount == lineIndexes.length) {
+                        lineIndexes = Arrays.copyOf(lineIndexes, 2 * lineCount);
+                        hitCounts = Arrays.copyOf(hitCounts, 2 * lineCount);
+                    }
+                    if (lineCount > 0 && lineIndexes[lineCount - 1] >= lineIndex) {
+                        sorted = false;
+                    }
+
+                    lineIndexes[lineCount] = lineIndex;
+                    hitCounts[lineCount] = hitCount;
+                    lineCount++;
+                }
+            }
+            else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+
+        lineIndexes = Arrays.copyOf(lineIndexes, lineCount);
+        hitCounts = Arrays.copyOf(hitCounts, lineCount);
+        if (!sorted) {
+            return sortedCoverage(path, lineIndexes, hitCounts);
+        }
+        return new JacocoFileCoverage(path, lineIndexes, hitCounts);
+    }
+
+    private static JacocoFileCoverage sortedCoverage(String path, int[] lineIndexes, int[] hitCounts) {
+        // JaCoCo always writes the lines in order, so this is only for safety.
+        // Pack the line indexes with the position of the entry in the report
+        // into longs, so that a simple sort orders the duplicate lines by
+        // their position.
+        long[] packed = new long[lineIndexes.length];
+        for (int i = 0; i < packed.length; i++) {
+            packed[i] = ((long)lineIndexes[i] << 32) | i;
+        }
+        Arrays.sort(packed);
+
+        int[] sortedIndexes = new int[packed.length];
+        int[] sortedHitCounts = new int[packed.length];
+        int count = 0;
+        for (long pair: packed) {
+            int lineIndex = (int)(pair >>> 32);
+            int hitCount = hitCounts[(int)pair];
+            if (count > 0 && sortedIndexes[count - 1] == lineIndex) {
+                // Keep the last entry of the report for duplicate lines as
+                // the DOM based implementation did.
+                sortedHitCounts[count - 1] = hitCount;
+                continue;
+            }
+            sortedIndexes[count] = lineIndex;
+            sortedHitCounts[count] = hitCount;
+            count++;
+        }
+
+        return new JacocoFileCoverage(
+                path,
+                Arrays.copyOf(sortedIndexes, count),
+                Arrays.copyOf(sortedHitCounts, count));
+    }
+
+    private static int parseInt(String str, int defaultValue) {
+        if (str == null) {
+            return defaultValue;
+        }
+
+        try {
+            return Integer.parseInt(str.trim());
+        } catch (NumberFormatException ex) {
+            return defaultValue;
+        }
+    }
+
+    public ReportStamp getStamp() {
+        return stamp;
+    }
+
+    /**
+     * Returns the coverage of the source file with the given path or
+     * {@code null} if the report has no data for the given file.
+     *
+     * @param path the path of the source file relative to the source root
+     *   using '/' as the separator. This argument cannot be {@code null}.
+     * @return the coverage of the source file with the given path or
+     *   {@code null} if the report has no data for the given file
+     */
+    public JacocoFileCoverage tryGetFile(String path) {
+        return files.get(path);
+    }
+
+    public Collection<JacocoFileCoverage> getFiles() {
+        return files.values();
+    }
+
+    /**
+     * Returns the approximate memory cost of this index in bytes.
+     *
+     * @return the approximate memory cost of this index in bytes
+     */
+    public int getWeight() {
+        return weight;
+    }
+
+    /**
+     * Identifies a particular version of a report file. The report has to be
+     * reparsed only if its stamp changes.
+     */
+    static final class ReportStamp {
+        private final long lastModified;
+        private final long length;
+
+        public ReportStamp(long lastModified, long length) {
+            this.lastModified = lastModified;
+            this.length = length;
+        }
+
+        public static ReportStamp of(File reportFile) {
+            return new ReportStamp(reportFile.lastModified(), reportFile.length());
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 7;
+            hash = 29 * hash + (int)(lastModified ^ (lastModified >>> 32));
+            hash = 29 * hash + (int)(length ^ (length >>> 32));
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) return true;
+            if (obj == null) return false;
+            if (getClass() != obj.getClass()) return false;
+
+            final ReportStamp other = (ReportStamp)obj;
+            return this.lastModified == other.lastModified
+                    && this.length == other.length;
+        }
+    }
+}
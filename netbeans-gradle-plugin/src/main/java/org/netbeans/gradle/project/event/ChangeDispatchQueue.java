@@ -0,0 +1,228 @@
+package org.netbeans.gradle.project.event;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.jtrim.cancel.Cancellation;
+import org.jtrim.cancel.CancellationToken;
+import org.jtrim.concurrent.CancelableTask;
+import org.jtrim.concurrent.TaskExecutor;
+import org.jtrim.utils.ExceptionHelper;
+import org.netbeans.gradle.project.util.SwingBatchExecutor;
+
+/**
+ * Defines a queue of notification tasks which are executed in batches by a
+ * given executor. A task submitted multiple times before it has been started
+ * is only executed once.
+ * <P>
+ * A batch only executes the tasks which were pending when the batch was
+ * started. Tasks submitted while a batch is being executed (e.g., by a
+ * listener notifying other listeners) are executed by a later batch, so a
+ * cycle of listeners notifying each other cannot keep a single task of the
+ * executor running indefinitely. The queue might also have a time budget: If
+ * executing the tasks of a batch takes longer than the budget, the remaining
+ * tasks are executed by a new task of the executor. If the executor posts its
+ * tasks to the end of the event queue of the Event Dispatch Thread, this
+ * allows other events (e.g., painting) to be processed between the batches.
+ * <P>
+ * Submitting tasks does not require locking.
+ *
+ * @see GenericChangeListenerManager
+ */
+public final class ChangeDispatchQueue {
+    private static final Logger LOGGER = Logger.getLogger(ChangeDispatchQueue.class.getName());
+
+    // Every task is a separate task of the SwingBatchExecutor, so its time
+    // budget decides when the EDT is released to process other events.
+    private static final ChangeDispatchQueue SWING_QUEUE
+            = new ChangeDispatchQueue(SwingBatchExecutor.getDefault(), 0);
+
+    private final Executor executor;
+    private final long timeBudgetNanos;
+    private final Queue<Runnable> pendingTasks;
+    private final Set<Runnable> pendingTaskSet;
+    // Only accessed by the batches, which never run concurrently.
+    private final Deque<Runnable> currentBatch;
+    private final AtomicBoolean scheduled;
+    private final Runnable batchTask;
+
+    private final AtomicLong submittedCount;
+    private final AtomicLong executedCount;
+
+    public ChangeDispatchQueue(TaskExecutor executor) {
+        this(executor, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Creates a queue whose batches are split if they run longer than the
+     * given time budget. A batch always executes at least one task, so a zero
+     * budget causes each task to be executed by a separate task of the
+     * executor.
+     *
+     * @param executor the executor executing the batches. This argument
+     *   cannot be {@code null}.
+     * @param timeBudget the time after which a batch is split. This argument
+     *   must be greater than or equal to zero.
+     * @param unit the time unit of the {@code timeBudget} argument. This
+     *   argument cannot be {@code null}.
+     */
+    public ChangeDispatchQueue(TaskExecutor executor, long timeBudget, TimeUnit unit) {
+        this(toExecutor(executor), toNanos(timeBudget, unit));
+    }
+
+    private ChangeDispatchQueue(Executor executor, long timeBudgetNanos) {
+        this.executor = executor;
+        this.timeBudgetNanos = timeBudgetNanos;
+        this.pendingTasks = new ConcurrentLinkedQueue<>();
+        this.pendingTaskSet = Collections.newSetFromMap(new ConcurrentHashMap<Runnable, Boolean>());
+        this.currentBatch = new ArrayDeque<>();
+        this.scheduled = new AtomicBoolean(false);
+        this.submittedCount = new AtomicLong(0);
+        this.executedCount = new AtomicLong(0);
+        this.batchTask = new Runnable() {
+            @Override
+            public void run() {
+                runBatch();
+            }
+        };
+    }
+
+    private static Executor toExecutor(final TaskExecutor executor) {
+        ExceptionHelper.checkNotNullArgument(executor, "executor");
+
+        return new Executor() {
+            @Override
+            public void execute(final Runnable command) {
+                executor.execute(Cancellation.UNCANCELABLE_TOKEN, new CancelableTask() {
+                    @Override
+                    public void execute(CancellationToken cancelToken) {
+                        command.run();
+                    }
+                }, null);
+            }
+        };
+    }
+
+    private static long toNanos(long timeBudget, TimeUnit unit) {
+        if (timeBudget < 0) {
+            throw new IllegalArgumentException("Illegal time budget value: " + timeBudget);
+        }
+        ExceptionHelper.checkNotNullArgument(unit, "unit");
+
+        return unit.toNanos(timeBudget);
+    }
+
+    /**
+     * Returns the queue executing the tasks on the Event Dispatch Thread.
+     * Sharing this queue allows the notifications of different listener
+     * managers (and the model updates of different projects) to be executed
+     * in the same batch. The tasks of this queue are executed by
+     * {@link SwingBatchExecutor#getDefault()}, so they share its batches with
+     * the model updates of the projects, and the EDT is released to process
+     * other events (e.g., painting) when a batch exceeds its time budget.
+     *
+     * @return the queue executing the tasks on the Event Dispatch Thread.
+     *   This method never returns {@code null}.
+     */
+    public static ChangeDispatchQueue getSwingQueue() {
+        return SWING_QUEUE;
+    }
+
+    /**
+     * Submits the given task to be executed by the executor of this queue
+     * unless it is already waiting to be executed.
+     *
+     * @param task the task to be executed. This argument cannot be
+     *   {@code null}.
+     */
+    public void submit(Runnable task) {
+        ExceptionHelper.checkNotNullArgument(task, "task");
+
+        submittedCount.incrementAndGet();
+        if (pendingTaskSet.add(task)) {
+            pendingTasks.add(task);
+            scheduleIfNeeded();
+        }
+    }
+
+    private void scheduleIfNeeded() {
+        if (!pendingTasks.isEmpty() && scheduled.compareAndSet(false, true)) {
+            executor.execute(batchTask);
+        }
+    }
+
+    private void runBatch() {
+        if (currentBatch.isEmpty()) {
+            // Only the tasks pending at this point belong to this batch.
+            Runnable task = pendingTasks.poll();
+            while (task != null) {
+                currentBatch.add(task);
+                task = pendingTasks.poll();
+            }
+        }
+
+        long startTime = System.nanoTime();
+        try {
+            Runnable task = currentBatch.poll();
+            while (task != null) {
+                // Removed before being run, so that the task can be submitted
+                // again if it is notified while running.
+                pendingTaskSet.remove(task);
+                executedCount.incrementAndGet();
+                try {
+                    task.run();
+                } catch (Throwable ex) {
+                    LOGGER.log(Level.SEVERE, "Unexpected exception in a change listener.", ex);
+                }
+
+                if (System.nanoTime() - startTime >= timeBudgetNanos) {
+                    break;
+                }
+                task = currentBatch.poll();
+            }
+        } finally {
+            if (!currentBatch.isEmpty()) {
+                // Remains scheduled, so that the new tasks will not submit
+                // another batch.
+                executor.execute(batchTask);
+            }
+            else {
+                scheduled.set(false);
+                // A task might have been added after the last poll but before
+                // clearing the scheduled flag.
+                scheduleIfNeeded();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of times {@link #submit(Runnable) submit} was called
+     * on this queue.
+     *
+     * @return the number of times {@code submit} was called on this queue
+     */
+    public long getSubmittedCount() {
+        return submittedCount.get();
+    }
+
+    /**
+     * Returns the number of tasks this queue has executed. The difference
+     * between the {@link #getSubmittedCount() submitted count} and this value
+     * is the number of tasks which were coalesced (or are still pending).
+     *
+     * @return the number of tasks this queue has executed
+     */
+    public long getExecutedCount() {
+        return executedCount.get();
+    }
+}
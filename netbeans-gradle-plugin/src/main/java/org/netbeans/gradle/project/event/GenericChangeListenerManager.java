@@ -1,89 +1,85 @@
 package org.netbeans.gradle.project.event;
 
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
-import org.jtrim.concurrent.GenericUpdateTaskExecutor;
+import java.util.concurrent.atomic.AtomicLong;
 import org.jtrim.concurrent.TaskExecutor;
 import org.jtrim.concurrent.Tasks;
-import org.jtrim.concurrent.UpdateTaskExecutor;
-import org.jtrim.event.CopyOnTriggerListenerManager;
-import org.jtrim.event.EventListeners;
-import org.jtrim.event.ListenerManager;
 import org.jtrim.event.ListenerRef;
-import org.jtrim.swing.concurrent.SwingTaskExecutor;
 import org.jtrim.utils.ExceptionHelper;
 
+/**
+ * Defines a {@code ChangeListenerManager} which can be paused and might
+ * notify its listeners asynchronously.
+ * <P>
+ * When the listeners are notified through a {@link ChangeDispatchQueue}, the
+ * pending notifications are coalesced: If the manager is notified multiple
+ * times before it could have called its listeners, the listeners are only
+ * called once. The listeners to be called are determined when the
+ * notification is dispatched (not when the event is fired), so a listener
+ * registered before the dispatch is also notified. Managers sharing the same
+ * queue (e.g., the ones returned by {@link #getSwingNotifier()}) notify their
+ * listeners in the same batch, so concurrent change events do not need a
+ * separate task for each manager.
+ * <P>
+ * Registering and unregistering listeners does not require locking.
+ */
 public final class GenericChangeListenerManager implements PausableChangeListenerManager {
+    // Not null only if the listeners are managed by another manager.
     private final ChangeListenerManager wrapped;
+    private final Queue<ListenerRegistration> listeners;
+    private final ChangeDispatchQueue dispatchQueue;
+    private final Runnable eventDispatcher;
+
     private final AtomicInteger pauseCount;
     private final AtomicBoolean hasUnfired;
-    private final Runnable dispatcher;
+
+    private final AtomicLong firedCount;
+    private final AtomicLong deliveredCount;
 
     public GenericChangeListenerManager() {
-        this(newDefaultListenerManager());
+        this(null, (ChangeDispatchQueue)null);
     }
 
     public GenericChangeListenerManager(TaskExecutor eventExecutor) {
-        this(newDefaultListenerManager(), eventExecutor);
+        this(new ChangeDispatchQueue(eventExecutor));
     }
 
-    public GenericChangeListenerManager(ChangeListenerManager wrapped) {
-        this(wrapped, (UpdateTaskExecutor)null);
+    public GenericChangeListenerManager(ChangeDispatchQueue dispatchQueue) {
+        this(null, dispatchQueue);
+        ExceptionHelper.checkNotNullArgument(dispatchQueue, "dispatchQueue");
     }
 
-    public GenericChangeListenerManager(ChangeListenerManager wrapped, TaskExecutor eventExecutor) {
-        this(wrapped, new GenericUpdateTaskExecutor(eventExecutor));
+    public GenericChangeListenerManager(ChangeListenerManager wrapped) {
+        this(wrapped, (ChangeDispatchQueue)null);
+        ExceptionHelper.checkNotNullArgument(wrapped, "wrapped");
     }
 
-    private GenericChangeListenerManager(ChangeListenerManager wrapped, final UpdateTaskExecutor executor) {
+    public GenericChangeListenerManager(ChangeListenerManager wrapped, TaskExecutor eventExecutor) {
+        this(wrapped, new ChangeDispatchQueue(eventExecutor));
         ExceptionHelper.checkNotNullArgument(wrapped, "wrapped");
+    }
 
+    private GenericChangeListenerManager(ChangeListenerManager wrapped, ChangeDispatchQueue dispatchQueue) {
         this.wrapped = wrapped;
+        this.listeners = new ConcurrentLinkedQueue<>();
+        this.dispatchQueue = dispatchQueue;
         this.pauseCount = new AtomicInteger(0);
         this.hasUnfired = new AtomicBoolean(false);
-
-        final Runnable forwarder = new Runnable() {
+        this.firedCount = new AtomicLong(0);
+        this.deliveredCount = new AtomicLong(0);
+        this.eventDispatcher = new Runnable() {
             @Override
             public void run() {
                 fireEventNow();
             }
         };
-
-        if (executor != null) {
-            dispatcher = new Runnable() {
-                @Override
-                public void run() {
-                    executor.execute(forwarder);
-                }
-            };
-        }
-        else {
-            dispatcher = forwarder;
-        }
-    }
-
-    private static ChangeListenerManager newDefaultListenerManager() {
-        final ListenerManager<Runnable> listeners = new CopyOnTriggerListenerManager<>();
-        return new ChangeListenerManager() {
-            @Override
-            public void fireEventually() {
-                EventListeners.dispatchRunnable(listeners);
-            }
-
-            @Override
-            public ListenerRef registerListener(Runnable listener) {
-                return listeners.registerListener(listener);
-            }
-
-            @Override
-            public int getListenerCount() {
-                return listeners.getListenerCount();
-            }
-        };
     }
 
     public static GenericChangeListenerManager getSwingNotifier() {
-        return new GenericChangeListenerManager(SwingTaskExecutor.getStrictExecutor(false));
+        return new GenericChangeListenerManager(ChangeDispatchQueue.getSwingQueue());
     }
 
     @Override
@@ -108,27 +104,118 @@ public final class GenericChangeListenerManager implements PausableChangeListene
         };
     }
 
+    private boolean deferIfPaused() {
+        if (pauseCount.get() != 0) {
+            hasUnfired.set(true);
+            return true;
+        }
+        return false;
+    }
+
     private void fireEventNow() {
-        if (pauseCount.get() == 0) {
+        if (deferIfPaused()) {
+            return;
+        }
+
+        if (wrapped != null) {
+            deliveredCount.incrementAndGet();
             wrapped.fireEventually();
+            return;
         }
-        else {
-            hasUnfired.set(true);
+
+        Throwable toThrow = null;
+        for (ListenerRegistration listener: listeners) {
+            try {
+                listener.deliver();
+            } catch (Throwable ex) {
+                if (toThrow == null) toThrow = ex;
+                else toThrow.addSuppressed(ex);
+            }
         }
+        ExceptionHelper.rethrowIfNotNull(toThrow);
     }
 
     @Override
     public void fireEventually() {
-        dispatcher.run();
+        firedCount.incrementAndGet();
+
+        if (dispatchQueue == null) {
+            fireEventNow();
+        }
+        else {
+            dispatchQueue.submit(eventDispatcher);
+        }
     }
 
     @Override
     public ListenerRef registerListener(Runnable listener) {
-        return wrapped.registerListener(listener);
+        if (wrapped != null) {
+            return wrapped.registerListener(listener);
+        }
+
+        ListenerRegistration result = new ListenerRegistration(listener);
+        listeners.add(result);
+        return result;
     }
 
     @Override
     public int getListenerCount() {
-        return wrapped.getListenerCount();
+        if (wrapped != null) {
+            return wrapped.getListenerCount();
+        }
+        return listeners.size();
+    }
+
+    /**
+     * Returns the number of times {@link #fireEventually() fireEventually}
+     * was called on this manager.
+     *
+     * @return the number of times {@code fireEventually} was called on this
+     *   manager
+     */
+    public long getFiredEventCount() {
+        return firedCount.get();
+    }
+
+    /**
+     * Returns the number of times a listener was actually called by this
+     * manager. If the listeners are managed by a wrapped manager, this is the
+     * number of times the wrapped manager was asked to notify its listeners.
+     *
+     * @return the number of times a listener was actually called by this
+     *   manager
+     */
+    public long getDeliveredEventCount() {
+        return deliveredCount.get();
+    }
+
+    private final class ListenerRegistration implements ListenerRef {
+        private final Runnable listener;
+        private volatile boolean registered;
+
+        public ListenerRegistration(Runnable listener) {
+            ExceptionHelper.checkNotNullArgument(listener, "listener");
+
+            this.listener = listener;
+            this.registered = true;
+        }
+
+        public void deliver() {
+            if (registered) {
+                deliveredCount.incrementAndGet();
+                listener.run();
+            }
+        }
+
+        @Override
+        public boolean isRegistered() {
+            return registered;
+        }
+
+        @Override
+        public void unregister() {
+            registered = false;
+            listeners.remove(this);
+        }
     }
 }
@@ -57,6 +57,7 @@ import org.netbeans.gradle.project.java.query.GradleSourceForBinaryQuery;
 import org.netbeans.gradle.project.java.query.GradleSourceLevelQueryImplementation;
 import org.netbeans.gradle.project.java.query.GradleUnitTestFinder;
 import org.netbeans.gradle.project.java.query.J2SEPlatformFromScriptQueryImpl;
+import org.netbeans.gradle.project.java.query.JarOutputIndex;
 import org.netbeans.gradle.project.java.query.JavaInitScriptQuery;
 import org.netbeans.gradle.project.java.tasks.GradleJavaBuiltInCommands;
 import org.netbeans.gradle.project.java.tasks.JavaGradleTaskVariableQuery;
@@ -486,12 +487,14 @@ public final class JavaExtension implements GradleProjectExtension2<NbJavaModel>
 
         checkDependencyResolveProblems(mainModule);
         markOwnedDirs(mainModule);
+        JarOutputIndex.getDefault().updateProject(getProjectDirectoryAsFile(), mainModule.getJarOutputs());
 
         fireModelChange();
     }
 
     @Override
     public void deactivateExtension() {
+        JarOutputIndex.getDefault().removeProject(getProjectDirectoryAsFile());
     }
 
     private static PropertySource<CloseableAction> classPathProviderProperty(
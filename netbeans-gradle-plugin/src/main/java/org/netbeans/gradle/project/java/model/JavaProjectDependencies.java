@@ -1,26 +1,25 @@
 package org.netbeans.gradle.project.java.model;
 
-import com.google.common.base.Function;
-import com.google.common.base.Predicate;
-import com.google.common.collect.Maps;
 import java.io.File;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import org.jtrim.collections.CollectionsEx;
 import org.jtrim.concurrent.GenericUpdateTaskExecutor;
 import org.jtrim.concurrent.TaskExecutor;
 import org.jtrim.concurrent.TaskExecutors;
 import org.jtrim.concurrent.UpdateTaskExecutor;
 import org.jtrim.event.ListenerRef;
 import org.jtrim.event.ListenerRegistries;
+import org.jtrim.event.UnregisteredListenerRef;
 import org.jtrim.property.MutableProperty;
 import org.jtrim.property.PropertyFactory;
 import org.jtrim.property.PropertySource;
-import org.jtrim.property.ValueConverter;
 import org.jtrim.swing.concurrent.SwingTaskExecutor;
 import org.jtrim.utils.ExceptionHelper;
 import org.netbeans.api.project.FileOwnerQuery;
@@ -30,20 +29,19 @@ import org.netbeans.gradle.model.java.JavaSourceSet;
 import org.netbeans.gradle.project.java.JavaExtension;
 import org.netbeans.gradle.project.properties.NbProperties;
 import org.netbeans.gradle.project.util.NbConsumer;
-import org.netbeans.gradle.project.util.NbFunction;
 import org.netbeans.gradle.project.util.NbTaskExecutors;
 import org.openide.util.Utilities;
 
 public final class JavaProjectDependencies {
-    private static final PropertySource<Map<File, JavaProjectDependencyDef>> NO_DEPENDENCIES
-            = PropertyFactory.constSource(Collections.<File, JavaProjectDependencyDef>emptyMap());
-
     private final JavaExtension javaExt;
     private final UpdateTaskExecutor updateExecutor;
+    private final UpdateTaskExecutor materializeExecutor;
 
     private final MutableProperty<TranslatedDependencies> translatedDependencies;
-    private final PropertySource<Map<File, JavaProjectDependencyDef>> translatedJavaDependenciesMap;
-    private final PropertySource<Map<File, JavaProjectDependencyDef>> filteredTranslatedJavaDependenciesMap;
+    private final MutableProperty<Map<File, JavaProjectDependencyDef>> translatedJavaDependenciesMap;
+
+    // Only accessed from the update executor.
+    private ListenerRef candidateListenerRefs;
 
     public JavaProjectDependencies(JavaExtension javaExt) {
         this(javaExt, NbTaskExecutors.DEFAULT_EXECUTOR);
@@ -52,59 +50,17 @@ public final class JavaProjectDependencies {
     public JavaProjectDependencies(JavaExtension javaExt, TaskExecutor executor) {
         ExceptionHelper.checkNotNullArgument(javaExt, "javaExt");
         this.javaExt = javaExt;
-        this.updateExecutor = new GenericUpdateTaskExecutor(TaskExecutors.inOrderSimpleExecutor(executor));
+
+        TaskExecutor inOrderExecutor = TaskExecutors.inOrderSimpleExecutor(executor);
+        this.updateExecutor = new GenericUpdateTaskExecutor(inOrderExecutor);
+        this.materializeExecutor = new GenericUpdateTaskExecutor(inOrderExecutor);
         this.translatedDependencies = PropertyFactory
                 .memPropertyConcurrent(null, true, SwingTaskExecutor.getStrictExecutor(true));
-        this.translatedJavaDependenciesMap = NbProperties.propertyOfProperty(translatedDependencies, new NbFunction<TranslatedDependencies, PropertySource<Map<File, JavaProjectDependencyDef>>>() {
-            @Override
-            public PropertySource<Map<File, JavaProjectDependencyDef>> apply(TranslatedDependencies src) {
-                return src != null
-                        ? new ProjectDepedencyDefProperty(src.translatedDependencies)
-                        : NO_DEPENDENCIES;
-            }
-        });
-        this.filteredTranslatedJavaDependenciesMap = PropertyFactory.convert(translatedJavaDependenciesMap, new ValueConverter<Map<File, JavaProjectDependencyDef>, Map<File, JavaProjectDependencyDef>>() {
-            @Override
-            public Map<File, JavaProjectDependencyDef> convert(Map<File, JavaProjectDependencyDef> input) {
-                return Maps.filterValues(input, new Predicate<JavaProjectDependencyDef>() {
-                    @Override
-                    public boolean apply(JavaProjectDependencyDef input) {
-                        return input != null;
-                    }
-                });
-            }
-        });
-    }
-
-    private static final class ProjectDepedencyDefProperty
-    implements
-            PropertySource<Map<File, JavaProjectDependencyDef>> {
-        private final Map<File, ProjectDependencyCandidate> src;
-
-        public ProjectDepedencyDefProperty(Map<File, ProjectDependencyCandidate> src) {
-            this.src = src != null
-                    ? src
-                    : Collections.<File, ProjectDependencyCandidate>emptyMap();
-        }
-
-        @Override
-        public Map<File, JavaProjectDependencyDef> getValue() {
-            return Maps.transformValues(src, new Function<ProjectDependencyCandidate, JavaProjectDependencyDef>() {
-                @Override
-                public JavaProjectDependencyDef apply(ProjectDependencyCandidate input) {
-                    return input.projectDependency().getValue();
-                }
-            });
-        }
-
-        @Override
-        public ListenerRef addChangeListener(Runnable listener) {
-            List<ListenerRef> result = new ArrayList<>(src.size());
-            for (ProjectDependencyCandidate candidate: src.values()) {
-                candidate.projectDependency().addChangeListener(listener);
-            }
-            return ListenerRegistries.combineListenerRefs(result);
-        }
+        this.translatedJavaDependenciesMap = PropertyFactory.memPropertyConcurrent(
+                Collections.<File, JavaProjectDependencyDef>emptyMap(),
+                true,
+                SwingTaskExecutor.getStrictExecutor(true));
+        this.candidateListenerRefs = UnregisteredListenerRef.INSTANCE;
     }
 
     public void updateDependencies() {
@@ -116,8 +72,17 @@ public final class JavaProjectDependencies {
         });
     }
 
+    /**
+     * Returns the project dependencies of the current model keyed by the
+     * dependency file. The value of the returned property is an immutable map
+     * computed only when the model of this project or the model of a dependency
+     * changes, and listeners are notified only if the map actually changes.
+     *
+     * @return the project dependencies of the current model keyed by the
+     *   dependency file. This method never returns {@code null}.
+     */
     public PropertySource<Map<File, JavaProjectDependencyDef>> translatedDependencies() {
-        return filteredTranslatedJavaDependenciesMap;
+        return translatedJavaDependenciesMap;
     }
 
     public JavaProjectDependencyDef tryGetDependency(File output) {
@@ -143,7 +108,101 @@ public final class JavaProjectDependencies {
             return;
         }
 
-        this.translatedDependencies.setValue(new TranslatedDependencies(currentModule, translateDependencies(currentModule)));
+        Map<File, ProjectDependencyCandidate> candidates = translateDependencies(currentModule);
+
+        candidateListenerRefs.unregister();
+        candidateListenerRefs = listenToCandidates(candidates.values());
+
+        this.translatedDependencies.setValue(new TranslatedDependencies(currentModule, candidates));
+        materializeDependenciesNow();
+    }
+
+    private ListenerRef listenToCandidates(Collection<ProjectDependencyCandidate> candidates) {
+        Runnable listener = new Runnable() {
+            @Override
+            public void run() {
+                materializeDependencies();
+            }
+        };
+
+        List<ListenerRef> result = new ArrayList<>(candidates.size());
+        for (ProjectDependencyCandidate candidate: candidates) {
+            // Dependencies must not keep this project reachable.
+            PropertySource<?> dependency = NbProperties.weakListenerProperty(candidate.projectDependency());
+            result.add(dependency.addChangeListener(listener));
+        }
+        return ListenerRegistries.combineListenerRefs(result);
+    }
+
+    private void materializeDependencies() {
+        materializeExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                materializeDependenciesNow();
+            }
+        });
+    }
+
+    private void materializeDependenciesNow() {
+        // This method is never called concurrently because both executors
+        // share the same in-order executor.
+
+        TranslatedDependencies candidates = translatedDependencies.getValue();
+        Map<File, JavaProjectDependencyDef> newDependencies = candidates != null
+                ? materialize(candidates.translatedDependencies)
+                : Collections.<File, JavaProjectDependencyDef>emptyMap();
+
+        if (!sameDependencies(translatedJavaDependenciesMap.getValue(), newDependencies)) {
+            translatedJavaDependenciesMap.setValue(newDependencies);
+        }
+    }
+
+    private static Map<File, JavaProjectDependencyDef> materialize(Map<File, ProjectDependencyCandidate> candidates) {
+        Map<File, JavaProjectDependencyDef> result = CollectionsEx.newHashMap(candidates.size());
+        for (Map.Entry<File, ProjectDependencyCandidate> entry: candidates.entrySet()) {
+            JavaProjectDependencyDef dependency = entry.getValue().projectDependency().getValue();
+            if (dependency != null) {
+                result.put(entry.getKey(), dependency);
+            }
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    private static boolean sameDependencies(
+            Map<File, JavaProjectDependencyDef> map1,
+            Map<File, JavaProjectDependencyDef> map2) {
+        if (map1.size() != map2.size()) {
+            return false;
+        }
+
+        for (Map.Entry<File, JavaProjectDependencyDef> entry: map1.entrySet()) {
+            JavaProjectDependencyDef other = map2.get(entry.getKey());
+            if (other == null || !sameDependency(entry.getValue(), other)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean sameDependency(JavaProjectDependencyDef dependency1, JavaProjectDependencyDef dependency2) {
+        if (dependency1.getJavaExt() != dependency2.getJavaExt()) {
+            return false;
+        }
+
+        // Source sets of the same model are the same instances, so a new
+        // model of the dependency will always be considered as a change.
+        List<JavaSourceSet> sourceSets1 = dependency1.getSourceSets();
+        List<JavaSourceSet> sourceSets2 = dependency2.getSourceSets();
+        if (sourceSets1.size() != sourceSets2.size()) {
+            return false;
+        }
+
+        for (int i = 0; i < sourceSets1.size(); i++) {
+            if (sourceSets1.get(i) != sourceSets2.get(i)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     private static Map<File, ProjectDependencyCandidate> translateDependencies(NbJavaModule module) {
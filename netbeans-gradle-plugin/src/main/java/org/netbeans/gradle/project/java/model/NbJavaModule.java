@@ -6,6 +6,7 @@ import java.io.ObjectInputStream;
 import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -18,6 +19,7 @@ import java.util.concurrent.atomic.AtomicReference;
 import org.jtrim.collections.CollectionsEx;
 import org.jtrim.utils.ExceptionHelper;
 import org.netbeans.gradle.model.GenericProjectProperties;
+import org.netbeans.gradle.model.java.JavaClassPaths;
 import org.netbeans.gradle.model.java.JavaCompatibilityModel;
 import org.netbeans.gradle.model.java.JavaOutputDirs;
 import org.netbeans.gradle.model.java.JavaSourceSet;
@@ -25,6 +27,7 @@ import org.netbeans.gradle.model.java.JavaTestModel;
 import org.netbeans.gradle.model.java.JavaTestTask;
 import org.netbeans.gradle.model.util.CollectionUtils;
 import org.netbeans.gradle.project.java.test.TestTaskName;
+import org.netbeans.gradle.project.model.ModelFingerprint;
 
 public final class NbJavaModule implements Serializable {
     private static final long serialVersionUID = 1L;
@@ -48,6 +51,7 @@ public final class NbJavaModule implements Serializable {
     private final AtomicReference<Map<File, List<JavaSourceSet>>> outputsToSourceSets;
     private final AtomicReference<Map<File, List<JavaSourceSet>>> buildOutputToSourceSets;
     private final AtomicReference<Map<File, List<JavaSourceSet>>> jarOutputsToSourceSets;
+    private final AtomicReference<ModelFingerprint> classPathsFingerprintRef;
 
     public NbJavaModule(
             GenericProjectProperties properties,
@@ -85,6 +89,7 @@ public final class NbJavaModule implements Serializable {
         this.outputsToSourceSets = new AtomicReference<>(null);
         this.buildOutputToSourceSets = new AtomicReference<>(null);
         this.jarOutputsToSourceSets = new AtomicReference<>(null);
+        this.classPathsFingerprintRef = new AtomicReference<>(null);
     }
 
     public GenericProjectProperties getProperties() {
@@ -127,6 +132,51 @@ public final class NbJavaModule implements Serializable {
         return jarOutputs;
     }
 
+    private ModelFingerprint createClassPathsFingerprint() {
+        // A hash map, so that the order of the source sets does not affect
+        // the fingerprint.
+        Map<String, List<Set<File>>> classPaths = CollectionUtils.newHashMap(sources.size());
+        for (JavaSourceSet sourceSet: sources) {
+            JavaClassPaths sourceSetClassPaths = sourceSet.getClasspaths();
+            classPaths.put(sourceSet.getName(), Arrays.asList(
+                    sourceSetClassPaths.getCompileClasspaths(),
+                    sourceSetClassPaths.getRuntimeClasspaths()));
+        }
+        return ModelFingerprint.of(classPaths);
+    }
+
+    private ModelFingerprint getClassPathsFingerprint() {
+        ModelFingerprint result = classPathsFingerprintRef.get();
+        if (result == null) {
+            result = createClassPathsFingerprint();
+            classPathsFingerprintRef.set(result);
+        }
+        return result;
+    }
+
+    /**
+     * Returns {@code true} if the given module has the same source sets as
+     * this module with the same compile and runtime classpaths. The comparison
+     * is based on a fingerprint of the classpaths cached by the modules, so
+     * only the first call on a module has to iterate over its classpaths.
+     * <P>
+     * The order of the source sets does not matter but the order of the
+     * entries of the classpaths does.
+     *
+     * @param other the module to compare with. This argument cannot be
+     *   {@code null}.
+     * @return {@code true} if the given module has the same source sets as
+     *   this module with the same classpaths, {@code false} otherwise
+     */
+    public boolean hasSameClassPaths(NbJavaModule other) {
+        ExceptionHelper.checkNotNullArgument(other, "other");
+
+        if (this == other) {
+            return true;
+        }
+        return getClassPathsFingerprint().isSameAs(other.getClassPathsFingerprint());
+    }
+
     private Map<File, List<JavaSourceSet>> createBuildOutputsToSourceSets() {
         Map<File, List<JavaSourceSet>> result = new HashMap<>();
 
@@ -20,11 +20,11 @@ import java.util.logging.Logger;
 import javax.swing.AbstractAction;
 import javax.swing.Action;
 import org.jtrim.concurrent.TaskExecutor;
+import org.jtrim.concurrent.UpdateTaskExecutor;
 import org.jtrim.utils.ExceptionHelper;
 import org.netbeans.api.project.Project;
 import org.netbeans.gradle.model.java.JavaClassPaths;
 import org.netbeans.gradle.model.java.JavaSourceSet;
-import org.netbeans.gradle.model.util.CollectionUtils;
 import org.netbeans.gradle.project.NbGradleProject;
 import org.netbeans.gradle.project.NbGradleProjectFactory;
 import org.netbeans.gradle.project.NbIcons;
@@ -106,6 +106,7 @@ public final class JavaDependenciesNode extends AbstractNode {
         private final JavaExtension javaExt;
         private final AtomicReference<NbJavaModule> lastModule;
         private final ListenerRegistrations listenerRefs;
+        private final UpdateTaskExecutor modelCheckExecutor;
 
         public DependenciesChildFactory(JavaExtension javaExt) {
             ExceptionHelper.checkNotNullArgument(javaExt, "javaExt");
@@ -113,6 +114,7 @@ public final class JavaDependenciesNode extends AbstractNode {
             this.javaExt = javaExt;
             this.lastModule = new AtomicReference<>(null);
             this.listenerRefs = new ListenerRegistrations();
+            this.modelCheckExecutor = NbTaskExecutors.newDefaultUpdateExecutor();
         }
 
         private static boolean hasRelevantDifferences(NbJavaModule module1, NbJavaModule module2) {
@@ -124,44 +126,22 @@ public final class JavaDependenciesNode extends AbstractNode {
                 return true;
             }
 
-            if (module1.getSources().size() != module2.getSources().size()) {
-                return true;
-            }
-
-            Map<String, JavaSourceSet> sources2 = getSourceSetMap(module2);
-            for (JavaSourceSet sourceSet1: module1.getSources()) {
-                JavaSourceSet sourceSet2 = sources2.get(sourceSet1.getName());
-                if (sourceSet2 == null) {
-                    return true;
-                }
-
-                if (!isClassPathSame(sourceSet1, sourceSet2)) {
-                    return true;
-                }
-            }
-            return false;
+            return !module1.hasSameClassPaths(module2);
         }
 
-        private static boolean isClassPathSame(JavaSourceSet sourceSet1, JavaSourceSet sourceSet2) {
-            JavaClassPaths classpaths1 = sourceSet1.getClasspaths();
-            JavaClassPaths classpaths2 = sourceSet2.getClasspaths();
-
-            if (!classpaths1.getCompileClasspaths().equals(classpaths2.getCompileClasspaths())) {
-                return false;
-            }
-
-            return classpaths1.getRuntimeClasspaths().equals(classpaths2.getRuntimeClasspaths());
-        }
-
-        private static Map<String, JavaSourceSet> getSourceSetMap(NbJavaModule module) {
-            Map<String, JavaSourceSet> result = CollectionUtils.newHashMap(module.getSources().size());
-            for (JavaSourceSet sourceSet: module.getSources()) {
-                result.put(sourceSet.getName(), sourceSet);
-            }
-            return result;
+        private void modelChanged() {
+            // The comparison has to iterate over the classpaths of the new
+            // model (which might be long), so it is not done on the thread
+            // notifying us. The keys are recreated in the background anyway.
+            modelCheckExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    checkForRelevantChanges();
+                }
+            });
         }
 
-        private void modelChanged() {
+        private void checkForRelevantChanges() {
             NbJavaModule newModule = javaExt.getCurrentModel().getMainModule();
             NbJavaModule prevModule = lastModule.getAndSet(newModule);
 
@@ -7,6 +7,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -19,7 +20,6 @@ import org.jtrim.concurrent.TaskExecutors;
 import org.jtrim.concurrent.UpdateTaskExecutor;
 import org.jtrim.property.PropertyFactory;
 import org.jtrim.property.PropertySource;
-import org.jtrim.swing.concurrent.SwingUpdateTaskExecutor;
 import org.jtrim.utils.ExceptionHelper;
 import org.netbeans.api.java.classpath.ClassPath;
 import org.netbeans.api.java.classpath.JavaClassPathConstants;
@@ -56,6 +56,7 @@ import org.netbeans.gradle.project.util.NbConsumer;
 import org.netbeans.gradle.project.util.NbFileUtils;
 import org.netbeans.gradle.project.util.NbSupplier;
 import org.netbeans.gradle.project.util.NbTaskExecutors;
+import org.netbeans.gradle.project.util.SwingBatchExecutor;
 import org.netbeans.spi.java.classpath.ClassPathFactory;
 import org.netbeans.spi.java.classpath.ClassPathImplementation;
 import org.netbeans.spi.java.classpath.ClassPathProvider;
@@ -69,11 +70,18 @@ implements
         ProjectInitListener,
         JavaModelChangeListener {
 
+    // The key of the classpath containing the sources of this project and
+    // its dependencies (see AllSourcesClassPaths).
+    private static final ClassPathKey ALL_SOURCES = new ClassPathKey() {
+    };
+
     private final JavaExtension javaExt;
     private final AtomicReference<Map<ClassPathKey, List<PathResourceImplementation>>> classpathResourcesRef;
     private final ConcurrentMap<ClassPathKey, ClassPath> classpaths;
 
     private final PropertyChangeSupport changes;
+    private final ConcurrentMap<ClassPathKey, PropertyChangeSupport> classpathChanges;
+    private final Set<ClassPathKey> unfiredChanges;
     private final AtomicReference<ProjectPlatform> currentPlatformRef;
 
     private final AtomicReference<ProjectIssueRef> infoRefRef;
@@ -84,7 +92,7 @@ implements
     private volatile boolean loadedOnce;
 
     private final UpdateTaskExecutor classpathUpdateExecutor;
-    private final UpdateTaskExecutor changesNotifier;
+    private final Runnable classPathChangesFirer;
 
     private final ListenerRegistrations propertyListenerRefs;
 
@@ -111,12 +119,33 @@ implements
 
         TaskExecutor pathUpdater = TaskExecutors.inOrderSimpleExecutor(NbTaskExecutors.DEFAULT_EXECUTOR);
         this.classpathUpdateExecutor = new GenericUpdateTaskExecutor(pathUpdater);
-        this.changesNotifier = new SwingUpdateTaskExecutor(true);
+        this.classPathChangesFirer = new Runnable() {
+            @Override
+            public void run() {
+                fireClassPathChanges();
+            }
+        };
         this.propertyListenerRefs = new ListenerRegistrations();
 
+        this.changes = createChangeSupport();
+        this.classpathChanges = new ConcurrentHashMap<>();
+        this.unfiredChanges = Collections.newSetFromMap(new ConcurrentHashMap<ClassPathKey, Boolean>());
+    }
+
+    private static PropertyChangeSupport createChangeSupport() {
         EventSource eventSource = new EventSource();
-        this.changes = new PropertyChangeSupport(eventSource);
-        eventSource.init(this.changes);
+        PropertyChangeSupport result = new PropertyChangeSupport(eventSource);
+        eventSource.init(result);
+        return result;
+    }
+
+    private PropertyChangeSupport getChangesOf(ClassPathKey classPathKey) {
+        PropertyChangeSupport result = classpathChanges.get(classPathKey);
+        if (result == null) {
+            classpathChanges.putIfAbsent(classPathKey, createChangeSupport());
+            result = classpathChanges.get(classPathKey);
+        }
+        return result;
     }
 
     private ProjectIssueRef getInfoRef() {
@@ -333,7 +362,7 @@ implements
         }
     }
 
-    private void updateAllSources(Map<File, JavaProjectDependencyDef> translatedDependencies) {
+    private boolean updateAllSources(Map<File, JavaProjectDependencyDef> translatedDependencies) {
         NbJavaModel currentModel = javaExt.getCurrentModel();
         NbJavaModule mainModule = currentModel.getMainModule();
 
@@ -346,7 +375,9 @@ implements
         }
 
         sources.trimToSize();
+        List<PathResourceImplementation> prevSources = allSources;
         allSources = Collections.unmodifiableList(sources);
+        return !prevSources.equals(sources);
     }
 
     public static List<PathResourceImplementation> getPathResources(
@@ -396,21 +427,66 @@ implements
             getInfoRef().setInfo(new ProjectIssue(infos));
         }
 
-        updateAllSources(translatedDependencies);
+        Set<ClassPathKey> changedClassPaths = getChangedClassPaths(prevClasspathResources, newClasspathResources);
+        if (updateAllSources(translatedDependencies)) {
+            changedClassPaths.add(ALL_SOURCES);
+        }
 
-        boolean changed = !prevClasspathResources.equals(newClasspathResources);
-        if (changed) {
-            changesNotifier.execute(new Runnable() {
-                @Override
-                public void run() {
-                    changes.firePropertyChange(ClassPathImplementation.PROP_RESOURCES, null, null);
-                }
-            });
+        if (!changedClassPaths.isEmpty()) {
+            unfiredChanges.addAll(changedClassPaths);
+            // Fired in the same batch as the model changes of the other
+            // projects loaded together.
+            SwingBatchExecutor.getDefault().execute(classPathChangesFirer);
         }
 
         loadedOnce = true;
     }
 
+    /**
+     * Returns the keys of the classpaths whose resources are different in the
+     * given maps. The returned set is mutable.
+     */
+    static Set<ClassPathKey> getChangedClassPaths(
+            Map<ClassPathKey, List<PathResourceImplementation>> prevClasspathResources,
+            Map<ClassPathKey, List<PathResourceImplementation>> newClasspathResources) {
+
+        Set<ClassPathKey> result = new HashSet<>();
+        for (Map.Entry<ClassPathKey, List<PathResourceImplementation>> entry: newClasspathResources.entrySet()) {
+            List<PathResourceImplementation> prevResources = prevClasspathResources.get(entry.getKey());
+            if (!entry.getValue().equals(prevResources)) {
+                result.add(entry.getKey());
+            }
+        }
+        for (ClassPathKey classPathKey: prevClasspathResources.keySet()) {
+            if (!newClasspathResources.containsKey(classPathKey)) {
+                result.add(classPathKey);
+            }
+        }
+        return result;
+    }
+
+    private void fireClassPathChanges() {
+        // Only the classpaths whose resources have actually changed are
+        // notified, so that the indexer does not have to check the roots of
+        // the others.
+        boolean changedAny = false;
+        Iterator<ClassPathKey> unfiredItr = unfiredChanges.iterator();
+        while (unfiredItr.hasNext()) {
+            ClassPathKey classPathKey = unfiredItr.next();
+            unfiredItr.remove();
+
+            changedAny = true;
+            PropertyChangeSupport classPathChanges = classpathChanges.get(classPathKey);
+            if (classPathChanges != null) {
+                classPathChanges.firePropertyChange(ClassPathImplementation.PROP_RESOURCES, null, null);
+            }
+        }
+
+        if (changedAny) {
+            changes.firePropertyChange(ClassPathImplementation.PROP_RESOURCES, null, null);
+        }
+    }
+
     private void loadClassPath(ClassPathKey classPathKey) {
         classpaths.putIfAbsent(
                 classPathKey,
@@ -474,12 +550,12 @@ implements
 
         @Override
         public void addPropertyChangeListener(PropertyChangeListener listener) {
-            changes.addPropertyChangeListener(listener);
+            getChangesOf(ALL_SOURCES).addPropertyChangeListener(listener);
         }
 
         @Override
         public final void removePropertyChangeListener(PropertyChangeListener listener) {
-            changes.removePropertyChangeListener(listener);
+            getChangesOf(ALL_SOURCES).removePropertyChangeListener(listener);
         }
     }
 
@@ -501,12 +577,12 @@ implements
 
         @Override
         public void addPropertyChangeListener(PropertyChangeListener listener) {
-            changes.addPropertyChangeListener(listener);
+            getChangesOf(classPathKey).addPropertyChangeListener(listener);
         }
 
         @Override
         public void removePropertyChangeListener(PropertyChangeListener listener) {
-            changes.removePropertyChangeListener(listener);
+            getChangesOf(classPathKey).removePropertyChangeListener(listener);
         }
     }
 
@@ -0,0 +1,193 @@
+package org.netbeans.gradle.project.java.query;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import org.jtrim.utils.ExceptionHelper;
+import org.netbeans.gradle.project.LoadedProjectManager;
+import org.netbeans.gradle.project.java.model.NbJarOutput;
+import org.netbeans.gradle.project.util.NbPredicate;
+
+/**
+ * Maps the names of the JARs built by the loaded Java projects to the class
+ * directories the JAR is built from. This index is updated incrementally when
+ * the model of a project changes, so translating a JAR dependency to the output
+ * of the project building it does not require iterating over all the projects.
+ * <P>
+ * JAR names are compared case-insensitively. If multiple projects build a JAR
+ * with the same name, the JAR built by the default {@code jar} task is
+ * preferred, otherwise the project registered first wins.
+ * <P>
+ * The methods of this class are safe to be called from multiple threads
+ * concurrently.
+ */
+public final class JarOutputIndex {
+    private static final JarOutputIndex DEFAULT = new JarOutputIndex(new NbPredicate<File>() {
+        @Override
+        public boolean test(File projectDir) {
+            return LoadedProjectManager.getDefault().tryGetLoadedProject(projectDir) != null;
+        }
+    });
+
+    private final NbPredicate<? super File> projectLoadedQuery;
+
+    private final Lock mainLock;
+    private final Map<File, List<String>> projectJarNames;
+    private final Map<String, Map<File, NbJarOutput>> jarOutputs;
+
+    /**
+     * Creates a new empty index.
+     *
+     * @param projectLoadedQuery the predicate returning {@code true} for a
+     *   project directory if the project is still loaded. The outputs of
+     *   projects which are no longer loaded are ignored (and removed). This
+     *   argument cannot be {@code null}.
+     */
+    public JarOutputIndex(NbPredicate<? super File> projectLoadedQuery) {
+        ExceptionHelper.checkNotNullArgument(projectLoadedQuery, "projectLoadedQuery");
+
+        this.projectLoadedQuery = projectLoadedQuery;
+        this.mainLock = new ReentrantLock();
+        this.projectJarNames = new HashMap<>();
+        this.jarOutputs = new HashMap<>();
+    }
+
+    public static JarOutputIndex getDefault() {
+        return DEFAULT;
+    }
+
+    private static String getKey(File jar) {
+        return getKey(jar.getName());
+    }
+
+    private static String getKey(String jarName) {
+        return jarName.toLowerCase(Locale.ROOT);
+    }
+
+    public void updateProject(File projectDir, List<NbJarOutput> projectOutputs) {
+        ExceptionHelper.checkNotNullArgument(projectDir, "projectDir");
+        ExceptionHelper.checkNotNullElements(projectOutputs, "projectOutputs");
+
+        List<NbJarOutput> newOutputs = new ArrayList<>(projectOutputs);
+        List<String> newJarNames = new ArrayList<>(newOutputs.size());
+        for (NbJarOutput output: newOutputs) {
+            newJarNames.add(getKey(output.getJar()));
+        }
+
+        mainLock.lock();
+        try {
+            removeProjectUnlocked(projectDir);
+
+            projectJarNames.put(projectDir, newJarNames);
+            for (int i = 0; i < newOutputs.size(); i++) {
+                String key = newJarNames.get(i);
+                Map<File, NbJarOutput> outputs = jarOutputs.get(key);
+                if (outputs == null) {
+                    outputs = new LinkedHashMap<>();
+                    jarOutputs.put(key, outputs);
+                }
+                outputs.put(projectDir, selectOutput(outputs.get(projectDir), newOutputs.get(i)));
+            }
+        } finally {
+            mainLock.unlock();
+        }
+    }
+
+    public void removeProject(File projectDir) {
+        ExceptionHelper.checkNotNullArgument(projectDir, "projectDir");
+
+        mainLock.lock();
+        try {
+            removeProjectUnlocked(projectDir);
+        } finally {
+            mainLock.unlock();
+        }
+    }
+
+    private void removeProjectUnlocked(File projectDir) {
+        assert ((ReentrantLock)mainLock).isHeldByCurrentThread();
+
+        List<String> jarNames = projectJarNames.remove(projectDir);
+        if (jarNames == null) {
+            return;
+        }
+
+        for (String key: jarNames) {
+            Map<File, NbJarOutput> outputs = jarOutputs.get(key);
+            if (outputs != null) {
+                outputs.remove(projectDir);
+                if (outputs.isEmpty()) {
+                    jarOutputs.remove(key);
+                }
+            }
+        }
+    }
+
+    private static NbJarOutput selectOutput(NbJarOutput output1, NbJarOutput output2) {
+        if (output1 == null || output1.getClassDirs().isEmpty()) {
+            return output2;
+        }
+        if (output2 == null || output2.getClassDirs().isEmpty()) {
+            return output1;
+        }
+        return output2.isDefaultJar() ? output2 : output1;
+    }
+
+    /**
+     * Returns the class directories the JAR with the given name is built from
+     * or {@code null} if no loaded project builds a JAR with the given name
+     * (from a non-empty set of class directories).
+     *
+     * @param jar the JAR whose class directories are to be returned. Only the
+     *   name of this file is considered. This argument cannot be {@code null}.
+     * @return the class directories the JAR with the given name is built from
+     *   or {@code null} if there is no such loaded project
+     */
+    public Set<File> tryGetClassDirs(File jar) {
+        ExceptionHelper.checkNotNullArgument(jar, "jar");
+
+        String key = getKey(jar);
+        List<File> unloadedProjects = null;
+        NbJarOutput result = null;
+
+        mainLock.lock();
+        try {
+            Map<File, NbJarOutput> outputs = jarOutputs.get(key);
+            if (outputs == null) {
+                return null;
+            }
+
+            for (Map.Entry<File, NbJarOutput> entry: outputs.entrySet()) {
+                if (!projectLoadedQuery.test(entry.getKey())) {
+                    if (unloadedProjects == null) {
+                        unloadedProjects = new ArrayList<>();
+                    }
+                    unloadedProjects.add(entry.getKey());
+                    continue;
+                }
+
+                result = selectOutput(result, entry.getValue());
+            }
+
+            if (unloadedProjects != null) {
+                for (File projectDir: unloadedProjects) {
+                    removeProjectUnlocked(projectDir);
+                }
+            }
+        } finally {
+            mainLock.unlock();
+        }
+
+        if (result == null || result.getClassDirs().isEmpty()) {
+            return null;
+        }
+        return result.getClassDirs();
+    }
+}
@@ -514,10 +514,11 @@ public final class GradleJavaBuiltInCommands implements BuiltInGradleCommandQuer
             final Project project,
             final JavaExtension javaExt,
             final Lookup startContext) {
+        final long startTimeMillis = System.currentTimeMillis();
         return new ContextAwareCommandCompleteListener() {
             @Override
             public void onComplete(ExecutedCommandContext executedCommandContext, Throwable error) {
-                displayTestReports(project, javaExt, executedCommandContext, startContext, error);
+                displayTestReports(project, javaExt, executedCommandContext, startContext, startTimeMillis, error);
             }
         };
     }
@@ -535,13 +536,14 @@ public final class GradleJavaBuiltInCommands implements BuiltInGradleCommandQuer
             JavaExtension javaExt,
             ExecutedCommandContext executedCommandContext,
             Lookup startContext,
+            long startTimeMillis,
             Throwable error) {
 
         List<String> testNames = getTestNames(javaExt, executedCommandContext);
 
         for (String testName: testNames) {
             TestXmlDisplayer xmlDisplayer = new TestXmlDisplayer(project, testName);
-            if (!xmlDisplayer.displayReport(startContext)) {
+            if (!xmlDisplayer.displayReport(startContext, startTimeMillis)) {
                 if (error == null) {
                     displayErrorDueToNoTestReportsFound(xmlDisplayer);
                 }
@@ -6,23 +6,31 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.regex.Pattern;
 import javax.swing.event.ChangeListener;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
+import org.jtrim.cancel.Cancellation;
+import org.jtrim.cancel.CancellationToken;
+import org.jtrim.concurrent.CancelableTask;
+import org.jtrim.concurrent.CleanupTask;
+import org.jtrim.concurrent.MonitorableTaskExecutorService;
 import org.jtrim.utils.ExceptionHelper;
 import org.netbeans.api.project.Project;
 import org.netbeans.api.project.ProjectInformation;
 import org.netbeans.api.project.ProjectUtils;
 import org.netbeans.gradle.model.java.JavaTestTask;
+import org.netbeans.gradle.project.api.task.NbCommandString;
 import org.netbeans.gradle.project.java.JavaExtension;
 import org.netbeans.gradle.project.others.test.NbGradleTestManager;
 import org.netbeans.gradle.project.others.test.NbGradleTestManagers;
 import org.netbeans.gradle.project.others.test.NbGradleTestSession;
 import org.netbeans.gradle.project.others.test.NbGradleTestSuite;
+import org.netbeans.gradle.project.util.NbTaskExecutors;
 import org.netbeans.gradle.project.view.GradleActionProvider;
 import org.netbeans.modules.gsf.testrunner.api.RerunHandler;
 import org.netbeans.modules.gsf.testrunner.api.RerunType;
@@ -30,6 +38,7 @@ import org.netbeans.modules.gsf.testrunner.api.Status;
 import org.netbeans.modules.gsf.testrunner.api.Testcase;
 import org.netbeans.modules.gsf.testrunner.api.Trouble;
 import org.netbeans.spi.project.ActionProvider;
+import org.netbeans.spi.project.SingleMethod;
 import org.openide.util.Lookup;
 import org.openide.util.lookup.Lookups;
 import org.xml.sax.Attributes;
@@ -39,9 +48,15 @@ import org.xml.sax.helpers.DefaultHandler;
 public final class TestXmlDisplayer {
     private static final Logger LOGGER = Logger.getLogger(TestXmlDisplayer.class.getName());
     private static final File[] NO_FILES = new File[0];
-    private static final String NEW_LINE_PATTERN = Pattern.quote("\n");
     private static final String[] STACKTRACE_PREFIXES = {"at "};
 
+    private static final int PARSER_THREAD_COUNT = Math.min(Runtime.getRuntime().availableProcessors(), 4);
+    private static final MonitorableTaskExecutorService PARSER_EXECUTOR
+            = NbTaskExecutors.newExecutor("Test-Report-Parser", PARSER_THREAD_COUNT);
+
+    // Some file systems store the last modification time in seconds.
+    private static final long REPORT_TIME_TOLERANCE_MS = 2000;
+
     private final Project project;
     private final JavaExtension javaExt;
     private final String testName;
@@ -93,6 +108,33 @@ public final class TestXmlDisplayer {
         return result != null ? result : NO_FILES;
     }
 
+    private static File[] filterNewReportFiles(File[] reportFiles, long minTimeMillis) {
+        List<File> result = new ArrayList<>(reportFiles.length);
+        for (File reportFile: reportFiles) {
+            if (reportFile.lastModified() >= minTimeMillis) {
+                result.add(reportFile);
+            }
+        }
+        return result.toArray(NO_FILES);
+    }
+
+    private static boolean isSpecificTestRun(Lookup runContext) {
+        NbCommandString commandString = runContext.lookup(NbCommandString.class);
+        if (commandString != null) {
+            switch (commandString.getCommandString()) {
+                case ActionProvider.COMMAND_TEST_SINGLE:
+                case ActionProvider.COMMAND_DEBUG_TEST_SINGLE:
+                case SingleMethod.COMMAND_RUN_SINGLE_METHOD:
+                case SingleMethod.COMMAND_DEBUG_SINGLE_METHOD:
+                    return true;
+            }
+        }
+
+        return runContext.lookup(SpecificTestcases.class) != null
+                || runContext.lookup(SpecificTestClass.class) != null
+                || runContext.lookup(SingleMethod.class) != null;
+    }
+
     private static long tryReadTimeMillis(String timeStr, long defaultValue) {
         if (timeStr == null) {
             return defaultValue;
@@ -106,11 +148,24 @@ public final class TestXmlDisplayer {
     }
 
     private static String[] toLines(String text) {
-        return text
-                .replace("\r\n", "\n")
-                .replace("\r", "\n")
-                .trim()
-                .split(NEW_LINE_PATTERN);
+        String trimmed = text.trim();
+
+        List<String> result = new ArrayList<>();
+        int length = trimmed.length();
+        int lineStart = 0;
+        for (int i = 0; i < length; i++) {
+            char ch = trimmed.charAt(i);
+            if (ch == '\n' || ch == '\r') {
+                result.add(trimmed.substring(lineStart, i));
+                if (ch == '\r' && i + 1 < length && trimmed.charAt(i + 1) == '\n') {
+                    i++;
+                }
+                lineStart = i + 1;
+            }
+        }
+        result.add(trimmed.substring(lineStart));
+
+        return result.toArray(new String[result.size()]);
     }
 
     private static String[] extractStackTrace(String text) {
@@ -130,21 +185,20 @@ public final class TestXmlDisplayer {
         return lines;
     }
 
-    private void displayTestSuite(final File reportFile, SAXParser parser, final NbGradleTestSession testSession) throws Exception {
-        parser.reset();
-
-        TestXmlContentHandler testXmlContentHandler = new TestXmlContentHandler(testSession, reportFile);
-        parser.parse(reportFile, testXmlContentHandler);
+    private static ParsedTestSuite tryParseTestSuite(File reportFile, SAXParser parser) {
+        try {
+            parser.reset();
 
-        NbGradleTestSuite testSuite = testXmlContentHandler.testSuite;
-        if (testSuite != null) {
-            testSuite.setStdErr(testXmlContentHandler.stderr);
-            testSuite.setStdOut(testXmlContentHandler.stdout);
-            testSuite.endSuite(testXmlContentHandler.suiteTime);
+            TestXmlContentHandler testXmlContentHandler = new TestXmlContentHandler(reportFile);
+            parser.parse(reportFile, testXmlContentHandler);
+            return testXmlContentHandler.getTestSuite();
+        } catch (Exception ex) {
+            LOGGER.log(Level.INFO, "Error while parsing " + reportFile, ex);
+            return null;
         }
     }
 
-    private SAXParser tryGetSaxParser() {
+    private static SAXParser tryGetSaxParser() {
         SAXParserFactory parserFactory = SAXParserFactory.newInstance();
         try {
             return parserFactory.newSAXParser();
@@ -157,24 +211,91 @@ public final class TestXmlDisplayer {
         }
     }
 
-    private boolean displayTestSession(NbGradleTestSession testSession, File[] reportFiles) {
+    private static boolean parseReports(File[] reportFiles, ParsedTestSuite[] result, AtomicInteger nextIndex) {
         SAXParser parser = tryGetSaxParser();
         if (parser == null) {
             return false;
         }
 
-        for (File reportFile: reportFiles) {
+        int index = nextIndex.getAndIncrement();
+        while (index < reportFiles.length) {
+            result[index] = tryParseTestSuite(reportFiles[index], parser);
+            index = nextIndex.getAndIncrement();
+        }
+        return true;
+    }
+
+    /**
+     * Parses the given report files concurrently. The calling thread also
+     * parses report files, so this method makes progress even if all the
+     * threads of the parser executor are busy.
+     */
+    private static ParsedTestSuite[] tryParseReports(final File[] reportFiles) {
+        final ParsedTestSuite[] result = new ParsedTestSuite[reportFiles.length];
+        final AtomicInteger nextIndex = new AtomicInteger(0);
+
+        int helperCount = Math.min(PARSER_THREAD_COUNT, reportFiles.length) - 1;
+        final CountDownLatch helpersDone = new CountDownLatch(Math.max(helperCount, 0));
+        for (int i = 0; i < helperCount; i++) {
+            PARSER_EXECUTOR.execute(Cancellation.UNCANCELABLE_TOKEN, new CancelableTask() {
+                @Override
+                public void execute(CancellationToken cancelToken) {
+                    parseReports(reportFiles, result, nextIndex);
+                }
+            }, new CleanupTask() {
+                @Override
+                public void cleanup(boolean canceled, Throwable error) {
+                    NbTaskExecutors.defaultCleanup(canceled, error);
+                    helpersDone.countDown();
+                }
+            });
+        }
+
+        boolean parsed = parseReports(reportFiles, result, nextIndex);
+
+        boolean interrupted = false;
+        while (true) {
             try {
-                displayTestSuite(reportFile, parser, testSession);
-            } catch (Exception ex) {
-                LOGGER.log(Level.INFO, "Error while parsing " + reportFile, ex);
+                helpersDone.await();
+                break;
+            } catch (InterruptedException ex) {
+                interrupted = true;
             }
         }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
 
-        return true;
+        return parsed ? result : null;
+    }
+
+    private static void displayTestSuite(ParsedTestSuite parsedSuite, NbGradleTestSession testSession) {
+        NbGradleTestSuite testSuite = testSession.startTestSuite(parsedSuite.name);
+        for (ParsedTestcase parsedTestcase: parsedSuite.testcases) {
+            parsedTestcase.addTo(testSuite);
+        }
+
+        testSuite.setStdErr(parsedSuite.stderr);
+        testSuite.setStdOut(parsedSuite.stdout);
+        testSuite.endSuite(parsedSuite.timeMillis);
+    }
+
+    private static void displayTestSession(NbGradleTestSession testSession, ParsedTestSuite[] parsedSuites) {
+        for (ParsedTestSuite parsedSuite: parsedSuites) {
+            if (parsedSuite != null) {
+                displayTestSuite(parsedSuite, testSession);
+            }
+        }
     }
 
     private boolean displayReport(Lookup runContext, File[] reportFiles) {
+        // Parse everything before starting the session, so that the test
+        // results window is updated in one go and not file by file.
+        ParsedTestSuite[] parsedSuites = tryParseReports(reportFiles);
+        if (parsedSuites == null) {
+            return false;
+        }
+
         NbGradleTestSession testSession = testManager.startSession(
                 getProjectName(),
                 project,
@@ -182,13 +303,31 @@ public final class TestXmlDisplayer {
                 new JavaRerunHandler(runContext));
 
         try {
-            return displayTestSession(testSession, reportFiles);
+            displayTestSession(testSession, parsedSuites);
         } finally {
             testSession.endSession();
         }
+        return true;
     }
 
     public boolean displayReport(Lookup runContext) {
+        return displayReport(runContext, Long.MIN_VALUE);
+    }
+
+    /**
+     * Displays the test results found in the report directory of the test task.
+     * If the run context specifies particular tests (i.e., only some tests were
+     * rerun), only the reports written after the given time are displayed,
+     * unless there are no such reports at all.
+     *
+     * @param runContext the context of the executed command. This argument
+     *   cannot be {@code null}.
+     * @param taskStartTimeMillis the time (as returned by
+     *   {@code System.currentTimeMillis()}) when the test task was started
+     * @return {@code true} if there were test reports to be displayed,
+     *   {@code false} otherwise
+     */
+    public boolean displayReport(Lookup runContext, long taskStartTimeMillis) {
         ExceptionHelper.checkNotNullArgument(runContext, "runContext");
 
         File[] reportFiles = getTestReportFiles();
@@ -199,6 +338,13 @@ public final class TestXmlDisplayer {
             return false;
         }
 
+        if (taskStartTimeMillis != Long.MIN_VALUE && isSpecificTestRun(runContext)) {
+            File[] newReportFiles = filterNewReportFiles(reportFiles, taskStartTimeMillis - REPORT_TIME_TOLERANCE_MS);
+            if (newReportFiles.length > 0) {
+                reportFiles = newReportFiles;
+            }
+        }
+
         return displayReport(runContext, reportFiles);
     }
 
@@ -254,54 +400,91 @@ public final class TestXmlDisplayer {
         }
     }
 
+    private static final class ParsedTestSuite {
+        private final String name;
+        private final List<ParsedTestcase> testcases;
+
+        private String stdout;
+        private String stderr;
+        private long timeMillis;
+
+        public ParsedTestSuite(String name, long timeMillis) {
+            this.name = name;
+            this.timeMillis = timeMillis;
+            this.testcases = new ArrayList<>(64);
+            this.stdout = null;
+            this.stderr = null;
+        }
+    }
+
+    private static final class ParsedTestcase {
+        private final String name;
+        private final String className;
+        private final long timeMillis;
+
+        private Status status;
+        private boolean error;
+        private String[] stackTrace;
+
+        public ParsedTestcase(String name, String className, long timeMillis, Status status) {
+            this.name = name;
+            this.className = className;
+            this.timeMillis = timeMillis;
+            this.status = status;
+            this.error = false;
+            this.stackTrace = null;
+        }
+
+        public void addTo(NbGradleTestSuite testSuite) {
+            Testcase result = testSuite.addTestcase(name);
+            if (className != null) {
+                result.setClassName(className);
+            }
+            result.setTimeMillis(timeMillis);
+            result.setStatus(status);
+
+            if (stackTrace != null) {
+                Trouble trouble = new Trouble(error);
+                trouble.setStackTrace(stackTrace);
+                result.setTrouble(trouble);
+            }
+        }
+    }
+
     private static final class TestXmlContentHandler extends DefaultHandler {
-        private final NbGradleTestSession session;
         private final File reportFile;
 
         private int level;
-        private NbGradleTestSuite testSuite;
-        private final List<Testcase> allTestcases;
+        private ParsedTestSuite testSuite;
 
-        private String stdout;
-        private String stderr;
-        private long suiteTime;
-        private boolean error;
-        private Testcase testcase;
+        private ParsedTestcase testcase;
         private StringBuilder failureContent;
         private boolean outputBuilderIsStdOut;
         private StringBuilder outputBuilder;
 
-        public TestXmlContentHandler(NbGradleTestSession session, File reportFile) {
-            this.session = session;
+        public TestXmlContentHandler(File reportFile) {
             this.reportFile = reportFile;
-            this.allTestcases = new ArrayList<>(64);
 
             this.level = 0;
             this.testSuite = null;
-            this.suiteTime = 0;
-            this.error = false;
             this.testcase = null;
             this.failureContent = null;
             this.outputBuilderIsStdOut = false;
         }
 
+        public ParsedTestSuite getTestSuite() {
+            return testSuite;
+        }
+
         private void startSuite(Attributes attributes) {
             String name = attributes.getValue("", "name");
-            suiteTime = tryReadTimeMillis(attributes.getValue("", "time"), 0);
+            long suiteTime = tryReadTimeMillis(attributes.getValue("", "time"), 0);
 
             String suiteName = name != null ? name : reportFile.getName();
-            testSuite = session.startTestSuite(suiteName);
+            testSuite = new ParsedTestSuite(suiteName, suiteTime);
         }
 
-        private Testcase tryGetTestCase(Attributes attributes, Status status) {
-            Testcase result = tryGetTestCase(attributes);
-            if (result != null) {
-                result.setStatus(status);
-            }
-            return result;
-        }
-
-        private Testcase tryGetTestCase(Attributes attributes) {
+        private ParsedTestcase tryGetTestCase(Attributes attributes, Status status) {
             if (testSuite == null) {
                 LOGGER.warning("test suite has not been started but there is a test case to add.");
                 return null;
@@ -312,17 +495,10 @@ public final class TestXmlDisplayer {
                 return null;
             }
 
-            Testcase result = testSuite.addTestcase(name);
-
             String className = attributes.getValue("", "classname");
-            if (className != null) {
-                result.setClassName(className);
-            }
-
             long time = tryReadTimeMillis(attributes.getValue("", "time"), 0);
-            result.setTimeMillis(time);
 
-            return result;
+            return new ParsedTestcase(name, className, time, status);
         }
 
         private boolean tryAddTestCase(String uri, String localName, String qName, Attributes attributes) {
@@ -336,7 +512,7 @@ public final class TestXmlDisplayer {
             }
 
             if (testcase != null) {
-                allTestcases.add(testcase);
+                testSuite.testcases.add(testcase);
                 return true;
             }
             else {
@@ -348,21 +524,21 @@ public final class TestXmlDisplayer {
             if (testcase != null) {
                 switch (qName) {
                     case "failure":
-                        error = false;
-                        testcase.setStatus(Status.FAILED);
+                        testcase.error = false;
+                        testcase.status = Status.FAILED;
                         break;
                     case "error":
-                        error = true;
-                        testcase.setStatus(Status.ERROR);
+                        testcase.error = true;
+                        testcase.status = Status.ERROR;
                         break;
                     case "skipped":
-                        error = false;
-                        testcase.setStatus(Status.SKIPPED);
+                        testcase.error = false;
+                        testcase.status = Status.SKIPPED;
                         break;
                     default:
                         LOGGER.log(Level.WARNING, "Unexpected element in testcase: {0}", qName);
-                        error = true;
-                        testcase.setStatus(Status.ERROR);
+                        testcase.error = true;
+                        testcase.status = Status.ERROR;
                         break;
                 }
                 failureContent = new StringBuilder(1024);
@@ -409,20 +585,20 @@ public final class TestXmlDisplayer {
                 case 1:
                     testcase = null;
                     if (outputBuilder != null) {
-                        if (outputBuilderIsStdOut) {
-                            stdout = outputBuilder.toString();
-                        }
-                        else {
-                            stderr = outputBuilder.toString();
+                        if (testSuite != null) {
+                            if (outputBuilderIsStdOut) {
+                                testSuite.stdout = outputBuilder.toString();
+                            }
+                            else {
+                                testSuite.stderr = outputBuilder.toString();
+                            }
                         }
                         outputBuilder = null;
                     }
                     break;
                 case 2:
                     if (failureContent != null && testcase != null) {
-                        Trouble trouble = new Trouble(error);
-                        trouble.setStackTrace(extractStackTrace(failureContent.toString()));
-                        testcase.setTrouble(trouble);
+                        testcase.stackTrace = extractStackTrace(failureContent.toString());
                     }
                     failureContent = null;
                     break;
@@ -598,7 +598,7 @@ public final class DefaultGradleModelLoader implements ModelLoader<NbGradleModel
 
         ModelLoadingStrategy modelLoadingStrategy = CommonGlobalSettings.getDefault().modelLoadingStrategy().getActiveValue();
         NbModelLoader result = modelLoadingStrategy.canUse18Api(version)
-                ? new NbGradle18ModelLoader(settingsGradleDef, setup, gradleTarget)
+                ? new NbGradle18ModelLoader(settingsGradleDef, setup, gradleTarget, modelLoadingStrategy.isRequiredProjectsOnly())
                 : new NbCompatibleModelLoader(settingsGradleDef, cachedModel, setup, gradleTarget);
 
         LOGGER.log(Level.INFO, "Using model loader: {0}", result.getClass().getSimpleName());
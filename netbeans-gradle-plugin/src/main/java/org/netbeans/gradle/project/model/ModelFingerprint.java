@@ -0,0 +1,479 @@
+package org.netbeans.gradle.project.model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.Externalizable;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URI;
+import java.net.URL;
+import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Hashtable;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Defines the digest of the content of a model. Two models having the same
+ * fingerprint are considered to be equivalent, so replacing one of them with
+ * the other does not need to be propagated.
+ * <P>
+ * The fingerprint is calculated field by field (skipping static and transient
+ * fields), so unlike the serialized form of the model, it does not depend on
+ * which objects are shared within the model. Objects defining a
+ * {@code writeReplace} method are represented by their replacement (i.e., by
+ * their serialized form). Objects controlling their own serialized form (i.e.,
+ * defining a {@code writeObject} method or being {@link Externalizable}) are
+ * represented by their serialized form, since their transient fields might be
+ * part of their content. The elements of hash based sets and maps are digested
+ * regardless of their iteration order, while the order of lists and of linked
+ * or sorted collections is part of the fingerprint.
+ * <P>
+ * Models which cannot be serialized (or whose content cannot be read) have an
+ * unknown fingerprint, which is never the same as any other fingerprint (not
+ * even itself).
+ */
+public final class ModelFingerprint {
+    private static final Logger LOGGER = Logger.getLogger(ModelFingerprint.class.getName());
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    public static final ModelFingerprint UNKNOWN = new ModelFingerprint(null);
+    public static final ModelFingerprint NULL_MODEL = new ModelFingerprint(new byte[0]);
+
+    private final byte[] digest;
+
+    private ModelFingerprint(byte[] digest) {
+        this.digest = digest;
+    }
+
+    /**
+     * Returns the fingerprint of the given model.
+     *
+     * @param model the model whose fingerprint is to be returned. This
+     *   argument can be {@code null}.
+     * @return the fingerprint of the given model. This method never returns
+     *   {@code null}.
+     */
+    public static ModelFingerprint of(Object model) {
+        if (model == null) {
+            return NULL_MODEL;
+        }
+        if (!(model instanceof Serializable)) {
+            return UNKNOWN;
+        }
+
+        try {
+            return new ModelFingerprint(new FingerprintWriter().digestOf(model));
+        } catch (IOException | RuntimeException ex) {
+            LOGGER.log(Level.FINE, "Could not calculate the fingerprint of the model: " + model.getClass().getName(), ex);
+            return UNKNOWN;
+        }
+    }
+
+    private static MessageDigest createDigest() throws IOException {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException ex) {
+            LOGGER.log(Level.WARNING, "Missing digest algorithm: " + DIGEST_ALGORITHM, ex);
+            throw new IOException(ex);
+        }
+    }
+
+    /**
+     * Returns {@code true} if the given fingerprint was calculated for a model
+     * with the same content. Unknown fingerprints are never the same as any
+     * other fingerprint.
+     *
+     * @param other the fingerprint to compare with. This argument cannot be
+     *   {@code null}.
+     * @return {@code true} if the given fingerprint was calculated for a model
+     *   with the same content, {@code false} otherwise
+     */
+    public boolean isSameAs(ModelFingerprint other) {
+        if (digest == null || other.digest == null) {
+            return false;
+        }
+        return Arrays.equals(digest, other.digest);
+    }
+
+    private static final class FingerprintWriter {
+        private static final byte TAG_NULL = 0;
+        private static final byte TAG_CYCLE = 1;
+        private static final byte TAG_STRING = 2;
+        private static final byte TAG_VALUE = 3;
+        private static final byte TAG_ENUM = 4;
+        private static final byte TAG_CLASS = 5;
+        private static final byte TAG_PATH = 6;
+        private static final byte TAG_ARRAY = 7;
+        private static final byte TAG_LIST = 8;
+        private static final byte TAG_SET = 9;
+        private static final byte TAG_COLLECTION = 10;
+        private static final byte TAG_MAP = 11;
+        private static final byte TAG_UNORDERED = 12;
+        private static final byte TAG_REPLACED = 13;
+        private static final byte TAG_SERIALIZED = 14;
+        private static final byte TAG_OBJECT = 15;
+
+        private static final Comparator<byte[]> DIGEST_ORDER = new Comparator<byte[]>() {
+            @Override
+            public int compare(byte[] digest1, byte[] digest2) {
+                int length = Math.min(digest1.length, digest2.length);
+                for (int i = 0; i < length; i++) {
+                    int cmp = Integer.compare(digest1[i] & 0xFF, digest2[i] & 0xFF);
+                    if (cmp != 0) {
+                        return cmp;
+                    }
+                }
+                return Integer.compare(digest1.length, digest2.length);
+            }
+        };
+
+        // Maps the objects being written to their depth, so that cycles can be
+        // written as a reference to an enclosing object.
+        private final Map<Object, Integer> inProgress;
+        private final Map<Class<?>, List<Field>> fieldsCache;
+        private final Map<Class<?>, Boolean> customSerializationCache;
+
+        public FingerprintWriter() {
+            this.inProgress = new IdentityHashMap<>();
+            this.fieldsCache = new HashMap<>();
+            this.customSerializationCache = new HashMap<>();
+        }
+
+        public byte[] digestOf(Object obj) throws IOException {
+            MessageDigest messageDigest = createDigest();
+            DataOutputStream output = new DataOutputStream(
+                    new DigestOutputStream(NullOutputStream.INSTANCE, messageDigest));
+            write(obj, output);
+            output.flush();
+            return messageDigest.digest();
+        }
+
+        private byte[] digestOfEntry(Map.Entry<?, ?> entry) throws IOException {
+            MessageDigest messageDigest = createDigest();
+            DataOutputStream output = new DataOutputStream(
+                    new DigestOutputStream(NullOutputStream.INSTANCE, messageDigest));
+            write(entry.getKey(), output);
+            write(entry.getValue(), output);
+            output.flush();
+            return messageDigest.digest();
+        }
+
+        private static void writeString(String str, DataOutputStream output) throws IOException {
+            output.writeInt(str.length());
+            output.writeChars(str);
+        }
+
+        private void write(Object obj, DataOutputStream output) throws IOException {
+            if (obj == null) {
+                output.writeByte(TAG_NULL);
+                return;
+            }
+
+            Integer depth = inProgress.get(obj);
+            if (depth != null) {
+                output.writeByte(TAG_CYCLE);
+                output.writeInt(inProgress.size() - depth);
+                return;
+            }
+
+            if (obj instanceof String) {
+                output.writeByte(TAG_STRING);
+                writeString((String)obj, output);
+            }
+            else if (obj instanceof Number || obj instanceof Boolean || obj instanceof Character) {
+                output.writeByte(TAG_VALUE);
+                writeString(obj.getClass().getName(), output);
+                writeString(obj.toString(), output);
+            }
+            else if (obj instanceof Enum) {
+                Enum<?> enumValue = (Enum<?>)obj;
+                output.writeByte(TAG_ENUM);
+                writeString(enumValue.getDeclaringClass().getName(), output);
+                writeString(enumValue.name(), output);
+            }
+            else if (obj instanceof Class) {
+                output.writeByte(TAG_CLASS);
+                writeString(((Class<?>)obj).getName(), output);
+            }
+            else if (obj instanceof File || obj instanceof Path || obj instanceof URI || obj instanceof URL) {
+                output.writeByte(TAG_PATH);
+                writeString(obj.getClass().getSimpleName(), output);
+                writeString(obj.toString(), output);
+            }
+            else {
+                inProgress.put(obj, inProgress.size());
+                try {
+                    writeComposite(obj, output);
+                } finally {
+                    inProgress.remove(obj);
+                }
+            }
+        }
+
+        private void writeComposite(Object obj, DataOutputStream output) throws IOException {
+            Class<?> type = obj.getClass();
+            if (type.isArray()) {
+                writeArray(obj, output);
+            }
+            else if (obj instanceof Map) {
+                writeMap((Map<?, ?>)obj, output);
+            }
+            else if (obj instanceof Collection) {
+                writeCollection((Collection<?>)obj, output);
+            }
+            else if (isPlatformClass(type)) {
+                writeSerialized(obj, output);
+            }
+            else {
+                Object replacement = tryGetReplacement(obj);
+                if (replacement != obj && replacement.getClass() != obj.getClass()) {
+                    output.writeByte(TAG_REPLACED);
+                    write(replacement, output);
+                }
+                else if (hasCustomSerialization(type)) {
+                    writeSerialized(obj, output);
+                }
+                else {
+                    writeFields(obj, output);
+                }
+            }
+        }
+
+        private void writeArray(Object array, DataOutputStream output) throws IOException {
+            int length = Array.getLength(array);
+
+            output.writeByte(TAG_ARRAY);
+            writeString(array.getClass().getComponentType().getName(), output);
+            output.writeInt(length);
+            for (int i = 0; i < length; i++) {
+                write(Array.get(array, i), output);
+            }
+        }
+
+        private void writeMap(Map<?, ?> map, DataOutputStream output) throws IOException {
+            output.writeByte(TAG_MAP);
+            if (isHashOrdered(map)) {
+                List<byte[]> entryDigests = new ArrayList<>(map.size());
+                for (Map.Entry<?, ?> entry: map.entrySet()) {
+                    entryDigests.add(digestOfEntry(entry));
+                }
+                writeUnordered(entryDigests, output);
+            }
+            else {
+                output.writeInt(map.size());
+                for (Map.Entry<?, ?> entry: map.entrySet()) {
+                    write(entry.getKey(), output);
+                    write(entry.getValue(), output);
+                }
+            }
+        }
+
+        private void writeCollection(Collection<?> collection, DataOutputStream output) throws IOException {
+            if (collection instanceof List) {
+                output.writeByte(TAG_LIST);
+            }
+            else if (collection instanceof Set) {
+                output.writeByte(TAG_SET);
+            }
+            else {
+                output.writeByte(TAG_COLLECTION);
+            }
+
+            if (isHashOrdered(collection)) {
+                List<byte[]> elementDigests = new ArrayList<>(collection.size());
+                for (Object element: collection) {
+                    elementDigests.add(digestOf(element));
+                }
+                writeUnordered(elementDigests, output);
+            }
+            else {
+                output.writeInt(collection.size());
+                for (Object element: collection) {
+                    write(element, output);
+                }
+            }
+        }
+
+        private static void writeUnordered(List<byte[]> digests, DataOutputStream output) throws IOException {
+            Collections.sort(digests, DIGEST_ORDER);
+
+            output.writeByte(TAG_UNORDERED);
+            output.writeInt(digests.size());
+            for (byte[] digest: digests) {
+                output.write(digest);
+            }
+        }
+
+        private static boolean isHashOrdered(Object container) {
+            if (container instanceof LinkedHashSet || container instanceof LinkedHashMap) {
+                return false;
+            }
+
+            return container instanceof HashSet
+                    || container instanceof HashMap
+                    || container instanceof Hashtable
+                    || container instanceof IdentityHashMap
+                    || container instanceof WeakHashMap
+                    || container instanceof ConcurrentHashMap;
+        }
+
+        private static boolean isPlatformClass(Class<?> type) {
+            String name = type.getName();
+            return type.getClassLoader() == null
+                    || name.startsWith("java.")
+                    || name.startsWith("javax.");
+        }
+
+        private static void writeSerialized(Object obj, DataOutputStream output) throws IOException {
+            if (!(obj instanceof Serializable)) {
+                throw new IOException("Unknown content of " + obj.getClass().getName());
+            }
+
+            // The object is serialized alone, so its serialized form does not
+            // depend on other parts of the model.
+            ByteArrayOutputStream serialized = new ByteArrayOutputStream(256);
+            try (ObjectOutputStream objOutput = new ObjectOutputStream(serialized)) {
+                objOutput.writeObject(obj);
+            }
+
+            output.writeByte(TAG_SERIALIZED);
+            output.writeInt(serialized.size());
+            serialized.writeTo(output);
+        }
+
+        private static Object tryGetReplacement(Object obj) throws IOException {
+            if (!(obj instanceof Serializable)) {
+                return obj;
+            }
+
+            for (Class<?> type = obj.getClass(); type != null; type = type.getSuperclass()) {
+                Method writeReplace;
+                try {
+                    writeReplace = type.getDeclaredMethod("writeReplace");
+                } catch (NoSuchMethodException ex) {
+                    continue;
+                }
+
+                if (Modifier.isStatic(writeReplace.getModifiers())) {
+                    return obj;
+                }
+
+                try {
+                    writeReplace.setAccessible(true);
+                    return writeReplace.invoke(obj);
+                } catch (IllegalAccessException | InvocationTargetException ex) {
+                    throw new IOException("writeReplace failed for " + obj.getClass().getName(), ex);
+                }
+            }
+            return obj;
+        }
+
+        private boolean hasCustomSerialization(Class<?> type) {
+            Boolean result = customSerializationCache.get(type);
+            if (result == null) {
+                result = Externalizable.class.isAssignableFrom(type) || hasWriteObject(type);
+                customSerializationCache.put(type, result);
+            }
+            return result;
+        }
+
+        private static boolean hasWriteObject(Class<?> type) {
+            for (Class<?> currentType = type; currentType != null; currentType = currentType.getSuperclass()) {
+                Method writeObject;
+                try {
+                    writeObject = currentType.getDeclaredMethod("writeObject", ObjectOutputStream.class);
+                } catch (NoSuchMethodException ex) {
+                    continue;
+                }
+
+                int modifiers = writeObject.getModifiers();
+                if (Modifier.isPrivate(modifiers) && !Modifier.isStatic(modifiers)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private List<Field> getFields(Class<?> type) {
+            List<Field> result = fieldsCache.get(type);
+            if (result == null) {
+                result = new ArrayList<>();
+                for (Class<?> currentType = type; currentType != null; currentType = currentType.getSuperclass()) {
+                    List<Field> declaredFields = new ArrayList<>();
+                    for (Field field: currentType.getDeclaredFields()) {
+                        int modifiers = field.getModifiers();
+                        if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers)) {
+                            field.setAccessible(true);
+                            declaredFields.add(field);
+                        }
+                    }
+                    Collections.sort(declaredFields, new Comparator<Field>() {
+                        @Override
+                        public int compare(Field field1, Field field2) {
+                            return field1.getName().compareTo(field2.getName());
+                        }
+                    });
+                    result.addAll(declaredFields);
+                }
+                fieldsCache.put(type, result);
+            }
+            return result;
+        }
+
+        private void writeFields(Object obj, DataOutputStream output) throws IOException {
+            output.writeByte(TAG_OBJECT);
+            writeString(obj.getClass().getName(), output);
+
+            for (Field field: getFields(obj.getClass())) {
+                Object value;
+                try {
+                    value = field.get(obj);
+                } catch (IllegalAccessException ex) {
+                    throw new IOException("Cannot read field " + field, ex);
+                }
+
+                writeString(field.getName(), output);
+                write(value, output);
+            }
+        }
+    }
+
+    private static final class NullOutputStream extends OutputStream {
+        public static final NullOutputStream INSTANCE = new NullOutputStream();
+
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package org.netbeans.gradle.project.model;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.jtrim.utils.ExceptionHelper;
+import org.netbeans.gradle.model.BuilderProfile;
+import org.netbeans.gradle.model.FetchedModels;
+import org.netbeans.gradle.model.FetchedProjectModels;
+
+/**
+ * Summarizes the time and the allocated bytes of the model builders run during
+ * a single model load. The profile of the last model load of each build is
+ * kept, so that it can be displayed in the IDE (see
+ * {@link #tryGetLastProfile(File) tryGetLastProfile}). The report is also
+ * logged with {@code Level.FINE}.
+ * <P>
+ * Projects whose models were loaded from the model cache of the Gradle daemon
+ * have no profile, since their builders were not run.
+ */
+public final class ModelLoadProfile {
+    private static final Logger LOGGER = Logger.getLogger(ModelLoadProfile.class.getName());
+
+    private static final int MAX_PROJECT_ENTRIES = 5;
+    private static final String BUILD_SCOPE = "<build>";
+
+    private static final ConcurrentMap<File, ModelLoadProfile> LAST_PROFILES = new ConcurrentHashMap<>();
+
+    private final long loadTimeMillis;
+    private final List<Entry> builderTotals;
+    private final List<Entry> slowestRuns;
+    private final List<Entry> slowestPhases;
+
+    private ModelLoadProfile(Builder builder) {
+        this.loadTimeMillis = builder.loadTimeMillis;
+        this.builderTotals = sortedCopy(builder.totals.values(), Integer.MAX_VALUE);
+        this.slowestRuns = sortedCopy(builder.runs, MAX_PROJECT_ENTRIES);
+        this.slowestPhases = sortedCopy(builder.phases, MAX_PROJECT_ENTRIES);
+    }
+
+    private static List<Entry> sortedCopy(Collection<Entry> entries, int maxSize) {
+        List<Entry> result = new ArrayList<>(entries);
+        Collections.sort(result, Entry.SLOWEST_FIRST);
+        if (result.size() > maxSize) {
+            result = new ArrayList<>(result.subList(0, maxSize));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Creates the profile of the given model load, remembers it as the last
+     * profile of the build and logs it.
+     *
+     * @param fetchedModels the models fetched by the model load. This argument
+     *   cannot be {@code null}.
+     */
+    public static void recordProfile(FetchedModels fetchedModels) {
+        ExceptionHelper.checkNotNullArgument(fetchedModels, "fetchedModels");
+
+        ModelLoadProfile profile = create(fetchedModels);
+        File rootProjectDir = fetchedModels
+                .getDefaultProjectModels()
+                .getProjectDef()
+                .getRootProject()
+                .getGenericProperties()
+                .getProjectDir();
+        LAST_PROFILES.put(rootProjectDir, profile);
+
+        if (LOGGER.isLoggable(Level.FINE) && !profile.builderTotals.isEmpty()) {
+            LOGGER.log(Level.FINE, "Model builder profile of {0}:\n{1}",
+                    new Object[]{rootProjectDir, profile.toReport()});
+        }
+    }
+
+    /**
+     * Returns the profile of the last model load of the build with the given
+     * root project directory or {@code null} if no models were loaded for
+     * this build.
+     *
+     * @param rootProjectDir the directory of the root project of the build.
+     *   This argument cannot be {@code null}.
+     * @return the profile of the last model load of the build or {@code null}
+     *   if no models were loaded for this build
+     */
+    public static ModelLoadProfile tryGetLastProfile(File rootProjectDir) {
+        ExceptionHelper.checkNotNullArgument(rootProjectDir, "rootProjectDir");
+        return LAST_PROFILES.get(rootProjectDir);
+    }
+
+    public static ModelLoadProfile create(FetchedModels fetchedModels) {
+        ExceptionHelper.checkNotNullArgument(fetchedModels, "fetchedModels");
+
+        Builder result = new Builder();
+        result.addProfiles(BUILD_SCOPE, fetchedModels.getBuildModels().getBuilderProfiles());
+        addProfiles(fetchedModels.getDefaultProjectModels(), result);
+        for (FetchedProjectModels projectModels: fetchedModels.getOtherProjectModels()) {
+            addProfiles(projectModels, result);
+        }
+        return result.create();
+    }
+
+    private static void addProfiles(FetchedProjectModels projectModels, Builder result) {
+        String projectName = projectModels
+                .getProjectDef()
+                .getMainProject()
+                .getGenericProperties()
+                .getProjectFullName();
+        result.addProfiles(projectName, projectModels.getBuilderProfiles());
+    }
+
+    public long getLoadTimeMillis() {
+        return loadTimeMillis;
+    }
+
+    public List<Entry> getBuilderTotals() {
+        return builderTotals;
+    }
+
+    public List<Entry> getSlowestRuns() {
+        return slowestRuns;
+    }
+
+    public List<Entry> getSlowestPhases() {
+        return slowestPhases;
+    }
+
+    public String toReport() {
+        StringBuilder result = new StringBuilder(1024);
+        result.append("Builders (total):\n");
+        appendEntries(builderTotals, result);
+        result.append("Slowest runs:\n");
+        appendEntries(slowestRuns, result);
+        if (!slowestPhases.isEmpty()) {
+            result.append("Slowest phases:\n");
+            appendEntries(slowestPhases, result);
+        }
+        return result.toString();
+    }
+
+    private static void appendEntries(List<Entry> entries, StringBuilder result) {
+        for (Entry entry: entries) {
+            result.append("    ");
+            result.append(entry.getWallTimeNanos() / 1000000L);
+            result.append(" ms");
+            if (entry.getAllocatedBytes() >= 0) {
+                result.append(", ");
+                result.append(entry.getAllocatedBytes() / 1024L);
+                result.append(" KiB");
+            }
+            result.append(", ");
+            result.append(entry.getRunCount());
+            result.append("x ");
+            result.append(entry.getName());
+            result.append('\n');
+        }
+    }
+
+    /**
+     * Aggregates the builder profiles of a model load.
+     */
+    public static final class Builder {
+        private final long loadTimeMillis;
+        private final Map<String, Entry> totals;
+        private final List<Entry> runs;
+        private final List<Entry> phases;
+
+        public Builder() {
+            this.loadTimeMillis = System.currentTimeMillis();
+            this.totals = new HashMap<>();
+            this.runs = new ArrayList<>();
+            this.phases = new ArrayList<>();
+        }
+
+        /**
+         * Adds the profiles of the builders run for the given scope.
+         *
+         * @param scope the name of the project the builders were run for (or
+         *   a placeholder for build scoped builders). This argument cannot be
+         *   {@code null}.
+         * @param profiles the profiles of the builders. This argument cannot
+         *   be {@code null}.
+         */
+        public void addProfiles(String scope, Collection<BuilderProfile> profiles) {
+            ExceptionHelper.checkNotNullArgument(scope, "scope");
+            ExceptionHelper.checkNotNullArgument(profiles, "profiles");
+
+            for (BuilderProfile profile: profiles) {
+                String builderName = profile.getBuilderName();
+
+                Entry total = totals.get(builderName);
+                if (total == null) {
+                    total = new Entry(builderName);
+                    totals.put(builderName, total);
+                }
+                total.add(profile);
+
+                Entry run = new Entry(scope + ": " + builderName);
+                run.add(profile);
+                runs.add(run);
+
+                for (BuilderProfile phaseProfile: profile.getPhases()) {
+                    Entry phase = new Entry(scope + ": " + builderName + " / " + phaseProfile.getBuilderName());
+                    phase.add(phaseProfile);
+                    phases.add(phase);
+                }
+            }
+        }
+
+        public ModelLoadProfile create() {
+            return new ModelLoadProfile(this);
+        }
+    }
+
+    public static final class Entry {
+        private static final Comparator<Entry> SLOWEST_FIRST = new Comparator<Entry>() {
+            @Override
+            public int compare(Entry o1, Entry o2) {
+                return Long.compare(o2.wallTimeNanos, o1.wallTimeNanos);
+            }
+        };
+
+        private final String name;
+        private long wallTimeNanos;
+        private long allocatedBytes;
+        private int runCount;
+
+        private Entry(String name) {
+            this.name = name;
+            this.wallTimeNanos = 0;
+            this.allocatedBytes = 0;
+            this.runCount = 0;
+        }
+
+        private void add(BuilderProfile profile) {
+            wallTimeNanos += profile.getWallTimeNanos();
+            if (allocatedBytes >= 0) {
+                allocatedBytes = profile.getAllocatedBytes() >= 0
+                        ? allocatedBytes + profile.getAllocatedBytes()
+                        : -1;
+            }
+            runCount++;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getWallTimeNanos() {
+            return wallTimeNanos;
+        }
+
+        /**
+         * Returns the bytes allocated by the builder runs or -1 if the
+         * allocation of any of the runs is unknown.
+         *
+         * @return the bytes allocated by the builder runs or -1 if unknown
+         */
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+
+        public int getRunCount() {
+            return runCount;
+        }
+    }
+}
@@ -7,6 +7,7 @@ import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Objects;
 import org.jtrim.utils.ExceptionHelper;
 import org.netbeans.gradle.model.GenericProjectProperties;
 import org.netbeans.gradle.project.script.CommonScripts;
@@ -34,6 +35,15 @@ public final class NbGenericModelInfo implements Serializable {
         this.createTimeEpochMs = createTimeEpochMs;
     }
 
+    /**
+     * Returns {@code true} if the given model info defines the same projects
+     * as this one. The creation time of the model infos is not compared.
+     */
+    boolean hasSameContent(NbGenericModelInfo other) {
+        return Objects.equals(settingsFile, other.settingsFile)
+                && projectDef.hasSameContent(other.projectDef);
+    }
+
     public long getCreateTimeEpochMs() {
         return createTimeEpochMs;
     }
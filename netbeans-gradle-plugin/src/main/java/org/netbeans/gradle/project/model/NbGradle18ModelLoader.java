@@ -41,8 +41,17 @@ public final class NbGradle18ModelLoader implements NbModelLoader {
     private final SettingsGradleDef settingsGradleDef;
     private final GradleTarget gradleTarget;
     private final OperationInitializer setup;
+    private final boolean requiredProjectsOnly;
 
     public NbGradle18ModelLoader(SettingsGradleDef settingsGradleDef, OperationInitializer setup, GradleTarget gradleTarget) {
+        this(settingsGradleDef, setup, gradleTarget, false);
+    }
+
+    public NbGradle18ModelLoader(
+            SettingsGradleDef settingsGradleDef,
+            OperationInitializer setup,
+            GradleTarget gradleTarget,
+            boolean requiredProjectsOnly) {
         ExceptionHelper.checkNotNullArgument(settingsGradleDef, "settingsGradleDef");
         ExceptionHelper.checkNotNullArgument(setup, "setup");
         ExceptionHelper.checkNotNullArgument(gradleTarget, "gradleTarget");
@@ -50,6 +59,7 @@ public final class NbGradle18ModelLoader implements NbModelLoader {
         this.settingsGradleDef = settingsGradleDef;
         this.gradleTarget = gradleTarget;
         this.setup = setup;
+        this.requiredProjectsOnly = requiredProjectsOnly;
     }
 
     private static <E> void addAllNullSafe(Collection<? super E> collection, Collection<? extends E> toAdd) {
@@ -65,7 +75,7 @@ public final class NbGradle18ModelLoader implements NbModelLoader {
             ProgressHandle progress) throws IOException, GradleModelLoadError {
 
         ProjectModelFetcher modelFetcher = new ProjectModelFetcher(project, gradleTarget, settingsGradleDef);
-        FetchedModelsOrError fetchedModelsOrError = modelFetcher.getModels(connection, setup);
+        FetchedModelsOrError fetchedModelsOrError = modelFetcher.getModels(connection, setup, requiredProjectsOnly);
         FetchedModels fetchedModels = fetchedModelsOrError.getModels();
         if (fetchedModels == null) {
             throw new GradleModelLoadError(
@@ -74,6 +84,8 @@ public final class NbGradle18ModelLoader implements NbModelLoader {
                     fetchedModelsOrError.getUnexpectedError());
         }
 
+        ModelLoadProfile.recordProfile(fetchedModels);
+
         progress.progress(NbStrings.getParsingModel());
 
         ProjectModelParser parser = new ProjectModelParser(gradleTarget, project, settingsGradleDef, modelFetcher);
@@ -96,6 +108,7 @@ public final class NbGradle18ModelLoader implements NbModelLoader {
         private final ExtensionModelCache cache;
         private final List<ModelLoadIssue> issues;
         private final Map<String, ModelLoadResult> modelLoadResultCache;
+        private final Map<File, NbGradleProjectTree> convertedRootProjects;
         private final SettingsGradleDef settingsGradleDef;
 
         public ProjectModelParser(
@@ -112,6 +125,7 @@ public final class NbGradle18ModelLoader implements NbModelLoader {
             this.cache = new ExtensionModelCache();
             this.issues = new ArrayList<>();
             this.modelLoadResultCache = CollectionUtils.newHashMap(extensions.size());
+            this.convertedRootProjects = new HashMap<>();
         }
 
         private void addProjectInfoResults(
@@ -230,7 +244,9 @@ public final class NbGradle18ModelLoader implements NbModelLoader {
                         issue));
             }
 
-            NbGradleMultiProjectDef projectDef = new NbGradleMultiProjectDef(projectModels.getProjectDef());
+            NbGradleMultiProjectDef projectDef = NbGradleMultiProjectDef.fromModel(
+                    projectModels.getProjectDef(),
+                    convertedRootProjects);
             NbGenericModelInfo genericInfo = new NbGenericModelInfo(projectDef, modelFetcher.getSettingsFile());
             NbGradleModel.Builder result = new NbGradleModel.Builder(genericInfo);
             result.setRootWithoutSettingsGradle(!settingsGradleDef.isMaySearchUpwards());
@@ -375,8 +391,11 @@ public final class NbGradle18ModelLoader implements NbModelLoader {
             modelFetcher = new GenericModelFetcher(buildInfoRequests, projectInfoRequests, models);
         }
 
-        public FetchedModelsOrError getModels(ProjectConnection connection, OperationInitializer init) throws IOException {
-            return modelFetcher.getModels(connection, init);
+        public FetchedModelsOrError getModels(
+                ProjectConnection connection,
+                OperationInitializer init,
+                boolean requiredProjectsOnly) throws IOException {
+            return modelFetcher.getModels(connection, init, requiredProjectsOnly);
         }
 
         public Path getSettingsFile() {
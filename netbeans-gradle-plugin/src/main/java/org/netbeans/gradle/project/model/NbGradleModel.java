@@ -8,6 +8,8 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import org.jtrim.utils.ExceptionHelper;
 import org.netbeans.gradle.model.ProjectId;
 import org.netbeans.gradle.model.util.CollectionUtils;
@@ -67,6 +69,9 @@ public final class NbGradleModel {
     // If true, we must instruct Gradle not to search for a settings.gradle.
     private final boolean rootWithoutSettingsGradle;
 
+    // Maps extension name to the fingerprint of the extension model
+    private final ConcurrentMap<String, ModelFingerprint> extensionFingerprints;
+
     public NbGradleModel(NbGradleMultiProjectDef projectDef, Path settingsFile) {
         this(new NbGenericModelInfo(projectDef, settingsFile),
                 Collections.<String, Object>emptyMap(),
@@ -94,6 +99,7 @@ public final class NbGradleModel {
                 ? CollectionUtils.copyNullSafeHashMapWithNullValues(extensionModels)
                 : extensionModels;
         this.rootWithoutSettingsGradle = rootWithoutSettingsGradle;
+        this.extensionFingerprints = new ConcurrentHashMap<>();
     }
 
     public static List<NbGradleModel> createAll(Collection<? extends Builder> builders) {
@@ -132,6 +138,66 @@ public final class NbGradleModel {
         return extensionModels;
     }
 
+    /**
+     * Returns {@code true} if the given model defines the same projects and
+     * the same extension models as this model. That is, if replacing this model
+     * with the given one would change nothing.
+     *
+     * @param other the model to be compared with this model. This argument
+     *   cannot be {@code null}.
+     * @return {@code true} if the given model is equivalent to this model,
+     *   {@code false} otherwise
+     */
+    public boolean hasSameContent(NbGradleModel other) {
+        if (other == this) {
+            return true;
+        }
+
+        if (!hasSameGenericInfo(other)) {
+            return false;
+        }
+        if (!extensionModels.keySet().equals(other.extensionModels.keySet())) {
+            return false;
+        }
+        for (String extensionName: extensionModels.keySet()) {
+            if (!hasSameModelOfExtension(other, extensionName)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean hasSameGenericInfo(NbGradleModel other) {
+        ExceptionHelper.checkNotNullArgument(other, "other");
+
+        if (rootWithoutSettingsGradle != other.rootWithoutSettingsGradle) {
+            return false;
+        }
+        return genericInfo == other.genericInfo || genericInfo.hasSameContent(other.genericInfo);
+    }
+
+    public boolean hasSameModelOfExtension(NbGradleModel other, String extensionName) {
+        ExceptionHelper.checkNotNullArgument(other, "other");
+        ExceptionHelper.checkNotNullArgument(extensionName, "extensionName");
+
+        if (!hasModelOfExtension(extensionName) || !other.hasModelOfExtension(extensionName)) {
+            return false;
+        }
+        if (getModelOfExtension(extensionName) == other.getModelOfExtension(extensionName)) {
+            return true;
+        }
+        return getExtensionFingerprint(extensionName).isSameAs(other.getExtensionFingerprint(extensionName));
+    }
+
+    private ModelFingerprint getExtensionFingerprint(String extensionName) {
+        ModelFingerprint result = extensionFingerprints.get(extensionName);
+        if (result == null) {
+            result = ModelFingerprint.of(extensionModels.get(extensionName));
+            extensionFingerprints.put(extensionName, result);
+        }
+        return result;
+    }
+
     public void setModelForExtension(NbGradleExtensionRef extension) {
         extension.setModelForExtension(extensionModels.get(extension.getName()));
     }
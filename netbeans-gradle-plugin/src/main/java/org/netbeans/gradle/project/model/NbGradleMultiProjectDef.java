@@ -6,6 +6,7 @@ import java.io.ObjectInputStream;
 import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.nio.file.Path;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.jtrim.utils.ExceptionHelper;
@@ -13,12 +14,16 @@ import org.netbeans.gradle.model.GenericProjectProperties;
 import org.netbeans.gradle.model.GradleMultiProjectDef;
 import org.netbeans.gradle.model.GradleProjectTree;
 import org.netbeans.gradle.project.script.ScriptFileProvider;
+import org.netbeans.gradle.project.util.ConcurrentWeakValueMap;
 
 public final class NbGradleMultiProjectDef implements Serializable {
     private static final long serialVersionUID = 1L;
 
     private static final Logger LOGGER = Logger.getLogger(NbGradleMultiProjectDef.class.getName());
 
+    private static final ConcurrentWeakValueMap<File, NbGradleProjectTree> DESERIALIZED_ROOTS
+            = new ConcurrentWeakValueMap<>();
+
     private final NbGradleProjectTree rootProject;
     private final NbGradleProjectTree mainProject;
 
@@ -31,9 +36,11 @@ public final class NbGradleMultiProjectDef implements Serializable {
     }
 
     public NbGradleMultiProjectDef(GradleMultiProjectDef model) {
-        ExceptionHelper.checkNotNullArgument(model, "model");
+        this(convertRootProject(model), model);
+    }
 
-        this.rootProject = new NbGradleProjectTree(model.getRootProject());
+    private NbGradleMultiProjectDef(NbGradleProjectTree rootProject, GradleMultiProjectDef model) {
+        this.rootProject = rootProject;
 
         GradleProjectTree mainProjectModel = model.getMainProject();
         NbGradleProjectTree parsedMain = rootProject.findByPath(
@@ -50,10 +57,56 @@ public final class NbGradleMultiProjectDef implements Serializable {
         }
     }
 
+    private static NbGradleProjectTree convertRootProject(GradleMultiProjectDef model) {
+        ExceptionHelper.checkNotNullArgument(model, "model");
+        return new NbGradleProjectTree(model.getRootProject());
+    }
+
+    /**
+     * Converts the given model, reusing the root project tree already converted
+     * for another project of the same build. Every project of a build has the
+     * same root project tree, so sharing it keeps only a single copy of the
+     * tree (and its task lists) in memory instead of one copy per project.
+     *
+     * @param model the model to be converted. This argument cannot be
+     *   {@code null}.
+     * @param convertedRoots the already converted root project trees mapped to
+     *   their project directory. The root project tree of the given model is
+     *   added to this map if it is not yet there. This argument cannot be
+     *   {@code null}.
+     * @return the converted model. This method never returns {@code null}.
+     */
+    public static NbGradleMultiProjectDef fromModel(
+            GradleMultiProjectDef model,
+            Map<File, NbGradleProjectTree> convertedRoots) {
+        ExceptionHelper.checkNotNullArgument(model, "model");
+        ExceptionHelper.checkNotNullArgument(convertedRoots, "convertedRoots");
+
+        File rootProjectDir = model.getRootProject().getGenericProperties().getProjectDir();
+        NbGradleProjectTree rootProject = convertedRoots.get(rootProjectDir);
+        if (rootProject == null) {
+            rootProject = convertRootProject(model);
+            convertedRoots.put(rootProjectDir, rootProject);
+        }
+        return new NbGradleMultiProjectDef(rootProject, model);
+    }
+
     public int getNumberOfProjectsInThisBuild() {
         return rootProject.getNumberOfSubprojects() + 1;
     }
 
+    boolean hasSameContent(NbGradleMultiProjectDef other) {
+        return hasSameContent(rootProject, other.rootProject)
+                && hasSameContent(mainProject, other.mainProject);
+    }
+
+    private static boolean hasSameContent(NbGradleProjectTree tree1, NbGradleProjectTree tree2) {
+        if (tree1 == tree2) {
+            return true;
+        }
+        return tree1.getFingerprint().isSameAs(tree2.getFingerprint());
+    }
+
     public NbGradleProjectTree getParentTree() {
         return mainProject.getParent(rootProject);
     }
@@ -102,6 +155,31 @@ public final class NbGradleMultiProjectDef implements Serializable {
         return mainProject.getProjectDir();
     }
 
+    /**
+     * Returns a previously deserialized root project tree of the same build
+     * with the same content as the given tree if there is one. Otherwise, the
+     * given tree is remembered to be shared by the models deserialized later.
+     * <P>
+     * The models of the projects are persisted separately, so without this,
+     * every model loaded from the persistent cache (e.g., after restarting the
+     * IDE) would have its own copy of the tree of the whole build.
+     */
+    private static NbGradleProjectTree shareDeserializedRoot(NbGradleProjectTree rootProject) {
+        File rootProjectDir = rootProject.getProjectDir();
+        while (true) {
+            NbGradleProjectTree sharedRoot = DESERIALIZED_ROOTS.putIfAbsent(rootProjectDir, rootProject);
+            if (sharedRoot == null) {
+                return rootProject;
+            }
+            if (sharedRoot.getFingerprint().isSameAs(rootProject.getFingerprint())) {
+                return sharedRoot;
+            }
+            if (DESERIALIZED_ROOTS.replace(rootProjectDir, sharedRoot, rootProject)) {
+                return rootProject;
+            }
+        }
+    }
+
     private Object writeReplace() {
         return new SerializedFormat(this);
     }
@@ -122,7 +200,13 @@ public final class NbGradleMultiProjectDef implements Serializable {
         }
 
         private Object readResolve() throws ObjectStreamException {
-            return new NbGradleMultiProjectDef(rootProject, mainProject);
+            if (rootProject.findByPath(mainProject.getProjectFullName()) != mainProject) {
+                return new NbGradleMultiProjectDef(rootProject, mainProject);
+            }
+
+            NbGradleProjectTree sharedRoot = shareDeserializedRoot(rootProject);
+            NbGradleProjectTree sharedMain = sharedRoot.findByPath(mainProject.getProjectFullName());
+            return new NbGradleMultiProjectDef(sharedRoot, sharedMain);
         }
     }
 }
@@ -32,6 +32,7 @@ public final class NbGradleProjectTree implements Serializable {
 
     private final AtomicReference<Map<String, NbGradleProjectTree>> childrenMap;
     private final AtomicInteger numberOfSubprojectsRef;
+    private final AtomicReference<ModelFingerprint> fingerprintRef;
 
     public NbGradleProjectTree(
             GenericProjectProperties genericProperties,
@@ -46,6 +47,7 @@ public final class NbGradleProjectTree implements Serializable {
         this.childrenMap = new AtomicReference<>(null);
         this.parentRef = new AtomicReference<>(null);
         this.numberOfSubprojectsRef = new AtomicInteger(-1);
+        this.fingerprintRef = new AtomicReference<>(null);
     }
 
     public NbGradleProjectTree(GradleProjectTree tree) {
@@ -58,6 +60,16 @@ public final class NbGradleProjectTree implements Serializable {
         this.childrenMap = new AtomicReference<>(null);
         this.parentRef = new AtomicReference<>(null);
         this.numberOfSubprojectsRef = new AtomicInteger(-1);
+        this.fingerprintRef = new AtomicReference<>(null);
+    }
+
+    ModelFingerprint getFingerprint() {
+        ModelFingerprint result = fingerprintRef.get();
+        if (result == null) {
+            result = ModelFingerprint.of(this);
+            fingerprintRef.set(result);
+        }
+        return result;
     }
 
     public int getNumberOfSubprojects() {
@@ -132,6 +144,26 @@ public final class NbGradleProjectTree implements Serializable {
         return genericProperties;
     }
 
+    /**
+     * Returns the tasks of this project (not including the tasks of the
+     * subprojects).
+     * <P>
+     * The task lists are loaded together with the project tree and are not
+     * queried lazily: they are read synchronously (often on the EDT) when
+     * building the context menu of the project and when checking if the tasks
+     * of a built-in command exist, where waiting for a separate Gradle query
+     * is not an option. Instead, the tree (including the task lists) is shared
+     * by the models of the projects of the same build: The models loaded
+     * together share the tree (see
+     * {@link NbGradleMultiProjectDef#fromModel(org.netbeans.gradle.model.GradleMultiProjectDef, java.util.Map) NbGradleMultiProjectDef.fromModel}),
+     * and the models loaded from the persistent cache share the deserialized
+     * trees of the same build having the same content. A model loaded
+     * separately (e.g., reloading a single project) still has its own copy
+     * until the models of the other projects are reloaded.
+     *
+     * @return the tasks of this project. This method never returns
+     *   {@code null}.
+     */
     public Collection<GradleTaskID> getTasks() {
         return tasks;
     }
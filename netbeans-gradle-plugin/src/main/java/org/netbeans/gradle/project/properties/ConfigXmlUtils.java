@@ -2,6 +2,7 @@ package org.netbeans.gradle.project.properties;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.nio.file.Files;
@@ -20,6 +21,10 @@ import java.util.logging.Logger;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Result;
 import javax.xml.transform.Source;
@@ -60,6 +65,13 @@ final class ConfigXmlUtils {
 
     private static final String ATTR_PREFIX = "#attr-";
 
+    // The JAXP factories are looked up through the service loader which is
+    // slow, and neither the factories nor the parsers are thread-safe, so
+    // keep one per thread.
+    private static final ThreadLocal<DocumentBuilder> DOCUMENT_BUILDERS = new ThreadLocal<>();
+    private static final ThreadLocal<TransformerFactory> TRANSFORMER_FACTORIES = new ThreadLocal<>();
+    private static final ThreadLocal<XMLInputFactory> XML_INPUT_FACTORIES = new ThreadLocal<>();
+
     private static String asAttributeName(String keyName) {
         return ATTR_PREFIX + keyName;
     }
@@ -318,6 +330,243 @@ final class ConfigXmlUtils {
         return result;
     }
 
+    /**
+     * Reads the configuration from the given XML input without building the
+     * DOM of the whole document. Only the children of the root's
+     * {@link #AUXILIARY_NODE_NAME auxiliary} node are returned as DOM elements
+     * because they are owned by other modules.
+     * <P>
+     * The result is the same as if the input was parsed into a DOM and then
+     * passed to {@link #parseDocument(Document, String[]) parseDocument} with
+     * the auxiliary node excluded.
+     */
+    public static ParsedConfig parseXml(InputStream input) throws XMLStreamException {
+        ExceptionHelper.checkNotNullArgument(input, "input");
+
+        XMLStreamReader reader = getXmlInputFactory().createXMLStreamReader(input);
+        try {
+            return parseXml(reader);
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static ParsedConfig parseXml(XMLStreamReader reader) throws XMLStreamException {
+        ConfigTree.Builder result = new ConfigTree.Builder();
+        List<Element> auxElements = new ArrayList<>();
+
+        while (reader.hasNext()) {
+            if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+                parseStreamNode(reader, result, auxElements);
+                break;
+            }
+        }
+
+        return new ParsedConfig(result, auxElements);
+    }
+
+    private static String getQualifiedName(String prefix, String localName) {
+        return prefix == null || prefix.isEmpty()
+                ? localName
+                : prefix + ':' + localName;
+    }
+
+    private static String getElementName(XMLStreamReader reader) {
+        return getQualifiedName(reader.getPrefix(), reader.getLocalName());
+    }
+
+    private static String getNamespaceDeclName(XMLStreamReader reader, int index) {
+        String prefix = reader.getNamespacePrefix(index);
+        return prefix == null || prefix.isEmpty()
+                ? "xmlns"
+                : "xmlns:" + prefix;
+    }
+
+    private static boolean addStreamAttribute(String xmlAttrName, String attrValue, ConfigTree.Builder result) {
+        if (xmlAttrName.startsWith(KEYWORD_PREFIX)) {
+            switch (xmlAttrName) {
+                case KEYWORD_VALUE:
+                    result.setValue(attrValue);
+                    return true;
+                case KEYWORD_HAS_VALUE:
+                    if (STR_NO.equals(attrValue)) {
+                        result.setValue(null);
+                        return true;
+                    }
+                    return false;
+                default:
+                    LOGGER.log(Level.WARNING, "Unknown keyword in properties file: {0}", xmlAttrName);
+                    return false;
+            }
+        }
+        else {
+            String attrName = fromElementName(xmlAttrName);
+            result.addChildBuilder(asAttributeName(attrName)).setValue(attrValue);
+            return false;
+        }
+    }
+
+    private static boolean addStreamAttributes(XMLStreamReader reader, ConfigTree.Builder result) {
+        boolean setValue = false;
+
+        // A DOM parser which is not namespace aware reports namespace
+        // declarations as attributes, so do the same for consistency.
+        int namespaceCount = reader.getNamespaceCount();
+        for (int i = 0; i < namespaceCount; i++) {
+            String value = reader.getNamespaceURI(i);
+            setValue |= addStreamAttribute(getNamespaceDeclName(reader, i), value != null ? value : "", result);
+        }
+
+        int attributeCount = reader.getAttributeCount();
+        for (int i = 0; i < attributeCount; i++) {
+            String xmlAttrName = getQualifiedName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i));
+            setValue |= addStreamAttribute(xmlAttrName, reader.getAttributeValue(i), result);
+        }
+        return setValue;
+    }
+
+    /**
+     * Parses the element the reader is currently positioned on (which must be
+     * a start element) and leaves the reader on its end element.
+     *
+     * @param auxElements the list to which the children of the auxiliary
+     *   node are added or {@code null} if this is not the root node. The
+     *   auxiliary node is only recognized under the root.
+     */
+    private static String parseStreamNode(
+            XMLStreamReader reader,
+            ConfigTree.Builder result,
+            List<Element> auxElements) throws XMLStreamException {
+
+        boolean setValue = addStreamAttributes(reader, result);
+
+        boolean foundAuxiliary = false;
+        int addedChildCount = 0;
+        StringBuilder textContent = null;
+
+        while (reader.hasNext()) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    String rawNodeName = getElementName(reader);
+                    if (auxElements != null && AUXILIARY_NODE_NAME.equals(rawNodeName)) {
+                        if (foundAuxiliary) {
+                            skipStreamElement(reader);
+                        }
+                        else {
+                            foundAuxiliary = true;
+                            parseAuxiliaryElements(reader, auxElements);
+                        }
+                        break;
+                    }
+
+                    ConfigTree.Builder childBuilder = result.addChildBuilder(fromElementName(rawNodeName));
+                    String nodeValue = parseStreamNode(reader, childBuilder, null);
+                    if (nodeValue != null) {
+                        childBuilder.setValue(nodeValue);
+                    }
+                    addedChildCount++;
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                case XMLStreamConstants.ENTITY_REFERENCE:
+                    if (addedChildCount == 0) {
+                        if (textContent == null) {
+                            textContent = new StringBuilder();
+                        }
+                        textContent.append(reader.getText());
+                    }
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    if (!setValue && addedChildCount == 0) {
+                        return textContent != null ? textContent.toString() : "";
+                    }
+                    return null;
+                default:
+                    break;
+            }
+        }
+
+        throw new XMLStreamException("Unexpected end of XML document.", reader.getLocation());
+    }
+
+    private static void skipStreamElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0 && reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            }
+            else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private static void parseAuxiliaryElements(XMLStreamReader reader, List<Element> result) throws XMLStreamException {
+        Document document;
+        try {
+            document = newDocument();
+        } catch (ParserConfigurationException ex) {
+            throw new XMLStreamException("Cannot create document for the auxiliary configuration.", ex);
+        }
+
+        while (reader.hasNext()) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    result.add(readDomElement(reader, document));
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    return;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private static Element readDomElement(XMLStreamReader reader, Document document) throws XMLStreamException {
+        // Create elements without a namespace to be consistent with a DOM
+        // parser which is not namespace aware.
+        Element result = document.createElement(getElementName(reader));
+
+        int namespaceCount = reader.getNamespaceCount();
+        for (int i = 0; i < namespaceCount; i++) {
+            String value = reader.getNamespaceURI(i);
+            result.setAttribute(getNamespaceDeclName(reader, i), value != null ? value : "");
+        }
+
+        int attributeCount = reader.getAttributeCount();
+        for (int i = 0; i < attributeCount; i++) {
+            String attrName = getQualifiedName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i));
+            result.setAttribute(attrName, reader.getAttributeValue(i));
+        }
+
+        while (reader.hasNext()) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    result.appendChild(readDomElement(reader, document));
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.SPACE:
+                case XMLStreamConstants.ENTITY_REFERENCE:
+                    result.appendChild(document.createTextNode(reader.getText()));
+                    break;
+                case XMLStreamConstants.CDATA:
+                    result.appendChild(document.createCDATASection(reader.getText()));
+                    break;
+                case XMLStreamConstants.COMMENT:
+                    result.appendChild(document.createComment(reader.getText()));
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    return result;
+                default:
+                    break;
+            }
+        }
+
+        throw new XMLStreamException("Unexpected end of XML document.", reader.getLocation());
+    }
+
     private static List<KeyValuePair> tryGetAttributeList(ConfigTree tree) {
         List<KeyValuePair> attributes = null;
         for (Map.Entry<String, List<ConfigTree>> entry: tree.getChildTrees().entrySet()) {
@@ -457,12 +706,44 @@ final class ConfigXmlUtils {
         addTreeToXml(document, parent, tree, nodeProperties);
     }
 
-    private static DocumentBuilder newDocumentBuilder() throws ParserConfigurationException {
-        return DocumentBuilderFactory.newInstance().newDocumentBuilder();
+    private static DocumentBuilder getDocumentBuilder() throws ParserConfigurationException {
+        DocumentBuilder result = DOCUMENT_BUILDERS.get();
+        if (result == null) {
+            result = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+            DOCUMENT_BUILDERS.set(result);
+        }
+        else {
+            result.reset();
+        }
+        return result;
+    }
+
+    public static Document newDocument() throws ParserConfigurationException {
+        return getDocumentBuilder().newDocument();
+    }
+
+    private static TransformerFactory getTransformerFactory() {
+        TransformerFactory result = TRANSFORMER_FACTORIES.get();
+        if (result == null) {
+            result = TransformerFactory.newInstance();
+            TRANSFORMER_FACTORIES.set(result);
+        }
+        return result;
+    }
+
+    private static XMLInputFactory getXmlInputFactory() {
+        XMLInputFactory result = XML_INPUT_FACTORIES.get();
+        if (result == null) {
+            result = XMLInputFactory.newInstance();
+            result.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+            result.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+            XML_INPUT_FACTORIES.set(result);
+        }
+        return result;
     }
 
     public static Document createXml(ConfigTree tree) throws ParserConfigurationException {
-        Document result = newDocumentBuilder().newDocument();
+        Document result = newDocument();
         Element root = result.createElement("gradle-project-properties");
         result.appendChild(root);
 
@@ -523,7 +804,7 @@ final class ConfigXmlUtils {
         Source source = new DOMSource(document);
 
         try {
-            Transformer transformer = TransformerFactory.newInstance().newTransformer();
+            Transformer transformer = getTransformerFactory().newTransformer();
             transformer.setOutputProperty(OutputKeys.ENCODING, XML_ENCODING);
             transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "2");
             transformer.setOutputProperty(OutputKeys.INDENT, "yes");
@@ -584,6 +865,27 @@ final class ConfigXmlUtils {
         }
     }
 
+    public static final class ParsedConfig {
+        private final ConfigTree.Builder config;
+        private final List<Element> auxElements;
+
+        public ParsedConfig(ConfigTree.Builder config, List<Element> auxElements) {
+            ExceptionHelper.checkNotNullArgument(config, "config");
+            ExceptionHelper.checkNotNullElements(auxElements, "auxElements");
+
+            this.config = config;
+            this.auxElements = Collections.unmodifiableList(new ArrayList<>(auxElements));
+        }
+
+        public ConfigTree.Builder getConfig() {
+            return config;
+        }
+
+        public List<Element> getAuxElements() {
+            return auxElements;
+        }
+    }
+
     private static final class KeyValuePair {
         public final String key;
         public final String value;
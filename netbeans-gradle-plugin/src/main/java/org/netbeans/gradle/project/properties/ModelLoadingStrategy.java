@@ -6,13 +6,28 @@ import org.netbeans.gradle.project.util.GradleVersions;
 // Warning: Never rename instances of this enum because they are used to save
 //          the actual configuration.
 public enum ModelLoadingStrategy {
-    NEWEST_POSSIBLE(true),
-    USE_IDEA_MODEL(false);
+    NEWEST_POSSIBLE(true, false),
+    USE_IDEA_MODEL(false, false),
+    REQUIRED_PROJECTS_ONLY(true, true);
 
     private final boolean mayUse18Api;
+    private final boolean requiredProjectsOnly;
 
-    private ModelLoadingStrategy(boolean mayUse18Api) {
+    private ModelLoadingStrategy(boolean mayUse18Api, boolean requiredProjectsOnly) {
         this.mayUse18Api = mayUse18Api;
+        this.requiredProjectsOnly = requiredProjectsOnly;
+    }
+
+    /**
+     * Returns {@code true} if only the loaded project and the projects it
+     * depends on should be evaluated (using configuration on demand), instead
+     * of every project of the build. This only applies if the 1.8 API is used.
+     *
+     * @return {@code true} if only the loaded project and the projects it
+     *   depends on should be evaluated, {@code false} otherwise
+     */
+    public boolean isRequiredProjectsOnly() {
+        return requiredProjectsOnly;
     }
 
     public boolean canUse18Api(GradleVersion gradleVersion) {
@@ -8,11 +8,9 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.swing.SwingUtilities;
@@ -32,6 +30,7 @@ import org.netbeans.gradle.project.api.config.ProfileDef;
 import org.netbeans.gradle.project.api.config.ProfileKey;
 import org.netbeans.gradle.project.event.ChangeListenerManager;
 import org.netbeans.gradle.project.event.GenericChangeListenerManager;
+import org.netbeans.gradle.project.util.ConcurrentWeakValueMap;
 import org.netbeans.gradle.project.util.NbTaskExecutors;
 import org.netbeans.gradle.project.util.SerializationUtils2;
 
@@ -44,9 +43,8 @@ public final class NbGradleConfigProvider {
 
     private static final String LAST_PROFILE_FILE = "last-profile";
 
-    private static final Lock CONFIG_PROVIDERS_LOCK = new ReentrantLock();
-    private static final Map<Path, NbGradleConfigProvider> CONFIG_PROVIDERS
-            = new WeakValueHashMap<>();
+    private static final ConcurrentMap<Path, NbGradleConfigProvider> CONFIG_PROVIDERS
+            = new ConcurrentWeakValueMap<>();
 
     private final Path rootDirectory;
     private final ChangeListenerManager activeConfigChangeListeners;
@@ -106,12 +104,7 @@ public final class NbGradleConfigProvider {
     }
 
     private static NbGradleConfigProvider tryGetConfigProvider(Path rootDir) {
-        CONFIG_PROVIDERS_LOCK.lock();
-        try {
-            return CONFIG_PROVIDERS.get(rootDir);
-        } finally {
-            CONFIG_PROVIDERS_LOCK.unlock();
-        }
+        return CONFIG_PROVIDERS.get(rootDir);
     }
 
     public static NbGradleConfigProvider getConfigProvider(Path rootDir) {
@@ -141,20 +134,8 @@ public final class NbGradleConfigProvider {
                 profileProperties,
                 settingsContainer);
 
-        CONFIG_PROVIDERS_LOCK.lock();
-        try {
-            NbGradleConfigProvider currentProvider = CONFIG_PROVIDERS.get(rootDir);
-            if (currentProvider == null) {
-                CONFIG_PROVIDERS.put(rootDir, result);
-            }
-            else {
-                result = currentProvider;
-            }
-        } finally {
-            CONFIG_PROVIDERS_LOCK.unlock();
-        }
-
-        return result;
+        NbGradleConfigProvider currentProvider = CONFIG_PROVIDERS.putIfAbsent(rootDir, result);
+        return currentProvider != null ? currentProvider : result;
     }
 
     public Path getRootDirectory() {
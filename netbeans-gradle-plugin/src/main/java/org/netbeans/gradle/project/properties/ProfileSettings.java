@@ -12,7 +12,6 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReentrantLock;
@@ -20,9 +19,8 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.annotation.Nullable;
 import javax.swing.SwingUtilities;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
 import org.jtrim.collections.EqualityComparator;
 import org.jtrim.concurrent.UpdateTaskExecutor;
 import org.jtrim.event.CopyOnTriggerListenerManager;
@@ -42,9 +40,6 @@ import org.netbeans.gradle.project.api.config.PropertyKeyEncodingDef;
 import org.netbeans.gradle.project.api.config.PropertyValueDef;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
 
 public final class ProfileSettings {
     private static final Logger LOGGER = Logger.getLogger(ProfileSettings.class.getName());
@@ -62,7 +57,7 @@ public final class ProfileSettings {
 
     private static Document tryCreateDocument() {
         try {
-            return DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+            return ConfigXmlUtils.newDocument();
         } catch (ParserConfigurationException ex) {
             LOGGER.log(Level.SEVERE, "Cannot create document.", ex);
             return null;
@@ -99,29 +94,17 @@ public final class ProfileSettings {
         });
     }
 
-    private static DocumentBuilder getDocumentBuilder() {
-        try {
-            return DocumentBuilderFactory.newInstance().newDocumentBuilder();
-        } catch (ParserConfigurationException ex) {
-            throw new RuntimeException("Cannot create Document builder.", ex);
-        }
-    }
-
-    private static Document getEmptyDocument() {
-        return getDocumentBuilder().newDocument();
-    }
-
-    private static Document readXml(InputStream xmlSource) throws IOException, SAXException {
+    private static ConfigXmlUtils.ParsedConfig readXml(InputStream xmlSource) throws XMLStreamException {
         ExceptionHelper.checkNotNullArgument(xmlSource, "xmlSource");
 
-        return getDocumentBuilder().parse(xmlSource);
+        return ConfigXmlUtils.parseXml(xmlSource);
     }
 
-    private static Document readXml(Path xmlFile) throws IOException, SAXException {
+    private static ConfigXmlUtils.ParsedConfig readXml(Path xmlFile) throws IOException, XMLStreamException {
         ExceptionHelper.checkNotNullArgument(xmlFile, "xmlFile");
 
         if (!Files.exists(xmlFile)) {
-            return getEmptyDocument();
+            return new ConfigXmlUtils.ParsedConfig(new ConfigTree.Builder(), Collections.<Element>emptyList());
         }
 
         try (InputStream fileInput = Files.newInputStream(xmlFile);
@@ -131,27 +114,27 @@ public final class ProfileSettings {
     }
 
     public void loadFromFile(Path xmlFile) {
-        Document document;
+        ConfigXmlUtils.ParsedConfig parsedConfig;
         try {
-            document = readXml(xmlFile);
-        } catch (IOException | SAXException ex) {
+            parsedConfig = readXml(xmlFile);
+        } catch (IOException | XMLStreamException ex) {
             LOGGER.log(Level.INFO, "Unable to parse XML config file: " + xmlFile, ex);
             return;
         }
 
-        loadFromDocument(document);
+        loadFromParsedConfig(parsedConfig);
     }
 
     public void loadFromStream(InputStream xmlSource) {
-        Document document;
+        ConfigXmlUtils.ParsedConfig parsedConfig;
         try {
-            document = readXml(xmlSource);
-        } catch (IOException | SAXException ex) {
+            parsedConfig = readXml(xmlSource);
+        } catch (XMLStreamException ex) {
             LOGGER.log(Level.INFO, "Unable to parse XML config file from stream.", ex);
             return;
         }
 
-        loadFromDocument(document);
+        loadFromParsedConfig(parsedConfig);
     }
 
     public ConfigTree getContentSnapshot() {
@@ -208,41 +191,6 @@ public final class ProfileSettings {
         return newState;
     }
 
-    private static Node getChildByName(Element parent, String childName) {
-        NodeList children = parent.getChildNodes();
-        int childCount = children.getLength();
-        for (int i = 0; i < childCount; i++) {
-            Node child = children.item(i);
-            if (Objects.equals(child.getNodeName(), childName)) {
-                return child;
-            }
-        }
-        return null;
-    }
-
-    private static List<Element> getAuxiliaryElements(Element parent) {
-        if (parent == null) {
-            return Collections.emptyList();
-        }
-
-        Node auxRoot = getChildByName(parent, ConfigXmlUtils.AUXILIARY_NODE_NAME);
-        if (auxRoot == null) {
-            return Collections.emptyList();
-        }
-
-        NodeList children = auxRoot.getChildNodes();
-        int childCount = children.getLength();
-        List<Element> result = new ArrayList<>(childCount);
-
-        for (int i = 0; i < childCount; i++) {
-            Node child = children.item(i);
-            if (child instanceof Element) {
-                result.add((Element)child);
-            }
-        }
-        return result;
-    }
-
     public void clearSettings() {
         configLock.lock();
         try {
@@ -256,11 +204,11 @@ public final class ProfileSettings {
         fireDocumentUpdate(ROOT_PATH);
     }
 
-    private void loadFromDocument(final Document document) {
-        ExceptionHelper.checkNotNullArgument(document, "document");
+    private void loadFromParsedConfig(ConfigXmlUtils.ParsedConfig parsedConfig) {
+        ExceptionHelper.checkNotNullArgument(parsedConfig, "parsedConfig");
 
-        ConfigTree.Builder parsedDocument = ConfigXmlUtils.parseDocument(document, ConfigXmlUtils.AUXILIARY_NODE_NAME);
-        List<Element> loadedAuxConfigs = getAuxiliaryElements(document.getDocumentElement());
+        ConfigTree.Builder parsedDocument = parsedConfig.getConfig();
+        List<Element> loadedAuxConfigs = parsedConfig.getAuxElements();
 
         configLock.lock();
         try {
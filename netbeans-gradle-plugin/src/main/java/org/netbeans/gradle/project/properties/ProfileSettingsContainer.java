@@ -11,6 +11,7 @@ import org.jtrim.concurrent.Tasks;
 import org.jtrim.event.ListenerRef;
 import org.jtrim.event.ListenerRegistries;
 import org.jtrim.utils.ExceptionHelper;
+import org.netbeans.gradle.project.util.ConcurrentWeakValueMap;
 import org.netbeans.gradle.project.util.NbConsumer;
 import org.netbeans.gradle.project.util.TestDetectUtils;
 
@@ -18,11 +19,11 @@ public final class ProfileSettingsContainer {
     private static final AtomicReference<ProfileSettingsContainer> DEFAULT_REF = new AtomicReference<>(null);
 
     private final Lock mainLock;
-    private final WeakValueHashMap<ProfileSettingsKey, LoadableSingleProfileSettingsEx> loaded;
+    private final ConcurrentWeakValueMap<ProfileSettingsKey, LoadableSingleProfileSettingsEx> loaded;
 
     private ProfileSettingsContainer() {
         this.mainLock = new ReentrantLock();
-        this.loaded = new WeakValueHashMap<>();
+        this.loaded = new ConcurrentWeakValueMap<>();
     }
 
     public static ProfileSettingsContainer getDefault() {
@@ -50,13 +51,7 @@ public final class ProfileSettingsContainer {
     }
 
     private void saveAllProfilesNow() {
-        List<LoadableSingleProfileSettingsEx> toSave;
-        mainLock.lock();
-        try {
-            toSave = new ArrayList<>(loaded.values());
-        } finally {
-            mainLock.unlock();
-        }
+        List<LoadableSingleProfileSettingsEx> toSave = new ArrayList<>(loaded.values());
 
         for (LoadableSingleProfileSettingsEx settings: toSave) {
             settings.saveAndWait();
@@ -66,7 +61,10 @@ public final class ProfileSettingsContainer {
     private LoadableSingleProfileSettingsEx getUnloadedProfileSettings(ProfileSettingsKey key) {
         ExceptionHelper.checkNotNullArgument(key, "key");
 
-        LoadableSingleProfileSettingsEx result;
+        LoadableSingleProfileSettingsEx result = loaded.get(key);
+        if (result != null) {
+            return result;
+        }
 
         mainLock.lock();
         try {
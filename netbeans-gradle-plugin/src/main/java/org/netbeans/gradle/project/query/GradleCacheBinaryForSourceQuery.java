@@ -2,11 +2,13 @@ package org.netbeans.gradle.project.query;
 
 import java.io.File;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
 import javax.swing.event.ChangeListener;
 import org.netbeans.api.java.queries.BinaryForSourceQuery.Result;
 import org.netbeans.gradle.project.util.GradleFileUtils;
-import org.netbeans.gradle.project.util.LazyChangeSupport;
 import org.netbeans.gradle.project.util.NbFileUtils;
+import org.netbeans.gradle.project.util.NbSupplier;
 import org.netbeans.spi.java.queries.BinaryForSourceQueryImplementation;
 import org.openide.filesystems.FileObject;
 import org.openide.filesystems.FileUtil;
@@ -16,26 +18,10 @@ import org.openide.util.lookup.ServiceProviders;
 @ServiceProviders({@ServiceProvider(service = BinaryForSourceQueryImplementation.class)})
 public final class GradleCacheBinaryForSourceQuery extends AbstractBinaryForSourceQuery {
     private static final URL[] NO_ROOTS = new URL[0];
-    private static final LazyChangeSupport CHANGES;
-
-    static {
-        CHANGES = LazyChangeSupport.createSwing(new EventSource());
-
-        GradleFileUtils.GRADLE_USER_HOME.addChangeListener(new Runnable() {
-            @Override
-            public void run() {
-                notifyCacheChange();
-            }
-        });
-    }
 
     public GradleCacheBinaryForSourceQuery() {
     }
 
-    public static void notifyCacheChange() {
-        CHANGES.fireChange();
-    }
-
     @Override
     protected Result tryFindBinaryRoots(File sourceRoot) {
         File gradleUserHome = GradleFileUtils.GRADLE_USER_HOME.getValue();
@@ -82,22 +68,34 @@ public final class GradleCacheBinaryForSourceQuery extends AbstractBinaryForSour
                 : null;
     }
 
-    private static final class EventSource
-    implements
-            Result,
-            LazyChangeSupport.Source {
+    private static List<String> toExternalForms(URL[] roots) {
+        // URL.equals might try to resolve host names.
+        List<String> result = new ArrayList<>(roots.length);
+        for (URL root: roots) {
+            result.add(root.toExternalForm());
+        }
+        return result;
+    }
 
-        private volatile LazyChangeSupport changes;
+    private abstract static class CacheResult implements Result {
+        private final GradleCacheChangeNotifier.ResultChanges changes;
 
-        @Override
-        public void init(LazyChangeSupport changes) {
-            assert changes != null;
-            this.changes = changes;
+        public CacheResult() {
+            this.changes = GradleCacheChangeNotifier.createResultChanges(this, new NbSupplier<List<String>>() {
+                @Override
+                public List<String> get() {
+                    return toExternalForms(findRoots());
+                }
+            });
         }
 
+        protected abstract URL[] findRoots();
+
         @Override
-        public URL[] getRoots() {
-            return NO_ROOTS;
+        public final URL[] getRoots() {
+            URL[] result = findRoots();
+            changes.rootsReturned(toExternalForms(result));
+            return result;
         }
 
         @Override
@@ -111,7 +109,7 @@ public final class GradleCacheBinaryForSourceQuery extends AbstractBinaryForSour
         }
     }
 
-    private static class NewFormatCacheResult implements Result {
+    private static class NewFormatCacheResult extends CacheResult {
         private final FileObject artifactRoot;
         private final String binFileName;
 
@@ -121,7 +119,7 @@ public final class GradleCacheBinaryForSourceQuery extends AbstractBinaryForSour
         }
 
         @Override
-        public URL[] getRoots() {
+        protected URL[] findRoots() {
             // The cache directory of Gradle looks like this:
             //
             // ...... \\HASH_OF_SOURCE\\binary-sources.XXX
@@ -132,19 +130,9 @@ public final class GradleCacheBinaryForSourceQuery extends AbstractBinaryForSour
                     ? new URL[]{binFile.toURL()}
                     : NO_ROOTS;
         }
-
-        @Override
-        public void addChangeListener(ChangeListener l) {
-            CHANGES.addChangeListener(l);
-        }
-
-        @Override
-        public void removeChangeListener(ChangeListener l) {
-            CHANGES.removeChangeListener(l);
-        }
     }
 
-    private static class OldFormatCacheResult implements Result {
+    private static class OldFormatCacheResult extends CacheResult {
         private final FileObject artifactRoot;
         private final String binFileName;
 
@@ -154,7 +142,7 @@ public final class GradleCacheBinaryForSourceQuery extends AbstractBinaryForSour
         }
 
         @Override
-        public URL[] getRoots() {
+        protected URL[] findRoots() {
             // The cache directory of Gradle looks like this:
             //
             // ...... \\source\\HASH_OF_SOURCE\\binary-sources.jar
@@ -173,15 +161,5 @@ public final class GradleCacheBinaryForSourceQuery extends AbstractBinaryForSour
             }
             return NO_ROOTS;
         }
-
-        @Override
-        public void addChangeListener(ChangeListener l) {
-            CHANGES.addChangeListener(l);
-        }
-
-        @Override
-        public void removeChangeListener(ChangeListener l) {
-            CHANGES.removeChangeListener(l);
-        }
     }
 }
@@ -1,10 +1,11 @@
 package org.netbeans.gradle.project.query;
 
 import java.io.File;
+import java.util.Arrays;
+import java.util.List;
 import javax.swing.event.ChangeListener;
 import org.jtrim.utils.ExceptionHelper;
 import org.netbeans.gradle.project.util.GradleFileUtils;
-import org.netbeans.gradle.project.util.LazyChangeSupport;
 import org.netbeans.gradle.project.util.NbFileUtils;
 import org.netbeans.gradle.project.util.NbFunction;
 import org.netbeans.gradle.project.util.NbSupplier;
@@ -14,7 +15,6 @@ import org.openide.filesystems.FileUtil;
 
 public final class GradleCacheByBinaryLookup {
     private static final FileObject[] NO_ROOTS = new FileObject[0];
-    private static final LazyChangeSupport CHANGES = LazyChangeSupport.createSwing(new EventSource());
 
     private final String searchedPackaging;
     private final NbSupplier<File> gradleUserHomeProvider;
@@ -33,10 +33,6 @@ public final class GradleCacheByBinaryLookup {
         this.binaryToSearchedEntry = binaryToSearchedEntry;
     }
 
-    public static void notifyCacheChange() {
-        CHANGES.fireChange();
-    }
-
     public SourceForBinaryQueryImplementation2.Result tryFindEntryByBinary(File binaryRoot) {
         File gradleUserHome = gradleUserHomeProvider.get();
         if (gradleUserHome == null) {
@@ -77,17 +73,25 @@ public final class GradleCacheByBinaryLookup {
         return new NewFormatCacheResult(binDir, sourceFileName);
     }
 
-    private static final class EventSource
-    implements
-            SourceForBinaryQueryImplementation2.Result,
-            LazyChangeSupport.Source {
+    private abstract static class CacheResult implements SourceForBinaryQueryImplementation2.Result {
+        private final GradleCacheChangeNotifier.ResultChanges changes;
 
-        private volatile LazyChangeSupport changes;
+        public CacheResult() {
+            this.changes = GradleCacheChangeNotifier.createResultChanges(this, new NbSupplier<List<FileObject>>() {
+                @Override
+                public List<FileObject> get() {
+                    return Arrays.asList(findRoots());
+                }
+            });
+        }
+
+        protected abstract FileObject[] findRoots();
 
         @Override
-        public void init(LazyChangeSupport changes) {
-            assert changes != null;
-            this.changes = changes;
+        public final FileObject[] getRoots() {
+            FileObject[] result = findRoots();
+            changes.rootsReturned(Arrays.asList(result));
+            return result;
         }
 
         @Override
@@ -95,11 +99,6 @@ public final class GradleCacheByBinaryLookup {
             return false;
         }
 
-        @Override
-        public FileObject[] getRoots() {
-            return NO_ROOTS;
-        }
-
         @Override
         public void addChangeListener(ChangeListener l) {
             changes.addChangeListener(l);
@@ -111,7 +110,7 @@ public final class GradleCacheByBinaryLookup {
         }
     }
 
-    private static class NewFormatCacheResult implements SourceForBinaryQueryImplementation2.Result {
+    private static class NewFormatCacheResult extends CacheResult {
         private final FileObject artifactRoot;
         private final String sourceFileName;
 
@@ -121,12 +120,7 @@ public final class GradleCacheByBinaryLookup {
         }
 
         @Override
-        public boolean preferSources() {
-            return false;
-        }
-
-        @Override
-        public FileObject[] getRoots() {
+        protected FileObject[] findRoots() {
             // The cache directory of Gradle looks like this:
             //
             // ...... \\HASH_OF_SOURCE\\binary-sources.XXX
@@ -135,19 +129,9 @@ public final class GradleCacheByBinaryLookup {
             FileObject srcFile = NbFileUtils.getFileFromASubDir(artifactRoot, sourceFileName);
             return srcFile != null ? new FileObject[]{srcFile} : NO_ROOTS;
         }
-
-        @Override
-        public void addChangeListener(ChangeListener l) {
-            CHANGES.addChangeListener(l);
-        }
-
-        @Override
-        public void removeChangeListener(ChangeListener l) {
-            CHANGES.removeChangeListener(l);
-        }
     }
 
-    private static class OldFormatCacheResult implements SourceForBinaryQueryImplementation2.Result {
+    private static class OldFormatCacheResult extends CacheResult {
         private final FileObject artifactRoot;
         private final String searchedPackaging;
         private final String searchedFileName;
@@ -159,12 +143,7 @@ public final class GradleCacheByBinaryLookup {
         }
 
         @Override
-        public boolean preferSources() {
-            return false;
-        }
-
-        @Override
-        public FileObject[] getRoots() {
+        protected FileObject[] findRoots() {
                 // The cache directory of Gradle looks like this:
             //
             // ...... \\source\\HASH_OF_SOURCE\\binary-sources.jar
@@ -177,15 +156,5 @@ public final class GradleCacheByBinaryLookup {
             FileObject searchedFile = NbFileUtils.getFileFromASubDir(searchedDir, searchedFileName);
             return searchedFile != null ? new FileObject[]{searchedFile} : NO_ROOTS;
         }
-
-        @Override
-        public void addChangeListener(ChangeListener l) {
-            CHANGES.addChangeListener(l);
-        }
-
-        @Override
-        public void removeChangeListener(ChangeListener l) {
-            CHANGES.removeChangeListener(l);
-        }
     }
 }
@@ -0,0 +1,237 @@
+package org.netbeans.gradle.project.query;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.swing.event.ChangeListener;
+import org.jtrim.concurrent.GenericUpdateTaskExecutor;
+import org.jtrim.concurrent.TaskExecutor;
+import org.jtrim.concurrent.TaskExecutors;
+import org.jtrim.concurrent.UpdateTaskExecutor;
+import org.jtrim.swing.concurrent.SwingTaskExecutor;
+import org.jtrim.utils.ExceptionHelper;
+import org.netbeans.gradle.project.util.GradleFileUtils;
+import org.netbeans.gradle.project.util.NbSupplier;
+import org.netbeans.gradle.project.util.NbTaskExecutors;
+import org.openide.util.ChangeSupport;
+
+/**
+ * Notifies the query results pointing into the cache of Gradle when the cache
+ * might have changed (e.g., after loading models, which might have downloaded
+ * new artifacts).
+ * <P>
+ * The results are not notified unconditionally: After a notification, the roots
+ * of every result having a listener are recalculated in the background and only
+ * the results whose roots have actually changed fire a change event.
+ * Notifications received before the previous check has been started are
+ * coalesced into a single check.
+ * <P>
+ * When the Gradle user home changes, every result having a listener fires a
+ * change event, because the roots of the results might still point into the
+ * cache of the previous Gradle user home.
+ * <P>
+ * The roots to compare against are the roots last returned to the clients of
+ * the result, so artifacts appearing right after a client has queried the roots
+ * are reported as well. If the roots have not been queried before the first
+ * listener is registered, they are computed in the background (on the same
+ * executor as the checks), so registering a listener does not access the file
+ * system.
+ */
+public final class GradleCacheChangeNotifier {
+    private static final Set<ResultChanges> TRACKED_RESULTS
+            = Collections.newSetFromMap(new ConcurrentHashMap<ResultChanges, Boolean>());
+
+    private static final TaskExecutor CHECK_EXECUTOR
+            = TaskExecutors.inOrderSimpleExecutor(NbTaskExecutors.DEFAULT_EXECUTOR);
+    private static final UpdateTaskExecutor CHECK_UPDATE_EXECUTOR = new GenericUpdateTaskExecutor(CHECK_EXECUTOR);
+    private static final AtomicBoolean FORCE_CHANGE = new AtomicBoolean(false);
+    private static final Runnable CHECK_TASK = new Runnable() {
+        @Override
+        public void run() {
+            checkTrackedResults();
+        }
+    };
+
+    static {
+        GradleFileUtils.GRADLE_USER_HOME.addChangeListener(new Runnable() {
+            @Override
+            public void run() {
+                FORCE_CHANGE.set(true);
+                notifyCacheChange();
+            }
+        });
+    }
+
+    public static void notifyCacheChange() {
+        CHECK_UPDATE_EXECUTOR.execute(CHECK_TASK);
+    }
+
+    private static void checkTrackedResults() {
+        boolean forceChange = FORCE_CHANGE.getAndSet(false);
+        for (ResultChanges result: TRACKED_RESULTS) {
+            result.checkForChange(forceChange);
+        }
+    }
+
+    /**
+     * Creates the change support of a query result.
+     *
+     * @param source the source of the change events. This argument cannot be
+     *   {@code null}.
+     * @param rootsProvider the provider of the current roots of the result.
+     *   The returned lists must be comparable with {@code equals}. This argument
+     *   cannot be {@code null}.
+     * @return the change support of the query result. This method never returns
+     *   {@code null}.
+     */
+    static ResultChanges createResultChanges(Object source, NbSupplier<? extends List<?>> rootsProvider) {
+        return new ResultChanges(source, rootsProvider,
+                CHECK_EXECUTOR,
+                new GenericUpdateTaskExecutor(SwingTaskExecutor.getStrictExecutor(true)));
+    }
+
+    static final class ResultChanges {
+        private final Lock mainLock;
+        private final ChangeSupport changes;
+        private final NbSupplier<? extends List<?>> rootsProvider;
+        private final UpdateTaskExecutor rootsInitExecutor;
+        private final Runnable rootsInitializer;
+        private final UpdateTaskExecutor eventExecutor;
+        private final Runnable eventDispatcher;
+
+        // The roots last returned to the clients or last checked while having
+        // a listener. null if the roots have not yet been computed.
+        private List<?> lastRoots;
+
+        ResultChanges(
+                Object source,
+                NbSupplier<? extends List<?>> rootsProvider,
+                TaskExecutor checkExecutor,
+                UpdateTaskExecutor eventExecutor) {
+            ExceptionHelper.checkNotNullArgument(source, "source");
+            ExceptionHelper.checkNotNullArgument(rootsProvider, "rootsProvider");
+            ExceptionHelper.checkNotNullArgument(checkExecutor, "checkExecutor");
+            ExceptionHelper.checkNotNullArgument(eventExecutor, "eventExecutor");
+
+            this.mainLock = new ReentrantLock();
+            this.changes = new ChangeSupport(source);
+            this.rootsProvider = rootsProvider;
+            this.rootsInitExecutor = new GenericUpdateTaskExecutor(checkExecutor);
+            this.rootsInitializer = new Runnable() {
+                @Override
+                public void run() {
+                    initRoots();
+                }
+            };
+            this.eventExecutor = eventExecutor;
+            this.eventDispatcher = new Runnable() {
+                @Override
+                public void run() {
+                    changes.fireChange();
+                }
+            };
+            this.lastRoots = null;
+        }
+
+        /**
+         * Records the roots returned to a client of the result. Later checks
+         * compare the current roots against these roots.
+         *
+         * @param roots the roots returned to the client. This argument cannot
+         *   be {@code null}.
+         */
+        public void rootsReturned(List<?> roots) {
+            ExceptionHelper.checkNotNullArgument(roots, "roots");
+
+            mainLock.lock();
+            try {
+                lastRoots = roots;
+            } finally {
+                mainLock.unlock();
+            }
+        }
+
+        public void addChangeListener(ChangeListener listener) {
+            boolean needInit;
+
+            mainLock.lock();
+            try {
+                if (!changes.hasListeners()) {
+                    TRACKED_RESULTS.add(this);
+                }
+                changes.addChangeListener(listener);
+                needInit = lastRoots == null;
+            } finally {
+                mainLock.unlock();
+            }
+
+            if (needInit) {
+                rootsInitExecutor.execute(rootsInitializer);
+            }
+        }
+
+        private void initRoots() {
+            List<?> currentRoots = rootsProvider.get();
+
+            mainLock.lock();
+            try {
+                if (changes.hasListeners() && lastRoots == null) {
+                    lastRoots = currentRoots;
+                }
+            } finally {
+                mainLock.unlock();
+            }
+        }
+
+        public void removeChangeListener(ChangeListener listener) {
+            mainLock.lock();
+            try {
+                changes.removeChangeListener(listener);
+                if (!changes.hasListeners()) {
+                    TRACKED_RESULTS.remove(this);
+                }
+            } finally {
+                mainLock.unlock();
+            }
+        }
+
+        void checkForChange() {
+            checkForChange(false);
+        }
+
+        void checkForChange(boolean forceChange) {
+            List<?> currentRoots = rootsProvider.get();
+
+            boolean changed;
+            mainLock.lock();
+            try {
+                if (!changes.hasListeners()) {
+                    return;
+                }
+
+                if (forceChange) {
+                    changed = true;
+                }
+                else {
+                    // Without previous roots, there is nothing to compare to.
+                    changed = lastRoots != null && !currentRoots.equals(lastRoots);
+                }
+                lastRoots = currentRoots;
+            } finally {
+                mainLock.unlock();
+            }
+
+            if (changed) {
+                eventExecutor.execute(eventDispatcher);
+            }
+        }
+    }
+
+    private GradleCacheChangeNotifier() {
+        throw new AssertionError();
+    }
+}
@@ -12,6 +12,7 @@ import java.util.EnumMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.locks.ReentrantLock;
@@ -26,13 +27,19 @@ import org.netbeans.gradle.project.properties.ScriptPlatform;
 import org.netbeans.gradle.project.properties.global.CommonGlobalSettings;
 import org.netbeans.gradle.project.script.DefaultScriptFileProvider;
 import org.netbeans.gradle.project.script.ScriptFileProvider;
+import org.netbeans.gradle.project.util.GradleFileUtils;
 import org.netbeans.gradle.project.util.NbTaskExecutors;
+import org.netbeans.gradle.project.util.UrlFactory;
 import org.netbeans.spi.java.classpath.ClassPathFactory;
 import org.netbeans.spi.java.classpath.ClassPathImplementation;
 import org.netbeans.spi.java.classpath.ClassPathProvider;
 import org.netbeans.spi.java.classpath.PathResourceImplementation;
 import org.netbeans.spi.java.classpath.support.ClassPathSupport;
+import org.openide.filesystems.FileChangeAdapter;
+import org.openide.filesystems.FileChangeListener;
+import org.openide.filesystems.FileEvent;
 import org.openide.filesystems.FileObject;
+import org.openide.filesystems.FileUtil;
 import org.openide.util.lookup.ServiceProvider;
 import org.openide.util.lookup.ServiceProviders;
 
@@ -40,6 +47,25 @@ import org.openide.util.lookup.ServiceProviders;
 public final class GradleFilesClassPathProvider implements ClassPathProvider {
     private static final Logger LOGGER = Logger.getLogger(GradleFilesClassPathProvider.class.getName());
 
+    private static final String GRADLE_CORE_JAR_PREFIX = "gradle-core-";
+
+    /**
+     * The JARs of the Gradle distribution which might be referenced by build
+     * scripts. The rest of the JARs are implementation details of Gradle
+     * and only slow down indexing. Groovy is intentionally missing because
+     * the Groovy support provides its own.
+     */
+    private static final String[] SCRIPT_API_JAR_PREFIXES = {
+        "gradle-",
+        "ant-",
+        "javax.inject-",
+        "slf4j-api-",
+    };
+
+    // Shared by every script regardless of their project: the classpath only
+    // depends on the Gradle distribution and the Gradle user home.
+    private static final ConcurrentMap<ScriptLibsKey, URL[]> SCRIPT_LIBS_CACHE = new ConcurrentHashMap<>();
+
     private volatile boolean initialized;
     private final ReentrantLock initLock;
     private final ConcurrentMap<ClassPathType, List<PathResourceImplementation>> classpathResources;
@@ -49,6 +75,10 @@ public final class GradleFilesClassPathProvider implements ClassPathProvider {
 
     private final PropertyChangeSupport changes;
 
+    private final Object apiJarWatchLock;
+    private final FileChangeListener apiJarListener;
+    private File watchedApiJar;
+
     public GradleFilesClassPathProvider() {
         this(new DefaultScriptFileProvider());
     }
@@ -62,6 +92,24 @@ public final class GradleFilesClassPathProvider implements ClassPathProvider {
         this.classpaths = new EnumMap<>(ClassPathType.class);
         this.classpathResources = new ConcurrentHashMap<>();
         this.classpathUpdateExecutor = NbTaskExecutors.newDefaultUpdateExecutor();
+        this.apiJarWatchLock = new Object();
+        this.watchedApiJar = null;
+        this.apiJarListener = new FileChangeAdapter() {
+            @Override
+            public void fileDataCreated(FileEvent fe) {
+                scheduleUpdateClassPath();
+            }
+
+            @Override
+            public void fileChanged(FileEvent fe) {
+                scheduleUpdateClassPath();
+            }
+
+            @Override
+            public void fileDeleted(FileEvent fe) {
+                scheduleUpdateClassPath();
+            }
+        };
 
         EventSource eventSource = new EventSource();
         this.changes = new PropertyChangeSupport(eventSource);
@@ -82,23 +130,136 @@ public final class GradleFilesClassPathProvider implements ClassPathProvider {
         return ClassPathFactory.createClassPath(new GradleClassPaths(classPathType));
     }
 
-    private static URL[] getGradleBinaries() {
-        FileObject gradleHome = CommonGlobalSettings.getDefault().tryGetGradleInstallation();
+    private static URL[] getGradleBinaries(FileObject gradleHomeObj, File generatedApiJarPath) {
+        if (gradleHomeObj == null) {
+            return new URL[0];
+        }
+
+        File gradleHome = FileUtil.toFile(gradleHomeObj);
         if (gradleHome == null) {
             return new URL[0];
         }
 
-        return GradleHomeClassPathProvider.getGradleLibs(gradleHome, new FilenameFilter() {
+        File generatedApiJar = generatedApiJarPath != null && generatedApiJarPath.isFile()
+                ? generatedApiJarPath
+                : null;
+        ScriptLibsKey key = new ScriptLibsKey(gradleHome, generatedApiJar);
+
+        URL[] result = SCRIPT_LIBS_CACHE.get(key);
+        if (result == null) {
+            result = getGradleBinaries(key, gradleHomeObj);
+            // Do not cache an empty result because the Gradle home might
+            // still be being installed.
+            if (result.length > 0) {
+                URL[] prevResult = SCRIPT_LIBS_CACHE.putIfAbsent(key, result);
+                if (prevResult != null) {
+                    result = prevResult;
+                }
+            }
+        }
+        return result.clone();
+    }
+
+    private static URL[] getGradleBinaries(ScriptLibsKey key, FileObject gradleHomeObj) {
+        File generatedApiJar = key.generatedApiJar;
+        if (generatedApiJar != null) {
+            // The JAR generated for gradleApi() contains the whole public API
+            // of Gradle (with relocated dependencies), so there is no need
+            // to add the JARs of the distribution one by one.
+            URL url = UrlFactory.getDefaultArchiveOrDirFactory().toUrl(generatedApiJar);
+            if (url != null) {
+                LOGGER.log(Level.FINE, "Using the generated Gradle API JAR for .gradle files: {0}", generatedApiJar);
+                return new URL[]{url};
+            }
+        }
+
+        return GradleHomeClassPathProvider.getGradleLibs(gradleHomeObj, new FilenameFilter() {
             @Override
             public boolean accept(File dir, String name) {
-                String lowerCaseName = name.toLowerCase(Locale.US);
-                return !lowerCaseName.startsWith("groovy-") && lowerCaseName.endsWith(".jar");
+                return isScriptApiJar(name);
             }
         });
     }
 
+    private static boolean isScriptApiJar(String fileName) {
+        String lowerCaseName = fileName.toLowerCase(Locale.US);
+        if (!lowerCaseName.endsWith(".jar")) {
+            return false;
+        }
+
+        for (String prefix: SCRIPT_API_JAR_PREFIXES) {
+            if (lowerCaseName.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static File tryGetGeneratedApiJarPath(FileObject gradleHomeObj) {
+        if (gradleHomeObj == null) {
+            return null;
+        }
+
+        File gradleHome = FileUtil.toFile(gradleHomeObj);
+        if (gradleHome == null) {
+            return null;
+        }
+
+        File gradleUserHome = GradleFileUtils.GRADLE_USER_HOME.getValue();
+        String gradleVersion = tryGetGradleVersion(gradleHome);
+        if (gradleUserHome == null || gradleVersion == null) {
+            return null;
+        }
+
+        File generatedJarsDir = new File(new File(new File(gradleUserHome, "caches"), gradleVersion), "generated-gradle-jars");
+        return new File(generatedJarsDir, "gradle-api-" + gradleVersion + ".jar");
+    }
+
+    /**
+     * Listens for the JAR generated for gradleApi() (even if it does not exist
+     * yet), so that the scripts switch to it as soon as Gradle creates it,
+     * without having to reopen the projects.
+     */
+    private void watchGeneratedApiJar(File apiJarPath) {
+        synchronized (apiJarWatchLock) {
+            if (Objects.equals(watchedApiJar, apiJarPath)) {
+                return;
+            }
+
+            if (watchedApiJar != null) {
+                FileUtil.removeFileChangeListener(apiJarListener, watchedApiJar);
+            }
+            watchedApiJar = apiJarPath;
+            if (apiJarPath != null) {
+                FileUtil.addFileChangeListener(apiJarListener, apiJarPath);
+            }
+        }
+    }
+
+    private static String tryGetGradleVersion(File gradleHome) {
+        File libDir = GradleFileUtils.getLibDirOfGradle(gradleHome);
+        String[] fileNames = libDir.list();
+        if (fileNames == null) {
+            return null;
+        }
+
+        for (String fileName: fileNames) {
+            if (fileName.startsWith(GRADLE_CORE_JAR_PREFIX) && fileName.endsWith(".jar")) {
+                String version = fileName.substring(GRADLE_CORE_JAR_PREFIX.length(), fileName.length() - ".jar".length());
+                if (!version.isEmpty() && Character.isDigit(version.charAt(0))) {
+                    return version;
+                }
+            }
+        }
+        return null;
+    }
+
     private void updateClassPathResources() {
-        URL[] jars = getGradleBinaries();
+        FileObject gradleHomeObj = CommonGlobalSettings.getDefault().tryGetGradleInstallation();
+        File generatedApiJarPath = tryGetGeneratedApiJarPath(gradleHomeObj);
+        watchGeneratedApiJar(generatedApiJarPath);
+
+        URL[] jars = getGradleBinaries(gradleHomeObj, generatedApiJarPath);
         if (LOGGER.isLoggable(Level.FINE)) {
             LOGGER.log(Level.FINE,
                     "Updating the .gradle file classpaths to: {0}",
@@ -176,6 +337,7 @@ public final class GradleFilesClassPathProvider implements ClassPathProvider {
         CommonGlobalSettings defaultSettings = CommonGlobalSettings.getDefault();
         defaultSettings.gradleLocation().getActiveSource().addChangeListener(changeListener);
         defaultSettings.defaultJdk().getActiveSource().addChangeListener(changeListener);
+        GradleFileUtils.GRADLE_USER_HOME.addChangeListener(changeListener);
 
         setupClassPaths();
     }
@@ -250,6 +412,35 @@ public final class GradleFilesClassPathProvider implements ClassPathProvider {
         }
     }
 
+    private static final class ScriptLibsKey {
+        private final File gradleHome;
+        private final File generatedApiJar;
+
+        public ScriptLibsKey(File gradleHome, File generatedApiJar) {
+            this.gradleHome = gradleHome;
+            this.generatedApiJar = generatedApiJar;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 5;
+            hash = 41 * hash + Objects.hashCode(gradleHome);
+            hash = 41 * hash + Objects.hashCode(generatedApiJar);
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) return true;
+            if (obj == null) return false;
+            if (getClass() != obj.getClass()) return false;
+
+            final ScriptLibsKey other = (ScriptLibsKey)obj;
+            return Objects.equals(this.gradleHome, other.gradleHome)
+                    && Objects.equals(this.generatedApiJar, other.generatedApiJar);
+        }
+    }
+
     private enum ClassPathType {
         BOOT,
         COMPILE,
@@ -0,0 +1,324 @@
+package org.netbeans.gradle.project.util;
+
+import java.lang.ref.WeakReference;
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.jtrim.utils.ExceptionHelper;
+import org.openide.util.Utilities;
+
+/**
+ * Defines a thread-safe map referencing its values through weak references.
+ * That is, the map does not prevent its values from being garbage collected,
+ * and once a value is garbage collected, its entry disappears from the map.
+ * <P>
+ * Reading the map does not require locking. The entries of the garbage
+ * collected values are removed by the active reference queue of NetBeans (see
+ * {@link Utilities#activeReferenceQueue()}), so the threads accessing the map
+ * never have to do the cleanup.
+ * <P>
+ * The views of this map (e.g., {@link #values() values()}) are backed by the
+ * map and their iterators are weakly consistent, in the same way as the ones
+ * of {@code ConcurrentHashMap}. They never return entries whose value was
+ * already garbage collected.
+ * <P>
+ * Neither the keys nor the values of this map can be {@code null}.
+ *
+ * @param <K> the type of the keys of the map
+ * @param <V> the type of the values of the map
+ */
+public final class ConcurrentWeakValueMap<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V> {
+    private final ConcurrentMap<K, ValueRef<K, V>> wrappedMap;
+
+    public ConcurrentWeakValueMap() {
+        this.wrappedMap = new ConcurrentHashMap<>();
+    }
+
+    private ValueRef<K, V> newRef(K key, V value) {
+        return new ValueRef<>(this, key, value);
+    }
+
+    private static <V> V getValue(ValueRef<?, V> ref) {
+        return ref != null ? ref.get() : null;
+    }
+
+    /**
+     * Returns the number of entries whose value was not yet garbage collected.
+     * <P>
+     * Note that this method has to iterate over all the entries of the map
+     * (i.e., it takes linear time), since the entries of the collected values
+     * might not have been removed yet.
+     *
+     * @return the number of entries whose value was not yet garbage collected
+     */
+    @Override
+    public int size() {
+        // The values might have been garbage collected but not yet removed,
+        // so we have to count them.
+        int result = 0;
+        for (ValueRef<K, V> ref: wrappedMap.values()) {
+            if (ref.get() != null) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (ValueRef<K, V> ref: wrappedMap.values()) {
+            if (ref.get() != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public V get(Object key) {
+        ExceptionHelper.checkNotNullArgument(key, "key");
+        return getValue(wrappedMap.get(key));
+    }
+
+    @Override
+    public V put(K key, V value) {
+        ExceptionHelper.checkNotNullArgument(key, "key");
+        ExceptionHelper.checkNotNullArgument(value, "value");
+
+        return getValue(wrappedMap.put(key, newRef(key, value)));
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        ExceptionHelper.checkNotNullArgument(key, "key");
+        ExceptionHelper.checkNotNullArgument(value, "value");
+
+        ValueRef<K, V> newRef = newRef(key, value);
+        while (true) {
+            ValueRef<K, V> prevRef = wrappedMap.putIfAbsent(key, newRef);
+            if (prevRef == null) {
+                return null;
+            }
+
+            V prevValue = prevRef.get();
+            if (prevValue != null) {
+                return prevValue;
+            }
+
+            // The previous value was garbage collected but its entry has not
+            // yet been removed.
+            if (wrappedMap.replace(key, prevRef, newRef)) {
+                return null;
+            }
+        }
+    }
+
+    @Override
+    public V remove(Object key) {
+        ExceptionHelper.checkNotNullArgument(key, "key");
+        return getValue(wrappedMap.remove(key));
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        ExceptionHelper.checkNotNullArgument(key, "key");
+        if (value == null) {
+            return false;
+        }
+
+        ValueRef<K, V> ref = wrappedMap.get(key);
+        if (ref == null || !value.equals(ref.get())) {
+            return false;
+        }
+        return wrappedMap.remove(key, ref);
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        ExceptionHelper.checkNotNullArgument(key, "key");
+        ExceptionHelper.checkNotNullArgument(oldValue, "oldValue");
+        ExceptionHelper.checkNotNullArgument(newValue, "newValue");
+
+        ValueRef<K, V> ref = wrappedMap.get(key);
+        if (ref == null || !oldValue.equals(ref.get())) {
+            return false;
+        }
+        return wrappedMap.replace(key, ref, newRef(key, newValue));
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        ExceptionHelper.checkNotNullArgument(key, "key");
+        ExceptionHelper.checkNotNullArgument(value, "value");
+
+        ValueRef<K, V> newRef = newRef(key, value);
+        while (true) {
+            ValueRef<K, V> ref = wrappedMap.get(key);
+            V prevValue = getValue(ref);
+            if (prevValue == null) {
+                return null;
+            }
+
+            if (wrappedMap.replace(key, ref, newRef)) {
+                return prevValue;
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        wrappedMap.clear();
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<Entry<K, V>>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return new EntryItr();
+            }
+
+            @Override
+            public int size() {
+                return ConcurrentWeakValueMap.this.size();
+            }
+
+            @Override
+            public boolean isEmpty() {
+                return ConcurrentWeakValueMap.this.isEmpty();
+            }
+
+            @Override
+            public void clear() {
+                ConcurrentWeakValueMap.this.clear();
+            }
+        };
+    }
+
+    @Override
+    public Collection<V> values() {
+        return new AbstractCollection<V>() {
+            @Override
+            public Iterator<V> iterator() {
+                final EntryItr entryItr = new EntryItr();
+                return new Iterator<V>() {
+                    @Override
+                    public boolean hasNext() {
+                        return entryItr.hasNext();
+                    }
+
+                    @Override
+                    public V next() {
+                        return entryItr.next().getValue();
+                    }
+
+                    @Override
+                    public void remove() {
+                        entryItr.remove();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return ConcurrentWeakValueMap.this.size();
+            }
+
+            @Override
+            public boolean isEmpty() {
+                return ConcurrentWeakValueMap.this.isEmpty();
+            }
+
+            @Override
+            public void clear() {
+                ConcurrentWeakValueMap.this.clear();
+            }
+        };
+    }
+
+    private final class EntryItr implements Iterator<Entry<K, V>> {
+        private final Iterator<Map.Entry<K, ValueRef<K, V>>> itr;
+        private Entry<K, V> nextEntry;
+        private ValueRef<K, V> nextRef;
+        private ValueRef<K, V> lastRef;
+
+        public EntryItr() {
+            this.itr = wrappedMap.entrySet().iterator();
+            this.lastRef = null;
+            moveToNext();
+        }
+
+        private void moveToNext() {
+            while (itr.hasNext()) {
+                Map.Entry<K, ValueRef<K, V>> next = itr.next();
+                ValueRef<K, V> ref = next.getValue();
+                V value = ref.get();
+                if (value != null) {
+                    // Keeps the value reachable until the entry is returned.
+                    nextEntry = new AbstractMap.SimpleImmutableEntry<>(next.getKey(), value);
+                    nextRef = ref;
+                    return;
+                }
+            }
+            nextEntry = null;
+            nextRef = null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextEntry != null;
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            Entry<K, V> result = nextEntry;
+            lastRef = nextRef;
+            moveToNext();
+            return result;
+        }
+
+        @Override
+        public void remove() {
+            if (lastRef == null) {
+                throw new IllegalStateException();
+            }
+
+            wrappedMap.remove(lastRef.key, lastRef);
+            lastRef = null;
+        }
+    }
+
+    private static final class ValueRef<K, V> extends WeakReference<V> implements Runnable {
+        private final ConcurrentWeakValueMap<K, V> owner;
+        private final K key;
+
+        public ValueRef(ConcurrentWeakValueMap<K, V> owner, K key, V value) {
+            super(value, Utilities.activeReferenceQueue());
+
+            this.owner = owner;
+            this.key = key;
+        }
+
+        @Override
+        public void run() {
+            // Only remove the entry if it was not overwritten since.
+            owner.wrappedMap.remove(key, this);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package org.netbeans.gradle.project.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.SwingUtilities;
+import org.jtrim.utils.ExceptionHelper;
+
+/**
+ * Executes tasks on the Event Dispatch Thread in batches. The tasks submitted
+ * before a batch is started are executed in a single event, as long as they
+ * fit into the time budget of the batch. If they do not, the remaining tasks
+ * are executed in a later event, so that the EDT can process other events (e.g.,
+ * painting) between the batches.
+ * <P>
+ * Submitting a task which is already waiting to be executed does nothing. That
+ * is, the task will only be executed once.
+ * <P>
+ * The methods of this class are safe to be called from multiple threads
+ * concurrently.
+ */
+public final class SwingBatchExecutor implements Executor {
+    private static final Logger LOGGER = Logger.getLogger(SwingBatchExecutor.class.getName());
+
+    private static final long DEFAULT_TIME_BUDGET_MS = 50;
+
+    private static final SwingBatchExecutor DEFAULT
+            = new SwingBatchExecutor(DEFAULT_TIME_BUDGET_MS, TimeUnit.MILLISECONDS);
+
+    private final long timeBudgetNanos;
+    private final Lock mainLock;
+    private final Set<Runnable> pendingTasks;
+    private final Runnable batchTask;
+    private boolean scheduled;
+
+    public SwingBatchExecutor(long timeBudget, TimeUnit unit) {
+        if (timeBudget < 0) {
+            throw new IllegalArgumentException("Illegal time budget value: " + timeBudget);
+        }
+        ExceptionHelper.checkNotNullArgument(unit, "unit");
+
+        this.timeBudgetNanos = unit.toNanos(timeBudget);
+        this.mainLock = new ReentrantLock();
+        this.pendingTasks = new LinkedHashSet<>();
+        this.batchTask = new Runnable() {
+            @Override
+            public void run() {
+                runBatch();
+            }
+        };
+        this.scheduled = false;
+    }
+
+    /**
+     * Returns the executor shared by the model updates of all the projects.
+     * The project change events (e.g., the change of the model and of the
+     * class paths) are submitted to this executor, so that the changes caused
+     * by loading the models of a build together are applied in a few bounded
+     * events on the EDT instead of one event for each project and each
+     * listener.
+     *
+     * @return the executor shared by the model updates of all the projects.
+     *   This method never returns {@code null}.
+     */
+    public static SwingBatchExecutor getDefault() {
+        return DEFAULT;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        ExceptionHelper.checkNotNullArgument(task, "task");
+
+        boolean schedule;
+        mainLock.lock();
+        try {
+            pendingTasks.add(task);
+            schedule = !scheduled;
+            scheduled = true;
+        } finally {
+            mainLock.unlock();
+        }
+
+        if (schedule) {
+            SwingUtilities.invokeLater(batchTask);
+        }
+    }
+
+    private Runnable tryPollTask() {
+        mainLock.lock();
+        try {
+            Iterator<Runnable> itr = pendingTasks.iterator();
+            if (!itr.hasNext()) {
+                scheduled = false;
+                return null;
+            }
+
+            Runnable result = itr.next();
+            itr.remove();
+            return result;
+        } finally {
+            mainLock.unlock();
+        }
+    }
+
+    private void runBatch() {
+        assert SwingUtilities.isEventDispatchThread();
+
+        long startTime = System.nanoTime();
+        Runnable task = tryPollTask();
+        while (task != null) {
+            try {
+                task.run();
+            } catch (Throwable ex) {
+                LOGGER.log(Level.SEVERE, "Unexpected exception in a task.", ex);
+            }
+
+            if (System.nanoTime() - startTime >= timeBudgetNanos) {
+                // Remains scheduled, so that the new tasks will not submit
+                // another batch.
+                SwingUtilities.invokeLater(batchTask);
+                return;
+            }
+
+            task = tryPollTask();
+        }
+    }
+}
@@ -12,7 +12,6 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.swing.Action;
 import org.jtrim.event.ListenerRef;
-import org.jtrim.swing.concurrent.SwingTaskExecutor;
 import org.jtrim.utils.ExceptionHelper;
 import org.netbeans.gradle.project.NbGradleProject;
 import org.netbeans.gradle.project.NbIcons;
@@ -67,7 +66,7 @@ implements
         this.annotationChildNodes = new AnnotationChildNodes(project);
         this.createdOnce = false;
 
-        this.refreshNotifier = new GenericChangeListenerManager(SwingTaskExecutor.getStrictExecutor(false));
+        this.refreshNotifier = GenericChangeListenerManager.getSwingNotifier();
         this.refreshNotifier.registerListener(new Runnable() {
             @Override
             public void run() {
@@ -95,6 +95,7 @@ public final class ProjectContextActionProvider implements ContextActionProvider
         projectActions.add(createProjectAction(
                 GradleActionProvider.COMMAND_RELOAD,
                 NbStrings.getReloadCommandCaption(true)));
+        projectActions.add(new ShowModelLoadProfileAction(project));
         // Add the commented code below to provide a "Refresh project node" action.
         // It was removed because it confused many, users can't easily distinguish it from "Reload project".
         // projectActions.add(NodeUtils.getRefreshNodeAction(this, NbStrings.getRefreshNodeCommandCaption()));
@@ -0,0 +1,65 @@
+package org.netbeans.gradle.project.view;
+
+import java.awt.event.ActionEvent;
+import java.io.File;
+import java.io.IOException;
+import java.util.Date;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.AbstractAction;
+import org.jtrim.utils.ExceptionHelper;
+import org.netbeans.gradle.project.NbGradleProject;
+import org.netbeans.gradle.project.NbStrings;
+import org.netbeans.gradle.project.model.ModelLoadProfile;
+import org.netbeans.gradle.project.model.NbGradleModel;
+import org.openide.windows.IOProvider;
+import org.openide.windows.InputOutput;
+import org.openide.windows.OutputWriter;
+
+/**
+ * Displays the profile of the last model load of the build of the project
+ * in an output tab (one tab per build).
+ */
+public final class ShowModelLoadProfileAction extends AbstractAction {
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger LOGGER = Logger.getLogger(ShowModelLoadProfileAction.class.getName());
+
+    private final NbGradleProject project;
+
+    public ShowModelLoadProfileAction(NbGradleProject project) {
+        super(NbStrings.getShowModelLoadProfileCaption());
+
+        ExceptionHelper.checkNotNullArgument(project, "project");
+        this.project = project;
+    }
+
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        NbGradleModel model = project.currentModel().getValue();
+        File rootProjectDir = model.getProjectDef().getRootProject().getProjectDir();
+        ModelLoadProfile profile = ModelLoadProfile.tryGetLastProfile(rootProjectDir);
+
+        String caption = NbStrings.getModelLoadProfileTabCaption(rootProjectDir.getName());
+        InputOutput io = IOProvider.getDefault().getIO(caption, false);
+        io.select();
+
+        OutputWriter output = io.getOut();
+        try {
+            output.reset();
+        } catch (IOException ex) {
+            LOGGER.log(Level.INFO, "Failed to clear the model load profile tab.", ex);
+        }
+
+        output.println(rootProjectDir.getPath());
+        if (profile != null) {
+            output.println(NbStrings.getModelLoadProfileTime(new Date(profile.getLoadTimeMillis())));
+            output.println();
+            output.print(profile.toReport());
+        }
+        else {
+            output.println(NbStrings.getNoModelLoadProfile());
+        }
+        output.close();
+    }
+}
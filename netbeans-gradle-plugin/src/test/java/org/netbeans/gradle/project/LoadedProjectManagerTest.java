@@ -0,0 +1,211 @@
+package org.netbeans.gradle.project;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.jtrim.event.ListenerRef;
+import org.junit.Test;
+import org.netbeans.gradle.project.api.entry.SampleProjectRule;
+import org.netbeans.gradle.project.model.NbGradleModel;
+import org.netbeans.gradle.project.model.NbGradleMultiProjectDef;
+import org.netbeans.gradle.project.model.NbGradleProjectTree;
+import org.netbeans.gradle.project.model.NbGradleProjectTreeTest;
+
+import static org.junit.Assert.*;
+
+public class LoadedProjectManagerTest {
+    private static final String PROJECT_NAME = "without-settings";
+
+    @ClassRule
+    public static final SampleProjectRule PROJECT_REF = SampleProjectRule.getStandardRule(
+            "/org/netbeans/gradle/project/api/entry/without-settings.zip");
+
+    private static final Path BUILD1 = Paths.get("builds", "build1");
+    private static final Path BUILD2 = Paths.get("builds", "build2");
+
+    private NbGradleProject project1;
+    private NbGradleProject project2;
+
+    @Before
+    public void setUp() throws IOException {
+        Thread.interrupted();
+
+        project1 = getGradleProject(PROJECT_NAME);
+        project2 = getGradleProject(PROJECT_NAME, "fakeSubproject");
+    }
+
+    private static NbGradleProject getGradleProject(String... projectPath) throws IOException {
+        NbGradleProject result = PROJECT_REF
+                .getUnloadedProject(projectPath)
+                .getLookup()
+                .lookup(NbGradleProject.class);
+        assertNotNull("NbGradleProject", result);
+        return result;
+    }
+
+    private static NbGradleModel createModel(Path buildDir, NbGradleProjectTree root, NbGradleProjectTree main) {
+        NbGradleMultiProjectDef projectDef = new NbGradleMultiProjectDef(root, main);
+        return new NbGradleModel(projectDef, buildDir.resolve("settings.gradle"));
+    }
+
+    private static Runnable countingListener(final AtomicInteger counter) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                counter.incrementAndGet();
+            }
+        };
+    }
+
+    private static <E> void assertContentEquals(Collection<? extends E> expected, Collection<? extends E> actual) {
+        assertEquals(new HashSet<>(expected), new HashSet<>(actual));
+        assertEquals(expected.size(), actual.size());
+    }
+
+    @Test
+    public void testProjectsOfBuild() {
+        NbGradleProjectTree child1 = NbGradleProjectTreeTest.createTree("child1");
+        NbGradleProjectTree child2 = NbGradleProjectTreeTest.createTree("child2");
+        NbGradleProjectTree root = NbGradleProjectTreeTest.createTree("root", child1, child2);
+
+        LoadedProjectManager manager = new LoadedProjectManager();
+        manager.updateProjectModel(project1, createModel(BUILD1, root, child1));
+        manager.updateProjectModel(project2, createModel(BUILD1, root, child2));
+
+        assertContentEquals(Arrays.asList(project1, project2), manager.getProjectsOfBuild(BUILD1));
+        assertEquals(3, manager.getNumberOfProjectsInBuild(BUILD1));
+        assertContentEquals(Collections.singleton(BUILD1), manager.getLoadedBuilds());
+
+        assertTrue(manager.getProjectsOfBuild(BUILD2).isEmpty());
+        assertEquals(0, manager.getNumberOfProjectsInBuild(BUILD2));
+    }
+
+    @Test
+    public void testUpdatingWithTheSameBuildKeepsProject() {
+        NbGradleProjectTree child1 = NbGradleProjectTreeTest.createTree("child1");
+        NbGradleProjectTree root = NbGradleProjectTreeTest.createTree("root", child1);
+
+        LoadedProjectManager manager = new LoadedProjectManager();
+        manager.updateProjectModel(project1, createModel(BUILD1, root, child1));
+        manager.updateProjectModel(project1, createModel(BUILD1, root, child1));
+
+        assertContentEquals(Collections.singleton(project1), manager.getProjectsOfBuild(BUILD1));
+        assertEquals(2, manager.getNumberOfProjectsInBuild(BUILD1));
+    }
+
+    @Test
+    public void testMoveProjectBetweenBuilds() {
+        NbGradleProjectTree child1 = NbGradleProjectTreeTest.createTree("child1");
+        NbGradleProjectTree child2 = NbGradleProjectTreeTest.createTree("child2");
+        NbGradleProjectTree root1 = NbGradleProjectTreeTest.createTree("root", child1, child2);
+        NbGradleProjectTree root2 = NbGradleProjectTreeTest.createTree("other");
+
+        LoadedProjectManager manager = new LoadedProjectManager();
+        manager.updateProjectModel(project1, createModel(BUILD1, root1, child1));
+        manager.updateProjectModel(project2, createModel(BUILD1, root1, child2));
+
+        manager.updateProjectModel(project1, createModel(BUILD2, root2, root2));
+
+        assertContentEquals(Collections.singleton(project2), manager.getProjectsOfBuild(BUILD1));
+        assertEquals(3, manager.getNumberOfProjectsInBuild(BUILD1));
+
+        assertContentEquals(Collections.singleton(project1), manager.getProjectsOfBuild(BUILD2));
+        assertEquals(1, manager.getNumberOfProjectsInBuild(BUILD2));
+
+        assertContentEquals(Arrays.asList(BUILD1, BUILD2), manager.getLoadedBuilds());
+    }
+
+    @Test
+    public void testMovingTheLastProjectRemovesTheBuild() {
+        NbGradleProjectTree child1 = NbGradleProjectTreeTest.createTree("child1");
+        NbGradleProjectTree root1 = NbGradleProjectTreeTest.createTree("root", child1);
+        NbGradleProjectTree root2 = NbGradleProjectTreeTest.createTree("other");
+
+        LoadedProjectManager manager = new LoadedProjectManager();
+        manager.updateProjectModel(project1, createModel(BUILD1, root1, child1));
+        manager.updateProjectModel(project1, createModel(BUILD2, root2, root2));
+
+        assertTrue(manager.getProjectsOfBuild(BUILD1).isEmpty());
+        assertEquals(0, manager.getNumberOfProjectsInBuild(BUILD1));
+
+        assertContentEquals(Collections.singleton(project1), manager.getProjectsOfBuild(BUILD2));
+        assertContentEquals(Collections.singleton(BUILD2), manager.getLoadedBuilds());
+    }
+
+    @Test
+    public void testBuildChangeListenersOfMovedProject() {
+        NbGradleProjectTree child1 = NbGradleProjectTreeTest.createTree("child1");
+        NbGradleProjectTree root1 = NbGradleProjectTreeTest.createTree("root", child1);
+        NbGradleProjectTree root2 = NbGradleProjectTreeTest.createTree("other");
+
+        LoadedProjectManager manager = new LoadedProjectManager();
+
+        AtomicInteger build1Changes = new AtomicInteger(0);
+        AtomicInteger build2Changes = new AtomicInteger(0);
+        manager.addBuildChangeListener(BUILD1, countingListener(build1Changes));
+        manager.addBuildChangeListener(BUILD2, countingListener(build2Changes));
+
+        manager.updateProjectModel(project1, createModel(BUILD1, root1, child1));
+        assertEquals(1, build1Changes.get());
+        assertEquals(0, build2Changes.get());
+
+        manager.updateProjectModel(project1, createModel(BUILD2, root2, root2));
+        assertEquals(2, build1Changes.get());
+        assertEquals(1, build2Changes.get());
+
+        // The listener is kept, so the build is notified if the project returns.
+        assertContentEquals(Collections.singleton(BUILD2), manager.getLoadedBuilds());
+        assertEquals(0, manager.getNumberOfProjectsInBuild(BUILD1));
+
+        manager.updateProjectModel(project1, createModel(BUILD1, root1, child1));
+        assertEquals(3, build1Changes.get());
+        assertEquals(2, build2Changes.get());
+    }
+
+    @Test
+    public void testUnregisteredBuildChangeListenerIsNotNotified() {
+        NbGradleProjectTree child1 = NbGradleProjectTreeTest.createTree("child1");
+        NbGradleProjectTree root = NbGradleProjectTreeTest.createTree("root", child1);
+
+        LoadedProjectManager manager = new LoadedProjectManager();
+
+        AtomicInteger buildChanges = new AtomicInteger(0);
+        ListenerRef listenerRef = manager.addBuildChangeListener(BUILD1, countingListener(buildChanges));
+        listenerRef.unregister();
+
+        manager.updateProjectModel(project1, createModel(BUILD1, root, child1));
+        assertEquals(0, buildChanges.get());
+    }
+
+    @Test
+    public void testLoadedBuildsListenerIgnoresUnchangedBuilds() {
+        NbGradleProjectTree child1 = NbGradleProjectTreeTest.createTree("child1");
+        NbGradleProjectTree child2 = NbGradleProjectTreeTest.createTree("child2");
+        NbGradleProjectTree root = NbGradleProjectTreeTest.createTree("root", child1, child2);
+
+        LoadedProjectManager manager = new LoadedProjectManager();
+
+        AtomicInteger buildsChanges = new AtomicInteger(0);
+        manager.addLoadedBuildsChangeListener(countingListener(buildsChanges));
+
+        manager.updateProjectModel(project1, createModel(BUILD1, root, child1));
+        assertEquals(1, buildsChanges.get());
+
+        manager.updateProjectModel(project1, createModel(BUILD1, root, child1));
+        assertEquals(1, buildsChanges.get());
+
+        manager.updateProjectModel(project2, createModel(BUILD1, root, child2));
+        assertEquals(2, buildsChanges.get());
+
+        NbGradleProjectTree smallerRoot = NbGradleProjectTreeTest.createTree("root", child1);
+        manager.updateProjectModel(project1, createModel(BUILD1, smallerRoot, child1));
+        assertEquals(3, buildsChanges.get());
+    }
+}
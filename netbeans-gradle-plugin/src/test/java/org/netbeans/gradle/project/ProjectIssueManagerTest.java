@@ -0,0 +1,87 @@
+package org.netbeans.gradle.project;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import org.netbeans.gradle.project.event.GenericChangeListenerManager;
+
+import static org.junit.Assert.*;
+
+public class ProjectIssueManagerTest {
+    private static ProjectIssueManager createManager(final AtomicInteger changeCount) {
+        ProjectIssueManager result = new ProjectIssueManager(new GenericChangeListenerManager());
+        result.addChangeListener(new Runnable() {
+            @Override
+            public void run() {
+                changeCount.incrementAndGet();
+            }
+        });
+        return result;
+    }
+
+    private static ProjectIssue issue(String summary) {
+        return new ProjectIssue(Collections.singleton(new ProjectIssue.Entry(ProjectIssue.Kind.ERROR, summary)));
+    }
+
+    @Test
+    public void testSetAndClearIssue() {
+        AtomicInteger changeCount = new AtomicInteger(0);
+        ProjectIssueManager manager = createManager(changeCount);
+        ProjectIssueRef ref = manager.createIssueRef();
+
+        ref.setInfo(issue("error"));
+        assertTrue(manager.hasIssues());
+        assertEquals(Arrays.asList(issue("error")), manager.getIssues());
+        assertEquals(1, changeCount.get());
+
+        ref.setInfo(null);
+        assertFalse(manager.hasIssues());
+        assertEquals(2, changeCount.get());
+    }
+
+    @Test
+    public void testEquivalentIssueDoesNotFire() {
+        AtomicInteger changeCount = new AtomicInteger(0);
+        ProjectIssueManager manager = createManager(changeCount);
+        ProjectIssueRef ref = manager.createIssueRef();
+
+        ref.setInfo(null);
+        assertEquals(0, changeCount.get());
+
+        ref.setInfo(issue("error"));
+        ref.setInfo(issue("error"));
+        assertEquals(1, changeCount.get());
+
+        ref.setInfo(issue("other error"));
+        assertEquals(2, changeCount.get());
+    }
+
+    @Test
+    public void testIssuesKeepOrderOfRefs() {
+        ProjectIssueManager manager = createManager(new AtomicInteger(0));
+        ProjectIssueRef ref1 = manager.createIssueRef();
+        ProjectIssueRef ref2 = manager.createIssueRef();
+
+        ref1.setInfo(issue("error1"));
+        ref2.setInfo(issue("error2"));
+        ref1.setInfo(issue("error1b"));
+        assertEquals(Arrays.asList(issue("error1b"), issue("error2")), manager.getIssues());
+
+        ref1.setInfo(null);
+        assertEquals(Arrays.asList(issue("error2")), manager.getIssues());
+    }
+
+    @Test
+    public void testIssuesAreSnapshots() {
+        ProjectIssueManager manager = createManager(new AtomicInteger(0));
+        ProjectIssueRef ref = manager.createIssueRef();
+
+        ref.setInfo(issue("error"));
+        Collection<ProjectIssue> issues = manager.getIssues();
+        ref.setInfo(null);
+
+        assertEquals(Arrays.asList(issue("error")), issues);
+    }
+}
@@ -2,16 +2,22 @@ package org.netbeans.gradle.project.api.entry;
 
 import com.google.common.base.Predicate;
 import com.google.common.collect.Iterables;
+import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.swing.Action;
 import javax.swing.Icon;
+import javax.swing.SwingUtilities;
 import javax.swing.event.ChangeListener;
+import org.jtrim.event.ListenerRef;
 import org.junit.Before;
 import org.junit.ClassRule;
 import org.junit.Test;
@@ -21,17 +27,21 @@ import org.netbeans.api.project.Project;
 import org.netbeans.api.project.ProjectInformation;
 import org.netbeans.api.project.SourceGroup;
 import org.netbeans.api.project.Sources;
+import org.netbeans.gradle.model.util.SerializationCaches;
+import org.netbeans.gradle.model.util.SerializationUtils;
 import org.netbeans.gradle.project.NbGradleProject;
 import org.netbeans.gradle.project.NbIcons;
 import org.netbeans.gradle.project.NbStrings;
 import org.netbeans.gradle.project.ProjectIssueManager;
 import org.netbeans.gradle.project.api.property.GradleProperty;
 import org.netbeans.gradle.project.api.task.GradleCommandExecutor;
+import org.netbeans.gradle.project.java.JavaExtension;
 import org.netbeans.gradle.project.java.nodes.JavaDependenciesNode;
 import org.netbeans.gradle.project.java.nodes.JavaExtensionNodes;
 import org.netbeans.gradle.project.java.nodes.JavaProjectContextActions;
 import org.netbeans.gradle.project.java.query.GradleClassPathProvider;
 import org.netbeans.gradle.project.java.tasks.GradleJavaBuiltInCommands;
+import org.netbeans.gradle.project.model.NbGradleModel;
 import org.netbeans.gradle.project.util.SwingTest;
 import org.netbeans.gradle.project.util.SwingTestAware;
 import org.netbeans.gradle.project.view.BuildScriptsNode;
@@ -97,6 +107,86 @@ public class SimpleJavaProjectTest extends SwingTestAware {
         // verifyClasspath(prj, foProjectSrc, ClassPath.BOOT, "android.jar", "annotations.jar");
     }
 
+    private static Object copyBySerialization(Object model) throws ClassNotFoundException {
+        if (model == null) {
+            return null;
+        }
+
+        byte[] serialized = SerializationUtils.serializeObject(model);
+        return SerializationUtils.deserializeObject(
+                serialized,
+                SerializationCaches.getDefault(),
+                model.getClass().getClassLoader());
+    }
+
+    private static Runnable countingTask(final AtomicInteger counter) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                counter.incrementAndGet();
+            }
+        };
+    }
+
+    @Test
+    public void testReloadWithSameContentFiresNoEvents() throws Exception {
+        NbGradleProject project = rootProject;
+        NbGradleModel currentModel = project.currentModel().getValue();
+
+        // An equivalent model not sharing the extension models with the
+        // current one (as if it was loaded again).
+        Map<String, Object> copiedModels = new HashMap<>();
+        for (Map.Entry<String, Object> entry: currentModel.getExtensionModels().entrySet()) {
+            copiedModels.put(entry.getKey(), copyBySerialization(entry.getValue()));
+        }
+        NbGradleModel sameModel = new NbGradleModel(
+                currentModel.getGenericInfo(),
+                copiedModels,
+                currentModel.isRootWithoutSettingsGradle());
+        assertTrue(currentModel.hasSameContent(sameModel));
+
+        FileObject javaFile = project.getProjectDirectory().getFileObject(
+                "src/main/java/org/netbeans/gradle/Sample.java");
+        ClassPathProvider classPathProvider = project.getLookup().lookup(ClassPathProvider.class);
+        ClassPath compileClassPath = classPathProvider.findClassPath(javaFile, ClassPath.COMPILE);
+        assertNotNull(compileClassPath);
+
+        final AtomicInteger classPathEvents = new AtomicInteger(0);
+        PropertyChangeListener classPathListener = new PropertyChangeListener() {
+            @Override
+            public void propertyChange(PropertyChangeEvent evt) {
+                classPathEvents.incrementAndGet();
+            }
+        };
+
+        AtomicInteger modelEvents = new AtomicInteger(0);
+        AtomicInteger javaModelEvents = new AtomicInteger(0);
+
+        JavaExtension javaExt = project.getLookup().lookup(JavaExtension.class);
+        compileClassPath.addPropertyChangeListener(classPathListener);
+        ListenerRef modelListenerRef = project.currentModel().addChangeListener(countingTask(modelEvents));
+        ListenerRef javaModelListenerRef = javaExt.addModelChangeListener(countingTask(javaModelEvents));
+        try {
+            project.tryReplaceModel(sameModel);
+
+            // Events of model changes are dispatched on the EDT.
+            SwingUtilities.invokeAndWait(new Runnable() {
+                @Override
+                public void run() {
+                }
+            });
+
+            assertSame(sameModel, project.currentModel().getValue());
+            assertEquals("Model change events", 0, modelEvents.get());
+            assertEquals("Java model change events", 0, javaModelEvents.get());
+            assertEquals("Class path change events", 0, classPathEvents.get());
+        } finally {
+            javaModelListenerRef.unregister();
+            modelListenerRef.unregister();
+            compileClassPath.removePropertyChangeListener(classPathListener);
+        }
+    }
+
     private static String[] getSingleCommands() {
         return new String[] {
             COMMAND_RUN_SINGLE,
@@ -0,0 +1,111 @@
+package org.netbeans.gradle.project.coverage;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class JacocoReportIndexTest {
+    private static final String REPORT_HEADER
+            = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+            + "<!DOCTYPE report PUBLIC \"-//JACOCO//DTD Report 1.1//EN\" \"report.dtd\">";
+
+    private static JacocoReportIndex parse(String content) throws Exception {
+        JacocoReportIndex.ReportStamp stamp = new JacocoReportIndex.ReportStamp(1000, content.length());
+        try (InputStream input = new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8))) {
+            return JacocoReportIndex.parse(stamp, input);
+        }
+    }
+
+    private static String line(int nr, int ci) {
+        return "<line nr=\"" + nr + "\" mi=\"0\" ci=\"" + ci + "\" mb=\"0\" cb=\"0\"/>";
+    }
+
+    @Test
+    public void testParseSourceFiles() throws Exception {
+        String report = REPORT_HEADER
+                + "<report name=\"test\">"
+                + "<sessioninfo id=\"s\" start=\"1\" dump=\"2\"/>"
+                + "<package name=\"org/mypackage\">"
+                + "<class name=\"org/mypackage/MyClass\">"
+                + "<method name=\"run\" desc=\"()V\" line=\"3\"/>"
+                + "</class>"
+                + "<sourcefile name=\"MyClass.java\">"
+                + line(3, 4) + line(5, 0) + line(10, 2)
+                + "<counter type=\"LINE\" missed=\"1\" covered=\"2\"/>"
+                + "</sourcefile>"
+                + "<counter type=\"LINE\" missed=\"1\" covered=\"2\"/>"
+                + "</package>"
+                + "<package name=\"org/other\">"
+                + "<sourcefile name=\"Other.java\">"
+                + line(1, 0)
+                + "</sourcefile>"
+                + "</package>"
+                + "</report>";
+
+        JacocoReportIndex index = parse(report);
+        assertEquals(2, index.getFiles().size());
+
+        JacocoFileCoverage myClass = index.tryGetFile("org/mypackage/MyClass.java");
+        assertNotNull("MyClass.java", myClass);
+        assertEquals("org.mypackage.MyClass", myClass.getDisplayName());
+        assertEquals(3, myClass.getRecordedLineCount());
+        assertEquals(2, myClass.getExecutedLineCount());
+        assertEquals(4, myClass.getHitCount(2));
+        assertEquals(0, myClass.getHitCount(4));
+        assertEquals(2, myClass.getHitCount(9));
+        assertEquals(-1, myClass.getHitCount(3));
+        assertEquals(-1, myClass.getHitCount(0));
+
+        JacocoFileCoverage other = index.tryGetFile("org/other/Other.java");
+        assertNotNull("Other.java", other);
+        assertEquals(0, other.getExecutedLineCount());
+
+        assertNull(index.tryGetFile("org/mypackage/Missing.java"));
+    }
+
+    @Test
+    public void testUnsortedLines() throws Exception {
+        String report = REPORT_HEADER
+                + "<report name=\"test\">"
+                + "<package name=\"p\">"
+                + "<sourcefile name=\"A.java\">"
+                + line(7, 1) + line(2, 3) + line(5, 0)
+                + "</sourcefile>"
+                + "</package>"
+                + "</report>";
+
+        JacocoFileCoverage coverage = parse(report).tryGetFile("p/A.java");
+        assertNotNull("A.java", coverage);
+        assertEquals(3, coverage.getRecordedLineCount());
+        assertEquals(3, coverage.getHitCount(1));
+        assertEquals(0, coverage.getHitCount(4));
+        assertEquals(1, coverage.getHitCount(6));
+    }
+
+    @Test
+    public void testLastEntryOfDuplicateLinesWins() throws Exception {
+        String report = REPORT_HEADER
+                + "<report name=\"test\">"
+                + "<package name=\"p\">"
+                + "<sourcefile name=\"A.java\">"
+                + line(3, 5) + line(3, 1) + line(1, 2)
+                + "</sourcefile>"
+                + "</package>"
+                + "</report>";
+
+        JacocoFileCoverage coverage = parse(report).tryGetFile("p/A.java");
+        assertNotNull("A.java", coverage);
+        assertEquals(2, coverage.getRecordedLineCount());
+        assertEquals(2, coverage.getHitCount(0));
+        assertEquals(1, coverage.getHitCount(2));
+    }
+
+    @Test
+    public void testEmptyReport() throws Exception {
+        JacocoReportIndex index = parse(REPORT_HEADER + "<report name=\"test\"></report>");
+        assertTrue(index.getFiles().isEmpty());
+    }
+}
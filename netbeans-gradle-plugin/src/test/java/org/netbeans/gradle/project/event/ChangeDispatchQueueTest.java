@@ -0,0 +1,226 @@
+package org.netbeans.gradle.project.event;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.swing.SwingUtilities;
+import org.jtrim.concurrent.ManualTaskExecutor;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ChangeDispatchQueueTest {
+    private static Runnable addingTask(final List<Integer> result, final int value) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                result.add(value);
+            }
+        };
+    }
+
+    private static Runnable countingTask(final AtomicInteger counter) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                counter.incrementAndGet();
+            }
+        };
+    }
+
+    private static void waitForQueue(ChangeDispatchQueue queue) throws Exception {
+        // The tasks are executed in the order they were submitted, so the
+        // previous tasks are done when this one is.
+        final CountDownLatch doneSignal = new CountDownLatch(1);
+        queue.submit(new Runnable() {
+            @Override
+            public void run() {
+                doneSignal.countDown();
+            }
+        });
+        assertTrue(doneSignal.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testExecutesInOrder() {
+        ManualTaskExecutor executor = new ManualTaskExecutor(true);
+        ChangeDispatchQueue queue = new ChangeDispatchQueue(executor);
+
+        List<Integer> result = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            queue.submit(addingTask(result, i));
+        }
+
+        assertEquals(1, executor.executeCurrentlySubmitted());
+        assertEquals(0, executor.executeCurrentlySubmitted());
+
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4), result);
+        assertEquals(5, queue.getExecutedCount());
+    }
+
+    @Test
+    public void testSameTaskIsExecutedOnce() {
+        ManualTaskExecutor executor = new ManualTaskExecutor(true);
+        ChangeDispatchQueue queue = new ChangeDispatchQueue(executor);
+
+        AtomicInteger counter = new AtomicInteger(0);
+        Runnable task = countingTask(counter);
+
+        queue.submit(task);
+        queue.submit(task);
+        executor.executeCurrentlySubmitted();
+        assertEquals(1, counter.get());
+
+        queue.submit(task);
+        executor.executeCurrentlySubmitted();
+        assertEquals(2, counter.get());
+
+        assertEquals(3, queue.getSubmittedCount());
+        assertEquals(2, queue.getExecutedCount());
+    }
+
+    @Test
+    public void testZeroBudgetExecutesTasksInSeparateBatches() {
+        ManualTaskExecutor executor = new ManualTaskExecutor(true);
+        ChangeDispatchQueue queue = new ChangeDispatchQueue(executor, 0, TimeUnit.MILLISECONDS);
+
+        List<Integer> result = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            queue.submit(addingTask(result, i));
+        }
+
+        assertEquals(1, executor.executeCurrentlySubmitted());
+        assertEquals(Arrays.asList(0), result);
+
+        // Tasks submitted later must not overtake the rest of the batch.
+        queue.submit(addingTask(result, 3));
+
+        assertEquals(1, executor.executeCurrentlySubmitted());
+        assertEquals(Arrays.asList(0, 1), result);
+
+        assertEquals(1, executor.executeCurrentlySubmitted());
+        assertEquals(1, executor.executeCurrentlySubmitted());
+        assertEquals(0, executor.executeCurrentlySubmitted());
+        assertEquals(Arrays.asList(0, 1, 2, 3), result);
+    }
+
+    @Test
+    public void testTasksSubmittedDuringBatchAreExecutedLater() {
+        ManualTaskExecutor executor = new ManualTaskExecutor(true);
+        final ChangeDispatchQueue queue = new ChangeDispatchQueue(executor);
+
+        final AtomicInteger counter1 = new AtomicInteger(0);
+        final AtomicInteger counter2 = new AtomicInteger(0);
+        final Runnable task2 = countingTask(counter2);
+        Runnable task1 = new Runnable() {
+            @Override
+            public void run() {
+                counter1.incrementAndGet();
+                queue.submit(task2);
+            }
+        };
+
+        queue.submit(task1);
+
+        assertEquals(1, executor.executeCurrentlySubmitted());
+        assertEquals(1, counter1.get());
+        assertEquals(0, counter2.get());
+
+        assertEquals(1, executor.executeCurrentlySubmitted());
+        assertEquals(1, counter2.get());
+
+        assertEquals(0, executor.executeCurrentlySubmitted());
+    }
+
+    @Test
+    public void testTaskCycleDoesNotBlockTheExecutor() {
+        ManualTaskExecutor executor = new ManualTaskExecutor(true);
+        final ChangeDispatchQueue queue = new ChangeDispatchQueue(executor);
+
+        final AtomicInteger counter = new AtomicInteger(0);
+        final Runnable[] tasks = new Runnable[2];
+        for (int i = 0; i < tasks.length; i++) {
+            final int otherIndex = (i + 1) % tasks.length;
+            tasks[i] = new Runnable() {
+                @Override
+                public void run() {
+                    counter.incrementAndGet();
+                    queue.submit(tasks[otherIndex]);
+                }
+            };
+        }
+
+        queue.submit(tasks[0]);
+        for (int i = 1; i <= 10; i++) {
+            assertEquals(1, executor.executeCurrentlySubmitted());
+            assertEquals(i, counter.get());
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void testSwingQueueExecutesOnTheEdt() throws Exception {
+        ChangeDispatchQueue queue = ChangeDispatchQueue.getSwingQueue();
+
+        final List<Integer> result = Collections.synchronizedList(new ArrayList<Integer>());
+        for (int i = 0; i < 5; i++) {
+            final int value = i;
+            queue.submit(new Runnable() {
+                @Override
+                public void run() {
+                    assertTrue(SwingUtilities.isEventDispatchThread());
+                    result.add(value);
+                }
+            });
+        }
+        waitForQueue(queue);
+
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4), result);
+    }
+
+    @Test(timeout = 30000)
+    public void testSwingQueueYieldsToOtherEventsWhenOverBudget() throws Exception {
+        final ChangeDispatchQueue queue = ChangeDispatchQueue.getSwingQueue();
+
+        final List<String> result = Collections.synchronizedList(new ArrayList<String>());
+        final Runnable task1 = new Runnable() {
+            @Override
+            public void run() {
+                SwingUtilities.invokeLater(new Runnable() {
+                    @Override
+                    public void run() {
+                        result.add("other");
+                    }
+                });
+
+                // Exceeds the time budget of the batches on the EDT.
+                long startTime = System.nanoTime();
+                while (System.nanoTime() - startTime < TimeUnit.MILLISECONDS.toNanos(100)) {
+                    Thread.yield();
+                }
+                result.add("task1");
+            }
+        };
+        final Runnable task2 = new Runnable() {
+            @Override
+            public void run() {
+                result.add("task2");
+            }
+        };
+
+        // Submit on the EDT, so that both tasks are in the same batch.
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                queue.submit(task1);
+                queue.submit(task2);
+            }
+        });
+        waitForQueue(queue);
+
+        assertEquals(Arrays.asList("task1", "other", "task2"), result);
+    }
+}
@@ -0,0 +1,204 @@
+package org.netbeans.gradle.project.event;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jtrim.concurrent.ManualTaskExecutor;
+import org.jtrim.event.ListenerRef;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class GenericChangeListenerManagerTest {
+    private static void executeAll(ManualTaskExecutor executor) {
+        while (executor.executeCurrentlySubmitted() > 0) {
+            // One more time to execute tasks submitted by the executed tasks.
+        }
+    }
+
+    private static Runnable countingListener(final AtomicInteger counter) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                counter.incrementAndGet();
+            }
+        };
+    }
+
+    @Test
+    public void testSyncNotification() {
+        GenericChangeListenerManager manager = new GenericChangeListenerManager();
+        AtomicInteger counter = new AtomicInteger(0);
+        manager.registerListener(countingListener(counter));
+
+        manager.fireEventually();
+        assertEquals(1, counter.get());
+        manager.fireEventually();
+        assertEquals(2, counter.get());
+
+        assertEquals(2, manager.getFiredEventCount());
+        assertEquals(2, manager.getDeliveredEventCount());
+    }
+
+    @Test
+    public void testUnregister() {
+        GenericChangeListenerManager manager = new GenericChangeListenerManager();
+        AtomicInteger counter = new AtomicInteger(0);
+        ListenerRef listenerRef = manager.registerListener(countingListener(counter));
+        assertEquals(1, manager.getListenerCount());
+
+        listenerRef.unregister();
+        assertFalse(listenerRef.isRegistered());
+        assertEquals(0, manager.getListenerCount());
+
+        manager.fireEventually();
+        assertEquals(0, counter.get());
+    }
+
+    @Test
+    public void testPendingNotificationsAreCoalesced() {
+        ManualTaskExecutor executor = new ManualTaskExecutor(true);
+        GenericChangeListenerManager manager = new GenericChangeListenerManager(executor);
+
+        AtomicInteger counter1 = new AtomicInteger(0);
+        AtomicInteger counter2 = new AtomicInteger(0);
+        manager.registerListener(countingListener(counter1));
+        manager.registerListener(countingListener(counter2));
+
+        for (int i = 0; i < 10; i++) {
+            manager.fireEventually();
+        }
+        assertEquals(0, counter1.get());
+
+        executeAll(executor);
+        assertEquals(1, counter1.get());
+        assertEquals(1, counter2.get());
+
+        assertEquals(10, manager.getFiredEventCount());
+        assertEquals(2, manager.getDeliveredEventCount());
+    }
+
+    @Test
+    public void testUnregisteredWhilePending() {
+        ManualTaskExecutor executor = new ManualTaskExecutor(true);
+        GenericChangeListenerManager manager = new GenericChangeListenerManager(executor);
+
+        AtomicInteger counter = new AtomicInteger(0);
+        ListenerRef listenerRef = manager.registerListener(countingListener(counter));
+
+        manager.fireEventually();
+        listenerRef.unregister();
+
+        executeAll(executor);
+        assertEquals(0, counter.get());
+    }
+
+    @Test
+    public void testRegisteredWhilePending() {
+        ManualTaskExecutor executor = new ManualTaskExecutor(true);
+        GenericChangeListenerManager manager = new GenericChangeListenerManager(executor);
+
+        AtomicInteger counter = new AtomicInteger(0);
+        manager.fireEventually();
+        manager.registerListener(countingListener(counter));
+
+        executeAll(executor);
+        assertEquals(1, counter.get());
+    }
+
+    @Test
+    public void testCascadeIsDispatchedInLaterBatches() {
+        ManualTaskExecutor executor = new ManualTaskExecutor(true);
+        ChangeDispatchQueue queue = new ChangeDispatchQueue(executor);
+
+        final GenericChangeListenerManager manager1 = new GenericChangeListenerManager(queue);
+        final GenericChangeListenerManager manager2 = new GenericChangeListenerManager(queue);
+        final GenericChangeListenerManager manager3 = new GenericChangeListenerManager(queue);
+
+        final List<String> calls = new ArrayList<>();
+        manager1.registerListener(new Runnable() {
+            @Override
+            public void run() {
+                calls.add("listener1");
+                manager2.fireEventually();
+                manager3.fireEventually();
+            }
+        });
+        manager2.registerListener(new Runnable() {
+            @Override
+            public void run() {
+                calls.add("listener2");
+                manager3.fireEventually();
+            }
+        });
+        manager3.registerListener(new Runnable() {
+            @Override
+            public void run() {
+                calls.add("listener3");
+            }
+        });
+
+        manager1.fireEventually();
+        assertEquals(1, executor.executeCurrentlySubmitted());
+        assertEquals(Arrays.asList("listener1"), calls);
+
+        assertEquals(1, executor.executeCurrentlySubmitted());
+        assertEquals(0, executor.executeCurrentlySubmitted());
+
+        // listener3 was notified twice before it could have been called.
+        assertEquals(Arrays.asList("listener1", "listener2", "listener3"), calls);
+        assertEquals(4, queue.getSubmittedCount());
+        assertEquals(3, queue.getExecutedCount());
+    }
+
+    @Test
+    public void testListenerCycleDoesNotBlockTheExecutor() {
+        ManualTaskExecutor executor = new ManualTaskExecutor(true);
+        ChangeDispatchQueue queue = new ChangeDispatchQueue(executor);
+
+        final GenericChangeListenerManager manager1 = new GenericChangeListenerManager(queue);
+        final GenericChangeListenerManager manager2 = new GenericChangeListenerManager(queue);
+
+        final AtomicInteger counter1 = new AtomicInteger(0);
+        final AtomicInteger counter2 = new AtomicInteger(0);
+        manager1.registerListener(new Runnable() {
+            @Override
+            public void run() {
+                counter1.incrementAndGet();
+                manager2.fireEventually();
+            }
+        });
+        manager2.registerListener(new Runnable() {
+            @Override
+            public void run() {
+                counter2.incrementAndGet();
+                manager1.fireEventually();
+            }
+        });
+
+        manager1.fireEventually();
+        assertEquals(1, executor.executeCurrentlySubmitted());
+        assertEquals(1, counter1.get());
+        assertEquals(0, counter2.get());
+
+        assertEquals(1, executor.executeCurrentlySubmitted());
+        assertEquals(1, counter1.get());
+        assertEquals(1, counter2.get());
+    }
+
+    @Test
+    public void testPausedManagerFiresAfterUnpause() {
+        GenericChangeListenerManager manager = new GenericChangeListenerManager();
+        AtomicInteger counter = new AtomicInteger(0);
+        manager.registerListener(countingListener(counter));
+
+        PausableChangeListenerManager.PauseRef pauseRef = manager.pauseManager();
+        manager.fireEventually();
+        manager.fireEventually();
+        assertEquals(0, counter.get());
+
+        pauseRef.unpause();
+        assertEquals(1, counter.get());
+    }
+}
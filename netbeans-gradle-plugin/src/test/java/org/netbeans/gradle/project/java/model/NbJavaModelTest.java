@@ -6,6 +6,7 @@ import java.util.Collections;
 import java.util.List;
 import org.junit.Test;
 import org.netbeans.gradle.model.GenericProjectProperties;
+import org.netbeans.gradle.model.java.JavaClassPaths;
 import org.netbeans.gradle.model.java.JavaCompatibilityModel;
 import org.netbeans.gradle.model.java.JavaOutputDirs;
 import org.netbeans.gradle.model.java.JavaSourceGroup;
@@ -25,18 +26,30 @@ public class NbJavaModelTest {
     }
 
     private static JavaSourceSet createSources(String name) {
+        return createSources(name, JavaClassPaths.EMPTY);
+    }
+
+    private static JavaSourceSet createSources(String name, JavaClassPaths classpaths) {
         JavaSourceSet.Builder result = new JavaSourceSet.Builder(
                 name,
                 new JavaOutputDirs(new File(name + "-out-classes"), new File(name + "-out-res"), Collections.<File>emptySet()));
         result.addSourceGroup(createSourceGroup(name));
+        result.setClasspaths(classpaths);
         return result.create();
     }
 
     private static NbJavaModule createModule(String name) {
+        return createModule(name, JavaClassPaths.EMPTY);
+    }
+
+    private static NbJavaModule createModule(String name, JavaClassPaths mainClassPaths) {
+        return createModule(name, Arrays.asList(createSources("main", mainClassPaths), createSources("test")));
+    }
+
+    private static NbJavaModule createModule(String name, List<JavaSourceSet> sources) {
         String fullName = ":apps:" + name;
         GenericProjectProperties properties = NbGradleProjectTreeTest.createProperties(name, fullName);
         JavaCompatibilityModel compatibility = new JavaCompatibilityModel("1.6", "1.7");
-        List<JavaSourceSet> sources = Arrays.asList(createSources("main"), createSources("test"));
         List<NbListedDir> listedDirs = Arrays.asList(
                 new NbListedDir("my-listed-dir", new File("listed-dir")));
         JavaTestModel testModel = JavaTestModel.getDefaulTestModel(properties.getProjectDir());
@@ -66,4 +79,49 @@ public class NbJavaModelTest {
                 source.getMainModule().getModuleDir().toString(),
                 deserialized.getMainModule().getModuleDir().toString());
     }
+
+    @Test
+    public void testHasSameClassPaths() {
+        JavaClassPaths classpaths = new JavaClassPaths(Arrays.asList(new File("lib1.jar"), new File("lib2.jar")));
+        NbJavaModule module1 = createModule("mainModule", classpaths);
+        NbJavaModule module2 = createModule("mainModule", classpaths);
+
+        assertTrue(module1.hasSameClassPaths(module2));
+        assertTrue(module2.hasSameClassPaths(module1));
+    }
+
+    @Test
+    public void testHasDifferentClassPaths() {
+        NbJavaModule module1 = createModule("mainModule",
+                new JavaClassPaths(Arrays.asList(new File("lib1.jar"), new File("lib2.jar"))));
+        NbJavaModule module2 = createModule("mainModule",
+                new JavaClassPaths(Arrays.asList(new File("lib1.jar"), new File("lib2.jar"), new File("lib3.jar"))));
+
+        assertFalse(module1.hasSameClassPaths(module2));
+        assertFalse(module2.hasSameClassPaths(module1));
+    }
+
+    @Test
+    public void testSourceSetOrderDoesNotAffectClassPaths() {
+        JavaSourceSet main = createSources("main",
+                new JavaClassPaths(Arrays.asList(new File("lib1.jar"), new File("lib2.jar"))));
+        JavaSourceSet test = createSources("test",
+                new JavaClassPaths(Arrays.asList(new File("lib3.jar"))));
+
+        NbJavaModule module1 = createModule("mainModule", Arrays.asList(main, test));
+        NbJavaModule module2 = createModule("mainModule", Arrays.asList(test, main));
+
+        assertTrue(module1.hasSameClassPaths(module2));
+        assertTrue(module2.hasSameClassPaths(module1));
+    }
+
+    @Test
+    public void testClassPathOrderAffectsClassPaths() {
+        NbJavaModule module1 = createModule("mainModule",
+                new JavaClassPaths(Arrays.asList(new File("lib1.jar"), new File("lib2.jar"))));
+        NbJavaModule module2 = createModule("mainModule",
+                new JavaClassPaths(Arrays.asList(new File("lib2.jar"), new File("lib1.jar"))));
+
+        assertFalse(module1.hasSameClassPaths(module2));
+    }
 }
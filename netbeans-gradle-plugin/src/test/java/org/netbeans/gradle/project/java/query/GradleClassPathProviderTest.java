@@ -0,0 +1,69 @@
+package org.netbeans.gradle.project.java.query;
+
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.Test;
+import org.netbeans.gradle.project.java.query.ProjectClassPathResourceBuilder.ClassPathKey;
+import org.netbeans.gradle.project.java.query.ProjectClassPathResourceBuilder.ClassPathType;
+import org.netbeans.gradle.project.java.query.ProjectClassPathResourceBuilder.SourceSetClassPathType;
+import org.netbeans.gradle.project.java.query.ProjectClassPathResourceBuilder.SpecialClassPath;
+import org.netbeans.spi.java.classpath.PathResourceImplementation;
+import org.netbeans.spi.java.classpath.support.ClassPathSupport;
+
+import static org.junit.Assert.*;
+
+public class GradleClassPathProviderTest {
+    private static PathResourceImplementation resource(String jarName) throws Exception {
+        return ClassPathSupport.createResource(new URL("jar:file:/libs/" + jarName + "!/"));
+    }
+
+    private static List<PathResourceImplementation> resources(String... jarNames) throws Exception {
+        PathResourceImplementation[] result = new PathResourceImplementation[jarNames.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = resource(jarNames[i]);
+        }
+        return Arrays.asList(result);
+    }
+
+    private static Map<ClassPathKey, List<PathResourceImplementation>> classPaths() throws Exception {
+        Map<ClassPathKey, List<PathResourceImplementation>> result = new HashMap<>();
+        result.put(new SourceSetClassPathType("main", ClassPathType.COMPILE), resources("a.jar", "b.jar"));
+        result.put(new SourceSetClassPathType("test", ClassPathType.COMPILE), resources("a.jar", "b.jar", "junit.jar"));
+        result.put(SpecialClassPath.BOOT, resources("rt.jar"));
+        return result;
+    }
+
+    @Test
+    public void testNoChange() throws Exception {
+        Set<ClassPathKey> changed = GradleClassPathProvider.getChangedClassPaths(classPaths(), classPaths());
+        assertEquals(Collections.<ClassPathKey>emptySet(), changed);
+    }
+
+    @Test
+    public void testOnlyModifiedClassPathChanges() throws Exception {
+        Map<ClassPathKey, List<PathResourceImplementation>> newClassPaths = classPaths();
+        SourceSetClassPathType testCompile = new SourceSetClassPathType("test", ClassPathType.COMPILE);
+        newClassPaths.put(testCompile, resources("a.jar", "b.jar", "junit.jar", "mockito.jar"));
+
+        Set<ClassPathKey> changed = GradleClassPathProvider.getChangedClassPaths(classPaths(), newClassPaths);
+        assertEquals(Collections.<ClassPathKey>singleton(testCompile), changed);
+    }
+
+    @Test
+    public void testAddedAndRemovedClassPathsChange() throws Exception {
+        Map<ClassPathKey, List<PathResourceImplementation>> newClassPaths = classPaths();
+        newClassPaths.remove(SpecialClassPath.BOOT);
+        SourceSetClassPathType mainRuntime = new SourceSetClassPathType("main", ClassPathType.RUNTIME);
+        newClassPaths.put(mainRuntime, resources("a.jar"));
+
+        Set<ClassPathKey> changed = GradleClassPathProvider.getChangedClassPaths(classPaths(), newClassPaths);
+        assertEquals(2, changed.size());
+        assertTrue(changed.contains(SpecialClassPath.BOOT));
+        assertTrue(changed.contains(mainRuntime));
+    }
+}
@@ -0,0 +1,107 @@
+package org.netbeans.gradle.project.java.query;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Test;
+import org.netbeans.gradle.project.java.model.NbJarOutput;
+import org.netbeans.gradle.project.util.NbPredicate;
+
+import static org.junit.Assert.*;
+
+public class JarOutputIndexTest {
+    private static final File PROJECT1 = new File("project1");
+    private static final File PROJECT2 = new File("project2");
+
+    private static JarOutputIndex createIndex(final Set<File> loadedProjects) {
+        return new JarOutputIndex(new NbPredicate<File>() {
+            @Override
+            public boolean test(File projectDir) {
+                return loadedProjects.contains(projectDir);
+            }
+        });
+    }
+
+    private static JarOutputIndex createIndex() {
+        return createIndex(new HashSet<>(Arrays.asList(PROJECT1, PROJECT2)));
+    }
+
+    private static NbJarOutput jar(String taskName, File projectDir, String jarName, String... classDirs) {
+        Set<File> classDirFiles = new HashSet<>();
+        for (String classDir: classDirs) {
+            classDirFiles.add(new File(projectDir, classDir));
+        }
+        return new NbJarOutput(taskName, new File(projectDir, jarName), classDirFiles);
+    }
+
+    private static Set<File> classDirs(File projectDir, String... classDirs) {
+        Set<File> result = new HashSet<>();
+        for (String classDir: classDirs) {
+            result.add(new File(projectDir, classDir));
+        }
+        return result;
+    }
+
+    @Test
+    public void testLookupByJarName() {
+        JarOutputIndex index = createIndex();
+        index.updateProject(PROJECT1, Arrays.asList(jar("jar", PROJECT1, "lib.jar", "classes")));
+
+        assertEquals(classDirs(PROJECT1, "classes"), index.tryGetClassDirs(new File("other/dir/LIB.jar")));
+        assertNull(index.tryGetClassDirs(new File("unknown.jar")));
+    }
+
+    @Test
+    public void testUpdateReplacesOutputs() {
+        JarOutputIndex index = createIndex();
+        index.updateProject(PROJECT1, Arrays.asList(jar("jar", PROJECT1, "lib.jar", "classes")));
+        index.updateProject(PROJECT1, Arrays.asList(jar("jar", PROJECT1, "lib2.jar", "classes2")));
+
+        assertNull(index.tryGetClassDirs(new File("lib.jar")));
+        assertEquals(classDirs(PROJECT1, "classes2"), index.tryGetClassDirs(new File("lib2.jar")));
+    }
+
+    @Test
+    public void testRemoveProject() {
+        JarOutputIndex index = createIndex();
+        index.updateProject(PROJECT1, Arrays.asList(jar("jar", PROJECT1, "lib.jar", "classes")));
+        index.removeProject(PROJECT1);
+
+        assertNull(index.tryGetClassDirs(new File("lib.jar")));
+    }
+
+    @Test
+    public void testPrefersDefaultJar() {
+        JarOutputIndex index = createIndex();
+        index.updateProject(PROJECT1, Arrays.asList(jar("otherJar", PROJECT1, "lib.jar", "other")));
+        index.updateProject(PROJECT2, Arrays.asList(jar("jar", PROJECT2, "lib.jar", "classes")));
+
+        assertEquals(classDirs(PROJECT2, "classes"), index.tryGetClassDirs(new File("lib.jar")));
+    }
+
+    @Test
+    public void testIgnoresEmptyClassDirs() {
+        JarOutputIndex index = createIndex();
+        index.updateProject(PROJECT1, Arrays.asList(jar("jar", PROJECT1, "lib.jar")));
+        assertNull(index.tryGetClassDirs(new File("lib.jar")));
+
+        index.updateProject(PROJECT2, Arrays.asList(jar("otherJar", PROJECT2, "lib.jar", "classes")));
+        assertEquals(classDirs(PROJECT2, "classes"), index.tryGetClassDirs(new File("lib.jar")));
+    }
+
+    @Test
+    public void testIgnoresUnloadedProjects() {
+        Set<File> loadedProjects = new HashSet<>(Arrays.asList(PROJECT1, PROJECT2));
+        JarOutputIndex index = createIndex(loadedProjects);
+        index.updateProject(PROJECT1, Arrays.asList(jar("jar", PROJECT1, "lib.jar", "classes")));
+        index.updateProject(PROJECT2, Collections.<NbJarOutput>emptyList());
+
+        loadedProjects.remove(PROJECT1);
+        assertNull(index.tryGetClassDirs(new File("lib.jar")));
+
+        loadedProjects.add(PROJECT1);
+        assertNull("Removed outputs", index.tryGetClassDirs(new File("lib.jar")));
+    }
+}
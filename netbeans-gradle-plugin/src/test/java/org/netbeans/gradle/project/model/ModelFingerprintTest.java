@@ -0,0 +1,190 @@
+package org.netbeans.gradle.project.model;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ModelFingerprintTest {
+    @Test
+    public void testEqualModels() {
+        List<String> model1 = new ArrayList<>(Arrays.asList("a", "b"));
+        List<String> model2 = new ArrayList<>(Arrays.asList("a", "b"));
+
+        assertTrue(ModelFingerprint.of(model1).isSameAs(ModelFingerprint.of(model2)));
+    }
+
+    @Test
+    public void testDifferentModels() {
+        List<String> model1 = new ArrayList<>(Arrays.asList("a", "b"));
+        List<String> model2 = new ArrayList<>(Arrays.asList("a", "c"));
+
+        assertFalse(ModelFingerprint.of(model1).isSameAs(ModelFingerprint.of(model2)));
+    }
+
+    @Test
+    public void testNullModels() {
+        assertTrue(ModelFingerprint.of(null).isSameAs(ModelFingerprint.of(null)));
+        assertFalse(ModelFingerprint.of(null).isSameAs(ModelFingerprint.of("")));
+    }
+
+    @Test
+    public void testNotSerializableModel() {
+        Object model = new Object();
+        assertFalse(ModelFingerprint.of(model).isSameAs(ModelFingerprint.of(model)));
+    }
+
+    @Test
+    public void testEqualObjectModels() {
+        TestModel model1 = new TestModel("a", Arrays.<Object>asList(new TestModel("b")));
+        TestModel model2 = new TestModel("a", Arrays.<Object>asList(new TestModel("b")));
+
+        assertTrue(ModelFingerprint.of(model1).isSameAs(ModelFingerprint.of(model2)));
+    }
+
+    @Test
+    public void testDifferentObjectModels() {
+        TestModel model1 = new TestModel("a", Arrays.<Object>asList(new TestModel("b")));
+        TestModel model2 = new TestModel("a", Arrays.<Object>asList(new TestModel("c")));
+
+        assertFalse(ModelFingerprint.of(model1).isSameAs(ModelFingerprint.of(model2)));
+    }
+
+    @Test
+    public void testSharedObjectsDoNotMatter() {
+        TestModel shared = new TestModel("b");
+        TestModel model1 = new TestModel("a", Arrays.<Object>asList(shared, shared));
+        TestModel model2 = new TestModel("a", Arrays.<Object>asList(new TestModel("b"), new TestModel("b")));
+
+        assertTrue(ModelFingerprint.of(model1).isSameAs(ModelFingerprint.of(model2)));
+    }
+
+    @Test
+    public void testTransientFieldsAreIgnored() {
+        TestModel model1 = new TestModel("a");
+        TestModel model2 = new TestModel("a");
+        model2.cache = "cached";
+
+        assertTrue(ModelFingerprint.of(model1).isSameAs(ModelFingerprint.of(model2)));
+    }
+
+    @Test
+    public void testHashOrderDoesNotMatter() {
+        // TestModel has an identity hash code, so the iteration order of the
+        // sets is unspecified.
+        Set<TestModel> elements1 = new HashSet<>();
+        Set<TestModel> elements2 = new HashSet<>();
+        for (int i = 0; i < 20; i++) {
+            elements1.add(new TestModel("e" + i));
+            elements2.add(new TestModel("e" + (19 - i)));
+        }
+
+        TestModel model1 = new TestModel("a", Collections.<Object>singletonList(elements1));
+        TestModel model2 = new TestModel("a", Collections.<Object>singletonList(elements2));
+
+        assertTrue(ModelFingerprint.of(model1).isSameAs(ModelFingerprint.of(model2)));
+    }
+
+    @Test
+    public void testOrderOfLinkedSetMatters() {
+        Set<String> elements1 = Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList("a.jar", "b.jar")));
+        Set<String> elements2 = Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList("b.jar", "a.jar")));
+
+        TestModel model1 = new TestModel("a", Collections.<Object>singletonList(elements1));
+        TestModel model2 = new TestModel("a", Collections.<Object>singletonList(elements2));
+
+        assertFalse(ModelFingerprint.of(model1).isSameAs(ModelFingerprint.of(model2)));
+    }
+
+    @Test
+    public void testCyclicModels() {
+        TestModel model1 = new TestModel("a");
+        model1.values.add(model1);
+
+        TestModel model2 = new TestModel("a");
+        model2.values.add(model2);
+
+        TestModel model3 = new TestModel("a");
+        model3.values.add(new TestModel("a"));
+
+        assertTrue(ModelFingerprint.of(model1).isSameAs(ModelFingerprint.of(model2)));
+        assertFalse(ModelFingerprint.of(model1).isSameAs(ModelFingerprint.of(model3)));
+    }
+
+    @Test
+    public void testProjectTreeCachesAreIgnored() {
+        NbGradleProjectTree tree1 = NbGradleProjectTreeTest.createTree("testapp",
+                NbGradleProjectTreeTest.createTree("child1"),
+                NbGradleProjectTreeTest.createTree("child2"));
+        NbGradleProjectTree tree2 = NbGradleProjectTreeTest.createTree("testapp",
+                NbGradleProjectTreeTest.createTree("child1"),
+                NbGradleProjectTreeTest.createTree("child2"));
+
+        // Fill the lazily calculated fields of one of the trees.
+        assertEquals(2, tree2.getNumberOfSubprojects());
+        assertNotNull(tree2.findByPath(":child1"));
+        assertSame(tree2, tree2.findByPath(":child1").getParent(tree2));
+
+        assertTrue(ModelFingerprint.of(tree1).isSameAs(ModelFingerprint.of(tree2)));
+    }
+
+    @Test
+    public void testContentWrittenByWriteObjectMatters() {
+        CustomSerializedModel model1 = new CustomSerializedModel("a", "b");
+        CustomSerializedModel model2 = new CustomSerializedModel("a", "c");
+        CustomSerializedModel model3 = new CustomSerializedModel("a", "b");
+
+        assertFalse(ModelFingerprint.of(model1).isSameAs(ModelFingerprint.of(model2)));
+        assertTrue(ModelFingerprint.of(model1).isSameAs(ModelFingerprint.of(model3)));
+    }
+
+    private static final class TestModel implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String name;
+        private final List<Object> values;
+        private transient String cache;
+
+        public TestModel(String name) {
+            this(name, Collections.emptyList());
+        }
+
+        public TestModel(String name, List<Object> values) {
+            this.name = name;
+            this.values = new ArrayList<>(values);
+            this.cache = null;
+        }
+    }
+
+    private static final class CustomSerializedModel implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String name;
+        private transient String content;
+
+        public CustomSerializedModel(String name, String content) {
+            this.name = name;
+            this.content = content;
+        }
+
+        private void writeObject(ObjectOutputStream output) throws IOException {
+            output.defaultWriteObject();
+            output.writeUTF(content);
+        }
+
+        private void readObject(ObjectInputStream input) throws IOException, ClassNotFoundException {
+            input.defaultReadObject();
+            content = input.readUTF();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package org.netbeans.gradle.project.model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+import org.netbeans.gradle.model.BuilderProfile;
+
+import static org.junit.Assert.*;
+
+public class ModelLoadProfileTest {
+    private static BuilderProfile profile(String name, long wallTimeMillis, long allocatedBytes) {
+        return new BuilderProfile(name, wallTimeMillis * 1000000L, allocatedBytes);
+    }
+
+    private static ModelLoadProfile.Entry findEntry(List<ModelLoadProfile.Entry> entries, String name) {
+        for (ModelLoadProfile.Entry entry: entries) {
+            if (name.equals(entry.getName())) {
+                return entry;
+            }
+        }
+        throw new AssertionError("Missing entry: " + name);
+    }
+
+    @Test
+    public void testBuilderTotalsAreSummed() {
+        ModelLoadProfile.Builder builder = new ModelLoadProfile.Builder();
+        builder.addProfiles(":a", Arrays.asList(profile("java", 10, 100), profile("scala", 1, 10)));
+        builder.addProfiles(":b", Arrays.asList(profile("java", 20, 200)));
+
+        ModelLoadProfile result = builder.create();
+
+        List<ModelLoadProfile.Entry> totals = result.getBuilderTotals();
+        assertEquals(2, totals.size());
+        assertEquals("java", totals.get(0).getName());
+
+        ModelLoadProfile.Entry java = findEntry(totals, "java");
+        assertEquals(30 * 1000000L, java.getWallTimeNanos());
+        assertEquals(300, java.getAllocatedBytes());
+        assertEquals(2, java.getRunCount());
+
+        ModelLoadProfile.Entry scala = findEntry(totals, "scala");
+        assertEquals(1, scala.getRunCount());
+    }
+
+    @Test
+    public void testUnknownAllocationIsPropagated() {
+        ModelLoadProfile.Builder builder = new ModelLoadProfile.Builder();
+        builder.addProfiles(":a", Arrays.asList(profile("java", 10, 100)));
+        builder.addProfiles(":b", Arrays.asList(profile("java", 10, -1)));
+        builder.addProfiles(":c", Arrays.asList(profile("java", 10, 100)));
+
+        ModelLoadProfile.Entry java = findEntry(builder.create().getBuilderTotals(), "java");
+        assertEquals(-1, java.getAllocatedBytes());
+        assertEquals(3, java.getRunCount());
+    }
+
+    @Test
+    public void testSlowestRunsAreLimited() {
+        ModelLoadProfile.Builder builder = new ModelLoadProfile.Builder();
+        for (int i = 0; i < 8; i++) {
+            builder.addProfiles(":p" + i, Arrays.asList(profile("java", i, 0)));
+        }
+
+        List<ModelLoadProfile.Entry> runs = builder.create().getSlowestRuns();
+        assertEquals(5, runs.size());
+        assertEquals(":p7: java", runs.get(0).getName());
+        assertEquals(":p3: java", runs.get(4).getName());
+
+        for (int i = 1; i < runs.size(); i++) {
+            assertTrue(runs.get(i - 1).getWallTimeNanos() >= runs.get(i).getWallTimeNanos());
+        }
+    }
+
+    @Test
+    public void testPhasesAreReported() {
+        BuilderProfile phase = profile("resolve compile", 7, -1);
+        BuilderProfile java = new BuilderProfile("java", 10 * 1000000L, 0, Collections.singletonList(phase));
+
+        ModelLoadProfile.Builder builder = new ModelLoadProfile.Builder();
+        builder.addProfiles(":a", Arrays.asList(java));
+
+        ModelLoadProfile result = builder.create();
+        List<ModelLoadProfile.Entry> phases = result.getSlowestPhases();
+        assertEquals(1, phases.size());
+        assertEquals(":a: java / resolve compile", phases.get(0).getName());
+        assertEquals(7 * 1000000L, phases.get(0).getWallTimeNanos());
+
+        String report = result.toReport();
+        assertTrue(report, report.contains("Slowest phases:"));
+        assertTrue(report, report.contains("resolve compile"));
+    }
+
+    @Test
+    public void testEmptyProfile() {
+        ModelLoadProfile result = new ModelLoadProfile.Builder().create();
+        assertTrue(result.getBuilderTotals().isEmpty());
+        assertTrue(result.getSlowestRuns().isEmpty());
+        assertFalse(result.toReport().contains("Slowest phases:"));
+    }
+}
@@ -1,6 +1,13 @@
 package org.netbeans.gradle.project.model;
 
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import org.junit.Test;
+import org.netbeans.gradle.model.GradleMultiProjectDef;
+import org.netbeans.gradle.model.GradleProjectTree;
+import org.netbeans.gradle.model.GradleTaskID;
 import org.netbeans.gradle.model.util.SerializationCache;
 import org.netbeans.gradle.model.util.SerializationUtils;
 
@@ -29,4 +36,75 @@ public class NbGradleMultiProjectDefTest {
                 source.getRootProject().getProjectDir().toString(),
                 deserialized.getRootProject().getProjectDir().toString());
     }
+
+    private static GradleProjectTree createModelTree(String name, String fullName, GradleProjectTree... children) {
+        return new GradleProjectTree(
+                createProperties(name, fullName),
+                Arrays.asList(new GradleTaskID("run", fullName + ":run")),
+                Arrays.asList(children));
+    }
+
+    @Test
+    public void testFromModelSharesRootProject() {
+        GradleProjectTree child1 = createModelTree("child1", ":child1");
+        GradleProjectTree child2 = createModelTree("child2", ":child2");
+        GradleProjectTree root = createModelTree("testapp", ":", child1, child2);
+
+        Map<File, NbGradleProjectTree> convertedRoots = new HashMap<>();
+        NbGradleMultiProjectDef def1 = NbGradleMultiProjectDef.fromModel(
+                new GradleMultiProjectDef(root, child1), convertedRoots);
+        NbGradleMultiProjectDef def2 = NbGradleMultiProjectDef.fromModel(
+                new GradleMultiProjectDef(root, child2), convertedRoots);
+
+        assertSame(def1.getRootProject(), def2.getRootProject());
+        assertSame(def1.getRootProject().findByPath(":child1"), def1.getMainProject());
+        assertSame(def2.getRootProject().findByPath(":child2"), def2.getMainProject());
+        assertSame(def1.getRootProject(), def2.getParentTree());
+        assertEquals("run", def2.getMainProject().getTasks().iterator().next().getName());
+    }
+
+    private static NbGradleProjectTree createNbTree(
+            String name,
+            String fullName,
+            String taskName,
+            NbGradleProjectTree... children) {
+        return new NbGradleProjectTree(
+                createProperties(name, fullName),
+                Arrays.asList(new GradleTaskID(taskName, fullName + ":" + taskName)),
+                Arrays.asList(children));
+    }
+
+    private static NbGradleMultiProjectDef createDeserialized(
+            String rootName,
+            String rootTaskName,
+            String mainPath) throws ClassNotFoundException {
+
+        NbGradleProjectTree child1 = createNbTree("child1", ":child1", "run");
+        NbGradleProjectTree child2 = createNbTree("child2", ":child2", "run");
+        NbGradleProjectTree root = createNbTree(rootName, ":", rootTaskName, child1, child2);
+
+        NbGradleMultiProjectDef source = new NbGradleMultiProjectDef(root, root.findByPath(mainPath));
+        byte[] serialized = SerializationUtils.serializeObject(source);
+        return (NbGradleMultiProjectDef)SerializationUtils.deserializeObject(serialized, SerializationCache.NO_CACHE);
+    }
+
+    @Test
+    public void testDeserializedRootProjectIsShared() throws ClassNotFoundException {
+        NbGradleMultiProjectDef def1 = createDeserialized("sharedapp", "build", ":child1");
+        NbGradleMultiProjectDef def2 = createDeserialized("sharedapp", "build", ":child2");
+
+        assertSame(def1.getRootProject(), def2.getRootProject());
+        assertSame(def1.getRootProject().findByPath(":child1"), def1.getMainProject());
+        assertSame(def2.getRootProject().findByPath(":child2"), def2.getMainProject());
+    }
+
+    @Test
+    public void testDeserializedRootProjectWithDifferentContentIsNotShared() throws ClassNotFoundException {
+        NbGradleMultiProjectDef def1 = createDeserialized("changedapp", "build", ":child1");
+        NbGradleMultiProjectDef def2 = createDeserialized("changedapp", "assemble", ":child2");
+
+        assertNotSame(def1.getRootProject(), def2.getRootProject());
+        assertEquals("assemble", def2.getRootProject().getTasks().iterator().next().getName());
+        assertSame(def2.getRootProject().findByPath(":child2"), def2.getMainProject());
+    }
 }
@@ -1,9 +1,12 @@
 package org.netbeans.gradle.project.properties;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
@@ -123,6 +126,42 @@ public class ConfigXmlUtilsTest {
         assertEquals(getExpectedSettings1Content(), parsedTree);
     }
 
+    @Test
+    public void testSettings1WithStreamParser() throws Exception {
+        ConfigXmlUtils.ParsedConfig parsedConfig;
+        try (InputStream input = TestResourceUtils.openResource("settings1.xml")) {
+            parsedConfig = ConfigXmlUtils.parseXml(input);
+        }
+
+        assertEquals(getExpectedSettings1Content(), parsedConfig.getConfig().create());
+
+        List<Element> auxElements = parsedConfig.getAuxElements();
+        assertEquals("auxElements.size", 4, auxElements.size());
+        assertEquals("com-junichi11-netbeans-changelf.enable", auxElements.get(0).getNodeName());
+        assertEquals("true", auxElements.get(0).getTextContent());
+        assertEquals("com-junichi11-netbeans-changelf.lf-kind", auxElements.get(1).getNodeName());
+        assertEquals("LF", auxElements.get(1).getTextContent());
+    }
+
+    @Test
+    public void testSaveAndStreamParseForSettings1() throws Exception {
+        ConfigTree settings1 = getExpectedSettings1Content();
+
+        Document document = newDocumentBuilder().newDocument();
+        Element root = document.createElement("root");
+        document.appendChild(root);
+        ConfigXmlUtils.addTree(root, settings1, DefaultConfigNodeProperty.INSTANCE);
+
+        String xml = saveXmlToString(document);
+        ConfigXmlUtils.ParsedConfig parsedConfig;
+        try (InputStream input = new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8))) {
+            parsedConfig = ConfigXmlUtils.parseXml(input);
+        }
+
+        assertEquals(settings1, parsedConfig.getConfig().create());
+        assertTrue("auxElements.isEmpty", parsedConfig.getAuxElements().isEmpty());
+    }
+
     private String saveXmlToString(Document document) throws Exception {
         StringWriter output = new StringWriter(8 * 1024);
         Result result = new StreamResult(output);
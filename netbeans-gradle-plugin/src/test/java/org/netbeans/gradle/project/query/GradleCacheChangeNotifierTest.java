@@ -0,0 +1,171 @@
+package org.netbeans.gradle.project.query;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import org.jtrim.concurrent.GenericUpdateTaskExecutor;
+import org.jtrim.concurrent.ManualTaskExecutor;
+import org.jtrim.concurrent.SyncTaskExecutor;
+import org.junit.Test;
+import org.netbeans.gradle.project.util.NbSupplier;
+
+import static org.junit.Assert.*;
+
+public class GradleCacheChangeNotifierTest {
+    private static NbSupplier<List<String>> createRootsProvider(final AtomicReference<List<String>> rootsRef) {
+        return new NbSupplier<List<String>>() {
+            @Override
+            public List<String> get() {
+                return rootsRef.get();
+            }
+        };
+    }
+
+    private static GradleCacheChangeNotifier.ResultChanges createResultChanges(
+            AtomicReference<List<String>> rootsRef) {
+
+        return new GradleCacheChangeNotifier.ResultChanges(
+                new Object(),
+                createRootsProvider(rootsRef),
+                SyncTaskExecutor.getSimpleExecutor(),
+                new GenericUpdateTaskExecutor(SyncTaskExecutor.getSimpleExecutor()));
+    }
+
+    private static ChangeListener countingListener(final AtomicInteger counter) {
+        return new ChangeListener() {
+            @Override
+            public void stateChanged(ChangeEvent e) {
+                counter.incrementAndGet();
+            }
+        };
+    }
+
+    @Test
+    public void testNoEventIfRootsAreUnchanged() {
+        AtomicReference<List<String>> rootsRef = new AtomicReference<>(Arrays.asList("a.jar"));
+        GradleCacheChangeNotifier.ResultChanges changes = createResultChanges(rootsRef);
+
+        AtomicInteger counter = new AtomicInteger(0);
+        changes.addChangeListener(countingListener(counter));
+
+        changes.checkForChange();
+        changes.checkForChange();
+        assertEquals(0, counter.get());
+    }
+
+    @Test
+    public void testEventIfRootsChanged() {
+        AtomicReference<List<String>> rootsRef = new AtomicReference<>(Arrays.<String>asList());
+        GradleCacheChangeNotifier.ResultChanges changes = createResultChanges(rootsRef);
+
+        AtomicInteger counter = new AtomicInteger(0);
+        changes.addChangeListener(countingListener(counter));
+
+        rootsRef.set(Arrays.asList("a-sources.jar"));
+        changes.checkForChange();
+        assertEquals(1, counter.get());
+
+        changes.checkForChange();
+        assertEquals(1, counter.get());
+    }
+
+    @Test
+    public void testNoEventAfterListenerRemoved() {
+        AtomicReference<List<String>> rootsRef = new AtomicReference<>(Arrays.<String>asList());
+        GradleCacheChangeNotifier.ResultChanges changes = createResultChanges(rootsRef);
+
+        AtomicInteger counter = new AtomicInteger(0);
+        ChangeListener listener = countingListener(counter);
+        changes.addChangeListener(listener);
+        changes.removeChangeListener(listener);
+
+        rootsRef.set(Arrays.asList("a-sources.jar"));
+        changes.checkForChange();
+        assertEquals(0, counter.get());
+    }
+
+    @Test
+    public void testForcedEventIfRootsAreUnchanged() {
+        AtomicReference<List<String>> rootsRef = new AtomicReference<>(Arrays.asList("a.jar"));
+        GradleCacheChangeNotifier.ResultChanges changes = createResultChanges(rootsRef);
+
+        AtomicInteger counter = new AtomicInteger(0);
+        changes.addChangeListener(countingListener(counter));
+
+        changes.checkForChange(true);
+        assertEquals(1, counter.get());
+
+        changes.checkForChange(false);
+        assertEquals(1, counter.get());
+    }
+
+    @Test
+    public void testRootsAreComputedOnCheckExecutor() {
+        final AtomicInteger rootsQueryCount = new AtomicInteger(0);
+        NbSupplier<List<String>> rootsProvider = new NbSupplier<List<String>>() {
+            @Override
+            public List<String> get() {
+                rootsQueryCount.incrementAndGet();
+                return Arrays.asList("a.jar");
+            }
+        };
+
+        ManualTaskExecutor checkExecutor = new ManualTaskExecutor(true);
+        GradleCacheChangeNotifier.ResultChanges changes = new GradleCacheChangeNotifier.ResultChanges(
+                new Object(),
+                rootsProvider,
+                checkExecutor,
+                new GenericUpdateTaskExecutor(SyncTaskExecutor.getSimpleExecutor()));
+
+        AtomicInteger counter = new AtomicInteger(0);
+        changes.addChangeListener(countingListener(counter));
+        assertEquals(0, rootsQueryCount.get());
+
+        checkExecutor.executeCurrentlySubmitted();
+        assertEquals(1, rootsQueryCount.get());
+
+        changes.checkForChange();
+        assertEquals(0, counter.get());
+    }
+
+    @Test
+    public void testEventIfRootsChangedBeforeBaselineIsComputed() {
+        AtomicReference<List<String>> rootsRef = new AtomicReference<>(Arrays.asList("a.jar"));
+        ManualTaskExecutor checkExecutor = new ManualTaskExecutor(true);
+        GradleCacheChangeNotifier.ResultChanges changes = new GradleCacheChangeNotifier.ResultChanges(
+                new Object(),
+                createRootsProvider(rootsRef),
+                checkExecutor,
+                new GenericUpdateTaskExecutor(SyncTaskExecutor.getSimpleExecutor()));
+
+        changes.rootsReturned(Arrays.<String>asList());
+
+        AtomicInteger counter = new AtomicInteger(0);
+        changes.addChangeListener(countingListener(counter));
+        assertEquals(0, checkExecutor.executeCurrentlySubmitted());
+
+        changes.checkForChange();
+        assertEquals(1, counter.get());
+    }
+
+    @Test
+    public void testReturnedRootsAreKeptWithoutListeners() {
+        AtomicReference<List<String>> rootsRef = new AtomicReference<>(Arrays.<String>asList());
+        GradleCacheChangeNotifier.ResultChanges changes = createResultChanges(rootsRef);
+
+        AtomicInteger counter = new AtomicInteger(0);
+        ChangeListener listener = countingListener(counter);
+        changes.addChangeListener(listener);
+        changes.removeChangeListener(listener);
+
+        changes.rootsReturned(rootsRef.get());
+        rootsRef.set(Arrays.asList("a-sources.jar"));
+
+        changes.addChangeListener(listener);
+        changes.checkForChange();
+        assertEquals(1, counter.get());
+    }
+}
@@ -0,0 +1,211 @@
+package org.netbeans.gradle.project.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ConcurrentWeakValueMapTest {
+    private static final long GC_TIMEOUT_MS = 10000;
+
+    private static void waitForEmpty(ConcurrentWeakValueMap<?, ?> map) throws InterruptedException {
+        long startTime = System.nanoTime();
+        while (!map.isEmpty()) {
+            if (System.nanoTime() - startTime > TimeUnit.MILLISECONDS.toNanos(GC_TIMEOUT_MS)) {
+                fail("The garbage collected values were not removed: " + map.size());
+            }
+
+            System.gc();
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void testPutAndGet() {
+        ConcurrentWeakValueMap<String, Object> map = new ConcurrentWeakValueMap<>();
+        Object value1 = new Object();
+        Object value2 = new Object();
+
+        assertNull(map.put("a", value1));
+        assertSame(value1, map.get("a"));
+        assertSame(value1, map.put("a", value2));
+        assertSame(value2, map.get("a"));
+        assertNull(map.get("b"));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void testPutIfAbsent() {
+        ConcurrentWeakValueMap<String, Object> map = new ConcurrentWeakValueMap<>();
+        Object value1 = new Object();
+        Object value2 = new Object();
+
+        assertNull(map.putIfAbsent("a", value1));
+        assertSame(value1, map.putIfAbsent("a", value2));
+        assertSame(value1, map.get("a"));
+    }
+
+    @Test
+    public void testRemove() {
+        ConcurrentWeakValueMap<String, Object> map = new ConcurrentWeakValueMap<>();
+        Object value1 = new Object();
+        Object value2 = new Object();
+
+        map.put("a", value1);
+        map.put("b", value2);
+
+        assertFalse(map.remove("a", value2));
+        assertTrue(map.remove("a", value1));
+        assertNull(map.get("a"));
+
+        assertSame(value2, map.remove("b"));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testReplace() {
+        ConcurrentWeakValueMap<String, Object> map = new ConcurrentWeakValueMap<>();
+        Object value1 = new Object();
+        Object value2 = new Object();
+        Object value3 = new Object();
+
+        assertNull(map.replace("a", value1));
+        assertNull(map.get("a"));
+
+        map.put("a", value1);
+        assertFalse(map.replace("a", value2, value3));
+        assertTrue(map.replace("a", value1, value2));
+        assertSame(value2, map.replace("a", value3));
+        assertSame(value3, map.get("a"));
+    }
+
+    @Test
+    public void testIteration() {
+        ConcurrentWeakValueMap<String, Object> map = new ConcurrentWeakValueMap<>();
+        Object value1 = new Object();
+        Object value2 = new Object();
+
+        map.put("a", value1);
+        map.put("b", value2);
+
+        Set<String> keys = new HashSet<>();
+        for (Map.Entry<String, Object> entry: map.entrySet()) {
+            keys.add(entry.getKey());
+            assertSame(map.get(entry.getKey()), entry.getValue());
+        }
+        assertEquals(new HashSet<>(Arrays.asList("a", "b")), keys);
+
+        Iterator<Object> valuesItr = map.values().iterator();
+        while (valuesItr.hasNext()) {
+            if (valuesItr.next() == value1) {
+                valuesItr.remove();
+            }
+        }
+
+        assertNull(map.get("a"));
+        assertSame(value2, map.get("b"));
+    }
+
+    @Test(timeout = 30000)
+    public void testCollectedValuesAreRemoved() throws InterruptedException {
+        ConcurrentWeakValueMap<Integer, Object> map = new ConcurrentWeakValueMap<>();
+        for (int i = 0; i < 100; i++) {
+            map.put(i, new Object());
+        }
+
+        waitForEmpty(map);
+        assertNull(map.get(0));
+        assertFalse(map.entrySet().iterator().hasNext());
+    }
+
+    @Test(timeout = 30000)
+    public void testPutIfAbsentReplacesCollectedValue() throws InterruptedException {
+        ConcurrentWeakValueMap<String, Object> map = new ConcurrentWeakValueMap<>();
+        map.put("a", new Object());
+        waitForEmpty(map);
+
+        Object value = new Object();
+        assertNull(map.putIfAbsent("a", value));
+        assertSame(value, map.get("a"));
+    }
+
+    @Test(timeout = 60000)
+    public void testConcurrentAccessUnderGcPressure() throws Throwable {
+        final ConcurrentWeakValueMap<Integer, Object> map = new ConcurrentWeakValueMap<>();
+        final int keyCount = 64;
+        final int iterationCount = 20000;
+        int threadCount = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+        final Object[] retained = new Object[keyCount];
+        for (int i = 0; i < keyCount; i += 2) {
+            retained[i] = new Object();
+            map.put(i, retained[i]);
+        }
+
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final AtomicReference<Throwable> errorRef = new AtomicReference<>(null);
+        List<Thread> threads = new ArrayList<>(threadCount);
+        for (int threadIndex = 0; threadIndex < threadCount; threadIndex++) {
+            final int seed = threadIndex;
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        startLatch.await();
+                        for (int i = 0; i < iterationCount; i++) {
+                            int key = (i * 31 + seed) % keyCount;
+                            if (key % 2 == 0) {
+                                // The retained values must never disappear.
+                                assertSame(retained[key], map.get(key));
+                                assertSame(retained[key], map.putIfAbsent(key, new Object()));
+                            }
+                            else if ((i + seed) % 3 == 0) {
+                                map.put(key, new Object());
+                            }
+                            else {
+                                map.putIfAbsent(key, new Object());
+                                map.get(key);
+                            }
+
+                            if (i % 1000 == 0) {
+                                System.gc();
+                            }
+                        }
+                    } catch (Throwable ex) {
+                        errorRef.compareAndSet(null, ex);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        startLatch.countDown();
+        for (Thread thread: threads) {
+            thread.join();
+        }
+
+        Throwable error = errorRef.get();
+        if (error != null) {
+            throw error;
+        }
+
+        for (int i = 0; i < keyCount; i += 2) {
+            assertSame(retained[i], map.get(i));
+        }
+
+        for (int i = 0; i < keyCount; i += 2) {
+            retained[i] = null;
+        }
+        waitForEmpty(map);
+    }
+}
@@ -0,0 +1,131 @@
+package org.netbeans.gradle.project.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.swing.SwingUtilities;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SwingBatchExecutorTest {
+    private static void waitForExecutor(SwingBatchExecutor executor) throws Exception {
+        // The tasks are executed in the order they were submitted, so the
+        // previous tasks are done when this one is.
+        final CountDownLatch doneSignal = new CountDownLatch(1);
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                doneSignal.countDown();
+            }
+        });
+        assertTrue(doneSignal.await(10, TimeUnit.SECONDS));
+    }
+
+    private static Runnable addingTask(final List<Integer> result, final int value) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                assertTrue(SwingUtilities.isEventDispatchThread());
+                result.add(value);
+            }
+        };
+    }
+
+    @Test
+    public void testExecutesInOrder() throws Exception {
+        SwingBatchExecutor executor = new SwingBatchExecutor(1, TimeUnit.SECONDS);
+
+        List<Integer> result = Collections.synchronizedList(new ArrayList<Integer>());
+        for (int i = 0; i < 5; i++) {
+            executor.execute(addingTask(result, i));
+        }
+        waitForExecutor(executor);
+
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4), result);
+    }
+
+    @Test
+    public void testExecutesWithZeroBudget() throws Exception {
+        SwingBatchExecutor executor = new SwingBatchExecutor(0, TimeUnit.MILLISECONDS);
+
+        List<Integer> result = Collections.synchronizedList(new ArrayList<Integer>());
+        for (int i = 0; i < 5; i++) {
+            executor.execute(addingTask(result, i));
+        }
+        waitForExecutor(executor);
+
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4), result);
+    }
+
+    @Test
+    public void testSameTaskIsExecutedOnce() throws Exception {
+        final SwingBatchExecutor executor = new SwingBatchExecutor(1, TimeUnit.SECONDS);
+
+        final AtomicInteger counter = new AtomicInteger(0);
+        final Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                counter.incrementAndGet();
+            }
+        };
+
+        // Submit on the EDT, so that the batch cannot start between the calls.
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                executor.execute(task);
+                executor.execute(task);
+            }
+        });
+        waitForExecutor(executor);
+
+        assertEquals(1, counter.get());
+
+        executor.execute(task);
+        waitForExecutor(executor);
+
+        assertEquals(2, counter.get());
+    }
+
+    @Test
+    public void testOtherEventsRunWhenOverBudget() throws Exception {
+        final SwingBatchExecutor executor = new SwingBatchExecutor(0, TimeUnit.MILLISECONDS);
+
+        final List<String> result = Collections.synchronizedList(new ArrayList<String>());
+        final Runnable task1 = new Runnable() {
+            @Override
+            public void run() {
+                SwingUtilities.invokeLater(new Runnable() {
+                    @Override
+                    public void run() {
+                        result.add("other");
+                    }
+                });
+                result.add("task1");
+            }
+        };
+        final Runnable task2 = new Runnable() {
+            @Override
+            public void run() {
+                result.add("task2");
+            }
+        };
+
+        // Submit on the EDT, so that both tasks are in the same batch.
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                executor.execute(task1);
+                executor.execute(task2);
+            }
+        });
+        waitForExecutor(executor);
+
+        assertEquals(Arrays.asList("task1", "other", "task2"), result);
+    }
+}